@@ -22,6 +22,81 @@ public interface QubTicTacToe
         final CommandLineParameters parameters = process.createCommandLineParameters()
             .setApplicationName(QubTicTacToe.applicationName)
             .setApplicationDescription(QubTicTacToe.applicationDescription);
+        final CommandLineParameter<String> widthParameter = parameters.addString("width")
+            .setValueName("<width>")
+            .setDescription("The number of columns on the board. Defaults to 3.");
+        final CommandLineParameter<String> heightParameter = parameters.addString("height")
+            .setValueName("<height>")
+            .setDescription("The number of rows on the board. Defaults to 3.");
+        final CommandLineParameter<String> winLengthParameter = parameters.addString("win-length")
+            .setValueName("<win-length>")
+            .setDescription("The number of cells in a row that a player needs to win. Defaults to 3.");
+        final CommandLineParameter<String> xPlayerParameter = parameters.addString("x-player")
+            .setValueName("<player>")
+            .setDescription("The player that controls X: " + QubTicTacToeEngines.getSpecificationNames() + ". Defaults to human.");
+        final CommandLineParameter<String> oPlayerParameter = parameters.addString("o-player")
+            .setValueName("<player>")
+            .setDescription("The player that controls O: " + QubTicTacToeEngines.getSpecificationNames() + ". Defaults to human.");
+        final CommandLineParameterBoolean solveParameter = parameters.addBoolean("solve")
+            .setDescription("Solve the empty board with 1, 2, 4, ... threads up to --threads and report the nodes per second and speedup.");
+        final CommandLineParameter<String> simulateParameter = parameters.addString("simulate")
+            .setValueName("<games>")
+            .setDescription("Play the provided number of games between the --x-player and --o-player engines without showing the board, and report the results.");
+        final CommandLineParameter<String> tournamentParameter = parameters.addString("tournament")
+            .setValueName("<players>")
+            .setDescription("Play a tournament between the provided comma-separated engine players without showing the board, and report each player's results and Elo rating.");
+        final CommandLineParameter<String> pairingParameter = parameters.addString("pairing")
+            .setValueName("<pairing>")
+            .setDescription("How --tournament pairs the players in each round: " + QubTicTacToeTournament.roundRobin + " or " + QubTicTacToeTournament.swiss + ". Defaults to " + QubTicTacToeTournament.roundRobin + ".");
+        final CommandLineParameter<String> roundsParameter = parameters.addString("rounds")
+            .setValueName("<count>")
+            .setDescription("The number of rounds that --tournament plays. Defaults to " + QubTicTacToeTournament.defaultRoundCount + ".");
+        final CommandLineParameter<String> gamesParameter = parameters.addString("games")
+            .setValueName("<count>")
+            .setDescription("The number of games that each pair of --tournament players plays in a round, alternating who plays X. Defaults to " + QubTicTacToeTournament.defaultGamesPerPairing + ".");
+        final CommandLineParameterBoolean benchmarkParameter = parameters.addBoolean("benchmark")
+            .setDescription("Run the benchmark suite and report the throughput, allocations, and garbage collections of each benchmark.");
+        final CommandLineParameterBoolean protocolParameter = parameters.addBoolean("protocol")
+            .setDescription("Read engine protocol commands (isready, newgame, position, move, go, quit) from standard input and answer with single lines.");
+        final CommandLineParameter<String> serverParameter = parameters.addString("server")
+            .setValueName("<port>")
+            .setDescription("Accept connections on the provided port and play a game with each client, against an engine or another connected client.");
+        final CommandLineParameter<String> recordParameter = parameters.addString("record")
+            .setValueName("<file>")
+            .setDescription("Append every game that is played or simulated to the binary game archive at the provided path.");
+        final CommandLineParameter<String> analyzeParameter = parameters.addString("analyze")
+            .setValueName("<file>")
+            .setDescription("Replay every game in the binary game archive at the provided path and report the results, game lengths, openings, and blunders.");
+        final CommandLineParameter<String> validateParameter = parameters.addString("validate")
+            .setValueName("<file>")
+            .setDescription("Validate the games in the file at the provided path, one line of moves per game, and report each game's outcome or first illegal move.");
+        final CommandLineParameter<String> bookParameter = parameters.addString("book")
+            .setValueName("<file>")
+            .setDescription("Play the moves of the opening book at the provided path before the engines search.");
+        final CommandLineParameter<String> buildBookParameter = parameters.addString("build-book")
+            .setValueName("<file>")
+            .setDescription("Build an opening book at the provided path from the games in --book-games, or by searching with the --x-player engine.");
+        final CommandLineParameter<String> bookGamesParameter = parameters.addString("book-games")
+            .setValueName("<file>")
+            .setDescription("The binary game archive that --build-book chooses the opening moves from.");
+        final CommandLineParameter<String> bookDepthParameter = parameters.addString("book-depth")
+            .setValueName("<plies>")
+            .setDescription("The number of moves from the start of the game that --build-book covers. Defaults to " + QubTicTacToeOpeningBook.defaultDepth + ".");
+        final CommandLineParameter<String> metricsParameter = parameters.addString("metrics")
+            .setValueName("<file>")
+            .setDescription("Measure every move and write the counters and latency histograms as JSON to the provided path when the application exits.");
+        final CommandLineParameter<String> summaryParameter = parameters.addString("summary")
+            .setValueName("<seconds>")
+            .setDescription("Measure every move and write a summary of the counters and latencies every provided number of seconds and when the application exits.");
+        final CommandLineParameter<String> retrogradeParameter = parameters.addString("retrograde")
+            .setValueName("<file>")
+            .setDescription("Generate the tablebase of every position on the board at the provided path by retrograde analysis.");
+        final CommandLineParameter<String> tablebaseParameter = parameters.addString("tablebase")
+            .setValueName("<file>")
+            .setDescription("Play the moves of the tablebase at the provided path for the positions that it contains.");
+        final CommandLineParameter<String> threadsParameter = parameters.addString("threads")
+            .setValueName("<count>")
+            .setDescription("The number of threads to use. Defaults to the number of processors.");
         final CommandLineParameterProfiler profiler = parameters.addProfiler(process, QubTicTacToe.class);
         final CommandLineParameterHelp help = parameters.addHelp();
 
@@ -32,9 +107,347 @@ public interface QubTicTacToe
 
             final CharacterWriteStream output = process.getOutputWriteStream();
             final CharacterReadStream input = process.getInputReadStream();
+
             result = QubTicTacToeParameters.create(output, input);
+
+            final Integer boardWidth = QubTicTacToe.getIntegerParameterValue(widthParameter, "width", 3, 1, QubTicTacToeGeometry.maximumDimension, output);
+            final Integer boardHeight = QubTicTacToe.getIntegerParameterValue(heightParameter, "height", 3, 1, QubTicTacToeGeometry.maximumDimension, output);
+            final Integer winLength = QubTicTacToe.getIntegerParameterValue(winLengthParameter, "win-length", 3, 1, Integer.MAX_VALUE, output);
+            if (boardWidth == null || boardHeight == null || winLength == null)
+            {
+                result = null;
+            }
+            else if (winLength > Math.max(boardWidth, boardHeight))
+            {
+                output.writeLine("The --win-length (" + winLength + ") cannot be greater than both the --width (" + boardWidth + ") and the --height (" + boardHeight + ").").await();
+                result = null;
+            }
+            else
+            {
+                result.setBoardWidth(boardWidth)
+                    .setBoardHeight(boardHeight)
+                    .setWinLength(winLength);
+            }
+
+            if (result != null)
+            {
+                final QubTicTacToeGeometry geometry = result.getGeometry();
+                final String xPlayer = QubTicTacToe.getPlayerParameterValue(xPlayerParameter, geometry, output);
+                final String oPlayer = QubTicTacToe.getPlayerParameterValue(oPlayerParameter, geometry, output);
+                if (xPlayer == null || oPlayer == null)
+                {
+                    result = null;
+                }
+                else
+                {
+                    result.setXPlayer(xPlayer)
+                        .setOPlayer(oPlayer);
+                }
+            }
+
+            if (result != null)
+            {
+                final Integer threadCount = QubTicTacToe.getIntegerParameterValue(threadsParameter, "threads", Runtime.getRuntime().availableProcessors(), 1, Integer.MAX_VALUE, output);
+                if (threadCount == null)
+                {
+                    result = null;
+                }
+                else
+                {
+                    result.setThreadCount(threadCount);
+                }
+            }
+
+            if (result != null && Boolean.TRUE.equals(solveParameter.getValue().await()))
+            {
+                if (result.getGeometry().getWordCount() != 1)
+                {
+                    output.writeLine("--solve only supports boards with up to " + Long.SIZE + " cells.").await();
+                    result = null;
+                }
+                else
+                {
+                    result.setSolve(true);
+                }
+            }
+
+            if (result != null)
+            {
+                final Integer simulateGameCount = QubTicTacToe.getIntegerParameterValue(simulateParameter, "simulate", 0, 1, Integer.MAX_VALUE, output);
+                if (simulateGameCount == null)
+                {
+                    result = null;
+                }
+                else if (simulateGameCount > 0 && (QubTicTacToeEngines.getEngineName(result.getXPlayer()).equals(QubTicTacToeEngines.human) || QubTicTacToeEngines.getEngineName(result.getOPlayer()).equals(QubTicTacToeEngines.human)))
+                {
+                    output.writeLine("--simulate requires both --x-player and --o-player to be engines.").await();
+                    result = null;
+                }
+                else
+                {
+                    result.setSimulateGameCount(simulateGameCount);
+                }
+            }
+
+            if (result != null)
+            {
+                final Integer roundCount = QubTicTacToe.getIntegerParameterValue(roundsParameter, "rounds", QubTicTacToeTournament.defaultRoundCount, 1, Integer.MAX_VALUE, output);
+                final Integer gamesPerPairing = QubTicTacToe.getIntegerParameterValue(gamesParameter, "games", QubTicTacToeTournament.defaultGamesPerPairing, 1, Integer.MAX_VALUE, output);
+                if (roundCount == null || gamesPerPairing == null)
+                {
+                    result = null;
+                }
+                else
+                {
+                    result.setTournamentRoundCount(roundCount)
+                        .setTournamentGamesPerPairing(gamesPerPairing);
+                }
+            }
+
+            if (result != null)
+            {
+                final String pairing = pairingParameter.getValue().await();
+                if (!Strings.isNullOrEmpty(pairing))
+                {
+                    final String pairingName = pairing.trim().toLowerCase();
+                    if (!QubTicTacToeTournament.isPairing(pairingName))
+                    {
+                        output.writeLine("The --pairing value " + Strings.escapeAndQuote(pairing) + " must be " + QubTicTacToeTournament.roundRobin + " or " + QubTicTacToeTournament.swiss + ".").await();
+                        result = null;
+                    }
+                    else
+                    {
+                        result.setTournamentPairing(pairingName);
+                    }
+                }
+            }
+
+            if (result != null)
+            {
+                final String tournamentText = tournamentParameter.getValue().await();
+                if (!Strings.isNullOrEmpty(tournamentText))
+                {
+                    final List<String> tournamentPlayers = List.create();
+                    for (final String player : tournamentText.split(",", -1))
+                    {
+                        tournamentPlayers.add(player.trim());
+                    }
+
+                    if (tournamentPlayers.getCount() < 2)
+                    {
+                        output.writeLine("--tournament requires at least 2 players.").await();
+                        result = null;
+                    }
+                    else
+                    {
+                        for (final String player : tournamentPlayers)
+                        {
+                            final String error = QubTicTacToeEngines.getSpecificationError(player, result.getGeometry());
+                            if (error != null)
+                            {
+                                output.writeLine(error).await();
+                                result = null;
+                                break;
+                            }
+                            else if (QubTicTacToeEngines.getEngineName(player).equals(QubTicTacToeEngines.human))
+                            {
+                                output.writeLine("--tournament players must be engines.").await();
+                                result = null;
+                                break;
+                            }
+                        }
+                        if (result != null)
+                        {
+                            result.setTournamentPlayers(tournamentPlayers);
+                        }
+                    }
+                }
+            }
+
+            if (result != null)
+            {
+                result.setBenchmark(Boolean.TRUE.equals(benchmarkParameter.getValue().await()))
+                    .setProtocol(Boolean.TRUE.equals(protocolParameter.getValue().await()));
+
+                final Integer serverPort = QubTicTacToe.getIntegerParameterValue(serverParameter, "server", -1, 0, 65535, output);
+                if (serverPort == null)
+                {
+                    result = null;
+                }
+                else
+                {
+                    result.setServerPort(serverPort);
+                }
+            }
+
+            if (result != null)
+            {
+                final String recordFilePath = recordParameter.getValue().await();
+                if (!Strings.isNullOrEmpty(recordFilePath))
+                {
+                    result.setRecordFilePath(recordFilePath);
+                }
+
+                final String analyzeFilePath = analyzeParameter.getValue().await();
+                if (!Strings.isNullOrEmpty(analyzeFilePath))
+                {
+                    result.setAnalyzeFilePath(analyzeFilePath);
+                }
+
+                final String validateFilePath = validateParameter.getValue().await();
+                if (!Strings.isNullOrEmpty(validateFilePath))
+                {
+                    result.setValidateFilePath(validateFilePath);
+                }
+
+                final String bookFilePath = bookParameter.getValue().await();
+                if (!Strings.isNullOrEmpty(bookFilePath))
+                {
+                    result.setBookFilePath(bookFilePath);
+                }
+
+                final String bookGamesFilePath = bookGamesParameter.getValue().await();
+                if (!Strings.isNullOrEmpty(bookGamesFilePath))
+                {
+                    result.setBookGamesFilePath(bookGamesFilePath);
+                }
+            }
+
+            if (result != null)
+            {
+                final Integer bookDepth = QubTicTacToe.getIntegerParameterValue(bookDepthParameter, "book-depth", QubTicTacToeOpeningBook.defaultDepth, 1, QubTicTacToeOpeningBook.maximumDepth, output);
+                final String buildBookFilePath = buildBookParameter.getValue().await();
+                if (bookDepth == null)
+                {
+                    result = null;
+                }
+                else if (!Strings.isNullOrEmpty(buildBookFilePath) && result.getBookGamesFilePath() == null && QubTicTacToeEngines.getEngineName(result.getXPlayer()).equals(QubTicTacToeEngines.human))
+                {
+                    output.writeLine("--build-book requires either --book-games or an --x-player engine to search with.").await();
+                    result = null;
+                }
+                else
+                {
+                    result.setBookDepth(bookDepth);
+                    if (!Strings.isNullOrEmpty(buildBookFilePath))
+                    {
+                        result.setBuildBookFilePath(buildBookFilePath);
+                    }
+                }
+            }
+
+            if (result != null)
+            {
+                final Integer summaryInterval = QubTicTacToe.getIntegerParameterValue(summaryParameter, "summary", 0, 0, Integer.MAX_VALUE, output);
+                final String metricsFilePath = metricsParameter.getValue().await();
+                if (summaryInterval == null)
+                {
+                    result = null;
+                }
+                else
+                {
+                    result.setSummaryInterval(summaryInterval);
+                    if (!Strings.isNullOrEmpty(metricsFilePath))
+                    {
+                        result.setMetricsFilePath(metricsFilePath);
+                    }
+                    if (summaryInterval > 0 || !Strings.isNullOrEmpty(metricsFilePath))
+                    {
+                        result.setMetrics(QubTicTacToeMetrics.create());
+                    }
+                }
+            }
+
+            if (result != null)
+            {
+                final String retrogradeFilePath = retrogradeParameter.getValue().await();
+                final String tablebaseFilePath = tablebaseParameter.getValue().await();
+                if ((!Strings.isNullOrEmpty(retrogradeFilePath) || !Strings.isNullOrEmpty(tablebaseFilePath)) && !QubTicTacToeTablebase.supports(result.getGeometry()))
+                {
+                    output.writeLine("--retrograde and --tablebase only support boards with up to " + QubTicTacToeTablebase.maximumCellCount + " cells.").await();
+                    result = null;
+                }
+                else
+                {
+                    if (!Strings.isNullOrEmpty(retrogradeFilePath))
+                    {
+                        result.setRetrogradeFilePath(retrogradeFilePath);
+                    }
+                    if (!Strings.isNullOrEmpty(tablebaseFilePath))
+                    {
+                        result.setTablebaseFilePath(tablebaseFilePath);
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Get the integer value of the provided command-line parameter. If the value isn't a valid
+     * integer between the provided bounds, then an error will be written to the output stream and
+     * null will be returned.
+     * @param parameter The parameter to get the value of.
+     * @param parameterName The name of the parameter.
+     * @param defaultValue The value to return if the parameter wasn't specified.
+     * @param minimumValue The smallest value that the parameter can have.
+     * @param maximumValue The largest value that the parameter can have.
+     * @param output The stream to write errors to.
+     * @return The integer value of the parameter, or null if the value wasn't valid.
+     */
+    static Integer getIntegerParameterValue(CommandLineParameter<String> parameter, String parameterName, int defaultValue, int minimumValue, int maximumValue, CharacterWriteStream output)
+    {
+        PreCondition.assertNotNull(parameter, "parameter");
+        PreCondition.assertNotNullAndNotEmpty(parameterName, "parameterName");
+        PreCondition.assertLessThanOrEqualTo(minimumValue, maximumValue, "minimumValue");
+        PreCondition.assertNotNull(output, "output");
+
+        Integer result = defaultValue;
+        final String parameterText = parameter.getValue().await();
+        if (!Strings.isNullOrEmpty(parameterText))
+        {
+            result = Integers.parse(parameterText.trim()).catchError().await();
+            if (result == null || result < minimumValue || maximumValue < result)
+            {
+                final String bounds = maximumValue == Integer.MAX_VALUE
+                    ? "greater than or equal to " + minimumValue
+                    : "between " + minimumValue + " and " + maximumValue;
+                output.writeLine("The --" + parameterName + " value " + Strings.escapeAndQuote(parameterText) + " must be an integer " + bounds + ".").await();
+                result = null;
+            }
         }
+        return result;
+    }
+
+    /**
+     * Get the player specification of the provided command-line parameter. If the specification
+     * isn't valid, then an error will be written to the output stream and null will be returned.
+     * @param parameter The parameter to get the value of.
+     * @param geometry The geometry of the board that the player will play on.
+     * @param output The stream to write errors to.
+     * @return The player specification, or null if the specification wasn't valid.
+     */
+    static String getPlayerParameterValue(CommandLineParameter<String> parameter, QubTicTacToeGeometry geometry, CharacterWriteStream output)
+    {
+        PreCondition.assertNotNull(parameter, "parameter");
+        PreCondition.assertNotNull(geometry, "geometry");
+        PreCondition.assertNotNull(output, "output");
 
+        String result = parameter.getValue().await();
+        if (Strings.isNullOrEmpty(result))
+        {
+            result = QubTicTacToeEngines.human;
+        }
+        else
+        {
+            final String error = QubTicTacToeEngines.getSpecificationError(result, geometry);
+            if (error != null)
+            {
+                output.writeLine(error).await();
+                result = null;
+            }
+        }
         return result;
     }
 
@@ -42,149 +455,670 @@ public interface QubTicTacToe
     {
         PreCondition.assertNotNull(parameters, "parameters");
 
+        final QubTicTacToeMetrics metrics = parameters.getMetrics();
+        final QubTicTacToeMetricsReporter reporter = metrics == null
+            ? null
+            : QubTicTacToeMetricsReporter.create(metrics, parameters.getOutputWriteStream(), parameters.getSummaryInterval(), parameters.getMetricsFilePath()).start();
+        try
+        {
+            QubTicTacToe.runCommand(parameters);
+        }
+        finally
+        {
+            if (reporter != null)
+            {
+                reporter.stop();
+            }
+        }
+    }
+
+    static void runCommand(QubTicTacToeParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        if (parameters.getSolve())
+        {
+            QubTicTacToeParallelSolver.writeScaling(parameters.getGeometry(), parameters.getThreadCount(), parameters.getOutputWriteStream());
+        }
+        else if (parameters.getProtocol())
+        {
+            QubTicTacToeProtocol.create(parameters.getGeometry(), parameters.getThreadCount(), parameters.getOutputWriteStream())
+                .run(parameters.getInputReadStream());
+        }
+        else if (parameters.getServerPort() != -1)
+        {
+            QubTicTacToe.runServer(parameters);
+        }
+        else if (parameters.getAnalyzeFilePath() != null)
+        {
+            QubTicTacToe.runAnalyze(parameters);
+        }
+        else if (parameters.getValidateFilePath() != null)
+        {
+            QubTicTacToeMoveScriptValidator.create(parameters.getGeometry(), parameters.getThreadCount())
+                .writeResults(parameters.getValidateFilePath(), parameters.getOutputWriteStream());
+        }
+        else if (parameters.getBuildBookFilePath() != null)
+        {
+            QubTicTacToe.buildBook(parameters);
+        }
+        else if (parameters.getRetrogradeFilePath() != null)
+        {
+            QubTicTacToe.generateTablebase(parameters);
+        }
+        else if (parameters.getBenchmark())
+        {
+            QubTicTacToeBenchmarks.run(parameters.getOutputWriteStream());
+        }
+        else
+        {
+            final String bookFilePath = parameters.getBookFilePath();
+            QubTicTacToeOpeningBook book = null;
+            if (bookFilePath != null)
+            {
+                book = QubTicTacToe.openBook(bookFilePath, parameters.getGeometry(), parameters.getOutputWriteStream());
+            }
+
+            final String tablebaseFilePath = parameters.getTablebaseFilePath();
+            QubTicTacToeTablebase tablebase = null;
+            if (tablebaseFilePath != null && (bookFilePath == null || book != null))
+            {
+                tablebase = QubTicTacToe.openTablebase(tablebaseFilePath, parameters.getGeometry(), parameters.getOutputWriteStream());
+            }
+
+            final String recordFilePath = parameters.getRecordFilePath();
+            QubTicTacToeGameArchive archive = null;
+            if (recordFilePath != null && (bookFilePath == null || book != null) && (tablebaseFilePath == null || tablebase != null))
+            {
+                archive = QubTicTacToeGameArchive.open(recordFilePath).catchError().await();
+                if (archive == null)
+                {
+                    parameters.getOutputWriteStream().writeLine("Could not open the game archive " + Strings.escapeAndQuote(recordFilePath) + ".").await();
+                }
+            }
+
+            if ((bookFilePath == null || book != null) && (tablebaseFilePath == null || tablebase != null) && (recordFilePath == null || archive != null))
+            {
+                try
+                {
+                    if (parameters.getTournamentPlayers() != null)
+                    {
+                        QubTicTacToeTournament.create(parameters.getGeometry(), parameters.getTournamentPlayers(), parameters.getThreadCount())
+                            .setPairing(parameters.getTournamentPairing())
+                            .setRoundCount(parameters.getTournamentRoundCount())
+                            .setGamesPerPairing(parameters.getTournamentGamesPerPairing())
+                            .setArchive(archive)
+                            .setBook(book)
+                            .setTablebase(tablebase)
+                            .setMetrics(parameters.getMetrics())
+                            .writeResults(parameters.getOutputWriteStream());
+                    }
+                    else if (parameters.getSimulateGameCount() > 0)
+                    {
+                        QubTicTacToeSimulation.create(parameters.getGeometry(), parameters.getXPlayer(), parameters.getOPlayer(), parameters.getThreadCount())
+                            .setArchive(archive)
+                            .setBook(book)
+                            .setTablebase(tablebase)
+                            .setMetrics(parameters.getMetrics())
+                            .writeResults(parameters.getSimulateGameCount(), parameters.getOutputWriteStream());
+                    }
+                    else
+                    {
+                        QubTicTacToe.playGame(parameters, archive, book, tablebase);
+                    }
+                }
+                finally
+                {
+                    if (archive != null)
+                    {
+                        archive.close();
+                    }
+                }
+            }
+        }
+    }
+
+    static void runServer(QubTicTacToeParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        final CharacterWriteStream output = parameters.getOutputWriteStream();
+        final QubTicTacToeServer server = QubTicTacToeServer.create(parameters.getGeometry())
+            .setMetrics(parameters.getMetrics());
+        final Integer port = server.start(parameters.getServerPort()).catchError().await();
+        if (port == null)
+        {
+            output.writeLine("Could not listen for connections on port " + parameters.getServerPort() + ".").await();
+        }
+        else
+        {
+            output.writeLine("Listening for connections on port " + port + "...").await();
+            server.join();
+        }
+    }
+
+    static void runAnalyze(QubTicTacToeParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        final CharacterWriteStream output = parameters.getOutputWriteStream();
+        final String analyzeFilePath = parameters.getAnalyzeFilePath();
+        final QubTicTacToeGameArchive archive = QubTicTacToeGameArchive.exists(analyzeFilePath)
+            ? QubTicTacToeGameArchive.open(analyzeFilePath).catchError().await()
+            : null;
+        if (archive == null)
+        {
+            output.writeLine("Could not open the game archive " + Strings.escapeAndQuote(analyzeFilePath) + ".").await();
+        }
+        else
+        {
+            try
+            {
+                QubTicTacToeArchiveAnalyzer.create(archive, parameters.getThreadCount())
+                    .writeResults(output);
+            }
+            finally
+            {
+                archive.close();
+            }
+        }
+    }
+
+    /**
+     * Open the opening book at the provided path. If the book can't be opened or is for a different
+     * board, then an error will be written to the output stream and null will be returned.
+     * @param bookFilePath The path to the opening book.
+     * @param geometry The geometry of the board that the book will be used on.
+     * @param output The stream to write errors to.
+     * @return The opened book, or null if it couldn't be used.
+     */
+    static QubTicTacToeOpeningBook openBook(String bookFilePath, QubTicTacToeGeometry geometry, CharacterWriteStream output)
+    {
+        PreCondition.assertNotNullAndNotEmpty(bookFilePath, "bookFilePath");
+        PreCondition.assertNotNull(geometry, "geometry");
+        PreCondition.assertNotNull(output, "output");
+
+        QubTicTacToeOpeningBook result = QubTicTacToeOpeningBook.open(bookFilePath).catchError().await();
+        if (result == null)
+        {
+            output.writeLine("Could not open the opening book " + Strings.escapeAndQuote(bookFilePath) + ".").await();
+        }
+        else if (result.getGeometry() != geometry)
+        {
+            output.writeLine("The opening book " + Strings.escapeAndQuote(bookFilePath) + " is for " + result.getGeometry() + ", not " + geometry + ".").await();
+            result = null;
+        }
+        return result;
+    }
+
+    static void buildBook(QubTicTacToeParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        final CharacterWriteStream output = parameters.getOutputWriteStream();
+        final QubTicTacToeGeometry geometry = parameters.getGeometry();
+        final QubTicTacToeOpeningBookBuilder builder = QubTicTacToeOpeningBookBuilder.create(geometry, parameters.getBookDepth());
+        final String bookGamesFilePath = parameters.getBookGamesFilePath();
+
+        boolean built = true;
+        if (bookGamesFilePath != null)
+        {
+            final QubTicTacToeGameArchive archive = QubTicTacToeGameArchive.exists(bookGamesFilePath)
+                ? QubTicTacToeGameArchive.open(bookGamesFilePath).catchError().await()
+                : null;
+            if (archive == null)
+            {
+                output.writeLine("Could not open the game archive " + Strings.escapeAndQuote(bookGamesFilePath) + ".").await();
+                built = false;
+            }
+            else
+            {
+                try
+                {
+                    output.writeLine("Building a " + builder.getDepth() + "-ply opening book for " + geometry + " from " + archive.getDataFilePath() + "...").await();
+                    final long gameCount = builder.addGames(archive);
+                    output.writeLine("Used " + gameCount + " of the " + archive.getGameCount() + " games.").await();
+                }
+                finally
+                {
+                    archive.close();
+                }
+            }
+        }
+        else
+        {
+            output.writeLine("Building a " + builder.getDepth() + "-ply opening book for " + geometry + " by searching with " + parameters.getXPlayer() + "...").await();
+            final int positionCount = builder.addSearchedPositions(parameters.getXPlayer(), parameters.getThreadCount());
+            output.writeLine("Searched " + positionCount + " positions.").await();
+        }
+
+        if (built)
+        {
+            final String buildBookFilePath = parameters.getBuildBookFilePath();
+            final QubTicTacToeOpeningBook book = builder.build().save(buildBookFilePath).catchError().await();
+            if (book == null)
+            {
+                output.writeLine("Could not write the opening book " + Strings.escapeAndQuote(buildBookFilePath) + ".").await();
+            }
+            else
+            {
+                output.writeLine("Wrote " + book.getEntryCount() + " positions to " + buildBookFilePath + ".").await();
+            }
+        }
+    }
+
+    /**
+     * Open the tablebase at the provided path. If the tablebase can't be opened or is for a
+     * different board, then an error will be written to the output stream and null will be
+     * returned.
+     * @param tablebaseFilePath The path to the tablebase.
+     * @param geometry The geometry of the board that the tablebase will be used on.
+     * @param output The stream to write errors to.
+     * @return The opened tablebase, or null if it couldn't be used.
+     */
+    static QubTicTacToeTablebase openTablebase(String tablebaseFilePath, QubTicTacToeGeometry geometry, CharacterWriteStream output)
+    {
+        PreCondition.assertNotNullAndNotEmpty(tablebaseFilePath, "tablebaseFilePath");
+        PreCondition.assertNotNull(geometry, "geometry");
+        PreCondition.assertNotNull(output, "output");
+
+        QubTicTacToeTablebase result = QubTicTacToeTablebase.open(tablebaseFilePath).catchError().await();
+        if (result == null)
+        {
+            output.writeLine("Could not open the tablebase " + Strings.escapeAndQuote(tablebaseFilePath) + ".").await();
+        }
+        else if (result.getGeometry() != geometry)
+        {
+            output.writeLine("The tablebase " + Strings.escapeAndQuote(tablebaseFilePath) + " is for " + result.getGeometry() + ", not " + geometry + ".").await();
+            result = null;
+        }
+        return result;
+    }
+
+    static void generateTablebase(QubTicTacToeParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        final CharacterWriteStream output = parameters.getOutputWriteStream();
+        final QubTicTacToeGeometry geometry = parameters.getGeometry();
+        final String retrogradeFilePath = parameters.getRetrogradeFilePath();
+
+        output.writeLine("Generating the " + QubTicTacToeTablebase.getPositionCount(geometry) + "-entry tablebase for " + geometry + " with " + parameters.getThreadCount() + " threads...").await();
+        final long startTime = System.nanoTime();
+        final QubTicTacToeTablebase tablebase = QubTicTacToeTablebase.create(geometry, retrogradeFilePath, parameters.getThreadCount()).catchError().await();
+        if (tablebase == null)
+        {
+            output.writeLine("Could not write the tablebase " + Strings.escapeAndQuote(retrogradeFilePath) + ".").await();
+        }
+        else
+        {
+            final long milliseconds = (System.nanoTime() - startTime) / 1000000;
+            final int value = tablebase.getValue(0, 0);
+            output.writeLine("Wrote " + QubTicTacToeTablebase.getFileSize(geometry) + " bytes to " + retrogradeFilePath + " in " + milliseconds + " milliseconds.").await();
+            output.writeLine("The empty board is a " + (value == QubTicTacToeSolvedTable.win ? "win" : value == QubTicTacToeSolvedTable.loss ? "loss" : "draw") + " for X after " + tablebase.getDistanceToEnd(0, 0) + " moves.").await();
+        }
+    }
+
+    static void playGame(QubTicTacToeParameters parameters)
+    {
+        QubTicTacToe.playGame(parameters, null, null, null);
+    }
+
+    /**
+     * Play a game with the provided parameters.
+     * @param parameters The parameters of the game.
+     * @param archive The archive to append the game to when it is done, or null to not record the
+     * game.
+     * @param book The opening book for the engines to consult before they search, or null to
+     * always search.
+     * @param tablebase The tablebase for the engines to consult before they search, or null to
+     * always search.
+     */
+    static void playGame(QubTicTacToeParameters parameters, QubTicTacToeGameArchive archive, QubTicTacToeOpeningBook book, QubTicTacToeTablebase tablebase)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
         final CharacterWriteStream output = parameters.getOutputWriteStream();
         final CharacterReadStream input = parameters.getInputReadStream();
 
         output.writeLine("Welcome to Qub Tic-Tac-Toe!").await();
         output.writeLine().await();
 
-        final QubTicTacToeModel model = QubTicTacToeModel.create();
+        final QubTicTacToeGeometry geometry = parameters.getGeometry();
+        final QubTicTacToeModel model = QubTicTacToeModel.create(geometry);
+        final QubTicTacToeEngine xEngine = QubTicTacToeEngines.create(parameters.getXPlayer(), geometry, parameters.getThreadCount(), book, tablebase);
+        final QubTicTacToeEngine oEngine = QubTicTacToeEngines.create(parameters.getOPlayer(), geometry, parameters.getThreadCount(), book, tablebase);
+        final QubTicTacToeMetrics metrics = parameters.getMetrics();
+        if (metrics != null)
+        {
+            metrics.addGameStarted();
+        }
 
+        // When a person plays against an engine, undo and redo skip over the engine's move and a
+        // line of moves stops at the engine's turn. When people play both sides, such as in a
+        // scripted game, one line can make moves for both of them.
+        final int undoMoveCount = (xEngine == null) != (oEngine == null) ? 2 : 1;
+        final boolean allPlayers = xEngine == null && oEngine == null;
         while (!model.isGameDone())
         {
-            QubTicTacToe.writeBoard(model, output);
+            QubTicTacToe.writeBoard(model, output, metrics);
 
-            QubTicTacToe.makeMove(model, output, input);
+            final QubTicTacToeEngine engine = model.getCurrentPlayer().equals("X") ? xEngine : oEngine;
+            if (engine == null)
+            {
+                QubTicTacToe.makeMove(model, output, input, metrics, undoMoveCount, allPlayers);
+            }
+            else
+            {
+                QubTicTacToe.makeEngineMove(model, engine, output, metrics);
+            }
         }
 
-        QubTicTacToe.showGameResults(model, output);
+        QubTicTacToe.showGameResults(model, output, metrics);
+        if (metrics != null && (model.hasWinner() || model.isTie()))
+        {
+            metrics.addGameFinished();
+        }
+
+        if (archive != null)
+        {
+            archive.append(QubTicTacToeGameRecord.create(model, parameters.getXPlayer(), parameters.getOPlayer()));
+        }
     }
 
     static void writeBoard(QubTicTacToeModel model, CharacterWriteStream writeStream)
+    {
+        QubTicTacToe.writeBoard(model, writeStream, null);
+    }
+
+    /**
+     * Write the board of the provided model.
+     * @param model The model of the game.
+     * @param writeStream The stream to write the board to.
+     * @param metrics The metrics to record the render time in, or null to not measure it.
+     */
+    static void writeBoard(QubTicTacToeModel model, CharacterWriteStream writeStream, QubTicTacToeMetrics metrics)
     {
         PreCondition.assertNotNull(model, "model");
         PreCondition.assertNotNull(writeStream, "writeStream");
 
-        final CharacterTableFormat boardFormat = CharacterTableFormat.create()
-            .setColumnSeparator(" | ")
-            .setRowSeparator('-')
-            .setNewLine('\n');
-
-        final CharacterTable board = CharacterTable.create();
-
-        final List<String> topRow = List.create(" ");
-        for (int column = 0; column < model.getColumnCount(); ++column)
+        final long startTime = metrics == null ? 0 : System.nanoTime();
+        QubTicTacToeBoardRenderer.get(model.getGeometry()).write(model, writeStream);
+        if (metrics != null)
         {
-            topRow.add(Integers.toString(column + 1));
+            metrics.record(QubTicTacToeMetrics.render, startTime);
         }
-        board.addRow(topRow);
+    }
+
+    static void makeMove(QubTicTacToeModel model, CharacterWriteStream output, CharacterReadStream input)
+    {
+        QubTicTacToe.makeMove(model, output, input, null);
+    }
 
-        for (int row = 0; row < model.getRowCount(); ++row)
+    /**
+     * Read lines from the input stream until a move, undo, redo, or exit has been made.
+     * @param model The model of the game.
+     * @param output The stream to write prompts and errors to.
+     * @param input The stream to read moves from.
+     * @param metrics The metrics to record the input wait, move parse, and model update times and
+     * the move counts in, or null to not measure them.
+     */
+    static void makeMove(QubTicTacToeModel model, CharacterWriteStream output, CharacterReadStream input, QubTicTacToeMetrics metrics)
+    {
+        QubTicTacToe.makeMove(model, output, input, metrics, 1, true);
+    }
+
+    /**
+     * Read lines from the input stream until a move, undo, redo, or exit has been made.
+     * @param model The model of the game.
+     * @param output The stream to write prompts and errors to.
+     * @param input The stream to read moves from.
+     * @param metrics The metrics to record the input wait, move parse, and model update times and
+     * the move counts in, or null to not measure them.
+     * @param undoMoveCount The number of moves that one undo takes back and one redo makes again.
+     * This is 2 when the other player is an engine, so that an undo goes back to this player's
+     * last move instead of to the engine's turn, and 0 when undo and redo aren't allowed.
+     * @param allPlayers Whether one line can make moves for every player. If this is false, then
+     * the moves in a line stop when the current player's turn ends.
+     */
+    static void makeMove(QubTicTacToeModel model, CharacterWriteStream output, CharacterReadStream input, QubTicTacToeMetrics metrics, int undoMoveCount, boolean allPlayers)
+    {
+        PreCondition.assertNotNull(model, "model");
+        PreCondition.assertNotNull(output, "output");
+        PreCondition.assertNotNull(input, "input");
+        PreCondition.assertBetween(0, undoMoveCount, 2, "undoMoveCount");
+
+        boolean validMove = false;
+        while (!model.isGameDone() && !validMove)
         {
-            final List<String> rowCells = List.create(Characters.toString((char)('A' + row)));
-            for (int column = 0; column < model.getColumnCount(); ++column)
+            QubTicTacToe.writeMovePrompt(model, output);
+
+            final long startTime = metrics == null ? 0 : System.nanoTime();
+            final String moveText = input.readLine().await();
+            if (metrics != null)
             {
-                rowCells.add(model.getBoardCell(row, column));
+                metrics.record(QubTicTacToeMetrics.inputWait, startTime);
             }
-            board.addRow(rowCells);
+            validMove = QubTicTacToe.makeMove(model, output, moveText, metrics, undoMoveCount, allPlayers);
         }
-        board.toString(writeStream, boardFormat).await();
-        writeStream.writeLine().await();
-        writeStream.writeLine().await();
     }
 
-    static void makeMove(QubTicTacToeModel model, CharacterWriteStream output, CharacterReadStream input)
+    /**
+     * Write the prompt that asks the current player for their move.
+     * @param model The model of the game.
+     * @param output The stream to write the prompt to.
+     */
+    static void writeMovePrompt(QubTicTacToeModel model, CharacterWriteStream output)
     {
         PreCondition.assertNotNull(model, "model");
         PreCondition.assertNotNull(output, "output");
-        PreCondition.assertNotNull(input, "input");
 
+        output.write(model.getTurnNumber() + ") " + model.getCurrentPlayer() + "'s move: ").await();
+    }
+
+    /**
+     * Make the moves, undo, redo, or exit in one line of input.
+     * @param model The model of the game.
+     * @param output The stream to write errors to.
+     * @param line The line of input.
+     * @param metrics The metrics to record the move parse and model update times and the move
+     * counts in, or null to not measure them.
+     * @param undoMoveCount The number of moves that one undo takes back and one redo makes again,
+     * or 0 if undo and redo aren't allowed.
+     * @param allPlayers Whether the line can make moves for every player. If this is false, then
+     * the moves in the line stop when the current player's turn ends.
+     * @return Whether a move, undo, or redo was made.
+     */
+    static boolean makeMove(QubTicTacToeModel model, CharacterWriteStream output, String line, QubTicTacToeMetrics metrics, int undoMoveCount, boolean allPlayers)
+    {
+        PreCondition.assertNotNull(model, "model");
+        PreCondition.assertFalse(model.isGameDone(), "model.isGameDone()");
+        PreCondition.assertNotNull(output, "output");
+        PreCondition.assertNotNull(line, "line");
+        PreCondition.assertBetween(0, undoMoveCount, 2, "undoMoveCount");
+
+        final String moveText = line.trim();
+        long time = metrics == null ? 0 : System.nanoTime();
         boolean validMove = false;
-        while (!model.isGameDone() && !validMove)
+        if (moveText.equalsIgnoreCase("exit"))
         {
-            output.write(model.getTurnNumber() + ") " + model.getCurrentPlayer() + "'s move: ").await();
-
-            final String moveText = input.readLine().await().trim();
-            if (moveText.equalsIgnoreCase("exit"))
+            model.setGameDone(true);
+        }
+        else if (undoMoveCount == 0 && (moveText.equalsIgnoreCase("undo") || moveText.equalsIgnoreCase("redo")))
+        {
+            output.writeLine("Moves can't be undone or redone in this game.").await();
+            output.writeLine().await();
+        }
+        else if (moveText.equalsIgnoreCase("undo"))
+        {
+            if (model.getFilledCellCount() < undoMoveCount)
             {
-                model.setGameDone(true);
+                output.writeLine("There are no moves to undo.").await();
             }
-            else if (!Strings.isNullOrEmpty(moveText))
+            else
             {
-                Integer row = null;
-                Integer column = null;
-                for (final char moveCharacter : Strings.iterate(moveText))
+                for (int undoneMoveCount = 0; undoneMoveCount < undoMoveCount; ++undoneMoveCount)
                 {
-                    if (!Characters.isWhitespace(moveCharacter))
-                    {
-                        final char lowerMoveCharacter = Characters.toLowerCase(moveCharacter);
-                        if ('1' <= lowerMoveCharacter && lowerMoveCharacter <= '3')
-                        {
-                            if (column == null)
-                            {
-                                column = (lowerMoveCharacter - '1');
-                                validMove = (row != null);
-                            }
-                            else
-                            {
-                                break;
-                            }
-                        }
-                        else if ('a' <= lowerMoveCharacter && lowerMoveCharacter <= 'c')
-                        {
-                            if (row == null)
-                            {
-                                row = (lowerMoveCharacter - 'a');
-                                validMove = (column != null);
-                            }
-                            else
-                            {
-                                break;
-                            }
-                        }
-                        else
-                        {
-                            break;
-                        }
-                    }
+                    model.undoMove();
+                }
+                validMove = true;
+                if (metrics != null)
+                {
+                    metrics.record(QubTicTacToeMetrics.modelUpdate, time);
+                }
+            }
+            output.writeLine().await();
+        }
+        else if (moveText.equalsIgnoreCase("redo"))
+        {
+            if (!model.canRedo())
+            {
+                output.writeLine("There are no moves to redo.").await();
+            }
+            else
+            {
+                for (int redoneMoveCount = 0; redoneMoveCount < undoMoveCount && model.canRedo(); ++redoneMoveCount)
+                {
+                    model.redoMove();
+                }
+                validMove = true;
+                if (metrics != null)
+                {
+                    metrics.record(QubTicTacToeMetrics.modelUpdate, time);
+                }
+            }
+            output.writeLine().await();
+        }
+        else if (!Strings.isNullOrEmpty(moveText))
+        {
+            // A line can contain several moves, such as "a1 b2 c3". They are made in order
+            // until one of them can't be made.
+            final QubTicTacToeGeometry geometry = model.getGeometry();
+            final QubTicTacToeMoveParser parser = QubTicTacToeMoveParser.get(geometry);
+            final String player = model.getCurrentPlayer();
+            final int moveTextLength = moveText.length();
+            int moveTextIndex = 0;
+            while (!model.isGameDone())
+            {
+                final long parseResult = parser.parseNext(moveText, moveTextIndex, moveTextLength);
+                final int cellIndex = QubTicTacToeMoveParser.getCellIndex(parseResult);
+                final int moveEndIndex = QubTicTacToeMoveParser.getEndIndex(parseResult);
+                if (cellIndex == QubTicTacToeMoveParser.noMove)
+                {
+                    break;
                 }
 
-                if (!validMove)
+                if (!allPlayers && !model.getCurrentPlayer().equals(player))
                 {
-                    output.writeLine(Strings.escapeAndQuote(moveText) + " is not a valid space on the board.").await();
+                    output.writeLine(Strings.escapeAndQuote(moveText.substring(moveTextIndex, moveEndIndex).trim()) + " wasn't made because it is " + model.getCurrentPlayer() + "'s turn.").await();
+                    break;
                 }
-                else
+
+                if (cellIndex == QubTicTacToeMoveParser.invalidMove)
                 {
-                    final String tokenAtSpace = model.getBoardCell(row, column);
-                    if (!tokenAtSpace.equals(" "))
+                    if (metrics != null)
                     {
-                        output.writeLine(Strings.escapeAndQuote(moveText) + " is already taken by " + Strings.escapeAndQuote(tokenAtSpace) + ".").await();
-                        validMove = false;
+                        metrics.addInvalidMove();
                     }
-                    else
+                    output.writeLine(Strings.escapeAndQuote(moveText.substring(moveTextIndex, moveEndIndex).trim()) + " is not a valid space on the board.").await();
+                    break;
+                }
+
+                if (!model.isLegalMove(cellIndex))
+                {
+                    if (metrics != null)
                     {
-                        model.makeMove(row, column);
+                        metrics.addInvalidMove();
                     }
+                    final String tokenAtSpace = model.getBoardCell(geometry.getRow(cellIndex), geometry.getColumn(cellIndex));
+                    output.writeLine(Strings.escapeAndQuote(moveText.substring(moveTextIndex, moveEndIndex).trim()) + " is already taken by " + Strings.escapeAndQuote(tokenAtSpace) + ".").await();
+                    break;
                 }
 
-                output.writeLine().await();
+                if (metrics != null)
+                {
+                    time = metrics.record(QubTicTacToeMetrics.moveParse, time);
+                }
+                model.makeMove(geometry.getRow(cellIndex), geometry.getColumn(cellIndex));
+                if (metrics != null)
+                {
+                    time = metrics.record(QubTicTacToeMetrics.modelUpdate, time);
+                    metrics.addMoveMade();
+                }
+                validMove = true;
+                moveTextIndex = moveEndIndex;
             }
+
+            output.writeLine().await();
+        }
+        return validMove;
+    }
+
+    static void makeEngineMove(QubTicTacToeModel model, QubTicTacToeEngine engine, CharacterWriteStream output)
+    {
+        QubTicTacToe.makeEngineMove(model, engine, output, null);
+    }
+
+    /**
+     * Make the move that the provided engine chooses.
+     * @param model The model of the game.
+     * @param engine The engine that chooses the move.
+     * @param output The stream to write the move to.
+     * @param metrics The metrics to record the engine think and model update times and the move
+     * count in, or null to not measure them.
+     */
+    static void makeEngineMove(QubTicTacToeModel model, QubTicTacToeEngine engine, CharacterWriteStream output, QubTicTacToeMetrics metrics)
+    {
+        PreCondition.assertNotNull(model, "model");
+        PreCondition.assertFalse(model.isGameDone(), "model.isGameDone()");
+        PreCondition.assertNotNull(engine, "engine");
+        PreCondition.assertNotNull(output, "output");
+
+        final QubTicTacToeGeometry geometry = model.getGeometry();
+        long time = metrics == null ? 0 : System.nanoTime();
+        final int cellIndex = engine.chooseMove(model);
+        if (metrics != null)
+        {
+            metrics.record(QubTicTacToeMetrics.engineThink, time);
+        }
+        output.writeLine(model.getTurnNumber() + ") " + model.getCurrentPlayer() + "'s move: " + geometry.getCellName(cellIndex)).await();
+        if (metrics != null)
+        {
+            time = System.nanoTime();
         }
+        model.makeMove(geometry.getRow(cellIndex), geometry.getColumn(cellIndex));
+        if (metrics != null)
+        {
+            metrics.record(QubTicTacToeMetrics.modelUpdate, time);
+            metrics.addMoveMade();
+        }
+        output.writeLine().await();
     }
 
     static void showGameResults(QubTicTacToeModel model, CharacterWriteStream output)
+    {
+        QubTicTacToe.showGameResults(model, output, null);
+    }
+
+    /**
+     * Write the final board and the result of the provided game if it was won or tied.
+     * @param model The model of the game.
+     * @param output The stream to write the results to.
+     * @param metrics The metrics to record the render time in, or null to not measure it.
+     */
+    static void showGameResults(QubTicTacToeModel model, CharacterWriteStream output, QubTicTacToeMetrics metrics)
     {
         PreCondition.assertNotNull(model, "model");
         PreCondition.assertNotNull(output, "output");
 
         if (model.hasWinner())
         {
-            QubTicTacToe.writeBoard(model, output);
+            QubTicTacToe.writeBoard(model, output, metrics);
             output.writeLine(model.getWinner() + " wins!").await();
         }
         else if (model.isTie())
         {
-            QubTicTacToe.writeBoard(model, output);
+            QubTicTacToe.writeBoard(model, output, metrics);
             output.writeLine("No more moves. It's a tie!").await();
         }
         output.writeLine().await();
@@ -0,0 +1,169 @@
+package qub;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+
+/**
+ * The result of analyzing the games in a QubTicTacToeGameArchive with a
+ * QubTicTacToeArchiveAnalyzer. An archive can hold games that were played on different board
+ * geometries, so the statistics are kept separately for each geometry.
+ */
+public class QubTicTacToeArchiveAnalysis
+{
+    private final HashMap<QubTicTacToeGeometry,QubTicTacToeGameStatistics> statistics;
+    private long invalidGameCount;
+    private int threadCount;
+    private long elapsedNanoseconds;
+
+    private QubTicTacToeArchiveAnalysis()
+    {
+        this.statistics = new HashMap<>();
+        this.threadCount = 1;
+    }
+
+    /**
+     * Create a new empty analysis.
+     * @return The new analysis.
+     */
+    static QubTicTacToeArchiveAnalysis create()
+    {
+        return new QubTicTacToeArchiveAnalysis();
+    }
+
+    /**
+     * Get the statistics for the provided geometry, creating them if they don't exist yet.
+     * @param geometry The geometry to get the statistics for.
+     * @param hasBlunderCounts Whether the moves of games on the geometry are compared against
+     * perfect play.
+     * @return The statistics for the provided geometry.
+     */
+    QubTicTacToeGameStatistics getOrCreateStatistics(QubTicTacToeGeometry geometry, boolean hasBlunderCounts)
+    {
+        PreCondition.assertNotNull(geometry, "geometry");
+
+        QubTicTacToeGameStatistics result = this.statistics.get(geometry);
+        if (result == null)
+        {
+            result = QubTicTacToeGameStatistics.create(geometry, hasBlunderCounts);
+            this.statistics.put(geometry, result);
+        }
+        return result;
+    }
+
+    /**
+     * Count a record that couldn't be replayed.
+     */
+    void addInvalidGame()
+    {
+        ++this.invalidGameCount;
+    }
+
+    /**
+     * Add the provided analysis to this analysis.
+     * @param analysis The analysis to add.
+     */
+    void add(QubTicTacToeArchiveAnalysis analysis)
+    {
+        PreCondition.assertNotNull(analysis, "analysis");
+
+        for (final QubTicTacToeGameStatistics geometryStatistics : analysis.statistics.values())
+        {
+            this.getOrCreateStatistics(geometryStatistics.getGeometry(), geometryStatistics.hasBlunderCounts())
+                .add(geometryStatistics);
+        }
+        this.invalidGameCount += analysis.invalidGameCount;
+    }
+
+    /**
+     * Set how the analysis was run.
+     * @param threadCount The number of threads that analyzed games.
+     * @param elapsedNanoseconds The number of nanoseconds that the analysis took.
+     */
+    void setTiming(int threadCount, long elapsedNanoseconds)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(threadCount, 1, "threadCount");
+        PreCondition.assertGreaterThanOrEqualTo(elapsedNanoseconds, 0, "elapsedNanoseconds");
+
+        this.threadCount = threadCount;
+        this.elapsedNanoseconds = elapsedNanoseconds;
+    }
+
+    /**
+     * Get the geometries that games were played on, ordered by width, height, and then win length.
+     * @return The geometries that games were played on.
+     */
+    public Iterable<QubTicTacToeGeometry> getGeometries()
+    {
+        final QubTicTacToeGeometry[] geometries = this.statistics.keySet().toArray(new QubTicTacToeGeometry[0]);
+        Arrays.sort(geometries, Comparator.comparingInt(QubTicTacToeGeometry::getWidth)
+            .thenComparingInt(QubTicTacToeGeometry::getHeight)
+            .thenComparingInt(QubTicTacToeGeometry::getWinLength));
+        return List.create(geometries);
+    }
+
+    /**
+     * Get the statistics of the games that were played on the provided geometry.
+     * @param geometry The geometry of the board that the games were played on.
+     * @return The statistics of the games that were played on the provided geometry, or null if no
+     * games were played on it.
+     */
+    public QubTicTacToeGameStatistics getStatistics(QubTicTacToeGeometry geometry)
+    {
+        PreCondition.assertNotNull(geometry, "geometry");
+
+        return this.statistics.get(geometry);
+    }
+
+    /**
+     * Get the number of games that were analyzed, not including invalid games.
+     * @return The number of games that were analyzed.
+     */
+    public long getGameCount()
+    {
+        long result = 0;
+        for (final QubTicTacToeGameStatistics geometryStatistics : this.statistics.values())
+        {
+            result += geometryStatistics.getGameCount();
+        }
+        return result;
+    }
+
+    /**
+     * Get the number of records that couldn't be analyzed because they had a move outside of the
+     * board, a move on a cell that was already taken, a move after the game was won, or a result
+     * that doesn't match their moves.
+     * @return The number of records that couldn't be analyzed.
+     */
+    public long getInvalidGameCount()
+    {
+        return this.invalidGameCount;
+    }
+
+    /**
+     * Get the number of threads that analyzed games.
+     * @return The number of threads that analyzed games.
+     */
+    public int getThreadCount()
+    {
+        return this.threadCount;
+    }
+
+    /**
+     * Get the number of nanoseconds that the analysis took.
+     * @return The number of nanoseconds that the analysis took.
+     */
+    public long getElapsedNanoseconds()
+    {
+        return this.elapsedNanoseconds;
+    }
+
+    /**
+     * Get the number of records that were analyzed per second.
+     * @return The number of records that were analyzed per second.
+     */
+    public double getGamesPerSecond()
+    {
+        return this.elapsedNanoseconds == 0 ? 0 : (this.getGameCount() + this.invalidGameCount) * 1000000000.0 / this.elapsedNanoseconds;
+    }
+}
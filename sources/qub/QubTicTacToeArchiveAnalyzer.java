@@ -0,0 +1,373 @@
+package qub;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Replays every game in a QubTicTacToeGameArchive and aggregates per-geometry statistics: results,
+ * game lengths, the results of each opening move, and how often each player blundered away the
+ * perfect-play value of the position.
+ * <p>
+ * The archive's files are read through their memory-mapped regions, so only the pages that are
+ * being replayed need to be in memory. The games are split into chunks of consecutive ids, and
+ * because games are appended in id order each chunk is one contiguous segment of the data file.
+ * Worker threads take chunks until none are left and keep their own statistics, which are added
+ * together when every worker is done. Games are replayed on bare bitboards instead of a
+ * QubTicTacToeModel because the analysis doesn't need the model's move history or player names.
+ */
+public class QubTicTacToeArchiveAnalyzer
+{
+    /**
+     * The number of consecutive games that a worker takes at a time.
+     */
+    public static final int chunkSize = 4096;
+
+    /**
+     * The largest number of cells that a board other than 3x3 can have for its moves to be compared
+     * against perfect play. The 3x3 board uses QubTicTacToeSolvedTable, and the other boards are
+     * searched completely by a QubTicTacToeMinimaxEngine, which stops being fast enough to run for
+     * every position of every game on boards that are much larger than this.
+     */
+    public static final int maximumSearchedCellCount = 12;
+
+    private static final int maximumBoardsLength = 2 * (((QubTicTacToeGeometry.maximumDimension * QubTicTacToeGeometry.maximumDimension) + Long.SIZE - 1) / Long.SIZE);
+
+    private final QubTicTacToeGameArchive archive;
+    private final int threadCount;
+
+    private QubTicTacToeArchiveAnalyzer(QubTicTacToeGameArchive archive, int threadCount)
+    {
+        PreCondition.assertNotNull(archive, "archive");
+        PreCondition.assertGreaterThanOrEqualTo(threadCount, 1, "threadCount");
+
+        this.archive = archive;
+        this.threadCount = threadCount;
+    }
+
+    /**
+     * Create a new analyzer for the games in the provided archive.
+     * @param archive The archive to analyze.
+     * @param threadCount The number of threads to analyze games with.
+     * @return The new analyzer.
+     */
+    public static QubTicTacToeArchiveAnalyzer create(QubTicTacToeGameArchive archive, int threadCount)
+    {
+        return new QubTicTacToeArchiveAnalyzer(archive, threadCount);
+    }
+
+    /**
+     * Get whether the moves of games on the provided geometry can be compared against perfect play.
+     * @param geometry The geometry of the board.
+     * @return Whether the moves of games on the provided geometry can be compared against perfect
+     * play.
+     */
+    public static boolean hasPerfectPlayValues(QubTicTacToeGeometry geometry)
+    {
+        PreCondition.assertNotNull(geometry, "geometry");
+
+        return QubTicTacToeSolvedTable.supports(geometry) || geometry.getCellCount() <= QubTicTacToeArchiveAnalyzer.maximumSearchedCellCount;
+    }
+
+    /**
+     * Analyze the games that are in the archive when this method is called.
+     * @return The result of the analysis.
+     */
+    public QubTicTacToeArchiveAnalysis run()
+    {
+        final long gameCount = this.archive.getGameCount();
+        final long chunkCount = (gameCount + QubTicTacToeArchiveAnalyzer.chunkSize - 1) / QubTicTacToeArchiveAnalyzer.chunkSize;
+        final int workerCount = (int)Math.max(1, Math.min(this.threadCount, chunkCount));
+        final AtomicLong nextGame = new AtomicLong();
+
+        final ForkJoinPool pool = new ForkJoinPool(workerCount);
+        final long startTime = System.nanoTime();
+        final List<ForkJoinTask<QubTicTacToeArchiveAnalysis>> workers = List.create();
+        try
+        {
+            for (int workerIndex = 0; workerIndex < workerCount; ++workerIndex)
+            {
+                workers.add(pool.submit(() -> this.analyzeGames(nextGame, gameCount)));
+            }
+            for (final ForkJoinTask<QubTicTacToeArchiveAnalysis> worker : workers)
+            {
+                worker.join();
+            }
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+        final long elapsedNanoseconds = System.nanoTime() - startTime;
+        try
+        {
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        final QubTicTacToeArchiveAnalysis result = QubTicTacToeArchiveAnalysis.create();
+        for (final ForkJoinTask<QubTicTacToeArchiveAnalysis> worker : workers)
+        {
+            result.add(worker.join());
+        }
+        result.setTiming(workerCount, elapsedNanoseconds);
+        return result;
+    }
+
+    /**
+     * Analyze chunks of games until all of the games have been handed out.
+     * @return The analysis of the games that this worker replayed.
+     */
+    private QubTicTacToeArchiveAnalysis analyzeGames(AtomicLong nextGame, long gameCount)
+    {
+        final QubTicTacToeArchiveAnalysis result = QubTicTacToeArchiveAnalysis.create();
+        final long[] boards = new long[QubTicTacToeArchiveAnalyzer.maximumBoardsLength];
+        final HashMap<QubTicTacToeGeometry,QubTicTacToeMinimaxEngine> engines = new HashMap<>();
+
+        long chunkStart = nextGame.getAndAdd(QubTicTacToeArchiveAnalyzer.chunkSize);
+        while (chunkStart < gameCount)
+        {
+            final long chunkEnd = Math.min(gameCount, chunkStart + QubTicTacToeArchiveAnalyzer.chunkSize);
+            for (long gameId = chunkStart; gameId < chunkEnd; ++gameId)
+            {
+                QubTicTacToeArchiveAnalyzer.analyzeGame(this.archive.get(gameId), result, boards, engines);
+            }
+            chunkStart = nextGame.getAndAdd(QubTicTacToeArchiveAnalyzer.chunkSize);
+        }
+        return result;
+    }
+
+    /**
+     * Replay the provided game and add it to the provided analysis.
+     * @param record The game to replay.
+     * @param analysis The analysis to add the game to.
+     * @param boards The array to replay the game in. X's board starts at index 0 and O's board
+     * starts at index wordCount.
+     * @param engines The engines that have been created to search the boards that aren't in a
+     * solved table.
+     */
+    static void analyzeGame(QubTicTacToeGameRecord record, QubTicTacToeArchiveAnalysis analysis, long[] boards, HashMap<QubTicTacToeGeometry,QubTicTacToeMinimaxEngine> engines)
+    {
+        final QubTicTacToeGeometry geometry = record.getGeometry();
+        final int cellCount = geometry.getCellCount();
+        final int wordCount = geometry.getWordCount();
+        final int moveCount = record.getMoveCount();
+        Arrays.fill(boards, 0, 2 * wordCount, 0);
+
+        final boolean countBlunders = QubTicTacToeArchiveAnalyzer.hasPerfectPlayValues(geometry);
+        final QubTicTacToeSolvedTable table = countBlunders && QubTicTacToeSolvedTable.supports(geometry) ? QubTicTacToeSolvedTable.get() : null;
+        final QubTicTacToeMinimaxEngine engine = countBlunders && table == null ? engines.computeIfAbsent(geometry, QubTicTacToeMinimaxEngine::create) : null;
+
+        boolean valid = true;
+        boolean won = false;
+        int xBlunders = 0;
+        int oBlunders = 0;
+        int value = countBlunders && moveCount > 0 ? QubTicTacToeArchiveAnalyzer.getValue(table, engine, 0, 0, true) : QubTicTacToeSolvedTable.draw;
+        for (int moveIndex = 0; valid && moveIndex < moveCount; ++moveIndex)
+        {
+            final int cellIndex = record.getMove(moveIndex);
+            final boolean xMoved = moveIndex % 2 == 0;
+            if (won || cellIndex >= cellCount || QubTicTacToeGeometry.isSet(boards, 0, cellIndex) || QubTicTacToeGeometry.isSet(boards, wordCount, cellIndex))
+            {
+                valid = false;
+            }
+            else
+            {
+                final int boardOffset = xMoved ? 0 : wordCount;
+                QubTicTacToeGeometry.set(boards, boardOffset, cellIndex);
+                won = geometry.isWinningMove(boards, boardOffset, cellIndex);
+
+                if (countBlunders)
+                {
+                    final int valueAfterMove;
+                    if (won)
+                    {
+                        valueAfterMove = QubTicTacToeSolvedTable.win;
+                    }
+                    else if (moveIndex + 1 == cellCount)
+                    {
+                        valueAfterMove = QubTicTacToeSolvedTable.draw;
+                    }
+                    else
+                    {
+                        valueAfterMove = -QubTicTacToeArchiveAnalyzer.getValue(table, engine, boards[0], boards[1], !xMoved);
+                    }
+
+                    if (valueAfterMove < value)
+                    {
+                        if (xMoved)
+                        {
+                            ++xBlunders;
+                        }
+                        else
+                        {
+                            ++oBlunders;
+                        }
+                    }
+                    value = -valueAfterMove;
+                }
+            }
+        }
+
+        final int result = record.getResult();
+        if (valid)
+        {
+            switch (result)
+            {
+                case QubTicTacToeSessionStore.xWins:
+                    valid = won && moveCount % 2 == 1;
+                    break;
+
+                case QubTicTacToeSessionStore.oWins:
+                    valid = won && moveCount % 2 == 0;
+                    break;
+
+                case QubTicTacToeSessionStore.tie:
+                    valid = !won && moveCount == cellCount;
+                    break;
+
+                default:
+                    valid = !won;
+                    break;
+            }
+        }
+
+        if (!valid)
+        {
+            analysis.addInvalidGame();
+        }
+        else
+        {
+            analysis.getOrCreateStatistics(geometry, countBlunders)
+                .addGame(result, moveCount == 0 ? -1 : record.getMove(0), moveCount, xBlunders, oBlunders);
+        }
+    }
+
+    /**
+     * Get the perfect-play value (win, draw, or loss from QubTicTacToeSolvedTable) of the provided
+     * position for the player to move. The position must not be finished.
+     */
+    private static int getValue(QubTicTacToeSolvedTable table, QubTicTacToeMinimaxEngine engine, long xBoard, long oBoard, boolean xToMove)
+    {
+        int result;
+        if (table != null)
+        {
+            result = table.getValue(xBoard, oBoard);
+        }
+        else
+        {
+            final int score = xToMove ? engine.getScore(xBoard, oBoard) : engine.getScore(oBoard, xBoard);
+            if (QubTicTacToeMinimaxEngine.isWinScore(score))
+            {
+                result = QubTicTacToeSolvedTable.win;
+            }
+            else if (QubTicTacToeMinimaxEngine.isLossScore(score))
+            {
+                result = QubTicTacToeSolvedTable.loss;
+            }
+            else
+            {
+                result = QubTicTacToeSolvedTable.draw;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Analyze the games in the archive and write the statistics.
+     * @param output The stream to write the statistics to.
+     */
+    public void writeResults(CharacterWriteStream output)
+    {
+        PreCondition.assertNotNull(output, "output");
+
+        final long gameCount = this.archive.getGameCount();
+        if (gameCount == 0)
+        {
+            output.writeLine("The game archive " + this.archive.getDataFilePath() + " doesn't contain any games.").await();
+        }
+        else
+        {
+            output.writeLine("Analyzing " + gameCount + " games in " + this.archive.getDataFilePath() + "...").await();
+
+            final QubTicTacToeArchiveAnalysis analysis = this.run();
+            for (final QubTicTacToeGeometry geometry : analysis.getGeometries())
+            {
+                QubTicTacToeArchiveAnalyzer.writeStatistics(analysis.getStatistics(geometry), output);
+            }
+            if (analysis.getInvalidGameCount() > 0)
+            {
+                output.writeLine("Invalid games: " + analysis.getInvalidGameCount()).await();
+            }
+            output.writeLine(String.format("Threads: %d, Time: %.3fs, Games/second: %.0f",
+                analysis.getThreadCount(),
+                analysis.getElapsedNanoseconds() / 1000000000.0,
+                analysis.getGamesPerSecond())).await();
+        }
+    }
+
+    private static void writeStatistics(QubTicTacToeGameStatistics statistics, CharacterWriteStream output)
+    {
+        final QubTicTacToeGeometry geometry = statistics.getGeometry();
+        final long gameCount = statistics.getGameCount();
+        final long unfinishedCount = statistics.getResultCount(QubTicTacToeSessionStore.inProgress) + statistics.getResultCount(QubTicTacToeSessionStore.abandoned);
+
+        output.writeLine(geometry + ": " + gameCount + " games").await();
+        output.writeLine(String.format("  X wins: %d (%.1f%%), O wins: %d (%.1f%%), Draws: %d (%.1f%%), Unfinished: %d (%.1f%%)",
+            statistics.getResultCount(QubTicTacToeSessionStore.xWins),
+            statistics.getResultCount(QubTicTacToeSessionStore.xWins) * 100.0 / gameCount,
+            statistics.getResultCount(QubTicTacToeSessionStore.oWins),
+            statistics.getResultCount(QubTicTacToeSessionStore.oWins) * 100.0 / gameCount,
+            statistics.getResultCount(QubTicTacToeSessionStore.tie),
+            statistics.getResultCount(QubTicTacToeSessionStore.tie) * 100.0 / gameCount,
+            unfinishedCount,
+            unfinishedCount * 100.0 / gameCount)).await();
+        output.writeLine(String.format("  Average game length: %.2f moves", statistics.getAverageGameLength())).await();
+
+        output.writeLine("  Game lengths:").await();
+        for (int gameLength = 0; gameLength <= geometry.getCellCount(); ++gameLength)
+        {
+            final long gameLengthCount = statistics.getGameLengthCount(gameLength);
+            if (gameLengthCount > 0)
+            {
+                output.writeLine(String.format("    %d moves: %d (%.1f%%)", gameLength, gameLengthCount, gameLengthCount * 100.0 / gameCount)).await();
+            }
+        }
+
+        output.writeLine("  Openings:").await();
+        for (int cellIndex = 0; cellIndex < geometry.getCellCount(); ++cellIndex)
+        {
+            final long openingGameCount = statistics.getOpeningGameCount(cellIndex);
+            if (openingGameCount > 0)
+            {
+                output.writeLine(String.format("    %s: %d games, X wins: %.1f%%, O wins: %.1f%%, Draws: %.1f%%",
+                    geometry.getCellName(cellIndex),
+                    openingGameCount,
+                    statistics.getOpeningResultCount(cellIndex, QubTicTacToeSessionStore.xWins) * 100.0 / openingGameCount,
+                    statistics.getOpeningResultCount(cellIndex, QubTicTacToeSessionStore.oWins) * 100.0 / openingGameCount,
+                    statistics.getOpeningResultCount(cellIndex, QubTicTacToeSessionStore.tie) * 100.0 / openingGameCount)).await();
+            }
+        }
+
+        if (statistics.hasBlunderCounts())
+        {
+            output.writeLine(String.format("  Blunders: X: %d (%.2f per game), O: %d (%.2f per game), Games with a blunder: %d (%.1f%%)",
+                statistics.getXBlunderCount(),
+                (double)statistics.getXBlunderCount() / gameCount,
+                statistics.getOBlunderCount(),
+                (double)statistics.getOBlunderCount() / gameCount,
+                statistics.getBlunderGameCount(),
+                statistics.getBlunderGameCount() * 100.0 / gameCount)).await();
+        }
+        else
+        {
+            output.writeLine("  Blunders: Not counted, because the board is too large to search completely.").await();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package qub;
+
+/**
+ * A QubTicTacToeTranspositionTable that stores its entries in plain arrays. It can only be used
+ * by one thread at a time.
+ */
+public class QubTicTacToeArrayTranspositionTable implements QubTicTacToeTranspositionTable
+{
+    private final int indexBits;
+    private final long[] ownBoards;
+    private final long[] otherBoards;
+    private final long[] data;
+
+    private QubTicTacToeArrayTranspositionTable(int indexBits)
+    {
+        PreCondition.assertBetween(1, indexBits, 30, "indexBits");
+
+        this.indexBits = indexBits;
+        final int entryCount = 1 << indexBits;
+        this.ownBoards = new long[entryCount];
+        this.otherBoards = new long[entryCount];
+        this.data = new long[entryCount];
+    }
+
+    public static QubTicTacToeArrayTranspositionTable create(int indexBits)
+    {
+        return new QubTicTacToeArrayTranspositionTable(indexBits);
+    }
+
+    @Override
+    public int getEntryCount()
+    {
+        return this.data.length;
+    }
+
+    @Override
+    public long get(long ownBoard, long otherBoard)
+    {
+        final int index = QubTicTacToeTranspositionTable.getIndex(ownBoard, otherBoard, this.indexBits);
+        return this.ownBoards[index] == ownBoard && this.otherBoards[index] == otherBoard
+            ? this.data[index]
+            : 0;
+    }
+
+    @Override
+    public void set(long ownBoard, long otherBoard, long data)
+    {
+        final int index = QubTicTacToeTranspositionTable.getIndex(ownBoard, otherBoard, this.indexBits);
+        this.ownBoards[index] = ownBoard;
+        this.otherBoards[index] = otherBoard;
+        this.data[index] = data;
+    }
+}
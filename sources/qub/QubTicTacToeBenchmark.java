@@ -0,0 +1,195 @@
+package qub;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.function.LongSupplier;
+
+/**
+ * A single microbenchmark: a named operation that is run repeatedly on the calling thread to
+ * measure its throughput, the number of bytes it allocates, and the garbage collections that happen
+ * while it runs. Like JMH, a run has warmup iterations that let the JIT compile the operation
+ * followed by measurement iterations of a fixed length. The value that the operation returns is
+ * folded into a volatile sink so that the JIT can't remove the operation as dead code.
+ */
+public class QubTicTacToeBenchmark
+{
+    /**
+     * The minimum number of nanoseconds between checks of the clock. Operations are run in batches
+     * that take at least this long so that reading the clock doesn't dominate cheap operations.
+     */
+    private static final long minimumBatchNanoseconds = 100000;
+
+    private static volatile long sink;
+
+    private final String name;
+    private final LongSupplier operation;
+
+    private QubTicTacToeBenchmark(String name, LongSupplier operation)
+    {
+        PreCondition.assertNotNullAndNotEmpty(name, "name");
+        PreCondition.assertNotNull(operation, "operation");
+
+        this.name = name;
+        this.operation = operation;
+    }
+
+    /**
+     * Create a new benchmark.
+     * @param name The name of the benchmark.
+     * @param operation The operation to measure. The value that it returns is consumed so that the
+     *                  operation's work can't be optimized away.
+     * @return The new benchmark.
+     */
+    public static QubTicTacToeBenchmark create(String name, LongSupplier operation)
+    {
+        return new QubTicTacToeBenchmark(name, operation);
+    }
+
+    /**
+     * Get the name of this benchmark.
+     * @return The name of this benchmark.
+     */
+    public String getName()
+    {
+        return this.name;
+    }
+
+    /**
+     * Run this benchmark.
+     * @param warmupIterationCount The number of iterations to run before measuring.
+     * @param measurementIterationCount The number of iterations to measure.
+     * @param iterationMilliseconds The length of each iteration in milliseconds.
+     * @return The result of running this benchmark.
+     */
+    public QubTicTacToeBenchmarkResult run(int warmupIterationCount, int measurementIterationCount, int iterationMilliseconds)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(warmupIterationCount, 0, "warmupIterationCount");
+        PreCondition.assertGreaterThanOrEqualTo(measurementIterationCount, 1, "measurementIterationCount");
+        PreCondition.assertGreaterThanOrEqualTo(iterationMilliseconds, 1, "iterationMilliseconds");
+
+        final long iterationNanoseconds = iterationMilliseconds * 1000000L;
+        final int batchSize = this.getBatchSize();
+
+        for (int iteration = 0; iteration < warmupIterationCount; ++iteration)
+        {
+            this.runIteration(batchSize, iterationNanoseconds, new long[2]);
+        }
+
+        final long startAllocatedBytes = QubTicTacToeBenchmark.getAllocatedBytes();
+        final long startGarbageCollectionCount = QubTicTacToeBenchmark.getGarbageCollectionCount();
+        final long startGarbageCollectionMilliseconds = QubTicTacToeBenchmark.getGarbageCollectionMilliseconds();
+
+        final double[] operationsPerSecond = new double[measurementIterationCount];
+        long operationCount = 0;
+        final long[] iterationCounts = new long[2];
+        for (int iteration = 0; iteration < measurementIterationCount; ++iteration)
+        {
+            this.runIteration(batchSize, iterationNanoseconds, iterationCounts);
+            operationsPerSecond[iteration] = iterationCounts[0] * 1000000000.0 / iterationCounts[1];
+            operationCount += iterationCounts[0];
+        }
+
+        final long endAllocatedBytes = QubTicTacToeBenchmark.getAllocatedBytes();
+        final double bytesPerOperation = startAllocatedBytes < 0 || endAllocatedBytes < 0
+            ? -1
+            : (double)(endAllocatedBytes - startAllocatedBytes) / operationCount;
+
+        return QubTicTacToeBenchmarkResult.create(
+            this.name,
+            operationsPerSecond,
+            bytesPerOperation,
+            QubTicTacToeBenchmark.getGarbageCollectionCount() - startGarbageCollectionCount,
+            QubTicTacToeBenchmark.getGarbageCollectionMilliseconds() - startGarbageCollectionMilliseconds);
+    }
+
+    /**
+     * Get the number of operations to run between checks of the clock. The batch size is doubled
+     * until one batch takes at least minimumBatchNanoseconds.
+     */
+    private int getBatchSize()
+    {
+        int result = 1;
+        while (result < (1 << 24))
+        {
+            final long startTime = System.nanoTime();
+            this.runBatch(result);
+            if (System.nanoTime() - startTime >= QubTicTacToeBenchmark.minimumBatchNanoseconds)
+            {
+                break;
+            }
+            result *= 2;
+        }
+        return result;
+    }
+
+    /**
+     * Run batches of the operation until iterationNanoseconds have passed.
+     * @param counts Gets the number of operations that were run and the number of nanoseconds that
+     *               they took.
+     */
+    private void runIteration(int batchSize, long iterationNanoseconds, long[] counts)
+    {
+        long operationCount = 0;
+        final long startTime = System.nanoTime();
+        long elapsedNanoseconds;
+        do
+        {
+            this.runBatch(batchSize);
+            operationCount += batchSize;
+            elapsedNanoseconds = System.nanoTime() - startTime;
+        }
+        while (elapsedNanoseconds < iterationNanoseconds);
+
+        counts[0] = operationCount;
+        counts[1] = elapsedNanoseconds;
+    }
+
+    private void runBatch(int batchSize)
+    {
+        long value = 0;
+        for (int operation = 0; operation < batchSize; ++operation)
+        {
+            value += this.operation.getAsLong();
+        }
+        QubTicTacToeBenchmark.sink += value;
+    }
+
+    /**
+     * Get the number of bytes that the current thread has allocated, or -1 if the JVM doesn't
+     * track per-thread allocation.
+     */
+    private static long getAllocatedBytes()
+    {
+        long result = -1;
+        final java.lang.management.ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (threadBean instanceof com.sun.management.ThreadMXBean)
+        {
+            final com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean)threadBean;
+            if (allocationBean.isThreadAllocatedMemorySupported() && allocationBean.isThreadAllocatedMemoryEnabled())
+            {
+                result = allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return result;
+    }
+
+    private static long getGarbageCollectionCount()
+    {
+        long result = 0;
+        for (final GarbageCollectorMXBean garbageCollector : ManagementFactory.getGarbageCollectorMXBeans())
+        {
+            result += Math.max(0, garbageCollector.getCollectionCount());
+        }
+        return result;
+    }
+
+    private static long getGarbageCollectionMilliseconds()
+    {
+        long result = 0;
+        for (final GarbageCollectorMXBean garbageCollector : ManagementFactory.getGarbageCollectorMXBeans())
+        {
+            result += Math.max(0, garbageCollector.getCollectionTime());
+        }
+        return result;
+    }
+}
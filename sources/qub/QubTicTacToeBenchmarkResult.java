@@ -0,0 +1,131 @@
+package qub;
+
+/**
+ * The result of running a QubTicTacToeBenchmark.
+ */
+public class QubTicTacToeBenchmarkResult
+{
+    private final String name;
+    private final double[] operationsPerSecond;
+    private final double bytesPerOperation;
+    private final long garbageCollectionCount;
+    private final long garbageCollectionMilliseconds;
+
+    private QubTicTacToeBenchmarkResult(String name, double[] operationsPerSecond, double bytesPerOperation, long garbageCollectionCount, long garbageCollectionMilliseconds)
+    {
+        PreCondition.assertNotNullAndNotEmpty(name, "name");
+        PreCondition.assertNotNull(operationsPerSecond, "operationsPerSecond");
+        PreCondition.assertGreaterThanOrEqualTo(operationsPerSecond.length, 1, "operationsPerSecond.length");
+        PreCondition.assertGreaterThanOrEqualTo(garbageCollectionCount, 0, "garbageCollectionCount");
+        PreCondition.assertGreaterThanOrEqualTo(garbageCollectionMilliseconds, 0, "garbageCollectionMilliseconds");
+
+        this.name = name;
+        this.operationsPerSecond = operationsPerSecond;
+        this.bytesPerOperation = bytesPerOperation;
+        this.garbageCollectionCount = garbageCollectionCount;
+        this.garbageCollectionMilliseconds = garbageCollectionMilliseconds;
+    }
+
+    public static QubTicTacToeBenchmarkResult create(String name, double[] operationsPerSecond, double bytesPerOperation, long garbageCollectionCount, long garbageCollectionMilliseconds)
+    {
+        return new QubTicTacToeBenchmarkResult(name, operationsPerSecond, bytesPerOperation, garbageCollectionCount, garbageCollectionMilliseconds);
+    }
+
+    /**
+     * Get the name of the benchmark.
+     * @return The name of the benchmark.
+     */
+    public String getName()
+    {
+        return this.name;
+    }
+
+    /**
+     * Get the number of measurement iterations that were run.
+     * @return The number of measurement iterations that were run.
+     */
+    public int getIterationCount()
+    {
+        return this.operationsPerSecond.length;
+    }
+
+    /**
+     * Get the mean number of operations per second across the measurement iterations.
+     * @return The mean number of operations per second.
+     */
+    public double getOperationsPerSecond()
+    {
+        double sum = 0;
+        for (final double iterationOperationsPerSecond : this.operationsPerSecond)
+        {
+            sum += iterationOperationsPerSecond;
+        }
+        return sum / this.operationsPerSecond.length;
+    }
+
+    /**
+     * Get the standard deviation of the number of operations per second across the measurement
+     * iterations.
+     * @return The standard deviation of the number of operations per second.
+     */
+    public double getOperationsPerSecondDeviation()
+    {
+        double result = 0;
+        if (this.operationsPerSecond.length > 1)
+        {
+            final double mean = this.getOperationsPerSecond();
+            double sumOfSquares = 0;
+            for (final double iterationOperationsPerSecond : this.operationsPerSecond)
+            {
+                final double difference = iterationOperationsPerSecond - mean;
+                sumOfSquares += difference * difference;
+            }
+            result = Math.sqrt(sumOfSquares / (this.operationsPerSecond.length - 1));
+        }
+        return result;
+    }
+
+    /**
+     * Get the average number of bytes that one operation allocated, or a negative number if the
+     * JVM doesn't report allocations.
+     * @return The average number of bytes that one operation allocated.
+     */
+    public double getBytesPerOperation()
+    {
+        return this.bytesPerOperation;
+    }
+
+    /**
+     * Get the number of garbage collections that happened during the measurement iterations.
+     * @return The number of garbage collections that happened during the measurement iterations.
+     */
+    public long getGarbageCollectionCount()
+    {
+        return this.garbageCollectionCount;
+    }
+
+    /**
+     * Get the number of milliseconds that garbage collection took during the measurement
+     * iterations.
+     * @return The number of milliseconds that garbage collection took.
+     */
+    public long getGarbageCollectionMilliseconds()
+    {
+        return this.garbageCollectionMilliseconds;
+    }
+
+    @Override
+    public String toString()
+    {
+        final double operationsPerSecond = this.getOperationsPerSecond();
+        final double deviationPercentage = operationsPerSecond == 0 ? 0 : this.getOperationsPerSecondDeviation() * 100 / operationsPerSecond;
+        final String bytesPerOperation = this.bytesPerOperation < 0 ? "n/a" : String.format("%.1f", this.bytesPerOperation);
+        return String.format("%s: %.0f ops/s +/- %.1f%%, %s B/op, GC: %d (%d ms)",
+            this.name,
+            operationsPerSecond,
+            deviationPercentage,
+            bytesPerOperation,
+            this.garbageCollectionCount,
+            this.garbageCollectionMilliseconds);
+    }
+}
@@ -0,0 +1,151 @@
+package qub;
+
+/**
+ * The benchmark suite for the model, the move parser, and the board renderer. The suite is run
+ * with --benchmark so that every version can be compared against the same baseline.
+ */
+public interface QubTicTacToeBenchmarks
+{
+    int defaultWarmupIterationCount = 3;
+    int defaultMeasurementIterationCount = 5;
+    int defaultIterationMilliseconds = 500;
+
+    /**
+     * The moves of a 3x3 game that fills the board without a winner.
+     */
+    int[] tieGameCells = { 0, 4, 8, 1, 7, 6, 2, 5, 3 };
+
+    /**
+     * Create the benchmarks in the suite.
+     * @return The benchmarks in the suite.
+     */
+    static List<QubTicTacToeBenchmark> createBenchmarks()
+    {
+        final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create();
+        final QubTicTacToeGeometry largeGeometry = QubTicTacToeGeometry.create(15, 15, 5);
+
+        final QubTicTacToeModel wonModel = QubTicTacToeModel.create(geometry);
+        for (final int cellIndex : new int[] { 0, 3, 1, 4, 2 })
+        {
+            wonModel.makeMove(geometry.getRow(cellIndex), geometry.getColumn(cellIndex));
+        }
+
+        final QubTicTacToeModel tiedModel = QubTicTacToeModel.create(geometry);
+        for (final int cellIndex : QubTicTacToeBenchmarks.tieGameCells)
+        {
+            tiedModel.makeMove(geometry.getRow(cellIndex), geometry.getColumn(cellIndex));
+        }
+
+        final QubTicTacToeModel inProgressModel = QubTicTacToeModel.create(geometry);
+        inProgressModel.makeMove(1, 1);
+        inProgressModel.makeMove(0, 0);
+
+        final QubTicTacToeModel largeModel = QubTicTacToeModel.create(largeGeometry);
+        final QubTicTacToeRandomEngine largeModelEngine = QubTicTacToeRandomEngine.create(1);
+        for (int move = 0; move < 40; ++move)
+        {
+            final int cellIndex = largeModelEngine.chooseMove(largeModel);
+            largeModel.makeMove(largeGeometry.getRow(cellIndex), largeGeometry.getColumn(cellIndex));
+        }
+
+        final QubTicTacToeRandomEngine randomEngine = QubTicTacToeRandomEngine.create(1);
+
+        final QubTicTacToeSessionStore sessionStore = QubTicTacToeSessionStore.create(geometry, 1);
+
+        final QubTicTacToeMoveParser moveParser = QubTicTacToeMoveParser.get(largeGeometry);
+        final int[] parsedCellIndexes = new int[largeGeometry.getCellCount()];
+
+        return List.create(
+            QubTicTacToeBenchmark.create("QubTicTacToeModel.setBoardCell (3x3 tie game)", () ->
+            {
+                final QubTicTacToeModel model = QubTicTacToeModel.create(geometry);
+                for (final int cellIndex : QubTicTacToeBenchmarks.tieGameCells)
+                {
+                    model.setBoardCell(geometry.getRow(cellIndex), geometry.getColumn(cellIndex), model.getCurrentPlayer());
+                }
+                return model.getFilledCellCount();
+            }),
+            QubTicTacToeBenchmark.create("QubTicTacToeModel.isWinner", () ->
+                (wonModel.isWinner("X") ? 1 : 0) + (wonModel.isWinner("O") ? 2 : 0)),
+            QubTicTacToeBenchmark.create("QubTicTacToeModel.isTie", () ->
+                tiedModel.isTie() ? 1 : 0),
+            QubTicTacToeBenchmark.create("QubTicTacToeModel.getCurrentPlayer", () ->
+                inProgressModel.getCurrentPlayer().length()),
+            QubTicTacToeBenchmark.create("Random playout (3x3)", () ->
+                QubTicTacToeBenchmarks.playRandomGame(geometry, randomEngine)),
+            QubTicTacToeBenchmark.create("Random playout (15x15, 5 in a row)", () ->
+                QubTicTacToeBenchmarks.playRandomGame(largeGeometry, randomEngine)),
+            QubTicTacToeBenchmark.create("QubTicTacToe.makeMove", () ->
+            {
+                final QubTicTacToeModel model = QubTicTacToeModel.create(geometry);
+                QubTicTacToe.makeMove(model, InMemoryCharacterStream.create(), InMemoryCharacterStream.create("b2\n").endOfStream());
+                return model.getFilledCellCount();
+            }),
+            QubTicTacToeBenchmark.create("QubTicTacToe.writeBoard (3x3)", () ->
+                QubTicTacToeBenchmarks.writeBoard(inProgressModel)),
+            QubTicTacToeBenchmark.create("QubTicTacToe.writeBoard (15x15)", () ->
+                QubTicTacToeBenchmarks.writeBoard(largeModel)),
+            QubTicTacToeBenchmark.create("QubTicTacToeSessionStore.makeMove (3x3 tie game)", () ->
+            {
+                final int sessionId = sessionStore.openSession();
+                int status = QubTicTacToeSessionStore.inProgress;
+                for (final int cellIndex : QubTicTacToeBenchmarks.tieGameCells)
+                {
+                    status = sessionStore.makeMove(sessionId, cellIndex);
+                }
+                sessionStore.closeSession(sessionId);
+                return status;
+            }),
+            QubTicTacToeBenchmark.create("QubTicTacToeMoveParser.parseAll (15x15, 5 moves)", () ->
+                moveParser.parseAll("a1 h8 15o 7 g o15", parsedCellIndexes)));
+    }
+
+    static long playRandomGame(QubTicTacToeGeometry geometry, QubTicTacToeEngine engine)
+    {
+        final QubTicTacToeModel model = QubTicTacToeModel.create(geometry);
+        while (!model.isGameDone())
+        {
+            final int cellIndex = engine.chooseMove(model);
+            model.makeMove(geometry.getRow(cellIndex), geometry.getColumn(cellIndex));
+        }
+        return model.getFilledCellCount();
+    }
+
+    static long writeBoard(QubTicTacToeModel model)
+    {
+        final InMemoryCharacterStream output = InMemoryCharacterStream.create();
+        QubTicTacToe.writeBoard(model, output);
+        return output.getText().await().length();
+    }
+
+    /**
+     * Run every benchmark in the suite with the default iteration counts and write the results.
+     * @param output The stream to write the results to.
+     */
+    static void run(CharacterWriteStream output)
+    {
+        QubTicTacToeBenchmarks.run(
+            QubTicTacToeBenchmarks.defaultWarmupIterationCount,
+            QubTicTacToeBenchmarks.defaultMeasurementIterationCount,
+            QubTicTacToeBenchmarks.defaultIterationMilliseconds,
+            output);
+    }
+
+    /**
+     * Run every benchmark in the suite and write the results.
+     * @param warmupIterationCount The number of iterations to run before measuring.
+     * @param measurementIterationCount The number of iterations to measure.
+     * @param iterationMilliseconds The length of each iteration in milliseconds.
+     * @param output The stream to write the results to.
+     */
+    static void run(int warmupIterationCount, int measurementIterationCount, int iterationMilliseconds, CharacterWriteStream output)
+    {
+        PreCondition.assertNotNull(output, "output");
+
+        output.writeLine("Running benchmarks (" + warmupIterationCount + " warmup and " + measurementIterationCount + " measurement iterations of " + iterationMilliseconds + " ms)...").await();
+        for (final QubTicTacToeBenchmark benchmark : QubTicTacToeBenchmarks.createBenchmarks())
+        {
+            output.writeLine(benchmark.run(warmupIterationCount, measurementIterationCount, iterationMilliseconds).toString()).await();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package qub;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Renders a board as the same text that a CharacterTable would produce, without building a table
+ * on every turn. The first time a geometry is rendered, an empty board is rendered once through a
+ * CharacterTable and kept as a template along with the offset of each cell in the template. After
+ * that, rendering a board is copying the template into a reusable buffer, writing the taken cells
+ * into it, and sending the buffer to the stream with a single write.
+ */
+public class QubTicTacToeBoardRenderer
+{
+    /**
+     * The character that marks a cell in the empty board that the template is created from.
+     */
+    private static final char cellMarker = '\u0001';
+
+    private static final ConcurrentHashMap<QubTicTacToeGeometry,QubTicTacToeBoardRenderer> renderers = new ConcurrentHashMap<>();
+
+    /**
+     * The buffer that each thread renders into. The buffer grows to fit the largest board that the
+     * thread has rendered.
+     */
+    private static final ThreadLocal<char[]> buffers = ThreadLocal.withInitial(() -> new char[0]);
+
+    private final QubTicTacToeGeometry geometry;
+    private final char[] template;
+    private final int[] cellOffsets;
+
+    private QubTicTacToeBoardRenderer(QubTicTacToeGeometry geometry)
+    {
+        PreCondition.assertNotNull(geometry, "geometry");
+
+        this.geometry = geometry;
+
+        final String emptyBoard = QubTicTacToeBoardRenderer.renderTable(geometry) + "\n\n";
+        this.template = emptyBoard.toCharArray();
+        this.cellOffsets = new int[geometry.getCellCount()];
+        int cellIndex = 0;
+        for (int offset = 0; offset < this.template.length; ++offset)
+        {
+            if (this.template[offset] == QubTicTacToeBoardRenderer.cellMarker)
+            {
+                this.cellOffsets[cellIndex++] = offset;
+                this.template[offset] = ' ';
+            }
+        }
+    }
+
+    /**
+     * Get the renderer for boards with the provided geometry.
+     * @param geometry The geometry of the boards to render.
+     * @return The renderer for boards with the provided geometry.
+     */
+    public static QubTicTacToeBoardRenderer get(QubTicTacToeGeometry geometry)
+    {
+        PreCondition.assertNotNull(geometry, "geometry");
+
+        return QubTicTacToeBoardRenderer.renderers.computeIfAbsent(geometry, QubTicTacToeBoardRenderer::new);
+    }
+
+    /**
+     * Render an empty board with the provided geometry through a CharacterTable. Each cell contains
+     * cellMarker so that its offset can be found in the rendered text.
+     */
+    private static String renderTable(QubTicTacToeGeometry geometry)
+    {
+        final CharacterTableFormat boardFormat = CharacterTableFormat.create()
+            .setColumnSeparator(" | ")
+            .setRowSeparator('-')
+            .setNewLine('\n');
+
+        final CharacterTable board = CharacterTable.create();
+
+        final List<String> topRow = List.create(" ");
+        for (int column = 0; column < geometry.getWidth(); ++column)
+        {
+            topRow.add(Integers.toString(column + 1));
+        }
+        board.addRow(topRow);
+
+        for (int row = 0; row < geometry.getHeight(); ++row)
+        {
+            final List<String> rowCells = List.create(Characters.toString((char)('A' + row)));
+            for (int column = 0; column < geometry.getWidth(); ++column)
+            {
+                rowCells.add(Characters.toString(QubTicTacToeBoardRenderer.cellMarker));
+            }
+            board.addRow(rowCells);
+        }
+
+        final InMemoryCharacterStream text = InMemoryCharacterStream.create();
+        board.toString(text, boardFormat).await();
+        return text.getText().await();
+    }
+
+    /**
+     * Get the geometry of the boards that this renderer renders.
+     * @return The geometry of the boards that this renderer renders.
+     */
+    public QubTicTacToeGeometry getGeometry()
+    {
+        return this.geometry;
+    }
+
+    /**
+     * Get the number of characters that rendering a board writes.
+     * @return The number of characters that rendering a board writes.
+     */
+    public int getLength()
+    {
+        return this.template.length;
+    }
+
+    /**
+     * Write the provided model's board, followed by an empty line, to the provided stream.
+     * @param model The model whose board will be written.
+     * @param writeStream The stream to write the board to.
+     */
+    public void write(QubTicTacToeModel model, CharacterWriteStream writeStream)
+    {
+        PreCondition.assertNotNull(model, "model");
+        PreCondition.assertSame(this.geometry, model.getGeometry(), "model.getGeometry()");
+        PreCondition.assertNotNull(writeStream, "writeStream");
+
+        char[] buffer = QubTicTacToeBoardRenderer.buffers.get();
+        if (buffer.length < this.template.length)
+        {
+            buffer = new char[this.template.length];
+            QubTicTacToeBoardRenderer.buffers.set(buffer);
+        }
+
+        System.arraycopy(this.template, 0, buffer, 0, this.template.length);
+        this.fillCells(model, "X", 'X', buffer);
+        this.fillCells(model, "O", 'O', buffer);
+
+        writeStream.write(buffer, 0, this.template.length).await();
+    }
+
+    private void fillCells(QubTicTacToeModel model, String player, char token, char[] buffer)
+    {
+        final int wordCount = this.geometry.getWordCount();
+        for (int wordIndex = 0; wordIndex < wordCount; ++wordIndex)
+        {
+            long word = model.getPlayerBoardWord(player, wordIndex);
+            while (word != 0)
+            {
+                final int cellIndex = (wordIndex * Long.SIZE) + Long.numberOfTrailingZeros(word);
+                buffer[this.cellOffsets[cellIndex]] = token;
+                word &= word - 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package qub;
+
+/**
+ * A QubTicTacToeEngine that plays the moves of a QubTicTacToeOpeningBook while the game is in the
+ * book, and asks another engine for every move after that.
+ */
+public class QubTicTacToeBookEngine implements QubTicTacToeEngine
+{
+    private final QubTicTacToeOpeningBook book;
+    private final QubTicTacToeEngine engine;
+    private long bookMoveCount;
+
+    private QubTicTacToeBookEngine(QubTicTacToeOpeningBook book, QubTicTacToeEngine engine)
+    {
+        PreCondition.assertNotNull(book, "book");
+        PreCondition.assertNotNull(engine, "engine");
+
+        this.book = book;
+        this.engine = engine;
+    }
+
+    /**
+     * Create a new engine that looks up moves in the provided book before it asks the provided
+     * engine.
+     * @param book The opening book to look up moves in.
+     * @param engine The engine to ask for the moves that aren't in the book.
+     * @return The new engine.
+     */
+    public static QubTicTacToeBookEngine create(QubTicTacToeOpeningBook book, QubTicTacToeEngine engine)
+    {
+        return new QubTicTacToeBookEngine(book, engine);
+    }
+
+    /**
+     * Get the opening book that this engine looks up moves in.
+     * @return The opening book that this engine looks up moves in.
+     */
+    public QubTicTacToeOpeningBook getBook()
+    {
+        return this.book;
+    }
+
+    /**
+     * Get the engine that this engine asks for the moves that aren't in the book.
+     * @return The engine that this engine asks for the moves that aren't in the book.
+     */
+    public QubTicTacToeEngine getEngine()
+    {
+        return this.engine;
+    }
+
+    /**
+     * Get the number of moves that this engine found in the book.
+     * @return The number of moves that this engine found in the book.
+     */
+    public long getBookMoveCount()
+    {
+        return this.bookMoveCount;
+    }
+
+    @Override
+    public int chooseMove(QubTicTacToeModel model)
+    {
+        PreCondition.assertNotNull(model, "model");
+
+        int result = this.book.getMove(model);
+        if (result == -1)
+        {
+            result = this.engine.chooseMove(model);
+        }
+        else
+        {
+            ++this.bookMoveCount;
+        }
+        return result;
+    }
+}
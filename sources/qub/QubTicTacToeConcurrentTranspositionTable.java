@@ -0,0 +1,67 @@
+package qub;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A QubTicTacToeTranspositionTable that many threads can read and write without locking. Each
+ * entry is stored as (version, ownBoard, otherBoard, data). A writer claims an entry by changing
+ * its even version to the next odd version, writes the position and data, and then publishes the
+ * entry with the next even version. A writer that finds the entry already claimed skips its store,
+ * because losing one store from a cache only costs a repeated search. A reader only accepts an
+ * entry when the version is the same even number before and after it reads the other values, so
+ * an entry that is being written while it is read is treated as a miss instead of mixing one
+ * position's board with another position's data.
+ */
+public class QubTicTacToeConcurrentTranspositionTable implements QubTicTacToeTranspositionTable
+{
+    private static final int valuesPerEntry = 4;
+
+    private final int indexBits;
+    private final AtomicLongArray entries;
+
+    private QubTicTacToeConcurrentTranspositionTable(int indexBits)
+    {
+        PreCondition.assertBetween(1, indexBits, 28, "indexBits");
+
+        this.indexBits = indexBits;
+        this.entries = new AtomicLongArray((1 << indexBits) * QubTicTacToeConcurrentTranspositionTable.valuesPerEntry);
+    }
+
+    public static QubTicTacToeConcurrentTranspositionTable create(int indexBits)
+    {
+        return new QubTicTacToeConcurrentTranspositionTable(indexBits);
+    }
+
+    @Override
+    public int getEntryCount()
+    {
+        return 1 << this.indexBits;
+    }
+
+    @Override
+    public long get(long ownBoard, long otherBoard)
+    {
+        final int offset = QubTicTacToeTranspositionTable.getIndex(ownBoard, otherBoard, this.indexBits) * QubTicTacToeConcurrentTranspositionTable.valuesPerEntry;
+        final long version = this.entries.get(offset);
+        final long entryOwnBoard = this.entries.get(offset + 1);
+        final long entryOtherBoard = this.entries.get(offset + 2);
+        final long data = this.entries.get(offset + 3);
+        return (version & 1) == 0 && this.entries.get(offset) == version && entryOwnBoard == ownBoard && entryOtherBoard == otherBoard
+            ? data
+            : 0;
+    }
+
+    @Override
+    public void set(long ownBoard, long otherBoard, long data)
+    {
+        final int offset = QubTicTacToeTranspositionTable.getIndex(ownBoard, otherBoard, this.indexBits) * QubTicTacToeConcurrentTranspositionTable.valuesPerEntry;
+        final long version = this.entries.get(offset);
+        if ((version & 1) == 0 && this.entries.compareAndSet(offset, version, version + 1))
+        {
+            this.entries.set(offset + 1, ownBoard);
+            this.entries.set(offset + 2, otherBoard);
+            this.entries.set(offset + 3, data);
+            this.entries.set(offset, version + 2);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package qub;
+
+/**
+ * A computer player that can choose moves for a QubTicTacToeModel.
+ */
+public interface QubTicTacToeEngine
+{
+    /**
+     * Choose the cell that the current player of the provided model should take next.
+     * @param model The model of the game that is being played.
+     * @return The index of the cell that the current player should take.
+     */
+    int chooseMove(QubTicTacToeModel model);
+}
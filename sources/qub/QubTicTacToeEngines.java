@@ -0,0 +1,236 @@
+package qub;
+
+/**
+ * Functions for creating QubTicTacToeEngines from the player specifications that are passed on
+ * the command line. A specification is an engine name that is optionally followed by a colon and
+ * an engine option, such as "minimax", "minimax:4", or "mcts:500ms".
+ */
+public interface QubTicTacToeEngines
+{
+    /**
+     * The specification of a player that is controlled by a person instead of an engine.
+     */
+    String human = "human";
+
+    /**
+     * The specification of the engine that takes a random empty cell.
+     */
+    String random = "random";
+
+    /**
+     * The specification of the perfect-play minimax engine. An optional ":<depth>" suffix limits
+     * how many moves ahead the engine searches.
+     */
+    String minimax = "minimax";
+
+    /**
+     * The specification of the Monte Carlo tree search engine. An optional ":<playouts>" suffix
+     * sets how many playouts are run for each move, and an optional ":<milliseconds>ms" suffix sets
+     * how long each move is searched for instead.
+     */
+    String monteCarlo = "mcts";
+
+    /**
+     * The suffix of a Monte Carlo tree search option that is a number of milliseconds.
+     */
+    String millisecondsSuffix = "ms";
+
+    /**
+     * Get the error message that describes what is wrong with the provided player specification, or
+     * null if the specification is valid for the provided geometry.
+     * @param specification The player specification.
+     * @param geometry The geometry of the board that the player will play on.
+     * @return The error message, or null if the specification is valid.
+     */
+    static String getSpecificationError(String specification, QubTicTacToeGeometry geometry)
+    {
+        PreCondition.assertNotNull(specification, "specification");
+        PreCondition.assertNotNull(geometry, "geometry");
+
+        final String engineName = QubTicTacToeEngines.getEngineName(specification);
+        final String engineOption = QubTicTacToeEngines.getEngineOption(specification);
+
+        String result = null;
+        if (engineName.equals(QubTicTacToeEngines.human))
+        {
+            if (engineOption != null)
+            {
+                result = "The " + Strings.escapeAndQuote(QubTicTacToeEngines.human) + " player doesn't have any options.";
+            }
+        }
+        else if (engineName.equals(QubTicTacToeEngines.random))
+        {
+            if (engineOption != null)
+            {
+                result = "The " + Strings.escapeAndQuote(QubTicTacToeEngines.random) + " player doesn't have any options.";
+            }
+        }
+        else if (engineName.equals(QubTicTacToeEngines.minimax))
+        {
+            if (geometry.getWordCount() != 1)
+            {
+                result = "The " + Strings.escapeAndQuote(QubTicTacToeEngines.minimax) + " player only supports boards with up to " + Long.SIZE + " cells.";
+            }
+            else if (engineOption != null && QubTicTacToeEngines.parsePositiveInteger(engineOption) == -1)
+            {
+                result = "The " + Strings.escapeAndQuote(QubTicTacToeEngines.minimax) + " search depth " + Strings.escapeAndQuote(engineOption) + " must be a positive integer.";
+            }
+        }
+        else if (engineName.equals(QubTicTacToeEngines.monteCarlo))
+        {
+            if (engineOption != null && QubTicTacToeEngines.parsePositiveInteger(QubTicTacToeEngines.getMonteCarloBudget(engineOption)) == -1)
+            {
+                result = "The " + Strings.escapeAndQuote(QubTicTacToeEngines.monteCarlo) + " budget " + Strings.escapeAndQuote(engineOption) + " must be a positive number of playouts or milliseconds (such as 500ms).";
+            }
+        }
+        else
+        {
+            result = "Unknown player " + Strings.escapeAndQuote(specification) + ". Expected " + QubTicTacToeEngines.getSpecificationNames() + ".";
+        }
+        return result;
+    }
+
+    /**
+     * Get the names of the player specifications that can be used, for error and help messages.
+     * @return The names of the player specifications that can be used.
+     */
+    static String getSpecificationNames()
+    {
+        return QubTicTacToeEngines.human + ", " +
+            QubTicTacToeEngines.random + ", " +
+            QubTicTacToeEngines.minimax + "[:<depth>], or " +
+            QubTicTacToeEngines.monteCarlo + "[:<playouts>|:<milliseconds>" + QubTicTacToeEngines.millisecondsSuffix + "]";
+    }
+
+    /**
+     * Create the engine that the provided player specification describes.
+     * @param specification The player specification.
+     * @param geometry The geometry of the board that the engine will play on.
+     * @return The engine, or null if the specification describes a human player.
+     */
+    static QubTicTacToeEngine create(String specification, QubTicTacToeGeometry geometry)
+    {
+        return QubTicTacToeEngines.create(specification, geometry, 1);
+    }
+
+    /**
+     * Create the engine that the provided player specification describes.
+     * @param specification The player specification.
+     * @param geometry The geometry of the board that the engine will play on.
+     * @param threadCount The number of threads that engines which search in parallel can use.
+     * @return The engine, or null if the specification describes a human player.
+     */
+    static QubTicTacToeEngine create(String specification, QubTicTacToeGeometry geometry, int threadCount)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(threadCount, 1, "threadCount");
+        PreCondition.assertNull(QubTicTacToeEngines.getSpecificationError(specification, geometry), "QubTicTacToeEngines.getSpecificationError(specification, geometry)");
+
+        final String engineName = QubTicTacToeEngines.getEngineName(specification);
+        final String engineOption = QubTicTacToeEngines.getEngineOption(specification);
+
+        QubTicTacToeEngine result = null;
+        if (engineName.equals(QubTicTacToeEngines.random))
+        {
+            result = QubTicTacToeRandomEngine.create();
+        }
+        else if (engineName.equals(QubTicTacToeEngines.minimax))
+        {
+            result = engineOption == null
+                ? QubTicTacToeMinimaxEngine.create(geometry)
+                : QubTicTacToeMinimaxEngine.create(geometry, QubTicTacToeEngines.parsePositiveInteger(engineOption));
+        }
+        else if (engineName.equals(QubTicTacToeEngines.monteCarlo))
+        {
+            if (engineOption == null)
+            {
+                result = QubTicTacToeMonteCarloEngine.createWithPlayouts(geometry, QubTicTacToeMonteCarloEngine.defaultPlayoutCount, threadCount);
+            }
+            else
+            {
+                final int budget = QubTicTacToeEngines.parsePositiveInteger(QubTicTacToeEngines.getMonteCarloBudget(engineOption));
+                result = engineOption.toLowerCase().endsWith(QubTicTacToeEngines.millisecondsSuffix)
+                    ? QubTicTacToeMonteCarloEngine.createWithMilliseconds(geometry, budget, threadCount)
+                    : QubTicTacToeMonteCarloEngine.createWithPlayouts(geometry, budget, threadCount);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Create the engine that the provided player specification describes, and have it play the
+     * moves of the provided opening book while the game is in the book.
+     * @param specification The player specification.
+     * @param geometry The geometry of the board that the engine will play on.
+     * @param threadCount The number of threads that engines which search in parallel can use.
+     * @param book The opening book for the engine to consult before it searches, or null to always
+     * search.
+     * @return The engine, or null if the specification describes a human player.
+     */
+    static QubTicTacToeEngine create(String specification, QubTicTacToeGeometry geometry, int threadCount, QubTicTacToeOpeningBook book)
+    {
+        return QubTicTacToeEngines.create(specification, geometry, threadCount, book, null);
+    }
+
+    /**
+     * Create the engine that the provided player specification describes, and have it play the
+     * moves of the provided opening book while the game is in the book and the moves of the
+     * provided tablebase for the positions that are in the tablebase.
+     * @param specification The player specification.
+     * @param geometry The geometry of the board that the engine will play on.
+     * @param threadCount The number of threads that engines which search in parallel can use.
+     * @param book The opening book for the engine to consult before it searches, or null to always
+     * search.
+     * @param tablebase The tablebase for the engine to consult before it searches, or null to
+     * always search.
+     * @return The engine, or null if the specification describes a human player.
+     */
+    static QubTicTacToeEngine create(String specification, QubTicTacToeGeometry geometry, int threadCount, QubTicTacToeOpeningBook book, QubTicTacToeTablebase tablebase)
+    {
+        PreCondition.assertTrue(book == null || book.getGeometry() == geometry, "book == null || book.getGeometry() == geometry");
+        PreCondition.assertTrue(tablebase == null || tablebase.getGeometry() == geometry, "tablebase == null || tablebase.getGeometry() == geometry");
+
+        QubTicTacToeEngine result = QubTicTacToeEngines.create(specification, geometry, threadCount);
+        if (result != null && tablebase != null)
+        {
+            result = QubTicTacToeTablebaseEngine.create(tablebase, result);
+        }
+        if (result != null && book != null)
+        {
+            result = QubTicTacToeBookEngine.create(book, result);
+        }
+        return result;
+    }
+
+    /**
+     * Get the number part of a Monte Carlo tree search option, without any milliseconds suffix.
+     */
+    static String getMonteCarloBudget(String engineOption)
+    {
+        return engineOption.toLowerCase().endsWith(QubTicTacToeEngines.millisecondsSuffix)
+            ? engineOption.substring(0, engineOption.length() - QubTicTacToeEngines.millisecondsSuffix.length()).trim()
+            : engineOption;
+    }
+
+    static String getEngineName(String specification)
+    {
+        final int colonIndex = specification.indexOf(':');
+        return (colonIndex == -1 ? specification : specification.substring(0, colonIndex)).trim().toLowerCase();
+    }
+
+    static String getEngineOption(String specification)
+    {
+        final int colonIndex = specification.indexOf(':');
+        return colonIndex == -1 ? null : specification.substring(colonIndex + 1).trim();
+    }
+
+    /**
+     * Parse the provided text as a positive integer.
+     * @param text The text to parse.
+     * @return The parsed integer, or -1 if the text isn't a positive integer.
+     */
+    static int parsePositiveInteger(String text)
+    {
+        final Integer value = Integers.parse(text).catchError().await();
+        return value == null || value <= 0 ? -1 : value;
+    }
+}
@@ -0,0 +1,336 @@
+package qub;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An append-only archive of QubTicTacToeGameRecords. The archive is two files that are written
+ * through memory-mapped regions, so appending a record is a few stores into the page cache instead
+ * of a system call:
+ * <ul>
+ *     <li>The data file holds the encoded records back to back. A record never straddles two
+ *     regions. If a record doesn't fit in what is left of a region, it starts at the next
+ *     region.</li>
+ *     <li>The index file (the data file's path followed by ".index") starts with a header that
+ *     holds a magic number, the number of games, and the end of the data. The header is followed
+ *     by the offset in the data file of each game, so that a game can be read by its id without
+ *     scanning the records before it.</li>
+ * </ul>
+ * The header is updated after the record and its offset have been written, so the archive stays
+ * consistent if the process stops between appends. Both files grow a region at a time and aren't
+ * truncated when the archive is closed. On file systems that support sparse files, the unwritten
+ * part of the last region doesn't take any disk space.
+ */
+public class QubTicTacToeGameArchive implements AutoCloseable
+{
+    /**
+     * The number of bytes in each mapped region of the archive's files.
+     */
+    public static final int defaultRegionSize = 64 * 1024 * 1024;
+
+    /**
+     * The suffix that is added to the data file's path to get the index file's path.
+     */
+    public static final String indexFileSuffix = ".index";
+
+    private static final long magicNumber = 0x5175625454544131L;
+    private static final int gameCountOffset = 8;
+    private static final int dataEndOffset = 16;
+    private static final int headerLength = 24;
+
+    private final Path dataFilePath;
+    private final int regionSize;
+    private final FileChannel dataChannel;
+    private final FileChannel indexChannel;
+    private final ReentrantLock lock;
+    private volatile MappedByteBuffer[] dataRegions;
+    private volatile MappedByteBuffer[] indexRegions;
+    private volatile long gameCount;
+    private long dataEnd;
+    private boolean closed;
+
+    private QubTicTacToeGameArchive(Path dataFilePath, int regionSize, FileChannel dataChannel, FileChannel indexChannel) throws IOException
+    {
+        this.dataFilePath = dataFilePath;
+        this.regionSize = regionSize;
+        this.dataChannel = dataChannel;
+        this.indexChannel = indexChannel;
+        this.lock = new ReentrantLock();
+        this.dataRegions = new MappedByteBuffer[0];
+        this.indexRegions = new MappedByteBuffer[0];
+
+        final MappedByteBuffer header = this.getIndexRegion(0);
+        if (header.getLong(0) == 0)
+        {
+            header.putLong(0, QubTicTacToeGameArchive.magicNumber);
+        }
+        else if (header.getLong(0) != QubTicTacToeGameArchive.magicNumber)
+        {
+            throw new IOException(QubTicTacToeGameArchive.getIndexFilePath(dataFilePath) + " is not a game archive index.");
+        }
+        this.gameCount = header.getLong(QubTicTacToeGameArchive.gameCountOffset);
+        this.dataEnd = header.getLong(QubTicTacToeGameArchive.dataEndOffset);
+    }
+
+    /**
+     * Open the archive with the provided data file path, creating it if it doesn't exist.
+     * @param dataFilePath The path to the archive's data file.
+     * @return The opened archive.
+     */
+    public static Result<QubTicTacToeGameArchive> open(String dataFilePath)
+    {
+        PreCondition.assertNotNullAndNotEmpty(dataFilePath, "dataFilePath");
+
+        return QubTicTacToeGameArchive.open(Paths.get(dataFilePath), QubTicTacToeGameArchive.defaultRegionSize);
+    }
+
+    /**
+     * Open the archive with the provided data file path, creating it if it doesn't exist.
+     * @param dataFilePath The path to the archive's data file.
+     * @param regionSize The number of bytes in each mapped region of the archive's files. This must
+     * be the same every time that an archive is opened.
+     * @return The opened archive.
+     */
+    static Result<QubTicTacToeGameArchive> open(Path dataFilePath, int regionSize)
+    {
+        PreCondition.assertNotNull(dataFilePath, "dataFilePath");
+        PreCondition.assertGreaterThanOrEqualTo(regionSize, 1024, "regionSize");
+        PreCondition.assertEqual(0, regionSize % 8, "regionSize % 8");
+
+        Result<QubTicTacToeGameArchive> result;
+        FileChannel dataChannel = null;
+        FileChannel indexChannel = null;
+        try
+        {
+            dataChannel = FileChannel.open(dataFilePath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            indexChannel = FileChannel.open(QubTicTacToeGameArchive.getIndexFilePath(dataFilePath), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            result = Result.success(new QubTicTacToeGameArchive(dataFilePath, regionSize, dataChannel, indexChannel));
+        }
+        catch (IOException e)
+        {
+            QubTicTacToeGameArchive.close(dataChannel);
+            QubTicTacToeGameArchive.close(indexChannel);
+            result = Result.error(e);
+        }
+        return result;
+    }
+
+    /**
+     * Get whether an archive with the provided data file path exists.
+     * @param dataFilePath The path to the archive's data file.
+     * @return Whether both of the archive's files exist.
+     */
+    public static boolean exists(String dataFilePath)
+    {
+        PreCondition.assertNotNullAndNotEmpty(dataFilePath, "dataFilePath");
+
+        final Path path = Paths.get(dataFilePath);
+        return Files.isRegularFile(path) && Files.isRegularFile(QubTicTacToeGameArchive.getIndexFilePath(path));
+    }
+
+    /**
+     * Get the path of the index file of the archive with the provided data file path.
+     * @param dataFilePath The path to the archive's data file.
+     * @return The path of the archive's index file.
+     */
+    public static Path getIndexFilePath(Path dataFilePath)
+    {
+        PreCondition.assertNotNull(dataFilePath, "dataFilePath");
+
+        return dataFilePath.resolveSibling(dataFilePath.getFileName() + QubTicTacToeGameArchive.indexFileSuffix);
+    }
+
+    /**
+     * Get the path to this archive's data file.
+     * @return The path to this archive's data file.
+     */
+    public Path getDataFilePath()
+    {
+        return this.dataFilePath;
+    }
+
+    /**
+     * Get the number of games in this archive.
+     * @return The number of games in this archive.
+     */
+    public long getGameCount()
+    {
+        return this.gameCount;
+    }
+
+    /**
+     * Add the provided record to the end of this archive.
+     * @param record The record to add.
+     * @return The id of the added game.
+     */
+    public long append(QubTicTacToeGameRecord record)
+    {
+        PreCondition.assertNotNull(record, "record");
+
+        final int length = record.getEncodedLength();
+        long result;
+        this.lock.lock();
+        try
+        {
+            PreCondition.assertFalse(this.closed, "this.closed");
+
+            long offset = this.dataEnd;
+            if ((offset % this.regionSize) + length > this.regionSize)
+            {
+                offset += this.regionSize - (offset % this.regionSize);
+            }
+            record.encode(this.getDataRegion(offset / this.regionSize), (int)(offset % this.regionSize));
+
+            result = this.gameCount;
+            final long indexOffset = QubTicTacToeGameArchive.headerLength + (result * 8);
+            this.getIndexRegion(indexOffset / this.regionSize).putLong((int)(indexOffset % this.regionSize), offset);
+
+            this.dataEnd = offset + length;
+            final MappedByteBuffer header = this.getIndexRegion(0);
+            header.putLong(QubTicTacToeGameArchive.dataEndOffset, this.dataEnd);
+            header.putLong(QubTicTacToeGameArchive.gameCountOffset, result + 1);
+            this.gameCount = result + 1;
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeException(e);
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Get the game with the provided id. Games can be read by any number of threads while another
+     * thread appends games.
+     * @param gameId The id of the game.
+     * @return The game with the provided id.
+     */
+    public QubTicTacToeGameRecord get(long gameId)
+    {
+        PreCondition.assertBetween(0, gameId, this.gameCount - 1, "gameId");
+
+        try
+        {
+            final long indexOffset = QubTicTacToeGameArchive.headerLength + (gameId * 8);
+            final long offset = this.getIndexRegion(indexOffset / this.regionSize).getLong((int)(indexOffset % this.regionSize));
+            return QubTicTacToeGameRecord.decode(this.getDataRegion(offset / this.regionSize), (int)(offset % this.regionSize));
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private MappedByteBuffer getDataRegion(long regionIndex) throws IOException
+    {
+        MappedByteBuffer[] regions = this.dataRegions;
+        if (regionIndex >= regions.length || regions[(int)regionIndex] == null)
+        {
+            regions = this.mapRegion(this.dataChannel, true, regionIndex);
+        }
+        return regions[(int)regionIndex];
+    }
+
+    private MappedByteBuffer getIndexRegion(long regionIndex) throws IOException
+    {
+        MappedByteBuffer[] regions = this.indexRegions;
+        if (regionIndex >= regions.length || regions[(int)regionIndex] == null)
+        {
+            regions = this.mapRegion(this.indexChannel, false, regionIndex);
+        }
+        return regions[(int)regionIndex];
+    }
+
+    /**
+     * Map the provided region of the provided file. The arrays of mapped regions are replaced
+     * instead of modified so that readers never need to take the lock for a region that has
+     * already been mapped.
+     */
+    private MappedByteBuffer[] mapRegion(FileChannel channel, boolean isDataFile, long regionIndex) throws IOException
+    {
+        this.lock.lock();
+        try
+        {
+            MappedByteBuffer[] regions = isDataFile ? this.dataRegions : this.indexRegions;
+            if (regionIndex >= regions.length || regions[(int)regionIndex] == null)
+            {
+                final MappedByteBuffer[] newRegions = new MappedByteBuffer[(int)Math.max(regions.length, regionIndex + 1)];
+                System.arraycopy(regions, 0, newRegions, 0, regions.length);
+                newRegions[(int)regionIndex] = channel.map(FileChannel.MapMode.READ_WRITE, regionIndex * this.regionSize, this.regionSize);
+                regions = newRegions;
+                if (isDataFile)
+                {
+                    this.dataRegions = regions;
+                }
+                else
+                {
+                    this.indexRegions = regions;
+                }
+            }
+            return regions;
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Write any appended games to the archive's files and close them.
+     */
+    @Override
+    public void close()
+    {
+        this.lock.lock();
+        try
+        {
+            if (!this.closed)
+            {
+                this.closed = true;
+                for (final MappedByteBuffer region : this.dataRegions)
+                {
+                    if (region != null)
+                    {
+                        region.force();
+                    }
+                }
+                for (final MappedByteBuffer region : this.indexRegions)
+                {
+                    if (region != null)
+                    {
+                        region.force();
+                    }
+                }
+                QubTicTacToeGameArchive.close(this.dataChannel);
+                QubTicTacToeGameArchive.close(this.indexChannel);
+            }
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+    }
+
+    private static void close(FileChannel channel)
+    {
+        if (channel != null)
+        {
+            try
+            {
+                channel.close();
+            }
+            catch (IOException ignored)
+            {
+            }
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package qub;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A finished (or abandoned) game in the compact binary form that QubTicTacToeGameArchive stores.
+ * An encoded record is laid out as:
+ * <ul>
+ *     <li>The length of the whole record in bytes (2 bytes).</li>
+ *     <li>The width, height, and win length of the board (1 byte each).</li>
+ *     <li>The result: inProgress, xWins, oWins, tie, or abandoned from QubTicTacToeSessionStore
+ *     (1 byte).</li>
+ *     <li>The X and O player specifications, each as a byte count (1 byte) followed by the
+ *     specification's UTF-8 bytes.</li>
+ *     <li>The number of moves (2 bytes).</li>
+ *     <li>The cell index of every move, packed least significant bit first into just enough bits
+ *     to hold the largest cell index of the board. That is 4 bits per move on a 3x3 board and 10
+ *     bits per move on a 26x26 board.</li>
+ * </ul>
+ */
+public class QubTicTacToeGameRecord
+{
+    /**
+     * The largest number of UTF-8 bytes that a player specification can have in a record.
+     */
+    public static final int maximumPlayerLength = 255;
+
+    private static final int fixedLength = 2 + 3 + 1 + 1 + 1 + 2;
+
+    private final QubTicTacToeGeometry geometry;
+    private final String xPlayer;
+    private final String oPlayer;
+    private final byte[] xPlayerBytes;
+    private final byte[] oPlayerBytes;
+    private final int result;
+    private final int[] moves;
+
+    private QubTicTacToeGameRecord(QubTicTacToeGeometry geometry, String xPlayer, String oPlayer, int result, int[] moves)
+    {
+        PreCondition.assertNotNull(geometry, "geometry");
+        PreCondition.assertNotNull(xPlayer, "xPlayer");
+        PreCondition.assertNotNull(oPlayer, "oPlayer");
+        PreCondition.assertBetween(QubTicTacToeSessionStore.inProgress, result, QubTicTacToeSessionStore.abandoned, "result");
+        PreCondition.assertNotNull(moves, "moves");
+        PreCondition.assertBetween(0, moves.length, geometry.getCellCount(), "moves.length");
+
+        final byte[] xPlayerBytes = xPlayer.getBytes(StandardCharsets.UTF_8);
+        PreCondition.assertBetween(0, xPlayerBytes.length, QubTicTacToeGameRecord.maximumPlayerLength, "xPlayer's UTF-8 byte count");
+        final byte[] oPlayerBytes = oPlayer.getBytes(StandardCharsets.UTF_8);
+        PreCondition.assertBetween(0, oPlayerBytes.length, QubTicTacToeGameRecord.maximumPlayerLength, "oPlayer's UTF-8 byte count");
+
+        this.geometry = geometry;
+        this.xPlayer = xPlayer;
+        this.oPlayer = oPlayer;
+        this.xPlayerBytes = xPlayerBytes;
+        this.oPlayerBytes = oPlayerBytes;
+        this.result = result;
+        this.moves = moves;
+    }
+
+    /**
+     * Create a new record.
+     * @param geometry The geometry of the game's board.
+     * @param xPlayer The specification of the player that controlled X.
+     * @param oPlayer The specification of the player that controlled O.
+     * @param result The result of the game: inProgress, xWins, oWins, tie, or abandoned from
+     * QubTicTacToeSessionStore.
+     * @param moves The cell index of every move in the order that they were made.
+     * @return The new record.
+     */
+    public static QubTicTacToeGameRecord create(QubTicTacToeGeometry geometry, String xPlayer, String oPlayer, int result, int[] moves)
+    {
+        return new QubTicTacToeGameRecord(geometry, xPlayer, oPlayer, result, moves);
+    }
+
+    /**
+     * Create a new record of the game in the provided model.
+     * @param model The game to record.
+     * @param xPlayer The specification of the player that controlled X.
+     * @param oPlayer The specification of the player that controlled O.
+     * @return The new record.
+     */
+    public static QubTicTacToeGameRecord create(QubTicTacToeModel model, String xPlayer, String oPlayer)
+    {
+        PreCondition.assertNotNull(model, "model");
+
+        final int[] moves = new int[model.getFilledCellCount()];
+        for (int moveIndex = 0; moveIndex < moves.length; ++moveIndex)
+        {
+            moves[moveIndex] = model.getMove(moveIndex);
+        }
+
+        final int result;
+        if (model.hasWinner())
+        {
+            result = model.getWinner().equals("X") ? QubTicTacToeSessionStore.xWins : QubTicTacToeSessionStore.oWins;
+        }
+        else if (model.isTie())
+        {
+            result = QubTicTacToeSessionStore.tie;
+        }
+        else
+        {
+            result = model.isGameDone() ? QubTicTacToeSessionStore.abandoned : QubTicTacToeSessionStore.inProgress;
+        }
+
+        return new QubTicTacToeGameRecord(model.getGeometry(), xPlayer, oPlayer, result, moves);
+    }
+
+    /**
+     * Get the geometry of the game's board.
+     * @return The geometry of the game's board.
+     */
+    public QubTicTacToeGeometry getGeometry()
+    {
+        return this.geometry;
+    }
+
+    /**
+     * Get the specification of the player that controlled X.
+     * @return The specification of the player that controlled X.
+     */
+    public String getXPlayer()
+    {
+        return this.xPlayer;
+    }
+
+    /**
+     * Get the specification of the player that controlled O.
+     * @return The specification of the player that controlled O.
+     */
+    public String getOPlayer()
+    {
+        return this.oPlayer;
+    }
+
+    /**
+     * Get the result of the game.
+     * @return inProgress, xWins, oWins, tie, or abandoned from QubTicTacToeSessionStore.
+     */
+    public int getResult()
+    {
+        return this.result;
+    }
+
+    /**
+     * Get the number of moves that were made in the game.
+     * @return The number of moves that were made in the game.
+     */
+    public int getMoveCount()
+    {
+        return this.moves.length;
+    }
+
+    /**
+     * Get the cell index of the move at the provided index.
+     * @param moveIndex The index of the move, where 0 is X's first move.
+     * @return The cell index of the move.
+     */
+    public int getMove(int moveIndex)
+    {
+        PreCondition.assertBetween(0, moveIndex, this.moves.length - 1, "moveIndex");
+
+        return this.moves[moveIndex];
+    }
+
+    /**
+     * Create a model that has had every move of this record made in it. The model isn't marked as
+     * done unless the moves end the game.
+     * @return A model that has had every move of this record made in it.
+     */
+    public QubTicTacToeModel createModel()
+    {
+        final QubTicTacToeModel result = QubTicTacToeModel.create(this.geometry);
+        for (final int cellIndex : this.moves)
+        {
+            result.makeMove(this.geometry.getRow(cellIndex), this.geometry.getColumn(cellIndex));
+        }
+        return result;
+    }
+
+    /**
+     * Get the number of bits that each move takes in an encoded record on the provided geometry.
+     * @param geometry The geometry of the board.
+     * @return The number of bits that each move takes.
+     */
+    public static int getBitsPerMove(QubTicTacToeGeometry geometry)
+    {
+        PreCondition.assertNotNull(geometry, "geometry");
+
+        return Math.max(1, Integer.SIZE - Integer.numberOfLeadingZeros(geometry.getCellCount() - 1));
+    }
+
+    /**
+     * Get the number of bytes that this record takes when it is encoded.
+     * @return The number of bytes that this record takes when it is encoded.
+     */
+    public int getEncodedLength()
+    {
+        final int moveBits = this.moves.length * QubTicTacToeGameRecord.getBitsPerMove(this.geometry);
+        return QubTicTacToeGameRecord.fixedLength + this.xPlayerBytes.length + this.oPlayerBytes.length + ((moveBits + 7) / 8);
+    }
+
+    /**
+     * Write this record into the provided buffer at the provided index. The buffer's position
+     * isn't changed.
+     * @param buffer The buffer to write to.
+     * @param index The index in the buffer to write the record at.
+     * @return The number of bytes that were written.
+     */
+    public int encode(ByteBuffer buffer, int index)
+    {
+        PreCondition.assertNotNull(buffer, "buffer");
+        PreCondition.assertBetween(0, index, buffer.limit() - this.getEncodedLength(), "index");
+
+        final int length = this.getEncodedLength();
+        int offset = index;
+        buffer.putShort(offset, (short)length);
+        offset += 2;
+        buffer.put(offset++, (byte)this.geometry.getWidth());
+        buffer.put(offset++, (byte)this.geometry.getHeight());
+        buffer.put(offset++, (byte)this.geometry.getWinLength());
+        buffer.put(offset++, (byte)this.result);
+        offset = QubTicTacToeGameRecord.encodePlayer(buffer, offset, this.xPlayerBytes);
+        offset = QubTicTacToeGameRecord.encodePlayer(buffer, offset, this.oPlayerBytes);
+        buffer.putShort(offset, (short)this.moves.length);
+        offset += 2;
+
+        final int bitsPerMove = QubTicTacToeGameRecord.getBitsPerMove(this.geometry);
+        long bits = 0;
+        int bitCount = 0;
+        for (final int cellIndex : this.moves)
+        {
+            bits |= (long)cellIndex << bitCount;
+            bitCount += bitsPerMove;
+            while (bitCount >= 8)
+            {
+                buffer.put(offset++, (byte)bits);
+                bits >>>= 8;
+                bitCount -= 8;
+            }
+        }
+        if (bitCount > 0)
+        {
+            buffer.put(offset++, (byte)bits);
+        }
+
+        return length;
+    }
+
+    private static int encodePlayer(ByteBuffer buffer, int offset, byte[] playerBytes)
+    {
+        buffer.put(offset++, (byte)playerBytes.length);
+        for (final byte playerByte : playerBytes)
+        {
+            buffer.put(offset++, playerByte);
+        }
+        return offset;
+    }
+
+    /**
+     * Get the length of the encoded record that starts at the provided index of the provided
+     * buffer.
+     * @param buffer The buffer that contains the encoded record.
+     * @param index The index in the buffer where the record starts.
+     * @return The length of the encoded record.
+     */
+    public static int getEncodedLength(ByteBuffer buffer, int index)
+    {
+        PreCondition.assertNotNull(buffer, "buffer");
+
+        return buffer.getShort(index) & 0xFFFF;
+    }
+
+    /**
+     * Read the record that starts at the provided index of the provided buffer. The buffer's
+     * position isn't changed.
+     * @param buffer The buffer to read from.
+     * @param index The index in the buffer where the record starts.
+     * @return The record.
+     */
+    public static QubTicTacToeGameRecord decode(ByteBuffer buffer, int index)
+    {
+        PreCondition.assertNotNull(buffer, "buffer");
+
+        int offset = index + 2;
+        final int width = buffer.get(offset++) & 0xFF;
+        final int height = buffer.get(offset++) & 0xFF;
+        final int winLength = buffer.get(offset++) & 0xFF;
+        final int result = buffer.get(offset++) & 0xFF;
+        final String xPlayer = QubTicTacToeGameRecord.decodePlayer(buffer, offset);
+        offset += 1 + (buffer.get(offset) & 0xFF);
+        final String oPlayer = QubTicTacToeGameRecord.decodePlayer(buffer, offset);
+        offset += 1 + (buffer.get(offset) & 0xFF);
+        final int moveCount = buffer.getShort(offset) & 0xFFFF;
+        offset += 2;
+
+        final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create(width, height, winLength);
+        final int bitsPerMove = QubTicTacToeGameRecord.getBitsPerMove(geometry);
+        final int moveMask = (1 << bitsPerMove) - 1;
+        final int[] moves = new int[moveCount];
+        long bits = 0;
+        int bitCount = 0;
+        for (int moveIndex = 0; moveIndex < moveCount; ++moveIndex)
+        {
+            while (bitCount < bitsPerMove)
+            {
+                bits |= (long)(buffer.get(offset++) & 0xFF) << bitCount;
+                bitCount += 8;
+            }
+            moves[moveIndex] = (int)bits & moveMask;
+            bits >>>= bitsPerMove;
+            bitCount -= bitsPerMove;
+        }
+
+        return new QubTicTacToeGameRecord(geometry, xPlayer, oPlayer, result, moves);
+    }
+
+    private static String decodePlayer(ByteBuffer buffer, int offset)
+    {
+        final int length = buffer.get(offset) & 0xFF;
+        final byte[] bytes = new byte[length];
+        for (int index = 0; index < length; ++index)
+        {
+            bytes[index] = buffer.get(offset + 1 + index);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
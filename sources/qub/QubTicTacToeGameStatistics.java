@@ -0,0 +1,224 @@
+package qub;
+
+/**
+ * Aggregate statistics about the recorded games that were played on one board geometry. Each
+ * QubTicTacToeArchiveAnalyzer worker fills its own statistics without any synchronization, and the
+ * workers' statistics are added together when every worker is done.
+ */
+public class QubTicTacToeGameStatistics
+{
+    private static final int resultKinds = QubTicTacToeSessionStore.abandoned + 1;
+
+    private final QubTicTacToeGeometry geometry;
+    private final boolean hasBlunderCounts;
+    private final long[] resultCounts;
+    private final long[] gameLengthCounts;
+    private final long[] openingCounts;
+    private long moveCount;
+    private long xBlunderCount;
+    private long oBlunderCount;
+    private long blunderGameCount;
+
+    private QubTicTacToeGameStatistics(QubTicTacToeGeometry geometry, boolean hasBlunderCounts)
+    {
+        PreCondition.assertNotNull(geometry, "geometry");
+
+        this.geometry = geometry;
+        this.hasBlunderCounts = hasBlunderCounts;
+        this.resultCounts = new long[QubTicTacToeGameStatistics.resultKinds];
+        this.gameLengthCounts = new long[geometry.getCellCount() + 1];
+        this.openingCounts = new long[geometry.getCellCount() * QubTicTacToeGameStatistics.resultKinds];
+    }
+
+    /**
+     * Create new empty statistics for the provided geometry.
+     * @param geometry The geometry of the board that the games were played on.
+     * @param hasBlunderCounts Whether the games' moves are compared against perfect play.
+     * @return The new statistics.
+     */
+    static QubTicTacToeGameStatistics create(QubTicTacToeGeometry geometry, boolean hasBlunderCounts)
+    {
+        return new QubTicTacToeGameStatistics(geometry, hasBlunderCounts);
+    }
+
+    /**
+     * Add a game to these statistics.
+     * @param result The result of the game: inProgress, xWins, oWins, tie, or abandoned from
+     * QubTicTacToeSessionStore.
+     * @param openingMove The cell index of X's first move, or -1 if no moves were made.
+     * @param gameLength The number of moves that were made in the game.
+     * @param xBlunders The number of moves that X made that lowered X's perfect-play value.
+     * @param oBlunders The number of moves that O made that lowered O's perfect-play value.
+     */
+    void addGame(int result, int openingMove, int gameLength, int xBlunders, int oBlunders)
+    {
+        ++this.resultCounts[result];
+        ++this.gameLengthCounts[gameLength];
+        if (openingMove >= 0)
+        {
+            ++this.openingCounts[(openingMove * QubTicTacToeGameStatistics.resultKinds) + result];
+        }
+        this.moveCount += gameLength;
+        this.xBlunderCount += xBlunders;
+        this.oBlunderCount += oBlunders;
+        if (xBlunders + oBlunders > 0)
+        {
+            ++this.blunderGameCount;
+        }
+    }
+
+    /**
+     * Add the provided statistics of the same geometry to these statistics.
+     * @param statistics The statistics to add.
+     */
+    void add(QubTicTacToeGameStatistics statistics)
+    {
+        PreCondition.assertNotNull(statistics, "statistics");
+        PreCondition.assertSame(this.geometry, statistics.geometry, "statistics.getGeometry()");
+
+        QubTicTacToeGameStatistics.add(this.resultCounts, statistics.resultCounts);
+        QubTicTacToeGameStatistics.add(this.gameLengthCounts, statistics.gameLengthCounts);
+        QubTicTacToeGameStatistics.add(this.openingCounts, statistics.openingCounts);
+        this.moveCount += statistics.moveCount;
+        this.xBlunderCount += statistics.xBlunderCount;
+        this.oBlunderCount += statistics.oBlunderCount;
+        this.blunderGameCount += statistics.blunderGameCount;
+    }
+
+    private static void add(long[] counts, long[] otherCounts)
+    {
+        for (int index = 0; index < counts.length; ++index)
+        {
+            counts[index] += otherCounts[index];
+        }
+    }
+
+    /**
+     * Get the geometry of the board that the games were played on.
+     * @return The geometry of the board that the games were played on.
+     */
+    public QubTicTacToeGeometry getGeometry()
+    {
+        return this.geometry;
+    }
+
+    /**
+     * Get the number of games that were analyzed.
+     * @return The number of games that were analyzed.
+     */
+    public long getGameCount()
+    {
+        long result = 0;
+        for (final long resultCount : this.resultCounts)
+        {
+            result += resultCount;
+        }
+        return result;
+    }
+
+    /**
+     * Get the number of games that had the provided result.
+     * @param result inProgress, xWins, oWins, tie, or abandoned from QubTicTacToeSessionStore.
+     * @return The number of games that had the provided result.
+     */
+    public long getResultCount(int result)
+    {
+        PreCondition.assertBetween(QubTicTacToeSessionStore.inProgress, result, QubTicTacToeSessionStore.abandoned, "result");
+
+        return this.resultCounts[result];
+    }
+
+    /**
+     * Get the average number of moves in a game.
+     * @return The average number of moves in a game.
+     */
+    public double getAverageGameLength()
+    {
+        final long gameCount = this.getGameCount();
+        return gameCount == 0 ? 0 : (double)this.moveCount / gameCount;
+    }
+
+    /**
+     * Get the number of games that had the provided number of moves.
+     * @param gameLength The number of moves.
+     * @return The number of games that had the provided number of moves.
+     */
+    public long getGameLengthCount(int gameLength)
+    {
+        PreCondition.assertBetween(0, gameLength, this.geometry.getCellCount(), "gameLength");
+
+        return this.gameLengthCounts[gameLength];
+    }
+
+    /**
+     * Get the number of games where X's first move was the provided cell.
+     * @param cellIndex The index of the cell.
+     * @return The number of games where X's first move was the provided cell.
+     */
+    public long getOpeningGameCount(int cellIndex)
+    {
+        PreCondition.assertBetween(0, cellIndex, this.geometry.getCellCount() - 1, "cellIndex");
+
+        long result = 0;
+        for (int gameResult = 0; gameResult < QubTicTacToeGameStatistics.resultKinds; ++gameResult)
+        {
+            result += this.openingCounts[(cellIndex * QubTicTacToeGameStatistics.resultKinds) + gameResult];
+        }
+        return result;
+    }
+
+    /**
+     * Get the number of games where X's first move was the provided cell and that had the provided
+     * result.
+     * @param cellIndex The index of the cell.
+     * @param result inProgress, xWins, oWins, tie, or abandoned from QubTicTacToeSessionStore.
+     * @return The number of games where X's first move was the provided cell and that had the
+     * provided result.
+     */
+    public long getOpeningResultCount(int cellIndex, int result)
+    {
+        PreCondition.assertBetween(0, cellIndex, this.geometry.getCellCount() - 1, "cellIndex");
+        PreCondition.assertBetween(QubTicTacToeSessionStore.inProgress, result, QubTicTacToeSessionStore.abandoned, "result");
+
+        return this.openingCounts[(cellIndex * QubTicTacToeGameStatistics.resultKinds) + result];
+    }
+
+    /**
+     * Get whether the moves of the games were compared against perfect play. This is only possible
+     * on boards that are small enough to search completely.
+     * @return Whether the moves of the games were compared against perfect play.
+     */
+    public boolean hasBlunderCounts()
+    {
+        return this.hasBlunderCounts;
+    }
+
+    /**
+     * Get the number of moves that X made that turned a won position into a drawn or lost one, or
+     * a drawn position into a lost one.
+     * @return The number of blunders that X made.
+     */
+    public long getXBlunderCount()
+    {
+        return this.xBlunderCount;
+    }
+
+    /**
+     * Get the number of moves that O made that turned a won position into a drawn or lost one, or
+     * a drawn position into a lost one.
+     * @return The number of blunders that O made.
+     */
+    public long getOBlunderCount()
+    {
+        return this.oBlunderCount;
+    }
+
+    /**
+     * Get the number of games where either player made at least one blunder.
+     * @return The number of games where either player made at least one blunder.
+     */
+    public long getBlunderGameCount()
+    {
+        return this.blunderGameCount;
+    }
+}
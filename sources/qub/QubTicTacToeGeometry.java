@@ -0,0 +1,488 @@
+package qub;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The shape of a tic-tac-toe board: its width, its height, and the number of cells in a row that
+ * a player needs to win. The win-line tables for a geometry are computed once when the geometry is
+ * created, and every game that uses the same dimensions shares the same geometry object.
+ */
+public class QubTicTacToeGeometry
+{
+    /**
+     * The largest width or height that a board can have.
+     */
+    public static final int maximumDimension = 26;
+
+    /**
+     * The number of players that Zobrist keys are generated for.
+     */
+    public static final int zobristPlayerCount = 2;
+
+    /**
+     * The seed of the generator that creates the Zobrist keys. The seed is fixed so that a
+     * position has the same hash in every run of the application.
+     */
+    private static final long zobristSeed = 0x5171C7AC70EL;
+
+    private static final ConcurrentHashMap<Integer,QubTicTacToeGeometry> geometries = new ConcurrentHashMap<>();
+
+    private final int width;
+    private final int height;
+    private final int winLength;
+    private final int cellCount;
+    private final int wordCount;
+
+    /**
+     * The bitmasks of every line of winLength cells on the board. This is only populated when the
+     * whole board fits in a single long (wordCount == 1).
+     */
+    private final long[] winLineMasks;
+
+    /**
+     * The bitmasks of the winning lines that pass through each cell, indexed by cell index. This is
+     * only populated when the whole board fits in a single long (wordCount == 1).
+     */
+    private final long[][] cellWinLineMasks;
+
+    /**
+     * The random key of each (player, cell) pair, indexed by (playerIndex * cellCount) + cellIndex.
+     * The Zobrist hash of a position is the XOR of the keys of every taken cell.
+     */
+    private final long[] zobristKeys;
+
+    private QubTicTacToeGeometry(int width, int height, int winLength)
+    {
+        this.width = width;
+        this.height = height;
+        this.winLength = winLength;
+        this.cellCount = width * height;
+        this.wordCount = (this.cellCount + Long.SIZE - 1) / Long.SIZE;
+
+        if (this.wordCount == 1)
+        {
+            this.winLineMasks = QubTicTacToeGeometry.createWinLineMasks(width, height, winLength);
+            this.cellWinLineMasks = QubTicTacToeGeometry.createCellWinLineMasks(this.cellCount, this.winLineMasks);
+        }
+        else
+        {
+            this.winLineMasks = null;
+            this.cellWinLineMasks = null;
+        }
+
+        this.zobristKeys = QubTicTacToeGeometry.createZobristKeys(this.cellCount);
+    }
+
+    /**
+     * Get the standard 3x3 geometry where three in a row wins.
+     * @return The standard 3x3 geometry.
+     */
+    public static QubTicTacToeGeometry create()
+    {
+        return QubTicTacToeGeometry.create(3, 3, 3);
+    }
+
+    /**
+     * Get the geometry with the provided dimensions and win length.
+     * @param width The number of columns on the board.
+     * @param height The number of rows on the board.
+     * @param winLength The number of cells in a row that a player needs to win.
+     * @return The geometry with the provided dimensions and win length.
+     */
+    public static QubTicTacToeGeometry create(int width, int height, int winLength)
+    {
+        PreCondition.assertBetween(1, width, QubTicTacToeGeometry.maximumDimension, "width");
+        PreCondition.assertBetween(1, height, QubTicTacToeGeometry.maximumDimension, "height");
+        PreCondition.assertBetween(1, winLength, Math.max(width, height), "winLength");
+
+        final int key = (width << 16) | (height << 8) | winLength;
+        return QubTicTacToeGeometry.geometries.computeIfAbsent(key, (Integer k) -> new QubTicTacToeGeometry(width, height, winLength));
+    }
+
+    private static long[] createWinLineMasks(int width, int height, int winLength)
+    {
+        final List<Long> lines = List.create();
+        final int[][] directions = QubTicTacToeGeometry.getLineDirections();
+        for (int row = 0; row < height; ++row)
+        {
+            for (int column = 0; column < width; ++column)
+            {
+                for (final int[] direction : directions)
+                {
+                    final int lastRow = row + (direction[0] * (winLength - 1));
+                    final int lastColumn = column + (direction[1] * (winLength - 1));
+                    if (0 <= lastRow && lastRow < height && 0 <= lastColumn && lastColumn < width)
+                    {
+                        long lineMask = 0;
+                        for (int index = 0; index < winLength; ++index)
+                        {
+                            final int cellRow = row + (direction[0] * index);
+                            final int cellColumn = column + (direction[1] * index);
+                            lineMask |= 1L << ((cellRow * width) + cellColumn);
+                        }
+                        if (!lines.contains(lineMask))
+                        {
+                            lines.add(lineMask);
+                        }
+                    }
+                }
+            }
+        }
+
+        final long[] result = new long[lines.getCount()];
+        for (int lineIndex = 0; lineIndex < result.length; ++lineIndex)
+        {
+            result[lineIndex] = lines.get(lineIndex);
+        }
+        return result;
+    }
+
+    private static long[][] createCellWinLineMasks(int cellCount, long[] winLineMasks)
+    {
+        final long[][] result = new long[cellCount][];
+        for (int cellIndex = 0; cellIndex < cellCount; ++cellIndex)
+        {
+            final long cellMask = 1L << cellIndex;
+
+            int cellWinLineCount = 0;
+            for (final long winLineMask : winLineMasks)
+            {
+                if ((winLineMask & cellMask) != 0)
+                {
+                    ++cellWinLineCount;
+                }
+            }
+
+            final long[] cellWinLines = new long[cellWinLineCount];
+            int cellWinLineIndex = 0;
+            for (final long winLineMask : winLineMasks)
+            {
+                if ((winLineMask & cellMask) != 0)
+                {
+                    cellWinLines[cellWinLineIndex++] = winLineMask;
+                }
+            }
+            result[cellIndex] = cellWinLines;
+        }
+        return result;
+    }
+
+    /**
+     * Create the Zobrist keys for a board with the provided number of cells with the SplitMix64
+     * generator.
+     */
+    private static long[] createZobristKeys(int cellCount)
+    {
+        final long[] result = new long[QubTicTacToeGeometry.zobristPlayerCount * cellCount];
+        long state = QubTicTacToeGeometry.zobristSeed;
+        for (int keyIndex = 0; keyIndex < result.length; ++keyIndex)
+        {
+            state += 0x9E3779B97F4A7C15L;
+            long key = state;
+            key = (key ^ (key >>> 30)) * 0xBF58476D1CE4E5B9L;
+            key = (key ^ (key >>> 27)) * 0x94D049BB133111EBL;
+            result[keyIndex] = key ^ (key >>> 31);
+        }
+        return result;
+    }
+
+    /**
+     * Get the (row, column) steps of the four directions that a winning line can run in.
+     * @return The (row, column) steps of the four line directions.
+     */
+    private static int[][] getLineDirections()
+    {
+        return new int[][] { { 0, 1 }, { 1, 0 }, { 1, 1 }, { 1, -1 } };
+    }
+
+    /**
+     * Get the number of columns on the board.
+     * @return The number of columns on the board.
+     */
+    public int getWidth()
+    {
+        return this.width;
+    }
+
+    /**
+     * Get the number of rows on the board.
+     * @return The number of rows on the board.
+     */
+    public int getHeight()
+    {
+        return this.height;
+    }
+
+    /**
+     * Get the number of cells in a row that a player needs to win.
+     * @return The number of cells in a row that a player needs to win.
+     */
+    public int getWinLength()
+    {
+        return this.winLength;
+    }
+
+    /**
+     * Get the number of cells on the board.
+     * @return The number of cells on the board.
+     */
+    public int getCellCount()
+    {
+        return this.cellCount;
+    }
+
+    /**
+     * Get the number of longs that are needed to store one bit per cell on the board.
+     * @return The number of longs that are needed to store one bit per cell on the board.
+     */
+    public int getWordCount()
+    {
+        return this.wordCount;
+    }
+
+    /**
+     * Get the index of the cell at the provided row and column.
+     * @param row The row of the cell.
+     * @param column The column of the cell.
+     * @return The index of the cell at the provided row and column.
+     */
+    public int getCellIndex(int row, int column)
+    {
+        PreCondition.assertBetween(0, row, this.height - 1, "row");
+        PreCondition.assertBetween(0, column, this.width - 1, "column");
+
+        return (row * this.width) + column;
+    }
+
+    /**
+     * Get the row of the provided cell index.
+     * @param cellIndex The index of the cell.
+     * @return The row of the provided cell index.
+     */
+    public int getRow(int cellIndex)
+    {
+        return cellIndex / this.width;
+    }
+
+    /**
+     * Get the column of the provided cell index.
+     * @param cellIndex The index of the cell.
+     * @return The column of the provided cell index.
+     */
+    public int getColumn(int cellIndex)
+    {
+        return cellIndex % this.width;
+    }
+
+    /**
+     * Get the text that a player would type to take the provided cell, such as "b2" for the center
+     * cell of a 3x3 board.
+     * @param cellIndex The index of the cell.
+     * @return The text that a player would type to take the provided cell.
+     */
+    public String getCellName(int cellIndex)
+    {
+        PreCondition.assertBetween(0, cellIndex, this.cellCount - 1, "cellIndex");
+
+        return Characters.toString((char)('a' + this.getRow(cellIndex))) + (this.getColumn(cellIndex) + 1);
+    }
+
+    /**
+     * Get the bitmasks of every winning line on the board. This is only available when the whole
+     * board fits in a single long.
+     * @return The bitmasks of every winning line on the board.
+     */
+    public long[] getWinLineMasks()
+    {
+        PreCondition.assertEqual(1, this.wordCount, "this.getWordCount()");
+
+        return this.winLineMasks;
+    }
+
+    /**
+     * Get the bitmasks of the winning lines that pass through the provided cell. This is only
+     * available when the whole board fits in a single long.
+     * @param cellIndex The index of the cell.
+     * @return The bitmasks of the winning lines that pass through the provided cell.
+     */
+    public long[] getCellWinLineMasks(int cellIndex)
+    {
+        PreCondition.assertEqual(1, this.wordCount, "this.getWordCount()");
+
+        return this.cellWinLineMasks[cellIndex];
+    }
+
+    /**
+     * Get the Zobrist key of the provided player taking the provided cell.
+     * @param playerIndex The index of the player.
+     * @param cellIndex The index of the cell.
+     * @return The Zobrist key of the provided player taking the provided cell.
+     */
+    public long getZobristKey(int playerIndex, int cellIndex)
+    {
+        PreCondition.assertBetween(0, playerIndex, QubTicTacToeGeometry.zobristPlayerCount - 1, "playerIndex");
+        PreCondition.assertBetween(0, cellIndex, this.cellCount - 1, "cellIndex");
+
+        return this.zobristKeys[(playerIndex * this.cellCount) + cellIndex];
+    }
+
+    /**
+     * Get whether the provided single-long board has a winning line through the provided cell.
+     * @param board The bitmask of the cells that a player has taken.
+     * @param cellIndex The index of the cell that was just taken.
+     * @return Whether the board has a winning line through the provided cell.
+     */
+    public boolean isWinningMove(long board, int cellIndex)
+    {
+        boolean result = false;
+        for (final long winLineMask : this.cellWinLineMasks[cellIndex])
+        {
+            if ((board & winLineMask) == winLineMask)
+            {
+                result = true;
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get whether the provided board has a winning line through the provided cell. The board is
+     * the wordCount longs that start at boardOffset in boards.
+     * @param boards The array that contains the bitmask of the cells that a player has taken.
+     * @param boardOffset The index in boards where the player's bitmask starts.
+     * @param cellIndex The index of the cell that was just taken.
+     * @return Whether the board has a winning line through the provided cell.
+     */
+    public boolean isWinningMove(long[] boards, int boardOffset, int cellIndex)
+    {
+        boolean result;
+        if (this.wordCount == 1)
+        {
+            result = this.isWinningMove(boards[boardOffset], cellIndex);
+        }
+        else
+        {
+            result = this.countInLine(boards, boardOffset, cellIndex, 0, 1) >= this.winLength ||
+                this.countInLine(boards, boardOffset, cellIndex, 1, 0) >= this.winLength ||
+                this.countInLine(boards, boardOffset, cellIndex, 1, 1) >= this.winLength ||
+                this.countInLine(boards, boardOffset, cellIndex, 1, -1) >= this.winLength;
+        }
+        return result;
+    }
+
+    /**
+     * Count the consecutive taken cells in the line through the provided cell that runs in the
+     * provided direction, including the provided cell.
+     */
+    private int countInLine(long[] boards, int boardOffset, int cellIndex, int rowStep, int columnStep)
+    {
+        final int row = cellIndex / this.width;
+        final int column = cellIndex % this.width;
+
+        int result = 1;
+        for (int step = 1; step < this.winLength; ++step)
+        {
+            final int cellRow = row + (rowStep * step);
+            final int cellColumn = column + (columnStep * step);
+            if (!this.isTaken(boards, boardOffset, cellRow, cellColumn))
+            {
+                break;
+            }
+            ++result;
+        }
+        for (int step = 1; step < this.winLength; ++step)
+        {
+            final int cellRow = row - (rowStep * step);
+            final int cellColumn = column - (columnStep * step);
+            if (!this.isTaken(boards, boardOffset, cellRow, cellColumn))
+            {
+                break;
+            }
+            ++result;
+        }
+        return result;
+    }
+
+    private boolean isTaken(long[] boards, int boardOffset, int row, int column)
+    {
+        return 0 <= row && row < this.height &&
+            0 <= column && column < this.width &&
+            QubTicTacToeGeometry.isSet(boards, boardOffset, (row * this.width) + column);
+    }
+
+    /**
+     * Get whether the bit for the provided cell is set in the board that starts at boardOffset.
+     * @param boards The array that contains the board.
+     * @param boardOffset The index in boards where the board starts.
+     * @param cellIndex The index of the cell.
+     * @return Whether the bit for the provided cell is set.
+     */
+    public static boolean isSet(long[] boards, int boardOffset, int cellIndex)
+    {
+        return (boards[boardOffset + (cellIndex >>> 6)] & (1L << cellIndex)) != 0;
+    }
+
+    /**
+     * Set the bit for the provided cell in the board that starts at boardOffset.
+     * @param boards The array that contains the board.
+     * @param boardOffset The index in boards where the board starts.
+     * @param cellIndex The index of the cell.
+     */
+    public static void set(long[] boards, int boardOffset, int cellIndex)
+    {
+        boards[boardOffset + (cellIndex >>> 6)] |= (1L << cellIndex);
+    }
+
+    /**
+     * Clear the bit for the provided cell in the board that starts at boardOffset.
+     * @param boards The array that contains the board.
+     * @param boardOffset The index in boards where the board starts.
+     * @param cellIndex The index of the cell.
+     */
+    public static void clear(long[] boards, int boardOffset, int cellIndex)
+    {
+        boards[boardOffset + (cellIndex >>> 6)] &= ~(1L << cellIndex);
+    }
+
+    /**
+     * Get whether the board that starts at boardOffset contains any winning line.
+     * @param boards The array that contains the board.
+     * @param boardOffset The index in boards where the board starts.
+     * @return Whether the board contains any winning line.
+     */
+    public boolean isWin(long[] boards, int boardOffset)
+    {
+        boolean result = false;
+        if (this.wordCount == 1)
+        {
+            final long board = boards[boardOffset];
+            for (final long winLineMask : this.winLineMasks)
+            {
+                if ((board & winLineMask) == winLineMask)
+                {
+                    result = true;
+                    break;
+                }
+            }
+        }
+        else
+        {
+            for (int cellIndex = 0; cellIndex < this.cellCount; ++cellIndex)
+            {
+                if (QubTicTacToeGeometry.isSet(boards, boardOffset, cellIndex) && this.isWinningMove(boards, boardOffset, cellIndex))
+                {
+                    result = true;
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.width + "x" + this.height + " (" + this.winLength + " in a row)";
+    }
+}
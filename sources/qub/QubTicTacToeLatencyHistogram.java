@@ -0,0 +1,169 @@
+package qub;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of durations that any number of threads can record into without locking. Each
+ * duration is counted in the bucket of its highest set bit, so bucket 0 holds durations of 0
+ * nanoseconds and bucket i holds durations from 2^(i-1) up to 2^i - 1 nanoseconds. Percentiles are
+ * reported as the upper bound of the bucket that they fall in, which is at most twice the real
+ * value.
+ */
+public class QubTicTacToeLatencyHistogram
+{
+    /**
+     * The number of buckets in every histogram.
+     */
+    public static final int bucketCount = 64;
+
+    private final LongAdder[] buckets;
+    private final LongAdder count;
+    private final LongAdder totalNanoseconds;
+    private final LongAccumulator maximumNanoseconds;
+
+    private QubTicTacToeLatencyHistogram()
+    {
+        this.buckets = new LongAdder[QubTicTacToeLatencyHistogram.bucketCount];
+        for (int bucketIndex = 0; bucketIndex < QubTicTacToeLatencyHistogram.bucketCount; ++bucketIndex)
+        {
+            this.buckets[bucketIndex] = new LongAdder();
+        }
+        this.count = new LongAdder();
+        this.totalNanoseconds = new LongAdder();
+        this.maximumNanoseconds = new LongAccumulator(Math::max, 0);
+    }
+
+    /**
+     * Create a new empty histogram.
+     * @return The new histogram.
+     */
+    public static QubTicTacToeLatencyHistogram create()
+    {
+        return new QubTicTacToeLatencyHistogram();
+    }
+
+    /**
+     * Get the index of the bucket that the provided duration is counted in.
+     * @param nanoseconds The duration.
+     * @return The index of the bucket that the provided duration is counted in.
+     */
+    public static int getBucketIndex(long nanoseconds)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(nanoseconds, 0, "nanoseconds");
+
+        return 64 - Long.numberOfLeadingZeros(nanoseconds);
+    }
+
+    /**
+     * Get the largest duration that is counted in the provided bucket.
+     * @param bucketIndex The index of the bucket.
+     * @return The largest duration that is counted in the provided bucket.
+     */
+    public static long getBucketUpperBound(int bucketIndex)
+    {
+        PreCondition.assertBetween(0, bucketIndex, QubTicTacToeLatencyHistogram.bucketCount - 1, "bucketIndex");
+
+        return (1L << bucketIndex) - 1;
+    }
+
+    /**
+     * Record the provided duration.
+     * @param nanoseconds The duration to record. Negative durations, which System.nanoTime() can
+     * produce on some platforms, are recorded as 0.
+     */
+    public void record(long nanoseconds)
+    {
+        final long duration = Math.max(0, nanoseconds);
+        this.buckets[QubTicTacToeLatencyHistogram.getBucketIndex(duration)].increment();
+        this.count.increment();
+        this.totalNanoseconds.add(duration);
+        this.maximumNanoseconds.accumulate(duration);
+    }
+
+    /**
+     * Get the number of durations that have been recorded.
+     * @return The number of durations that have been recorded.
+     */
+    public long getCount()
+    {
+        return this.count.sum();
+    }
+
+    /**
+     * Get the number of durations that have been recorded in the provided bucket.
+     * @param bucketIndex The index of the bucket.
+     * @return The number of durations that have been recorded in the provided bucket.
+     */
+    public long getBucketCount(int bucketIndex)
+    {
+        PreCondition.assertBetween(0, bucketIndex, QubTicTacToeLatencyHistogram.bucketCount - 1, "bucketIndex");
+
+        return this.buckets[bucketIndex].sum();
+    }
+
+    /**
+     * Get the sum of the durations that have been recorded.
+     * @return The sum of the durations that have been recorded.
+     */
+    public long getTotalNanoseconds()
+    {
+        return this.totalNanoseconds.sum();
+    }
+
+    /**
+     * Get the longest duration that has been recorded.
+     * @return The longest duration that has been recorded, or 0 if no durations have been recorded.
+     */
+    public long getMaximumNanoseconds()
+    {
+        return this.maximumNanoseconds.get();
+    }
+
+    /**
+     * Get the average of the durations that have been recorded.
+     * @return The average of the durations that have been recorded, or 0 if no durations have been
+     * recorded.
+     */
+    public double getMeanNanoseconds()
+    {
+        final long count = this.getCount();
+        return count == 0 ? 0 : (double)this.getTotalNanoseconds() / count;
+    }
+
+    /**
+     * Get the duration that the provided percentage of the recorded durations are less than or
+     * equal to. Since only the bucket of each duration is known, this is the upper bound of the
+     * bucket that the percentile falls in, limited to the longest recorded duration.
+     * @param percentile The percentage of the recorded durations, between 0 and 100.
+     * @return The duration that the provided percentage of the recorded durations are less than or
+     * equal to, or 0 if no durations have been recorded.
+     */
+    public long getPercentileNanoseconds(double percentile)
+    {
+        PreCondition.assertTrue(0 <= percentile && percentile <= 100, "0 <= percentile && percentile <= 100");
+
+        long result = 0;
+        final long[] bucketCounts = new long[QubTicTacToeLatencyHistogram.bucketCount];
+        long count = 0;
+        for (int bucketIndex = 0; bucketIndex < QubTicTacToeLatencyHistogram.bucketCount; ++bucketIndex)
+        {
+            bucketCounts[bucketIndex] = this.buckets[bucketIndex].sum();
+            count += bucketCounts[bucketIndex];
+        }
+
+        if (count > 0)
+        {
+            final long rank = Math.max(1, (long)Math.ceil(count * percentile / 100));
+            long countSoFar = 0;
+            int bucketIndex = 0;
+            while (countSoFar + bucketCounts[bucketIndex] < rank)
+            {
+                countSoFar += bucketCounts[bucketIndex];
+                ++bucketIndex;
+            }
+            result = Math.min(QubTicTacToeLatencyHistogram.getBucketUpperBound(bucketIndex), this.getMaximumNanoseconds());
+        }
+        return result;
+    }
+}
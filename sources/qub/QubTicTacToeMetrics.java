@@ -0,0 +1,314 @@
+package qub;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histograms for the games that an application plays. Every move is split
+ * into the phases below, and each phase's durations are recorded in its own
+ * QubTicTacToeLatencyHistogram. All of the counters and histograms can be updated by any number of
+ * threads at the same time without locking, so one metrics object can be shared by every session
+ * of a server or every worker of a simulation.
+ * <p>
+ * Code that measures a phase reads System.nanoTime() before the phase and passes it to
+ * record(int,long), which returns the time that the phase ended so that it can be used as the start
+ * of the next phase.
+ */
+public class QubTicTacToeMetrics
+{
+    /**
+     * The time spent waiting for a human player to enter a move.
+     */
+    public static final int inputWait = 0;
+
+    /**
+     * The time spent parsing and validating a human player's move text.
+     */
+    public static final int moveParse = 1;
+
+    /**
+     * The time spent applying a move to the game's model.
+     */
+    public static final int modelUpdate = 2;
+
+    /**
+     * The time spent by an engine choosing its move.
+     */
+    public static final int engineThink = 3;
+
+    /**
+     * The time spent writing the board.
+     */
+    public static final int render = 4;
+
+    /**
+     * The time spent flushing buffered output to a connected client. Only the server buffers its
+     * output, so this phase is only recorded for server sessions. A flush that happens because a
+     * session is about to wait for its client's move is also part of that move's inputWait.
+     */
+    public static final int outputFlush = 5;
+
+    /**
+     * The number of phases that are measured.
+     */
+    public static final int phaseCount = 6;
+
+    private static final String[] phaseNames = { "inputWait", "moveParse", "modelUpdate", "engineThink", "render", "outputFlush" };
+    private static final String[] phaseDescriptions = { "Input wait", "Move parse", "Model update", "Engine think", "Render", "Output flush" };
+
+    private final LongAdder gamesStarted;
+    private final LongAdder gamesFinished;
+    private final LongAdder movesMade;
+    private final LongAdder invalidMoves;
+    private final QubTicTacToeLatencyHistogram[] phases;
+    private final long startTime;
+
+    private QubTicTacToeMetrics()
+    {
+        this.gamesStarted = new LongAdder();
+        this.gamesFinished = new LongAdder();
+        this.movesMade = new LongAdder();
+        this.invalidMoves = new LongAdder();
+        this.phases = new QubTicTacToeLatencyHistogram[QubTicTacToeMetrics.phaseCount];
+        for (int phase = 0; phase < QubTicTacToeMetrics.phaseCount; ++phase)
+        {
+            this.phases[phase] = QubTicTacToeLatencyHistogram.create();
+        }
+        this.startTime = System.nanoTime();
+    }
+
+    /**
+     * Create a new metrics object with every counter and histogram at zero.
+     * @return The new metrics object.
+     */
+    public static QubTicTacToeMetrics create()
+    {
+        return new QubTicTacToeMetrics();
+    }
+
+    /**
+     * Get the name of the provided phase as it appears in the dump.
+     * @param phase The phase.
+     * @return The name of the provided phase.
+     */
+    public static String getPhaseName(int phase)
+    {
+        PreCondition.assertBetween(0, phase, QubTicTacToeMetrics.phaseCount - 1, "phase");
+
+        return QubTicTacToeMetrics.phaseNames[phase];
+    }
+
+    /**
+     * Record that the provided phase ran from the provided start time until now.
+     * @param phase The phase that ran.
+     * @param startTime The System.nanoTime() value from when the phase started.
+     * @return The System.nanoTime() value from when the phase ended.
+     */
+    public long record(int phase, long startTime)
+    {
+        PreCondition.assertBetween(0, phase, QubTicTacToeMetrics.phaseCount - 1, "phase");
+
+        final long result = System.nanoTime();
+        this.phases[phase].record(result - startTime);
+        return result;
+    }
+
+    /**
+     * Get the histogram of the provided phase's durations.
+     * @param phase The phase.
+     * @return The histogram of the provided phase's durations.
+     */
+    public QubTicTacToeLatencyHistogram getPhase(int phase)
+    {
+        PreCondition.assertBetween(0, phase, QubTicTacToeMetrics.phaseCount - 1, "phase");
+
+        return this.phases[phase];
+    }
+
+    /**
+     * Count a game that was started.
+     */
+    public void addGameStarted()
+    {
+        this.gamesStarted.increment();
+    }
+
+    /**
+     * Count a game that was finished with a winner or a tie.
+     */
+    public void addGameFinished()
+    {
+        this.gamesFinished.increment();
+    }
+
+    /**
+     * Count a move that was made.
+     */
+    public void addMoveMade()
+    {
+        this.movesMade.increment();
+    }
+
+    /**
+     * Count a move that was entered but couldn't be made.
+     */
+    public void addInvalidMove()
+    {
+        this.invalidMoves.increment();
+    }
+
+    /**
+     * Get the number of games that were started.
+     * @return The number of games that were started.
+     */
+    public long getGamesStarted()
+    {
+        return this.gamesStarted.sum();
+    }
+
+    /**
+     * Get the number of games that were finished with a winner or a tie.
+     * @return The number of games that were finished with a winner or a tie.
+     */
+    public long getGamesFinished()
+    {
+        return this.gamesFinished.sum();
+    }
+
+    /**
+     * Get the number of moves that were made.
+     * @return The number of moves that were made.
+     */
+    public long getMovesMade()
+    {
+        return this.movesMade.sum();
+    }
+
+    /**
+     * Get the number of moves that were entered but couldn't be made.
+     * @return The number of moves that were entered but couldn't be made.
+     */
+    public long getInvalidMoves()
+    {
+        return this.invalidMoves.sum();
+    }
+
+    /**
+     * Get the number of nanoseconds since this metrics object was created.
+     * @return The number of nanoseconds since this metrics object was created.
+     */
+    public long getElapsedNanoseconds()
+    {
+        return System.nanoTime() - this.startTime;
+    }
+
+    /**
+     * Write a human-readable summary of the counters and of every phase that was measured.
+     * @param output The stream to write the summary to.
+     */
+    public void writeSummary(CharacterWriteStream output)
+    {
+        PreCondition.assertNotNull(output, "output");
+
+        final double elapsedSeconds = this.getElapsedNanoseconds() / 1000000000.0;
+        final long movesMade = this.getMovesMade();
+        output.writeLine(String.format("Metrics after %.1fs: Games started: %d, Games finished: %d, Moves: %d (%.1f/second), Invalid moves: %d",
+            elapsedSeconds,
+            this.getGamesStarted(),
+            this.getGamesFinished(),
+            movesMade,
+            elapsedSeconds == 0 ? 0 : movesMade / elapsedSeconds,
+            this.getInvalidMoves())).await();
+        for (int phase = 0; phase < QubTicTacToeMetrics.phaseCount; ++phase)
+        {
+            final QubTicTacToeLatencyHistogram histogram = this.phases[phase];
+            final long count = histogram.getCount();
+            if (count > 0)
+            {
+                output.writeLine("  " + QubTicTacToeMetrics.phaseDescriptions[phase] + ": " + count +
+                    ", Mean: " + QubTicTacToeMetrics.formatDuration(histogram.getMeanNanoseconds()) +
+                    ", P50: " + QubTicTacToeMetrics.formatDuration(histogram.getPercentileNanoseconds(50)) +
+                    ", P99: " + QubTicTacToeMetrics.formatDuration(histogram.getPercentileNanoseconds(99)) +
+                    ", Max: " + QubTicTacToeMetrics.formatDuration(histogram.getMaximumNanoseconds())).await();
+            }
+        }
+    }
+
+    /**
+     * Format the provided duration with the largest unit (ns, us, ms, or s) that keeps its value at
+     * least 1.
+     * @param nanoseconds The duration to format.
+     * @return The formatted duration.
+     */
+    static String formatDuration(double nanoseconds)
+    {
+        final String result;
+        if (nanoseconds < 1000)
+        {
+            result = String.format("%.0fns", nanoseconds);
+        }
+        else if (nanoseconds < 1000000)
+        {
+            result = String.format("%.1fus", nanoseconds / 1000);
+        }
+        else if (nanoseconds < 1000000000)
+        {
+            result = String.format("%.1fms", nanoseconds / 1000000);
+        }
+        else
+        {
+            result = String.format("%.2fs", nanoseconds / 1000000000);
+        }
+        return result;
+    }
+
+    /**
+     * Get every counter and histogram as a single-line JSON object. Each phase has its count, its
+     * total, mean, 50th percentile, 99th percentile, and maximum durations in nanoseconds, and the
+     * count of each of its QubTicTacToeLatencyHistogram buckets with trailing empty buckets left
+     * out.
+     * @return The JSON text.
+     */
+    public String toJson()
+    {
+        final StringBuilder builder = new StringBuilder();
+        builder.append("{\"elapsedNanoseconds\":").append(this.getElapsedNanoseconds())
+            .append(",\"gamesStarted\":").append(this.getGamesStarted())
+            .append(",\"gamesFinished\":").append(this.getGamesFinished())
+            .append(",\"movesMade\":").append(this.getMovesMade())
+            .append(",\"invalidMoves\":").append(this.getInvalidMoves())
+            .append(",\"phases\":{");
+        for (int phase = 0; phase < QubTicTacToeMetrics.phaseCount; ++phase)
+        {
+            final QubTicTacToeLatencyHistogram histogram = this.phases[phase];
+            if (phase > 0)
+            {
+                builder.append(',');
+            }
+            builder.append('"').append(QubTicTacToeMetrics.phaseNames[phase]).append("\":{")
+                .append("\"count\":").append(histogram.getCount())
+                .append(",\"totalNanoseconds\":").append(histogram.getTotalNanoseconds())
+                .append(",\"meanNanoseconds\":").append(Math.round(histogram.getMeanNanoseconds()))
+                .append(",\"p50Nanoseconds\":").append(histogram.getPercentileNanoseconds(50))
+                .append(",\"p99Nanoseconds\":").append(histogram.getPercentileNanoseconds(99))
+                .append(",\"maximumNanoseconds\":").append(histogram.getMaximumNanoseconds())
+                .append(",\"buckets\":[");
+
+            int lastBucketIndex = QubTicTacToeLatencyHistogram.bucketCount - 1;
+            while (lastBucketIndex >= 0 && histogram.getBucketCount(lastBucketIndex) == 0)
+            {
+                --lastBucketIndex;
+            }
+            for (int bucketIndex = 0; bucketIndex <= lastBucketIndex; ++bucketIndex)
+            {
+                if (bucketIndex > 0)
+                {
+                    builder.append(',');
+                }
+                builder.append(histogram.getBucketCount(bucketIndex));
+            }
+            builder.append("]}");
+        }
+        builder.append("}}");
+        return builder.toString();
+    }
+}
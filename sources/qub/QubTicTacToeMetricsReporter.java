@@ -0,0 +1,129 @@
+package qub;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Reports a QubTicTacToeMetrics object while an application runs. A periodic summary is written to
+ * the output stream from a daemon thread, and a JSON dump is written to a file when the reporter
+ * is stopped or, for applications that are ended with a signal such as a server, when the JVM
+ * shuts down.
+ */
+public class QubTicTacToeMetricsReporter
+{
+    private final QubTicTacToeMetrics metrics;
+    private final CharacterWriteStream output;
+    private final int intervalSeconds;
+    private final String dumpFilePath;
+    private final AtomicBoolean dumped;
+    private ScheduledExecutorService summaryExecutor;
+    private Thread shutdownHook;
+
+    private QubTicTacToeMetricsReporter(QubTicTacToeMetrics metrics, CharacterWriteStream output, int intervalSeconds, String dumpFilePath)
+    {
+        PreCondition.assertNotNull(metrics, "metrics");
+        PreCondition.assertNotNull(output, "output");
+        PreCondition.assertGreaterThanOrEqualTo(intervalSeconds, 0, "intervalSeconds");
+
+        this.metrics = metrics;
+        this.output = output;
+        this.intervalSeconds = intervalSeconds;
+        this.dumpFilePath = dumpFilePath;
+        this.dumped = new AtomicBoolean();
+    }
+
+    /**
+     * Create a new reporter.
+     * @param metrics The metrics to report.
+     * @param output The stream to write the periodic summaries and errors to.
+     * @param intervalSeconds The number of seconds between summaries, or 0 to not write summaries.
+     * @param dumpFilePath The path of the file to write the JSON dump to, or null to not write a
+     * dump.
+     * @return The new reporter.
+     */
+    public static QubTicTacToeMetricsReporter create(QubTicTacToeMetrics metrics, CharacterWriteStream output, int intervalSeconds, String dumpFilePath)
+    {
+        return new QubTicTacToeMetricsReporter(metrics, output, intervalSeconds, dumpFilePath);
+    }
+
+    /**
+     * Start writing periodic summaries and register the dump to be written if the JVM shuts down
+     * before this reporter is stopped.
+     * @return This object for method chaining.
+     */
+    public QubTicTacToeMetricsReporter start()
+    {
+        PreCondition.assertNull(this.summaryExecutor, "this.summaryExecutor");
+        PreCondition.assertNull(this.shutdownHook, "this.shutdownHook");
+
+        if (this.intervalSeconds > 0)
+        {
+            this.summaryExecutor = Executors.newSingleThreadScheduledExecutor((Runnable runnable) ->
+            {
+                final Thread thread = new Thread(runnable, "qub-tictactoe-metrics");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.summaryExecutor.scheduleAtFixedRate(() -> this.metrics.writeSummary(this.output), this.intervalSeconds, this.intervalSeconds, TimeUnit.SECONDS);
+        }
+
+        if (this.dumpFilePath != null)
+        {
+            this.shutdownHook = new Thread(this::writeDump, "qub-tictactoe-metrics-dump");
+            Runtime.getRuntime().addShutdownHook(this.shutdownHook);
+        }
+        return this;
+    }
+
+    /**
+     * Stop writing periodic summaries, write a final summary if summaries were requested, and
+     * write the dump if a dump file was requested.
+     */
+    public void stop()
+    {
+        if (this.summaryExecutor != null)
+        {
+            this.summaryExecutor.shutdownNow();
+            this.summaryExecutor = null;
+            this.metrics.writeSummary(this.output);
+        }
+
+        if (this.shutdownHook != null)
+        {
+            try
+            {
+                Runtime.getRuntime().removeShutdownHook(this.shutdownHook);
+            }
+            catch (IllegalStateException e)
+            {
+                // The JVM is already shutting down, so the hook is writing the dump.
+            }
+            this.shutdownHook = null;
+            this.writeDump();
+        }
+    }
+
+    /**
+     * Write the JSON dump to the dump file if it hasn't been written yet.
+     */
+    private void writeDump()
+    {
+        if (!this.dumped.getAndSet(true))
+        {
+            try
+            {
+                Files.write(Paths.get(this.dumpFilePath), (this.metrics.toJson() + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+            catch (IOException | RuntimeException e)
+            {
+                this.output.writeLine("Could not write the metrics to " + Strings.escapeAndQuote(this.dumpFilePath) + ".").await();
+            }
+        }
+    }
+}
@@ -0,0 +1,478 @@
+package qub;
+
+/**
+ * A QubTicTacToeEngine that plays perfectly by searching the game tree with negamax, alpha-beta
+ * pruning, move ordering, and a fixed-size transposition table. The engine works on boards that fit
+ * in a single long (up to 64 cells). The transposition table is kept between moves so later moves
+ * in the same game are mostly table hits. Positions are stored in the transposition table by their
+ * canonical form, so all rotations and reflections of a position share one table entry. On the
+ * standard 3x3 board a full-depth engine answers from the QubTicTacToeSolvedTable without searching.
+ */
+public class QubTicTacToeMinimaxEngine implements QubTicTacToeEngine
+{
+    /**
+     * The default number of bits in a transposition table index. A table with this many index bits
+     * has 2^bits entries of 24 bytes each.
+     */
+    public static final int defaultTranspositionTableBits = 16;
+
+    /**
+     * The score of a win. The number of empty cells left when the win happens is added to this so
+     * that faster wins score higher than slower ones. Scores from the line-counting heuristic used
+     * by depth-limited searches are always smaller than this.
+     */
+    static final int winScore = 10000;
+
+    private static final int exactFlag = 0;
+    private static final int lowerBoundFlag = 1;
+    private static final int upperBoundFlag = 2;
+
+    private final QubTicTacToeGeometry geometry;
+    private final int maximumDepth;
+    private final long fullBoard;
+    private final int[] moveOrder;
+    private final QubTicTacToeSymmetry symmetry;
+    private final QubTicTacToeSolvedTable solvedTable;
+
+    private final QubTicTacToeTranspositionTable transpositionTable;
+
+    private long nodeCount;
+
+    private QubTicTacToeMinimaxEngine(QubTicTacToeGeometry geometry, int maximumDepth, QubTicTacToeTranspositionTable transpositionTable)
+    {
+        PreCondition.assertNotNull(geometry, "geometry");
+        PreCondition.assertEqual(1, geometry.getWordCount(), "geometry.getWordCount()");
+        PreCondition.assertGreaterThanOrEqualTo(maximumDepth, 1, "maximumDepth");
+        PreCondition.assertNotNull(transpositionTable, "transpositionTable");
+
+        this.geometry = geometry;
+        this.maximumDepth = maximumDepth;
+
+        final int cellCount = geometry.getCellCount();
+        this.fullBoard = cellCount == Long.SIZE ? -1L : (1L << cellCount) - 1;
+        this.moveOrder = QubTicTacToeMinimaxEngine.createMoveOrder(geometry);
+        this.symmetry = QubTicTacToeSymmetry.create(geometry);
+        this.solvedTable = maximumDepth >= cellCount && QubTicTacToeSolvedTable.supports(geometry)
+            ? QubTicTacToeSolvedTable.get()
+            : null;
+
+        this.transpositionTable = transpositionTable;
+    }
+
+    /**
+     * Create a new engine that searches the whole game tree of the provided geometry.
+     * @param geometry The geometry of the board that the engine will play on.
+     * @return The new engine.
+     */
+    public static QubTicTacToeMinimaxEngine create(QubTicTacToeGeometry geometry)
+    {
+        return QubTicTacToeMinimaxEngine.create(geometry, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Create a new engine that searches at most maximumDepth moves ahead.
+     * @param geometry The geometry of the board that the engine will play on.
+     * @param maximumDepth The maximum number of moves to search ahead.
+     * @return The new engine.
+     */
+    public static QubTicTacToeMinimaxEngine create(QubTicTacToeGeometry geometry, int maximumDepth)
+    {
+        return QubTicTacToeMinimaxEngine.create(geometry, maximumDepth, QubTicTacToeMinimaxEngine.defaultTranspositionTableBits);
+    }
+
+    /**
+     * Create a new engine that searches at most maximumDepth moves ahead and has a transposition
+     * table with 2^transpositionTableBits entries.
+     * @param geometry The geometry of the board that the engine will play on.
+     * @param maximumDepth The maximum number of moves to search ahead.
+     * @param transpositionTableBits The number of bits in a transposition table index.
+     * @return The new engine.
+     */
+    public static QubTicTacToeMinimaxEngine create(QubTicTacToeGeometry geometry, int maximumDepth, int transpositionTableBits)
+    {
+        return QubTicTacToeMinimaxEngine.create(geometry, maximumDepth, QubTicTacToeTranspositionTable.create(transpositionTableBits));
+    }
+
+    /**
+     * Create a new engine that searches at most maximumDepth moves ahead and stores its results in
+     * the provided transposition table. Engines on different threads can share one table if it was
+     * created with QubTicTacToeTranspositionTable.createConcurrent().
+     * @param geometry The geometry of the board that the engine will play on.
+     * @param maximumDepth The maximum number of moves to search ahead.
+     * @param transpositionTable The table to store search results in.
+     * @return The new engine.
+     */
+    public static QubTicTacToeMinimaxEngine create(QubTicTacToeGeometry geometry, int maximumDepth, QubTicTacToeTranspositionTable transpositionTable)
+    {
+        return new QubTicTacToeMinimaxEngine(geometry, maximumDepth, transpositionTable);
+    }
+
+    /**
+     * Get the cells of the provided geometry ordered from the most to the fewest winning lines
+     * that pass through them. Cells with more lines are usually better moves, so searching them
+     * first produces more alpha-beta cutoffs.
+     */
+    private static int[] createMoveOrder(QubTicTacToeGeometry geometry)
+    {
+        final int cellCount = geometry.getCellCount();
+        final int[] result = new int[cellCount];
+        for (int cellIndex = 0; cellIndex < cellCount; ++cellIndex)
+        {
+            result[cellIndex] = cellIndex;
+        }
+
+        for (int index = 1; index < cellCount; ++index)
+        {
+            final int cellIndex = result[index];
+            final int lineCount = geometry.getCellWinLineMasks(cellIndex).length;
+            int insertIndex = index;
+            while (insertIndex > 0 && geometry.getCellWinLineMasks(result[insertIndex - 1]).length < lineCount)
+            {
+                result[insertIndex] = result[insertIndex - 1];
+                --insertIndex;
+            }
+            result[insertIndex] = cellIndex;
+        }
+        return result;
+    }
+
+    /**
+     * Get the geometry of the board that this engine plays on.
+     * @return The geometry of the board that this engine plays on.
+     */
+    public QubTicTacToeGeometry getGeometry()
+    {
+        return this.geometry;
+    }
+
+    /**
+     * Get the number of positions that this engine has searched since it was created.
+     * @return The number of positions that this engine has searched.
+     */
+    public long getNodeCount()
+    {
+        return this.nodeCount;
+    }
+
+    @Override
+    public int chooseMove(QubTicTacToeModel model)
+    {
+        PreCondition.assertNotNull(model, "model");
+        PreCondition.assertSame(this.geometry, model.getGeometry(), "model.getGeometry()");
+        PreCondition.assertFalse(model.isGameDone(), "model.isGameDone()");
+
+        // Every cell that isn't empty and isn't the current player's belongs to the other player.
+        final long ownBoard = model.getPlayerBoard(model.getCurrentPlayer());
+        final long boardMask = -1L >>> (Long.SIZE - this.geometry.getCellCount());
+        final long otherBoard = boardMask & ~(ownBoard | model.getLegalMoves());
+        return this.chooseMove(ownBoard, otherBoard);
+    }
+
+    /**
+     * Choose the cell that the player to move should take next.
+     * @param ownBoard The bitmask of the cells that the player to move has taken.
+     * @param otherBoard The bitmask of the cells that the other player has taken.
+     * @return The index of the cell that the player to move should take.
+     */
+    public int chooseMove(long ownBoard, long otherBoard)
+    {
+        PreCondition.assertEqual(0L, ownBoard & otherBoard, "ownBoard & otherBoard");
+        PreCondition.assertNotEqual(this.fullBoard, ownBoard | otherBoard, "ownBoard | otherBoard");
+
+        final long emptyCells = this.fullBoard & ~(ownBoard | otherBoard);
+        int result = -1;
+        if (this.solvedTable != null)
+        {
+            final boolean ownIsX = Long.bitCount(ownBoard) == Long.bitCount(otherBoard);
+            result = ownIsX
+                ? this.solvedTable.getBestMove(ownBoard, otherBoard)
+                : this.solvedTable.getBestMove(otherBoard, ownBoard);
+        }
+        if (result == -1)
+        {
+            result = this.findWinningMove(ownBoard, emptyCells);
+        }
+        if (result == -1)
+        {
+            final int depth = Math.min(this.maximumDepth, Long.bitCount(emptyCells));
+            int alpha = -Integer.MAX_VALUE;
+            final int beta = Integer.MAX_VALUE;
+            final int tableMove = this.getTableMove(ownBoard, otherBoard);
+            if (tableMove != -1 && (emptyCells & (1L << tableMove)) != 0)
+            {
+                alpha = -this.search(otherBoard, ownBoard | (1L << tableMove), depth - 1, -beta, -alpha);
+                result = tableMove;
+            }
+            for (final int cellIndex : this.moveOrder)
+            {
+                final long cellMask = 1L << cellIndex;
+                if (cellIndex != tableMove && (emptyCells & cellMask) != 0)
+                {
+                    final int score = -this.search(otherBoard, ownBoard | cellMask, depth - 1, -beta, -alpha);
+                    if (result == -1 || score > alpha)
+                    {
+                        alpha = score;
+                        result = cellIndex;
+                    }
+                }
+            }
+        }
+
+        PostCondition.assertBetween(0, result, this.geometry.getCellCount() - 1, "result");
+
+        return result;
+    }
+
+    /**
+     * Get the score of the provided position from the point of view of the player to move. A
+     * positive score is a win, a negative score is a loss, and zero is a draw when the whole game
+     * tree is searched.
+     * @param ownBoard The bitmask of the cells that the player to move has taken.
+     * @param otherBoard The bitmask of the cells that the other player has taken.
+     * @return The score of the provided position.
+     */
+    public int getScore(long ownBoard, long otherBoard)
+    {
+        final int depth = Math.min(this.maximumDepth, Long.bitCount(this.fullBoard & ~(ownBoard | otherBoard)));
+        return this.search(ownBoard, otherBoard, depth, -Integer.MAX_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Get the score of the provided position from the point of view of the player to move, but
+     * only search for scores between alpha and beta. If the returned score is not greater than
+     * alpha then it is an upper bound, and if it is not less than beta then it is a lower bound.
+     */
+    int getScore(long ownBoard, long otherBoard, int alpha, int beta)
+    {
+        final int depth = Math.min(this.maximumDepth, Long.bitCount(this.fullBoard & ~(ownBoard | otherBoard)));
+        return this.search(ownBoard, otherBoard, depth, alpha, beta);
+    }
+
+    /**
+     * Get the cells of the board in the order that this engine searches them.
+     */
+    int[] getMoveOrder()
+    {
+        return this.moveOrder;
+    }
+
+    /**
+     * Get whether the provided score is a win for the player that it was scored for.
+     * @param score The score to check.
+     * @return Whether the provided score is a win.
+     */
+    public static boolean isWinScore(int score)
+    {
+        return score > QubTicTacToeMinimaxEngine.winScore;
+    }
+
+    /**
+     * Get whether the provided score is a loss for the player that it was scored for.
+     * @param score The score to check.
+     * @return Whether the provided score is a loss.
+     */
+    public static boolean isLossScore(int score)
+    {
+        return score < -QubTicTacToeMinimaxEngine.winScore;
+    }
+
+    int findWinningMove(long ownBoard, long emptyCells)
+    {
+        int result = -1;
+        for (long remainingCells = emptyCells; remainingCells != 0; remainingCells &= remainingCells - 1)
+        {
+            final int cellIndex = Long.numberOfTrailingZeros(remainingCells);
+            if (this.geometry.isWinningMove(ownBoard | (1L << cellIndex), cellIndex))
+            {
+                result = cellIndex;
+                break;
+            }
+        }
+        return result;
+    }
+
+    private int search(long ownBoard, long otherBoard, int depth, int alpha, int beta)
+    {
+        ++this.nodeCount;
+
+        final long emptyCells = this.fullBoard & ~(ownBoard | otherBoard);
+        if (emptyCells == 0)
+        {
+            return 0;
+        }
+
+        final int emptyCellCount = Long.bitCount(emptyCells);
+        if (this.findWinningMove(ownBoard, emptyCells) != -1)
+        {
+            return QubTicTacToeMinimaxEngine.winScore + emptyCellCount;
+        }
+
+        if (depth <= 0)
+        {
+            return this.getHeuristicScore(ownBoard, otherBoard);
+        }
+
+        // Without an immediate win, the fastest win for the player to move is on their next turn.
+        final int bestPossibleScore = QubTicTacToeMinimaxEngine.winScore + emptyCellCount - 2;
+        if (beta > bestPossibleScore)
+        {
+            beta = bestPossibleScore;
+            if (alpha >= beta)
+            {
+                return beta;
+            }
+        }
+
+        final int originalAlpha = alpha;
+        final int transform = this.symmetry.getCanonicalTransform(ownBoard, otherBoard);
+        final long canonicalOwnBoard = this.symmetry.transform(ownBoard, transform);
+        final long canonicalOtherBoard = this.symmetry.transform(otherBoard, transform);
+        final long tableData = this.transpositionTable.get(canonicalOwnBoard, canonicalOtherBoard);
+        int tableMove = -1;
+        if (QubTicTacToeMinimaxEngine.isValidEntry(tableData))
+        {
+            final int canonicalTableMove = QubTicTacToeMinimaxEngine.getEntryMove(tableData);
+            if (canonicalTableMove != -1)
+            {
+                tableMove = this.symmetry.inverseTransformCell(canonicalTableMove, transform);
+            }
+            if (QubTicTacToeMinimaxEngine.getEntryDepth(tableData) >= depth)
+            {
+                final int tableScore = QubTicTacToeMinimaxEngine.getEntryScore(tableData);
+                final int tableFlag = QubTicTacToeMinimaxEngine.getEntryFlag(tableData);
+                if (tableFlag == QubTicTacToeMinimaxEngine.exactFlag)
+                {
+                    return tableScore;
+                }
+                else if (tableFlag == QubTicTacToeMinimaxEngine.lowerBoundFlag)
+                {
+                    alpha = Math.max(alpha, tableScore);
+                }
+                else
+                {
+                    beta = Math.min(beta, tableScore);
+                }
+                if (alpha >= beta)
+                {
+                    return tableScore;
+                }
+            }
+        }
+
+        int bestScore = -Integer.MAX_VALUE;
+        int bestMove = -1;
+        if (tableMove != -1 && (emptyCells & (1L << tableMove)) != 0)
+        {
+            bestScore = -this.search(otherBoard, ownBoard | (1L << tableMove), depth - 1, -beta, -alpha);
+            bestMove = tableMove;
+            alpha = Math.max(alpha, bestScore);
+        }
+        if (alpha < beta)
+        {
+            for (final int cellIndex : this.moveOrder)
+            {
+                final long cellMask = 1L << cellIndex;
+                if (cellIndex != tableMove && (emptyCells & cellMask) != 0)
+                {
+                    final int score = -this.search(otherBoard, ownBoard | cellMask, depth - 1, -beta, -alpha);
+                    if (score > bestScore)
+                    {
+                        bestScore = score;
+                        bestMove = cellIndex;
+                        if (score > alpha)
+                        {
+                            alpha = score;
+                            if (alpha >= beta)
+                            {
+                                break;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        final int flag = bestScore <= originalAlpha
+            ? QubTicTacToeMinimaxEngine.upperBoundFlag
+            : bestScore >= beta ? QubTicTacToeMinimaxEngine.lowerBoundFlag : QubTicTacToeMinimaxEngine.exactFlag;
+        this.transpositionTable.set(canonicalOwnBoard, canonicalOtherBoard, QubTicTacToeMinimaxEngine.createEntry(bestScore, flag, this.symmetry.transformCell(bestMove, transform), depth));
+
+        return bestScore;
+    }
+
+    /**
+     * Score a position that is at the search's depth limit by counting the winning lines that each
+     * player can still complete.
+     */
+    private int getHeuristicScore(long ownBoard, long otherBoard)
+    {
+        int result = 0;
+        for (final long winLineMask : this.geometry.getWinLineMasks())
+        {
+            final boolean ownInLine = (ownBoard & winLineMask) != 0;
+            final boolean otherInLine = (otherBoard & winLineMask) != 0;
+            if (ownInLine && !otherInLine)
+            {
+                result += Long.bitCount(ownBoard & winLineMask);
+            }
+            else if (otherInLine && !ownInLine)
+            {
+                result -= Long.bitCount(otherBoard & winLineMask);
+            }
+        }
+        return result;
+    }
+
+    private int getTableMove(long ownBoard, long otherBoard)
+    {
+        final int transform = this.symmetry.getCanonicalTransform(ownBoard, otherBoard);
+        final long canonicalOwnBoard = this.symmetry.transform(ownBoard, transform);
+        final long canonicalOtherBoard = this.symmetry.transform(otherBoard, transform);
+
+        int result = -1;
+        final long tableData = this.transpositionTable.get(canonicalOwnBoard, canonicalOtherBoard);
+        if (QubTicTacToeMinimaxEngine.isValidEntry(tableData))
+        {
+            final int canonicalTableMove = QubTicTacToeMinimaxEngine.getEntryMove(tableData);
+            if (canonicalTableMove != -1)
+            {
+                result = this.symmetry.inverseTransformCell(canonicalTableMove, transform);
+            }
+        }
+        return result;
+    }
+
+    private static long createEntry(int score, int flag, int move, int depth)
+    {
+        return (1L << 48) |
+            ((long)(depth & 0xFF) << 40) |
+            ((long)((move + 1) & 0xFF) << 32) |
+            ((long)(flag & 0x3) << 30) |
+            (score & 0x3FFFFFFFL);
+    }
+
+    private static boolean isValidEntry(long entry)
+    {
+        return (entry >>> 48) != 0;
+    }
+
+    private static int getEntryDepth(long entry)
+    {
+        return (int)((entry >>> 40) & 0xFF);
+    }
+
+    private static int getEntryMove(long entry)
+    {
+        return (int)((entry >>> 32) & 0xFF) - 1;
+    }
+
+    private static int getEntryFlag(long entry)
+    {
+        return (int)((entry >>> 30) & 0x3);
+    }
+
+    private static int getEntryScore(long entry)
+    {
+        return ((int)(entry << 2)) >> 2;
+    }
+}
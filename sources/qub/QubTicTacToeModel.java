@@ -6,42 +6,85 @@ public class QubTicTacToeModel
     private String winner;
     private int turnNumber;
     private final Array<String> players;
-    private final int boardWidth;
-    private final int boardHeight;
-    private final Array<Array<String>> boardData;
+    private final QubTicTacToeGeometry geometry;
 
-    private QubTicTacToeModel()
+    /**
+     * The cells that each player has taken, stored as one bitmask per player. Each player's
+     * bitmask is geometry.getWordCount() longs long and starts at (playerIndex * wordCount). The
+     * bit for a cell is at index (row * width + column).
+     */
+    private final long[] playerBoards;
+
+    /**
+     * The number of cells that have been taken by any player.
+     */
+    private int filledCellCount;
+
+    /**
+     * The cells that have been taken, in the order that they were taken. The first
+     * filledCellCount entries are the moves on the board, and the entries after those up to
+     * redoableMoveCount are moves that were undone and can be redone.
+     */
+    private final int[] moves;
+
+    /**
+     * The number of entries in moves that are either on the board or can be redone.
+     */
+    private int redoableMoveCount;
+
+    /**
+     * The XOR of the Zobrist keys of every taken cell.
+     */
+    private long zobristHash;
+
+    private QubTicTacToeModel(QubTicTacToeGeometry geometry)
     {
+        PreCondition.assertNotNull(geometry, "geometry");
+
         this.turnNumber = 1;
         this.players = Array.create("X", "O");
 
-        this.boardWidth = 3;
-        this.boardHeight = 3;
-        this.boardData = Array.createWithLength(this.boardHeight);
-        for (int row = 0; row < this.boardHeight; ++row)
-        {
-            final Array<String> boardRowData = Array.createWithLength(this.boardWidth);
-            for (int column = 0;  column < this.boardWidth; ++column)
-            {
-                boardRowData.set(column, " ");
-            }
-            this.boardData.set(row, boardRowData);
-        }
+        this.geometry = geometry;
+        this.playerBoards = new long[this.players.getCount() * geometry.getWordCount()];
+        this.moves = new int[geometry.getCellCount()];
     }
 
     public static QubTicTacToeModel create()
     {
-        return new QubTicTacToeModel();
+        return QubTicTacToeModel.create(QubTicTacToeGeometry.create());
+    }
+
+    public static QubTicTacToeModel create(QubTicTacToeGeometry geometry)
+    {
+        return new QubTicTacToeModel(geometry);
+    }
+
+    /**
+     * Get the geometry of this model's board.
+     * @return The geometry of this model's board.
+     */
+    public QubTicTacToeGeometry getGeometry()
+    {
+        return this.geometry;
     }
 
     public int getRowCount()
     {
-        return this.boardHeight;
+        return this.geometry.getHeight();
     }
 
     public int getColumnCount()
     {
-        return this.boardWidth;
+        return this.geometry.getWidth();
+    }
+
+    /**
+     * Get the number of cells in a row that a player needs to win.
+     * @return The number of cells in a row that a player needs to win.
+     */
+    public int getWinLength()
+    {
+        return this.geometry.getWinLength();
     }
 
     public void setGameDone(boolean gameDone)
@@ -59,18 +102,213 @@ public class QubTicTacToeModel
         return this.turnNumber;
     }
 
+    /**
+     * Get the players of this game in the order that they take turns.
+     * @return The players of this game in the order that they take turns.
+     */
+    public Iterable<String> getPlayers()
+    {
+        return this.players;
+    }
+
     public String getCurrentPlayer()
+    {
+        return this.players.get(this.getCurrentPlayerIndex());
+    }
+
+    private int getCurrentPlayerIndex()
     {
         final int turnIndex = this.turnNumber - 1;
-        return this.players.get(turnIndex % this.players.getCount());
+        return turnIndex % this.players.getCount();
+    }
+
+    private int getPlayerIndex(String player)
+    {
+        int result = -1;
+        for (int playerIndex = 0; playerIndex < this.players.getCount(); ++playerIndex)
+        {
+            if (this.players.get(playerIndex).equals(player))
+            {
+                result = playerIndex;
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the bitmask of the cells that the provided player has taken. The bit for a cell is at
+     * index (row * getColumnCount() + column). This is only available when the whole board fits
+     * in a single long.
+     * @param player The player to get the bitmask for.
+     * @return The bitmask of the cells that the provided player has taken.
+     */
+    public long getPlayerBoard(String player)
+    {
+        PreCondition.assertOneOf(player, this.players, "player");
+        PreCondition.assertEqual(1, this.geometry.getWordCount(), "this.getGeometry().getWordCount()");
+
+        return this.playerBoards[this.getPlayerIndex(player)];
+    }
+
+    /**
+     * Get one long of the bitmask of the cells that the provided player has taken. The bit for a
+     * cell is bit (cellIndex % 64) of word (cellIndex / 64).
+     * @param player The player to get the bitmask for.
+     * @param wordIndex The index of the long to get.
+     * @return The requested long of the player's bitmask.
+     */
+    public long getPlayerBoardWord(String player, int wordIndex)
+    {
+        PreCondition.assertOneOf(player, this.players, "player");
+        PreCondition.assertBetween(0, wordIndex, this.geometry.getWordCount() - 1, "wordIndex");
+
+        return this.playerBoards[(this.getPlayerIndex(player) * this.geometry.getWordCount()) + wordIndex];
+    }
+
+    /**
+     * Get the number of moves that the current player can make. This is the number of empty cells,
+     * or 0 if the game is done.
+     * @return The number of moves that the current player can make.
+     */
+    public int getLegalMoveCount()
+    {
+        return this.gameDone ? 0 : this.geometry.getCellCount() - this.filledCellCount;
+    }
+
+    /**
+     * Get whether the current player can take the provided cell.
+     * @param cellIndex The index of the cell.
+     * @return Whether the current player can take the provided cell.
+     */
+    public boolean isLegalMove(int cellIndex)
+    {
+        PreCondition.assertBetween(0, cellIndex, this.geometry.getCellCount() - 1, "cellIndex");
+
+        return (this.getLegalMovesWord(cellIndex / Long.SIZE) & (1L << cellIndex)) != 0;
+    }
+
+    /**
+     * Get the bitmask of the cells that the current player can take. The bit for a cell is at index
+     * (row * getColumnCount() + column), and the bitmask is 0 if the game is done. This is only
+     * available when the whole board fits in a single long.
+     * @return The bitmask of the cells that the current player can take.
+     */
+    public long getLegalMoves()
+    {
+        PreCondition.assertEqual(1, this.geometry.getWordCount(), "this.getGeometry().getWordCount()");
+
+        return this.getLegalMovesWord(0);
+    }
+
+    /**
+     * Get one long of the bitmask of the cells that the current player can take. The bit for a cell
+     * is bit (cellIndex % 64) of word (cellIndex / 64), and every word is 0 if the game is done.
+     * @param wordIndex The index of the long to get.
+     * @return The requested long of the bitmask of the cells that the current player can take.
+     */
+    public long getLegalMovesWord(int wordIndex)
+    {
+        final int wordCount = this.geometry.getWordCount();
+        PreCondition.assertBetween(0, wordIndex, wordCount - 1, "wordIndex");
+
+        long result = 0;
+        if (!this.gameDone)
+        {
+            result = ~0L;
+            for (int playerIndex = 0; playerIndex < this.players.getCount(); ++playerIndex)
+            {
+                result &= ~this.playerBoards[(playerIndex * wordCount) + wordIndex];
+            }
+
+            final int wordCellCount = this.geometry.getCellCount() - (wordIndex * Long.SIZE);
+            if (wordCellCount < Long.SIZE)
+            {
+                result &= (1L << wordCellCount) - 1;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Write the indexes of the cells that the current player can take into the provided array, in
+     * ascending order.
+     * @param moves The array to write the cell indexes to. It must have room for at least
+     * getLegalMoveCount() cell indexes.
+     * @return The number of cell indexes that were written.
+     */
+    public int getLegalMoves(int[] moves)
+    {
+        PreCondition.assertNotNull(moves, "moves");
+        PreCondition.assertGreaterThanOrEqualTo(moves.length, this.getLegalMoveCount(), "moves.length");
+
+        int result = 0;
+        final int wordCount = this.geometry.getWordCount();
+        for (int wordIndex = 0; wordIndex < wordCount; ++wordIndex)
+        {
+            for (long legalMoves = this.getLegalMovesWord(wordIndex); legalMoves != 0; legalMoves &= legalMoves - 1)
+            {
+                moves[result] = (wordIndex * Long.SIZE) + Long.numberOfTrailingZeros(legalMoves);
+                ++result;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the first cell at or after the provided cell that the current player can take. Every
+     * legal move can be visited without allocating with:
+     * <pre>
+     * for (int cellIndex = model.getNextLegalMove(0); cellIndex != -1; cellIndex = model.getNextLegalMove(cellIndex + 1))
+     * </pre>
+     * @param cellIndex The index of the cell to start looking at. This can be the cell count, in
+     * which case there are no more legal moves.
+     * @return The index of the first legal move at or after the provided cell, or -1 if there are
+     * no more legal moves.
+     */
+    public int getNextLegalMove(int cellIndex)
+    {
+        final int cellCount = this.geometry.getCellCount();
+        PreCondition.assertBetween(0, cellIndex, cellCount, "cellIndex");
+
+        int result = -1;
+        final int wordCount = this.geometry.getWordCount();
+        int wordIndex = cellIndex / Long.SIZE;
+        if (wordIndex < wordCount)
+        {
+            // Shifting by cellIndex only uses its lowest 6 bits, which is the bit index in the word.
+            long legalMoves = this.getLegalMovesWord(wordIndex) & (~0L << cellIndex);
+            while (legalMoves == 0 && wordIndex + 1 < wordCount)
+            {
+                ++wordIndex;
+                legalMoves = this.getLegalMovesWord(wordIndex);
+            }
+            if (legalMoves != 0)
+            {
+                result = (wordIndex * Long.SIZE) + Long.numberOfTrailingZeros(legalMoves);
+            }
+        }
+        return result;
     }
 
     public String getBoardCell(int row, int column)
     {
-        PreCondition.assertBetween(0, row, this.boardHeight, "row");
-        PreCondition.assertBetween(0, column, this.boardWidth, "column");
+        PreCondition.assertBetween(0, row, this.getRowCount() - 1, "row");
+        PreCondition.assertBetween(0, column, this.getColumnCount() - 1, "column");
+
+        final int cellIndex = this.geometry.getCellIndex(row, column);
+        final int wordCount = this.geometry.getWordCount();
 
-        return this.boardData.get(row).get(column);
+        String result = " ";
+        for (int playerIndex = 0; playerIndex < this.players.getCount(); ++playerIndex)
+        {
+            if (QubTicTacToeGeometry.isSet(this.playerBoards, playerIndex * wordCount, cellIndex))
+            {
+                result = this.players.get(playerIndex);
+                break;
+            }
+        }
+        return result;
     }
 
     public void makeMove(int row, int column)
@@ -80,17 +318,31 @@ public class QubTicTacToeModel
 
     public void setBoardCell(int row, int column, String player)
     {
-        PreCondition.assertBetween(0, row, this.boardHeight, "row");
-        PreCondition.assertBetween(0, column, this.boardWidth, "column");
+        PreCondition.assertBetween(0, row, this.getRowCount() - 1, "row");
+        PreCondition.assertBetween(0, column, this.getColumnCount() - 1, "column");
         PreCondition.assertEqual(this.getCurrentPlayer(), player, "player");
         PreCondition.assertEqual(" ", this.getBoardCell(row, column), "this.getBoardCell(row, column)");
         PreCondition.assertFalse(this.isGameDone(), "this.isGameDone()");
 
-        this.boardData.get(row).set(column, player);
+        final int cellIndex = this.geometry.getCellIndex(row, column);
+        this.takeCell(cellIndex);
+        this.redoableMoveCount = this.filledCellCount;
+    }
+
+    /**
+     * Take the provided cell for the current player, record the move, and update the game state.
+     */
+    private void takeCell(int cellIndex)
+    {
+        final int playerIndex = this.getCurrentPlayerIndex();
+        QubTicTacToeGeometry.set(this.playerBoards, playerIndex * this.geometry.getWordCount(), cellIndex);
+        this.zobristHash ^= this.geometry.getZobristKey(playerIndex, cellIndex);
+        this.moves[this.filledCellCount] = cellIndex;
+        this.filledCellCount++;
 
-        if (this.isWinner(player))
+        if (this.isWinningMove(playerIndex, cellIndex))
         {
-            this.winner = player;
+            this.winner = this.players.get(playerIndex);
             this.gameDone = true;
         }
         else if (this.isTie())
@@ -103,6 +355,76 @@ public class QubTicTacToeModel
         }
     }
 
+    /**
+     * Get whether there is a move that can be undone.
+     * @return Whether there is a move that can be undone.
+     */
+    public boolean canUndo()
+    {
+        return this.filledCellCount > 0;
+    }
+
+    /**
+     * Take back the last move. The move can be made again with redoMove() until a different move
+     * is made.
+     */
+    public void undoMove()
+    {
+        PreCondition.assertTrue(this.canUndo(), "this.canUndo()");
+
+        this.filledCellCount--;
+        final int cellIndex = this.moves[this.filledCellCount];
+        final int playerIndex = this.filledCellCount % this.players.getCount();
+        QubTicTacToeGeometry.clear(this.playerBoards, playerIndex * this.geometry.getWordCount(), cellIndex);
+        this.zobristHash ^= this.geometry.getZobristKey(playerIndex, cellIndex);
+
+        this.winner = null;
+        this.gameDone = false;
+        this.turnNumber = this.filledCellCount + 1;
+    }
+
+    /**
+     * Get whether there is an undone move that can be made again.
+     * @return Whether there is an undone move that can be made again.
+     */
+    public boolean canRedo()
+    {
+        return this.filledCellCount < this.redoableMoveCount && !this.gameDone;
+    }
+
+    /**
+     * Make the last undone move again.
+     */
+    public void redoMove()
+    {
+        PreCondition.assertTrue(this.canRedo(), "this.canRedo()");
+
+        this.takeCell(this.moves[this.filledCellCount]);
+    }
+
+    /**
+     * Get the cell that was taken by the provided move.
+     * @param moveIndex The index of the move, starting at 0 for the first move of the game.
+     * @return The index of the cell that was taken by the provided move.
+     */
+    public int getMove(int moveIndex)
+    {
+        PreCondition.assertBetween(0, moveIndex, this.filledCellCount - 1, "moveIndex");
+
+        return this.moves[moveIndex];
+    }
+
+    /**
+     * Get the 64-bit Zobrist hash of the cells that each player has taken. The hash is updated
+     * incrementally by every move, undo, and redo, and two models with the same geometry and the
+     * same taken cells always have the same hash.
+     * @return The Zobrist hash of the current position.
+     */
+    public long getZobristHash()
+    {
+        return this.zobristHash;
+    }
+
     public boolean hasWinner()
     {
         return !Strings.isNullOrEmpty(this.winner);
@@ -113,69 +435,42 @@ public class QubTicTacToeModel
         return this.winner;
     }
 
+    /**
+     * Get the number of cells that have been taken by any player.
+     * @return The number of cells that have been taken by any player.
+     */
+    public int getFilledCellCount()
+    {
+        return this.filledCellCount;
+    }
+
     public boolean isTie()
     {
-        return (this.boardWidth * this.boardHeight) == this.turnNumber;
+        return this.geometry.getCellCount() == this.filledCellCount && !this.hasWinner();
     }
 
     public boolean isWinner(String player)
     {
         PreCondition.assertOneOf(player, this.players, "player");
 
-        boolean result = false;
-        if (!result)
-        {
-            for (int row = 0; row < this.boardHeight; ++row)
-            {
-                boolean isWinningRow = true;
-                for (int column = 0; column < this.boardWidth; ++column)
-                {
-                    if (!player.equals(this.getBoardCell(row, column)))
-                    {
-                        isWinningRow = false;
-                        break;
-                    }
-                }
-                if (isWinningRow)
-                {
-                    result = true;
-                    break;
-                }
-            }
-        }
-        if (!result)
-        {
-            for (int column = 0; column < this.boardWidth; ++column)
-            {
-                boolean isWinningColumn = true;
-                for (int row = 0; row < this.boardHeight; ++row)
-                {
-                    if (!player.equals(this.getBoardCell(row, column)))
-                    {
-                        isWinningColumn = false;
-                        break;
-                    }
-                }
-                if (isWinningColumn)
-                {
-                    result = true;
-                    break;
-                }
-            }
-        }
-        if (!result)
-        {
-            result = player.equals(this.getBoardCell(0, 0)) &&
-                player.equals(this.getBoardCell(1, 1)) &&
-                player.equals(this.getBoardCell(2, 2));
-        }
-        if (!result)
-        {
-            result = player.equals(this.getBoardCell(0, 2)) &&
-                player.equals(this.getBoardCell(1, 1)) &&
-                player.equals(this.getBoardCell(2, 0));
-        }
+        return this.isWinner(this.getPlayerIndex(player));
+    }
 
-        return result;
+    /**
+     * Get whether the provided player has won by taking the provided cell. Only the winning lines
+     * that pass through the provided cell are checked, since those are the only lines that the
+     * move could have completed.
+     * @param playerIndex The index of the player that took the cell.
+     * @param cellIndex The index of the cell that was taken.
+     * @return Whether the provided player has a winning line through the provided cell.
+     */
+    private boolean isWinningMove(int playerIndex, int cellIndex)
+    {
+        return this.geometry.isWinningMove(this.playerBoards, playerIndex * this.geometry.getWordCount(), cellIndex);
+    }
+
+    private boolean isWinner(int playerIndex)
+    {
+        return this.geometry.isWin(this.playerBoards, playerIndex * this.geometry.getWordCount());
     }
 }
@@ -0,0 +1,291 @@
+package qub;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * A QubTicTacToeEngine that chooses moves with Monte Carlo tree search. Unlike the
+ * QubTicTacToeMinimaxEngine it works on boards of any size, so it is the engine to use when the
+ * whole game tree is too big to search. Each move is given a budget of either a number of random
+ * playouts or a number of milliseconds, and the engine gets stronger as the budget grows. The
+ * search is parallelized at the root: every thread grows its own tree from the current position,
+ * and the visit counts of the root moves are summed across the trees to pick the move.
+ */
+public class QubTicTacToeMonteCarloEngine implements QubTicTacToeEngine
+{
+    /**
+     * The number of playouts that are run for each move when no other budget is provided.
+     */
+    public static final int defaultPlayoutCount = 20000;
+
+    /**
+     * The maximum number of nodes in each thread's search tree. Once a tree is full, iterations
+     * keep running playouts from its leaves without adding any more nodes.
+     */
+    public static final int maximumNodeCount = 1 << 20;
+
+    /**
+     * The number of iterations that are run between checks of the clock when the budget is a
+     * number of milliseconds.
+     */
+    private static final int iterationsPerClockCheck = 64;
+
+    private final QubTicTacToeGeometry geometry;
+    private final int playoutCount;
+    private final long milliseconds;
+    private final QubTicTacToeMonteCarloSearch[] searches;
+    private final long[] ownBoards;
+    private final long[] otherBoards;
+    private final long[] rootVisits;
+
+    private QubTicTacToeMonteCarloEngine(QubTicTacToeGeometry geometry, int playoutCount, long milliseconds, int threadCount)
+    {
+        PreCondition.assertNotNull(geometry, "geometry");
+        PreCondition.assertGreaterThanOrEqualTo(threadCount, 1, "threadCount");
+
+        this.geometry = geometry;
+        this.playoutCount = playoutCount;
+        this.milliseconds = milliseconds;
+
+        this.searches = new QubTicTacToeMonteCarloSearch[threadCount];
+        final long seed = System.nanoTime();
+        for (int threadIndex = 0; threadIndex < threadCount; ++threadIndex)
+        {
+            this.searches[threadIndex] = new QubTicTacToeMonteCarloSearch(geometry, QubTicTacToeMonteCarloEngine.maximumNodeCount, seed + (threadIndex * 0x9E3779B97F4A7C15L));
+        }
+
+        final int wordCount = geometry.getWordCount();
+        this.ownBoards = new long[wordCount];
+        this.otherBoards = new long[wordCount];
+        this.rootVisits = new long[geometry.getCellCount()];
+    }
+
+    /**
+     * Create a new single-threaded engine that runs the default number of playouts for each move.
+     * @param geometry The geometry of the board that the engine will play on.
+     * @return The new engine.
+     */
+    public static QubTicTacToeMonteCarloEngine create(QubTicTacToeGeometry geometry)
+    {
+        return QubTicTacToeMonteCarloEngine.createWithPlayouts(geometry, QubTicTacToeMonteCarloEngine.defaultPlayoutCount, 1);
+    }
+
+    /**
+     * Create a new engine that runs playoutCount playouts for each move, split across threadCount
+     * threads.
+     * @param geometry The geometry of the board that the engine will play on.
+     * @param playoutCount The number of playouts to run for each move.
+     * @param threadCount The number of threads to search with.
+     * @return The new engine.
+     */
+    public static QubTicTacToeMonteCarloEngine createWithPlayouts(QubTicTacToeGeometry geometry, int playoutCount, int threadCount)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(playoutCount, 1, "playoutCount");
+
+        return new QubTicTacToeMonteCarloEngine(geometry, playoutCount, 0, threadCount);
+    }
+
+    /**
+     * Create a new engine that searches for milliseconds milliseconds for each move with
+     * threadCount threads.
+     * @param geometry The geometry of the board that the engine will play on.
+     * @param milliseconds The number of milliseconds to search for each move.
+     * @param threadCount The number of threads to search with.
+     * @return The new engine.
+     */
+    public static QubTicTacToeMonteCarloEngine createWithMilliseconds(QubTicTacToeGeometry geometry, long milliseconds, int threadCount)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(milliseconds, 1L, "milliseconds");
+
+        return new QubTicTacToeMonteCarloEngine(geometry, 0, milliseconds, threadCount);
+    }
+
+    /**
+     * Get the geometry of the board that this engine plays on.
+     * @return The geometry of the board that this engine plays on.
+     */
+    public QubTicTacToeGeometry getGeometry()
+    {
+        return this.geometry;
+    }
+
+    /**
+     * Get the number of threads that this engine searches with.
+     * @return The number of threads that this engine searches with.
+     */
+    public int getThreadCount()
+    {
+        return this.searches.length;
+    }
+
+    /**
+     * Get the total number of playouts that this engine has run across all of its threads.
+     * @return The total number of playouts that this engine has run.
+     */
+    public long getPlayoutCount()
+    {
+        long result = 0;
+        for (final QubTicTacToeMonteCarloSearch search : this.searches)
+        {
+            result += search.getPlayoutCount();
+        }
+        return result;
+    }
+
+    @Override
+    public int chooseMove(QubTicTacToeModel model)
+    {
+        PreCondition.assertNotNull(model, "model");
+        PreCondition.assertSame(this.geometry, model.getGeometry(), "model.getGeometry()");
+        PreCondition.assertFalse(model.isGameDone(), "model.isGameDone()");
+
+        // Every cell that isn't empty and isn't the current player's belongs to the other player.
+        final String currentPlayer = model.getCurrentPlayer();
+        final int cellCount = this.geometry.getCellCount();
+        final int wordCount = this.geometry.getWordCount();
+        for (int wordIndex = 0; wordIndex < wordCount; ++wordIndex)
+        {
+            final int wordCellCount = Math.min(Long.SIZE, cellCount - (wordIndex * Long.SIZE));
+            final long wordMask = -1L >>> (Long.SIZE - wordCellCount);
+            this.ownBoards[wordIndex] = model.getPlayerBoardWord(currentPlayer, wordIndex);
+            this.otherBoards[wordIndex] = wordMask & ~(this.ownBoards[wordIndex] | model.getLegalMovesWord(wordIndex));
+        }
+        return this.chooseMove(this.ownBoards, this.otherBoards);
+    }
+
+    /**
+     * Choose the cell that the player to move should take next.
+     * @param ownBoards The wordCount longs of the bitmask of the cells that the player to move has
+     *                  taken.
+     * @param otherBoards The wordCount longs of the bitmask of the cells that the other player has
+     *                    taken.
+     * @return The index of the cell that the player to move should take.
+     */
+    public int chooseMove(long[] ownBoards, long[] otherBoards)
+    {
+        PreCondition.assertNotNull(ownBoards, "ownBoards");
+        PreCondition.assertEqual(this.geometry.getWordCount(), ownBoards.length, "ownBoards.length");
+        PreCondition.assertNotNull(otherBoards, "otherBoards");
+        PreCondition.assertEqual(this.geometry.getWordCount(), otherBoards.length, "otherBoards.length");
+
+        // Random playouts are bad at seeing one-move wins and threats, so those are checked
+        // before any playouts are spent.
+        int result = this.findWinningMove(ownBoards, otherBoards);
+        if (result == -1)
+        {
+            result = this.findWinningMove(otherBoards, ownBoards);
+        }
+        if (result == -1)
+        {
+            result = this.search(ownBoards, otherBoards);
+        }
+
+        PostCondition.assertBetween(0, result, this.geometry.getCellCount() - 1, "result");
+
+        return result;
+    }
+
+    /**
+     * Find an empty cell that completes a line for the player that owns ownBoards.
+     * @return The winning cell, or -1 if there isn't one.
+     */
+    private int findWinningMove(long[] ownBoards, long[] otherBoards)
+    {
+        final int cellCount = this.geometry.getCellCount();
+
+        int result = -1;
+        for (int cellIndex = 0; cellIndex < cellCount && result == -1; ++cellIndex)
+        {
+            final int wordIndex = cellIndex / Long.SIZE;
+            final long cellMask = 1L << (cellIndex % Long.SIZE);
+            if (((ownBoards[wordIndex] | otherBoards[wordIndex]) & cellMask) == 0)
+            {
+                ownBoards[wordIndex] |= cellMask;
+                if (this.geometry.isWinningMove(ownBoards, 0, cellIndex))
+                {
+                    result = cellIndex;
+                }
+                ownBoards[wordIndex] &= ~cellMask;
+            }
+        }
+        return result;
+    }
+
+    private int search(long[] ownBoards, long[] otherBoards)
+    {
+        final int threadCount = this.searches.length;
+        final long deadline = this.milliseconds == 0 ? 0 : System.nanoTime() + (this.milliseconds * 1000000L);
+
+        if (threadCount == 1)
+        {
+            this.runSearch(this.searches[0], ownBoards, otherBoards, this.playoutCount, deadline);
+        }
+        else
+        {
+            final List<ForkJoinTask<?>> tasks = List.create();
+            for (int threadIndex = 1; threadIndex < threadCount; ++threadIndex)
+            {
+                final QubTicTacToeMonteCarloSearch search = this.searches[threadIndex];
+                final int iterationCount = this.getThreadIterationCount(threadIndex);
+                tasks.add(ForkJoinPool.commonPool().submit(() -> this.runSearch(search, ownBoards, otherBoards, iterationCount, deadline)));
+            }
+            this.runSearch(this.searches[0], ownBoards, otherBoards, this.getThreadIterationCount(0), deadline);
+            for (final ForkJoinTask<?> task : tasks)
+            {
+                task.join();
+            }
+        }
+
+        java.util.Arrays.fill(this.rootVisits, 0);
+        for (final QubTicTacToeMonteCarloSearch search : this.searches)
+        {
+            search.addRootVisits(this.rootVisits);
+        }
+
+        int result = -1;
+        long bestVisits = -1;
+        for (int cellIndex = 0; cellIndex < this.rootVisits.length; ++cellIndex)
+        {
+            if (this.rootVisits[cellIndex] > bestVisits && !QubTicTacToeGeometry.isSet(ownBoards, 0, cellIndex) && !QubTicTacToeGeometry.isSet(otherBoards, 0, cellIndex))
+            {
+                bestVisits = this.rootVisits[cellIndex];
+                result = cellIndex;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the number of iterations that the provided thread should run when the budget is a number
+     * of playouts. The playouts are split as evenly as possible across the threads.
+     */
+    private int getThreadIterationCount(int threadIndex)
+    {
+        final int threadCount = this.searches.length;
+        return (this.playoutCount / threadCount) + (threadIndex < this.playoutCount % threadCount ? 1 : 0);
+    }
+
+    private void runSearch(QubTicTacToeMonteCarloSearch search, long[] ownBoards, long[] otherBoards, int iterationCount, long deadline)
+    {
+        search.reset(ownBoards, otherBoards);
+        if (deadline == 0)
+        {
+            for (int iteration = 0; iteration < iterationCount; ++iteration)
+            {
+                search.iterate();
+            }
+        }
+        else
+        {
+            // Always run at least one iteration so that the root has children to choose from.
+            do
+            {
+                for (int iteration = 0; iteration < QubTicTacToeMonteCarloEngine.iterationsPerClockCheck; ++iteration)
+                {
+                    search.iterate();
+                }
+            }
+            while (System.nanoTime() - deadline < 0);
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package qub;
+
+/**
+ * One thread's Monte Carlo tree search for a QubTicTacToeMonteCarloEngine. The tree is stored in
+ * parallel primitive arrays that are reused between moves, and every playout runs on a scratch
+ * copy of the root board, so a search doesn't allocate once its arrays have grown to size.
+ */
+class QubTicTacToeMonteCarloSearch
+{
+    private static final int unknownState = 0;
+    private static final int openState = 1;
+    private static final int wonState = 2;
+    private static final int drawnState = 3;
+
+    private static final double explorationConstant = Math.sqrt(2);
+
+    private final QubTicTacToeGeometry geometry;
+    private final int cellCount;
+    private final int wordCount;
+    private final int maximumNodeCount;
+
+    // The tree. Node 0 is the root. The children of a node are stored next to each other starting
+    // at firstChild. A node's score is from the point of view of the player that moved into it.
+    private int nodeCount;
+    private int[] nodeMoves;
+    private int[] nodeFirstChilds;
+    private int[] nodeChildCounts;
+    private int[] nodeVisits;
+    private float[] nodeScores;
+    private byte[] nodeStates;
+
+    // The root position. boards holds the player to move at offset 0 and the other player at
+    // offset wordCount. emptyCells holds the empty cell indexes, and emptyCellPositions maps each
+    // cell to its index in emptyCells.
+    private final long[] rootBoards;
+    private final int[] rootEmptyCells;
+    private final int[] rootEmptyCellPositions;
+    private int rootEmptyCellCount;
+
+    // The scratch position that each iteration plays on.
+    private final long[] boards;
+    private final int[] emptyCells;
+    private final int[] emptyCellPositions;
+    private int emptyCellCount;
+
+    private final int[] path;
+    private long randomState;
+    private long playoutCount;
+
+    QubTicTacToeMonteCarloSearch(QubTicTacToeGeometry geometry, int maximumNodeCount, long seed)
+    {
+        PreCondition.assertNotNull(geometry, "geometry");
+        PreCondition.assertGreaterThanOrEqualTo(maximumNodeCount, geometry.getCellCount() + 1, "maximumNodeCount");
+
+        this.geometry = geometry;
+        this.cellCount = geometry.getCellCount();
+        this.wordCount = geometry.getWordCount();
+        this.maximumNodeCount = maximumNodeCount;
+
+        final int initialNodeCapacity = Math.min(maximumNodeCount, Math.max(1024, this.cellCount * 16));
+        this.nodeMoves = new int[initialNodeCapacity];
+        this.nodeFirstChilds = new int[initialNodeCapacity];
+        this.nodeChildCounts = new int[initialNodeCapacity];
+        this.nodeVisits = new int[initialNodeCapacity];
+        this.nodeScores = new float[initialNodeCapacity];
+        this.nodeStates = new byte[initialNodeCapacity];
+
+        this.rootBoards = new long[this.wordCount * 2];
+        this.rootEmptyCells = new int[this.cellCount];
+        this.rootEmptyCellPositions = new int[this.cellCount];
+        this.boards = new long[this.wordCount * 2];
+        this.emptyCells = new int[this.cellCount];
+        this.emptyCellPositions = new int[this.cellCount];
+        this.path = new int[this.cellCount + 1];
+
+        this.randomState = seed == 0 ? 0x9E3779B97F4A7C15L : seed;
+    }
+
+    /**
+     * Get the number of playouts that this search has run since it was created.
+     */
+    long getPlayoutCount()
+    {
+        return this.playoutCount;
+    }
+
+    /**
+     * Start a new tree for the provided position.
+     * @param ownBoards The wordCount longs of the bitmask of the player to move.
+     * @param otherBoards The wordCount longs of the bitmask of the other player.
+     */
+    void reset(long[] ownBoards, long[] otherBoards)
+    {
+        System.arraycopy(ownBoards, 0, this.rootBoards, 0, this.wordCount);
+        System.arraycopy(otherBoards, 0, this.rootBoards, this.wordCount, this.wordCount);
+
+        this.rootEmptyCellCount = 0;
+        for (int cellIndex = 0; cellIndex < this.cellCount; ++cellIndex)
+        {
+            if (!QubTicTacToeGeometry.isSet(this.rootBoards, 0, cellIndex) && !QubTicTacToeGeometry.isSet(this.rootBoards, this.wordCount, cellIndex))
+            {
+                this.rootEmptyCellPositions[cellIndex] = this.rootEmptyCellCount;
+                this.rootEmptyCells[this.rootEmptyCellCount++] = cellIndex;
+            }
+        }
+
+        this.nodeCount = 1;
+        this.nodeMoves[0] = -1;
+        this.nodeFirstChilds[0] = 0;
+        this.nodeChildCounts[0] = 0;
+        this.nodeVisits[0] = 0;
+        this.nodeScores[0] = 0;
+        this.nodeStates[0] = QubTicTacToeMonteCarloSearch.openState;
+    }
+
+    /**
+     * Run one selection, expansion, playout, and backpropagation iteration.
+     */
+    void iterate()
+    {
+        System.arraycopy(this.rootBoards, 0, this.boards, 0, this.boards.length);
+        System.arraycopy(this.rootEmptyCells, 0, this.emptyCells, 0, this.rootEmptyCellCount);
+        System.arraycopy(this.rootEmptyCellPositions, 0, this.emptyCellPositions, 0, this.cellCount);
+        this.emptyCellCount = this.rootEmptyCellCount;
+
+        int node = 0;
+        int pathLength = 0;
+        this.path[pathLength++] = node;
+        while (this.nodeChildCounts[node] != 0 && this.nodeStates[node] == QubTicTacToeMonteCarloSearch.openState)
+        {
+            node = this.selectChild(node);
+            this.playNodeMove(node, pathLength);
+            this.path[pathLength++] = node;
+        }
+
+        if (this.nodeStates[node] == QubTicTacToeMonteCarloSearch.openState && (node == 0 || this.nodeVisits[node] > 0) && this.expand(node))
+        {
+            node = this.nodeFirstChilds[node] + this.nextRandomInt(this.nodeChildCounts[node]);
+            this.playNodeMove(node, pathLength);
+            this.path[pathLength++] = node;
+        }
+
+        // The result is 0 if the player to move at the root won, 1 if the other player won, and
+        // -1 for a draw.
+        int winner;
+        final int lastMover = (pathLength - 1) % 2 == 1 ? 0 : 1;
+        if (this.nodeStates[node] == QubTicTacToeMonteCarloSearch.wonState)
+        {
+            winner = lastMover;
+        }
+        else if (this.nodeStates[node] == QubTicTacToeMonteCarloSearch.drawnState)
+        {
+            winner = -1;
+        }
+        else
+        {
+            winner = this.playout(1 - lastMover);
+        }
+
+        for (int pathIndex = 0; pathIndex < pathLength; ++pathIndex)
+        {
+            final int pathNode = this.path[pathIndex];
+            final int mover = pathIndex % 2 == 1 ? 0 : 1;
+            this.nodeVisits[pathNode]++;
+            if (winner == mover)
+            {
+                this.nodeScores[pathNode] += 1;
+            }
+            else if (winner == -1)
+            {
+                this.nodeScores[pathNode] += 0.5f;
+            }
+        }
+    }
+
+    /**
+     * Add the visit counts of the root's children to the provided array, indexed by cell index.
+     */
+    void addRootVisits(long[] cellVisits)
+    {
+        final int firstChild = this.nodeFirstChilds[0];
+        for (int childIndex = 0; childIndex < this.nodeChildCounts[0]; ++childIndex)
+        {
+            final int child = firstChild + childIndex;
+            cellVisits[this.nodeMoves[child]] += this.nodeVisits[child];
+        }
+    }
+
+    private int selectChild(int node)
+    {
+        final double logParentVisits = Math.log(Math.max(1, this.nodeVisits[node]));
+        final int firstChild = this.nodeFirstChilds[node];
+        final int childCount = this.nodeChildCounts[node];
+
+        int result = firstChild;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        int unvisitedChild = -1;
+        int unvisitedCount = 0;
+        for (int child = firstChild; child < firstChild + childCount; ++child)
+        {
+            final int childVisits = this.nodeVisits[child];
+            if (childVisits == 0)
+            {
+                // Unvisited children are tried first, in a random order. Keeping each one with
+                // a chance of 1 in the number seen so far picks one of them uniformly.
+                ++unvisitedCount;
+                if (this.nextRandomInt(unvisitedCount) == 0)
+                {
+                    unvisitedChild = child;
+                }
+            }
+            else
+            {
+                final double value = this.nodeStates[child] == QubTicTacToeMonteCarloSearch.wonState
+                    ? Double.POSITIVE_INFINITY
+                    : (this.nodeScores[child] / childVisits) +
+                        (QubTicTacToeMonteCarloSearch.explorationConstant * Math.sqrt(logParentVisits / childVisits));
+                if (value > bestValue)
+                {
+                    bestValue = value;
+                    result = child;
+                }
+            }
+        }
+        if (unvisitedChild != -1 && bestValue != Double.POSITIVE_INFINITY)
+        {
+            result = unvisitedChild;
+        }
+        return result;
+    }
+
+    /**
+     * Add a child for every empty cell of the scratch position to the provided node.
+     * @return Whether the node was expanded. A node isn't expanded when the tree is full.
+     */
+    private boolean expand(int node)
+    {
+        final int childCount = this.emptyCellCount;
+        final boolean result = childCount > 0 && this.nodeCount + childCount <= this.maximumNodeCount;
+        if (result)
+        {
+            this.ensureNodeCapacity(this.nodeCount + childCount);
+
+            final int firstChild = this.nodeCount;
+            for (int childIndex = 0; childIndex < childCount; ++childIndex)
+            {
+                final int child = firstChild + childIndex;
+                this.nodeMoves[child] = this.emptyCells[childIndex];
+                this.nodeFirstChilds[child] = 0;
+                this.nodeChildCounts[child] = 0;
+                this.nodeVisits[child] = 0;
+                this.nodeScores[child] = 0;
+                this.nodeStates[child] = QubTicTacToeMonteCarloSearch.unknownState;
+            }
+            this.nodeFirstChilds[node] = firstChild;
+            this.nodeChildCounts[node] = childCount;
+            this.nodeCount += childCount;
+        }
+        return result;
+    }
+
+    private void ensureNodeCapacity(int nodeCapacity)
+    {
+        if (this.nodeMoves.length < nodeCapacity)
+        {
+            final int newCapacity = Math.min(this.maximumNodeCount, Math.max(nodeCapacity, this.nodeMoves.length * 2));
+            this.nodeMoves = java.util.Arrays.copyOf(this.nodeMoves, newCapacity);
+            this.nodeFirstChilds = java.util.Arrays.copyOf(this.nodeFirstChilds, newCapacity);
+            this.nodeChildCounts = java.util.Arrays.copyOf(this.nodeChildCounts, newCapacity);
+            this.nodeVisits = java.util.Arrays.copyOf(this.nodeVisits, newCapacity);
+            this.nodeScores = java.util.Arrays.copyOf(this.nodeScores, newCapacity);
+            this.nodeStates = java.util.Arrays.copyOf(this.nodeStates, newCapacity);
+        }
+    }
+
+    /**
+     * Play the move of the provided node on the scratch position. The node is at the provided
+     * depth below the root, so the root's player to move makes the moves at odd depths.
+     */
+    private void playNodeMove(int node, int depth)
+    {
+        final int cellIndex = this.nodeMoves[node];
+        final int moverOffset = depth % 2 == 1 ? 0 : this.wordCount;
+        this.takeCell(moverOffset, cellIndex);
+
+        if (this.nodeStates[node] == QubTicTacToeMonteCarloSearch.unknownState)
+        {
+            if (this.geometry.isWinningMove(this.boards, moverOffset, cellIndex))
+            {
+                this.nodeStates[node] = QubTicTacToeMonteCarloSearch.wonState;
+            }
+            else if (this.emptyCellCount == 0)
+            {
+                this.nodeStates[node] = QubTicTacToeMonteCarloSearch.drawnState;
+            }
+            else
+            {
+                this.nodeStates[node] = QubTicTacToeMonteCarloSearch.openState;
+            }
+        }
+    }
+
+    private void takeCell(int boardOffset, int cellIndex)
+    {
+        QubTicTacToeGeometry.set(this.boards, boardOffset, cellIndex);
+
+        final int position = this.emptyCellPositions[cellIndex];
+        final int lastCell = this.emptyCells[--this.emptyCellCount];
+        this.emptyCells[position] = lastCell;
+        this.emptyCellPositions[lastCell] = position;
+    }
+
+    /**
+     * Play random moves on the scratch position until the game ends.
+     * @param mover 0 if the root's player to move moves next, or 1 if the other player does.
+     * @return 0 if the root's player to move won, 1 if the other player won, or -1 for a draw.
+     */
+    private int playout(int mover)
+    {
+        ++this.playoutCount;
+
+        int result = -1;
+        while (this.emptyCellCount > 0)
+        {
+            final int cellIndex = this.emptyCells[this.nextRandomInt(this.emptyCellCount)];
+            final int moverOffset = mover * this.wordCount;
+            this.takeCell(moverOffset, cellIndex);
+            if (this.geometry.isWinningMove(this.boards, moverOffset, cellIndex))
+            {
+                result = mover;
+                break;
+            }
+            mover = 1 - mover;
+        }
+        return result;
+    }
+
+    /**
+     * Get a random integer between 0 (inclusive) and bound (exclusive) from this search's
+     * xorshift generator.
+     */
+    private int nextRandomInt(int bound)
+    {
+        long x = this.randomState;
+        x ^= x << 13;
+        x ^= x >>> 7;
+        x ^= x << 17;
+        this.randomState = x;
+        return (int)(((x >>> 32) * bound) >>> 32);
+    }
+}
@@ -0,0 +1,249 @@
+package qub;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Parses the cells that players type, such as "b2", "2b", or "b 2", without allocating. A move is
+ * a row and a column in either order. A row is one letter where "a" is the first row and "z" is
+ * the twenty-sixth row, which is the most rows that a board can have, so rows are parsed and
+ * rendered the same way. A column is one or more digits where "1" is the first column. Several
+ * moves can be written on one line when they are separated by whitespace, such as "a1 b2 c3".
+ * <p>
+ * parseNext() returns a long that packs the index where parsing stopped into the upper 32 bits and
+ * the parsed cell index (or noMove or invalidMove) into the lower 32 bits. Use getCellIndex() and
+ * getEndIndex() to unpack it.
+ */
+public class QubTicTacToeMoveParser
+{
+    /**
+     * The cell index that is returned when there are no more moves to parse.
+     */
+    public static final int noMove = -1;
+    /**
+     * The cell index that is returned when the text isn't a cell on the board.
+     */
+    public static final int invalidMove = -2;
+
+    private static final ConcurrentHashMap<QubTicTacToeGeometry,QubTicTacToeMoveParser> parsers = new ConcurrentHashMap<>();
+
+    private final QubTicTacToeGeometry geometry;
+
+    private QubTicTacToeMoveParser(QubTicTacToeGeometry geometry)
+    {
+        PreCondition.assertNotNull(geometry, "geometry");
+
+        this.geometry = geometry;
+    }
+
+    /**
+     * Get the shared parser for moves on boards with the provided geometry. A parser doesn't
+     * change after it is created, so one parser can be used by every game and thread.
+     * @param geometry The geometry of the board that moves are made on.
+     * @return The parser for moves on boards with the provided geometry.
+     */
+    public static QubTicTacToeMoveParser get(QubTicTacToeGeometry geometry)
+    {
+        PreCondition.assertNotNull(geometry, "geometry");
+
+        return QubTicTacToeMoveParser.parsers.computeIfAbsent(geometry, QubTicTacToeMoveParser::new);
+    }
+
+    /**
+     * Get the geometry of the board that this parser parses moves for.
+     * @return The geometry of the board that this parser parses moves for.
+     */
+    public QubTicTacToeGeometry getGeometry()
+    {
+        return this.geometry;
+    }
+
+    /**
+     * Get the cell index from the provided result of parseNext().
+     * @param parseResult The result of parseNext().
+     * @return The parsed cell index, noMove, or invalidMove.
+     */
+    public static int getCellIndex(long parseResult)
+    {
+        return (int)parseResult;
+    }
+
+    /**
+     * Get the index where parsing stopped from the provided result of parseNext(). This is where
+     * the next move should be parsed from.
+     * @param parseResult The result of parseNext().
+     * @return The index where parsing stopped.
+     */
+    public static int getEndIndex(long parseResult)
+    {
+        return (int)(parseResult >>> 32);
+    }
+
+    private static long packResult(int cellIndex, int endIndex)
+    {
+        return ((long)endIndex << 32) | (cellIndex & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Parse the next move in the provided text.
+     * @param text The text to parse.
+     * @param startIndex The index in the text to start parsing at.
+     * @param endIndex The index in the text to stop parsing at.
+     * @return The packed cell index and end index of the move.
+     */
+    public long parseNext(CharSequence text, int startIndex, int endIndex)
+    {
+        PreCondition.assertNotNull(text, "text");
+        PreCondition.assertBetween(0, endIndex, text.length(), "endIndex");
+        PreCondition.assertBetween(0, startIndex, endIndex, "startIndex");
+
+        int index = QubTicTacToeMoveParser.skipWhitespace(text, startIndex, endIndex);
+
+        int cellIndex;
+        if (index == endIndex)
+        {
+            cellIndex = QubTicTacToeMoveParser.noMove;
+        }
+        else
+        {
+            final int height = this.geometry.getHeight();
+            final int width = this.geometry.getWidth();
+            int row = -1;
+            int column = -1;
+            boolean valid = true;
+            while (valid && (row == -1 || column == -1) && index < endIndex)
+            {
+                final char character = text.charAt(index);
+                if (QubTicTacToeMoveParser.isLetter(character) && row == -1)
+                {
+                    row = Characters.toLowerCase(character) - 'a';
+                    ++index;
+                }
+                else if (QubTicTacToeMoveParser.isDigit(character) && column == -1)
+                {
+                    int columnNumber = 0;
+                    while (index < endIndex && QubTicTacToeMoveParser.isDigit(text.charAt(index)))
+                    {
+                        // Cap the number so that long inputs can't overflow.
+                        columnNumber = Math.min((columnNumber * 10) + (text.charAt(index) - '0'), width + 1);
+                        ++index;
+                    }
+                    column = columnNumber - 1;
+                }
+                else if (Characters.isWhitespace(character))
+                {
+                    // Whitespace can separate the row and the column of a move, but only if what
+                    // comes after it is the part of the move that is still missing.
+                    final int nextIndex = QubTicTacToeMoveParser.skipWhitespace(text, index, endIndex);
+                    final boolean continuesMove = nextIndex < endIndex &&
+                        ((row == -1 && QubTicTacToeMoveParser.isLetter(text.charAt(nextIndex))) ||
+                         (column == -1 && QubTicTacToeMoveParser.isDigit(text.charAt(nextIndex))));
+                    if (continuesMove)
+                    {
+                        index = nextIndex;
+                    }
+                    else
+                    {
+                        valid = false;
+                    }
+                }
+                else
+                {
+                    valid = false;
+                }
+            }
+
+            if (valid && index < endIndex && !Characters.isWhitespace(text.charAt(index)))
+            {
+                valid = false;
+            }
+
+            if (valid && 0 <= row && row < height && 0 <= column && column < width)
+            {
+                cellIndex = (row * width) + column;
+            }
+            else
+            {
+                cellIndex = QubTicTacToeMoveParser.invalidMove;
+                while (index < endIndex && !Characters.isWhitespace(text.charAt(index)))
+                {
+                    ++index;
+                }
+            }
+        }
+        return QubTicTacToeMoveParser.packResult(cellIndex, index);
+    }
+
+    /**
+     * Parse the provided text as exactly one move.
+     * @param text The text to parse.
+     * @return The cell index of the move, noMove if the text is empty or whitespace, or
+     * invalidMove if the text isn't exactly one cell on the board.
+     */
+    public int parse(CharSequence text)
+    {
+        PreCondition.assertNotNull(text, "text");
+
+        final int textLength = text.length();
+        final long parseResult = this.parseNext(text, 0, textLength);
+        int result = QubTicTacToeMoveParser.getCellIndex(parseResult);
+        if (result >= 0 && QubTicTacToeMoveParser.skipWhitespace(text, QubTicTacToeMoveParser.getEndIndex(parseResult), textLength) != textLength)
+        {
+            result = QubTicTacToeMoveParser.invalidMove;
+        }
+        return result;
+    }
+
+    /**
+     * Parse every move in the provided text.
+     * @param text The text to parse.
+     * @param cellIndexes The array to put the parsed cell indexes into.
+     * @return The number of moves that were parsed, or invalidMove if any of the moves isn't a cell
+     * on the board or if there are more moves than cellIndexes can hold.
+     */
+    public int parseAll(CharSequence text, int[] cellIndexes)
+    {
+        PreCondition.assertNotNull(text, "text");
+        PreCondition.assertNotNull(cellIndexes, "cellIndexes");
+
+        final int textLength = text.length();
+        int result = 0;
+        int index = 0;
+        while (true)
+        {
+            final long parseResult = this.parseNext(text, index, textLength);
+            final int cellIndex = QubTicTacToeMoveParser.getCellIndex(parseResult);
+            if (cellIndex == QubTicTacToeMoveParser.noMove)
+            {
+                break;
+            }
+            else if (cellIndex == QubTicTacToeMoveParser.invalidMove || result == cellIndexes.length)
+            {
+                result = QubTicTacToeMoveParser.invalidMove;
+                break;
+            }
+            cellIndexes[result++] = cellIndex;
+            index = QubTicTacToeMoveParser.getEndIndex(parseResult);
+        }
+        return result;
+    }
+
+    private static int skipWhitespace(CharSequence text, int startIndex, int endIndex)
+    {
+        int result = startIndex;
+        while (result < endIndex && Characters.isWhitespace(text.charAt(result)))
+        {
+            ++result;
+        }
+        return result;
+    }
+
+    private static boolean isLetter(char character)
+    {
+        return ('a' <= character && character <= 'z') || ('A' <= character && character <= 'Z');
+    }
+
+    private static boolean isDigit(char character)
+    {
+        return '0' <= character && character <= '9';
+    }
+}
@@ -0,0 +1,387 @@
+package qub;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Validates files of move scripts, where each line is one game written as a sequence of moves in
+ * the notation that human players type, such as "b2 a1 3c". Every line is replayed with the rules
+ * of QubTicTacToeModel, and its outcome or its first illegal move is reported.
+ * <p>
+ * The file is read in batches of lines. Each batch is split into chunks of consecutive lines that
+ * worker threads take until none are left, while the main thread reads the next batch. When every
+ * chunk of a batch is done, the batch's reports are written in the same order as the lines, so the
+ * output doesn't depend on the number of threads. Lines are replayed on bare bitboards, like
+ * QubTicTacToeArchiveAnalyzer does, because validation doesn't need the model's move history or
+ * player names.
+ */
+public class QubTicTacToeMoveScriptValidator
+{
+    /**
+     * The number of consecutive lines that a worker takes at a time.
+     */
+    public static final int chunkSize = 1024;
+
+    /**
+     * The outcome of a line where X got the required number of cells in a row.
+     */
+    public static final int xWin = 0;
+
+    /**
+     * The outcome of a line where O got the required number of cells in a row.
+     */
+    public static final int oWin = 1;
+
+    /**
+     * The outcome of a line that filled the board without a winner.
+     */
+    public static final int tie = 2;
+
+    /**
+     * The outcome of a line whose moves are all legal but don't finish the game.
+     */
+    public static final int unfinished = 3;
+
+    /**
+     * The outcome of a line with a move that isn't legal.
+     */
+    public static final int invalid = 4;
+
+    /**
+     * The number of different outcomes.
+     */
+    public static final int outcomeCount = 5;
+
+    private final QubTicTacToeGeometry geometry;
+    private final int threadCount;
+    private final long[] outcomeCounts;
+
+    private QubTicTacToeMoveScriptValidator(QubTicTacToeGeometry geometry, int threadCount)
+    {
+        PreCondition.assertNotNull(geometry, "geometry");
+        PreCondition.assertGreaterThanOrEqualTo(threadCount, 1, "threadCount");
+
+        this.geometry = geometry;
+        this.threadCount = threadCount;
+        this.outcomeCounts = new long[QubTicTacToeMoveScriptValidator.outcomeCount];
+    }
+
+    /**
+     * Create a new validator for games on the provided board.
+     * @param geometry The geometry of the board that the games are played on.
+     * @param threadCount The number of threads to validate lines with.
+     * @return The new validator.
+     */
+    public static QubTicTacToeMoveScriptValidator create(QubTicTacToeGeometry geometry, int threadCount)
+    {
+        return new QubTicTacToeMoveScriptValidator(geometry, threadCount);
+    }
+
+    /**
+     * Get the number of lines with the provided outcome that this validator has validated.
+     * @param outcome The outcome.
+     * @return The number of lines with the provided outcome that this validator has validated.
+     */
+    public long getOutcomeCount(int outcome)
+    {
+        PreCondition.assertBetween(0, outcome, QubTicTacToeMoveScriptValidator.outcomeCount - 1, "outcome");
+
+        return this.outcomeCounts[outcome];
+    }
+
+    /**
+     * Get the number of lines that this validator has validated.
+     * @return The number of lines that this validator has validated.
+     */
+    public long getLineCount()
+    {
+        long result = 0;
+        for (final long outcomeCount : this.outcomeCounts)
+        {
+            result += outcomeCount;
+        }
+        return result;
+    }
+
+    /**
+     * Validate every line of the file at the provided path and write a report for each line.
+     * @param filePath The path to the file of move scripts.
+     * @param output The stream to write the reports to.
+     * @return This object for method chaining.
+     */
+    public Result<QubTicTacToeMoveScriptValidator> validate(String filePath, CharacterWriteStream output)
+    {
+        PreCondition.assertNotNullAndNotEmpty(filePath, "filePath");
+
+        return this.validate(Paths.get(filePath), output);
+    }
+
+    /**
+     * Validate every line of the file at the provided path and write a report for each line.
+     * @param filePath The path to the file of move scripts.
+     * @param output The stream to write the reports to.
+     * @return This object for method chaining.
+     */
+    public Result<QubTicTacToeMoveScriptValidator> validate(Path filePath, CharacterWriteStream output)
+    {
+        PreCondition.assertNotNull(filePath, "filePath");
+        PreCondition.assertNotNull(output, "output");
+
+        Result<QubTicTacToeMoveScriptValidator> result;
+        try (final BufferedReader reader = Files.newBufferedReader(filePath, StandardCharsets.UTF_8))
+        {
+            this.validate(reader, output);
+            result = Result.success(this);
+        }
+        catch (IOException e)
+        {
+            result = Result.error(e);
+        }
+        return result;
+    }
+
+    /**
+     * Validate every line of the file at the provided path, and write a report for each line
+     * followed by the number of lines with each outcome and the throughput.
+     * @param filePath The path to the file of move scripts.
+     * @param output The stream to write the reports and the totals to.
+     */
+    public void writeResults(String filePath, CharacterWriteStream output)
+    {
+        PreCondition.assertNotNullAndNotEmpty(filePath, "filePath");
+        PreCondition.assertNotNull(output, "output");
+
+        final long startTime = System.nanoTime();
+        if (this.validate(filePath, output).catchError().await() == null)
+        {
+            output.writeLine("Could not read the move scripts " + Strings.escapeAndQuote(filePath) + ".").await();
+        }
+        else
+        {
+            final double elapsedSeconds = (System.nanoTime() - startTime) / 1000000000.0;
+            output.writeLine("X wins: " + this.getOutcomeCount(QubTicTacToeMoveScriptValidator.xWin) +
+                ", O wins: " + this.getOutcomeCount(QubTicTacToeMoveScriptValidator.oWin) +
+                ", Ties: " + this.getOutcomeCount(QubTicTacToeMoveScriptValidator.tie) +
+                ", Unfinished: " + this.getOutcomeCount(QubTicTacToeMoveScriptValidator.unfinished) +
+                ", Invalid: " + this.getOutcomeCount(QubTicTacToeMoveScriptValidator.invalid)).await();
+            output.writeLine(String.format("Threads: %d, Time: %.3fs, Lines/second: %.0f",
+                this.threadCount,
+                elapsedSeconds,
+                elapsedSeconds == 0 ? 0 : this.getLineCount() / elapsedSeconds)).await();
+        }
+    }
+
+    /**
+     * Validate every line that the provided reader returns and write a report for each line.
+     */
+    private void validate(BufferedReader reader, CharacterWriteStream output) throws IOException
+    {
+        final int batchSize = QubTicTacToeMoveScriptValidator.chunkSize * this.threadCount;
+        final ForkJoinPool pool = new ForkJoinPool(this.threadCount);
+        try
+        {
+            long firstLineNumber = 1;
+            String[] lines = QubTicTacToeMoveScriptValidator.readLines(reader, batchSize);
+            while (lines.length > 0)
+            {
+                final String[] batchLines = lines;
+                final String[] reports = new String[batchLines.length];
+                final int[] outcomes = new int[batchLines.length];
+                final long batchFirstLineNumber = firstLineNumber;
+                final int chunkCount = (batchLines.length + QubTicTacToeMoveScriptValidator.chunkSize - 1) / QubTicTacToeMoveScriptValidator.chunkSize;
+                final int workerCount = Math.min(this.threadCount, chunkCount);
+                final AtomicInteger nextChunk = new AtomicInteger();
+
+                final List<ForkJoinTask<?>> workers = List.create();
+                for (int workerIndex = 0; workerIndex < workerCount; ++workerIndex)
+                {
+                    workers.add(pool.submit(() -> this.validateChunks(batchLines, batchFirstLineNumber, nextChunk, chunkCount, reports, outcomes)));
+                }
+
+                // Read the next batch while the workers validate this one.
+                lines = QubTicTacToeMoveScriptValidator.readLines(reader, batchSize);
+
+                for (final ForkJoinTask<?> worker : workers)
+                {
+                    worker.join();
+                }
+
+                final StringBuilder builder = new StringBuilder();
+                for (int lineIndex = 0; lineIndex < batchLines.length; ++lineIndex)
+                {
+                    builder.append(reports[lineIndex]).append('\n');
+                    ++this.outcomeCounts[outcomes[lineIndex]];
+                }
+                output.write(builder.toString()).await();
+                firstLineNumber += batchLines.length;
+            }
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+        try
+        {
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Read up to the provided number of lines.
+     * @return The lines that were read, which is an empty array at the end of the file.
+     */
+    private static String[] readLines(BufferedReader reader, int maximumLineCount) throws IOException
+    {
+        String[] result = new String[maximumLineCount];
+        int lineCount = 0;
+        String line = lineCount < maximumLineCount ? reader.readLine() : null;
+        while (line != null)
+        {
+            result[lineCount] = line;
+            ++lineCount;
+            line = lineCount < maximumLineCount ? reader.readLine() : null;
+        }
+        if (lineCount < maximumLineCount)
+        {
+            result = Arrays.copyOf(result, lineCount);
+        }
+        return result;
+    }
+
+    /**
+     * Validate chunks of lines until all of the chunks have been handed out.
+     */
+    private void validateChunks(String[] lines, long firstLineNumber, AtomicInteger nextChunk, int chunkCount, String[] reports, int[] outcomes)
+    {
+        final QubTicTacToeMoveParser parser = QubTicTacToeMoveParser.get(this.geometry);
+        final long[] boards = new long[2 * this.geometry.getWordCount()];
+        final StringBuilder builder = new StringBuilder();
+
+        int chunkIndex = nextChunk.getAndIncrement();
+        while (chunkIndex < chunkCount)
+        {
+            final int chunkStart = chunkIndex * QubTicTacToeMoveScriptValidator.chunkSize;
+            final int chunkEnd = Math.min(lines.length, chunkStart + QubTicTacToeMoveScriptValidator.chunkSize);
+            for (int lineIndex = chunkStart; lineIndex < chunkEnd; ++lineIndex)
+            {
+                builder.setLength(0);
+                builder.append(firstLineNumber + lineIndex).append(": ");
+                outcomes[lineIndex] = this.validateLine(lines[lineIndex], parser, boards, builder);
+                reports[lineIndex] = builder.toString();
+            }
+            chunkIndex = nextChunk.getAndIncrement();
+        }
+    }
+
+    /**
+     * Replay the moves in the provided line and append the outcome or the first illegal move to the
+     * provided builder.
+     * @param line The line of moves.
+     * @param parser The parser to parse the moves with.
+     * @param boards The array to replay the game in. X's board starts at index 0 and O's board
+     * starts at index wordCount.
+     * @param builder The builder to append the report to.
+     * @return The outcome of the line.
+     */
+    int validateLine(String line, QubTicTacToeMoveParser parser, long[] boards, StringBuilder builder)
+    {
+        PreCondition.assertNotNull(line, "line");
+        PreCondition.assertNotNull(parser, "parser");
+        PreCondition.assertSame(this.geometry, parser.getGeometry(), "parser.getGeometry()");
+        PreCondition.assertNotNull(boards, "boards");
+        PreCondition.assertNotNull(builder, "builder");
+
+        final QubTicTacToeGeometry geometry = this.geometry;
+        final int wordCount = geometry.getWordCount();
+        final int cellCount = geometry.getCellCount();
+        Arrays.fill(boards, 0, 2 * wordCount, 0);
+
+        int result = QubTicTacToeMoveScriptValidator.unfinished;
+        int moveCount = 0;
+        int lineIndex = 0;
+        final int lineLength = line.length();
+        while (result != QubTicTacToeMoveScriptValidator.invalid)
+        {
+            final long parseResult = parser.parseNext(line, lineIndex, lineLength);
+            final int cellIndex = QubTicTacToeMoveParser.getCellIndex(parseResult);
+            final int moveEndIndex = QubTicTacToeMoveParser.getEndIndex(parseResult);
+            if (cellIndex == QubTicTacToeMoveParser.noMove)
+            {
+                break;
+            }
+
+            if (cellIndex == QubTicTacToeMoveParser.invalidMove)
+            {
+                QubTicTacToeMoveScriptValidator.appendMove(builder, moveCount, line, lineIndex, moveEndIndex)
+                    .append(" is not a valid space on the board.");
+                result = QubTicTacToeMoveScriptValidator.invalid;
+            }
+            else if (result != QubTicTacToeMoveScriptValidator.unfinished)
+            {
+                QubTicTacToeMoveScriptValidator.appendMove(builder, moveCount, line, lineIndex, moveEndIndex)
+                    .append(" is after the end of the game.");
+                result = QubTicTacToeMoveScriptValidator.invalid;
+            }
+            else if (QubTicTacToeGeometry.isSet(boards, 0, cellIndex) || QubTicTacToeGeometry.isSet(boards, wordCount, cellIndex))
+            {
+                QubTicTacToeMoveScriptValidator.appendMove(builder, moveCount, line, lineIndex, moveEndIndex)
+                    .append(" is already taken by ")
+                    .append(QubTicTacToeGeometry.isSet(boards, 0, cellIndex) ? "\"X\"" : "\"O\"")
+                    .append('.');
+                result = QubTicTacToeMoveScriptValidator.invalid;
+            }
+            else
+            {
+                final boolean xMoved = moveCount % 2 == 0;
+                final int boardOffset = xMoved ? 0 : wordCount;
+                QubTicTacToeGeometry.set(boards, boardOffset, cellIndex);
+                ++moveCount;
+                if (geometry.isWinningMove(boards, boardOffset, cellIndex))
+                {
+                    result = xMoved ? QubTicTacToeMoveScriptValidator.xWin : QubTicTacToeMoveScriptValidator.oWin;
+                }
+                else if (moveCount == cellCount)
+                {
+                    result = QubTicTacToeMoveScriptValidator.tie;
+                }
+                lineIndex = moveEndIndex;
+            }
+        }
+
+        if (result == QubTicTacToeMoveScriptValidator.xWin || result == QubTicTacToeMoveScriptValidator.oWin)
+        {
+            builder.append(result == QubTicTacToeMoveScriptValidator.xWin ? "X" : "O").append(" wins after ").append(moveCount).append(" moves.");
+        }
+        else if (result == QubTicTacToeMoveScriptValidator.tie)
+        {
+            builder.append("Tie after ").append(moveCount).append(" moves.");
+        }
+        else if (result == QubTicTacToeMoveScriptValidator.unfinished)
+        {
+            builder.append("Unfinished after ").append(moveCount).append(" moves.");
+        }
+        return result;
+    }
+
+    /**
+     * Append the number and the text of the move that couldn't be made.
+     */
+    private static StringBuilder appendMove(StringBuilder builder, int moveIndex, String line, int moveStartIndex, int moveEndIndex)
+    {
+        return builder.append("Move ").append(moveIndex + 1).append(' ')
+            .append(Strings.escapeAndQuote(line.substring(moveStartIndex, moveEndIndex).trim()));
+    }
+}
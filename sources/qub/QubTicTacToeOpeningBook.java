@@ -0,0 +1,368 @@
+package qub;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The moves that engines should play in the first few plies of a game, so that the most
+ * expensive and most repeated searches of a game don't need to be run at all. Positions are keyed
+ * by the Zobrist hash of their canonical form (see QubTicTacToeSymmetry), so one entry covers every
+ * rotation and reflection of a position, and the stored move is mapped back through the transform
+ * that produced the canonical form.
+ * <p>
+ * A book is an open-addressing hash table with linear probing that is used in place: an opened
+ * book is a memory-mapped file, so only the pages that lookups touch are ever read from disk. The
+ * file is laid out as:
+ * <ul>
+ *     <li>A header with the magic bytes "QTTB", a version byte, the width, height, and win length
+ *     of the board (1 byte each), the number of plies that the book covers (4 bytes), the base-2
+ *     logarithm of the number of slots (4 bytes), and the number of positions in the book (8
+ *     bytes).</li>
+ *     <li>The slots, each of which is a key (8 bytes), the canonical cell index of the move (4
+ *     bytes), and the number of recorded games that the move was chosen from (4 bytes). A key of 0
+ *     marks an empty slot.</li>
+ * </ul>
+ * Keys are 64-bit hashes, so two different positions could in theory share a key. A looked-up
+ * move that lands on a taken cell is ignored.
+ */
+public class QubTicTacToeOpeningBook
+{
+    /**
+     * The number of plies that a book covers when no depth is provided.
+     */
+    public static final int defaultDepth = 6;
+
+    /**
+     * The largest number of plies that a book can cover.
+     */
+    public static final int maximumDepth = 255;
+
+    /**
+     * The largest base-2 logarithm of the number of slots in a book. This keeps a book in a single
+     * mapped buffer.
+     */
+    public static final int maximumSlotBits = 26;
+
+    /**
+     * The smallest base-2 logarithm of the number of slots in a book.
+     */
+    public static final int minimumSlotBits = 4;
+
+    private static final int headerSize = 24;
+    private static final int slotSize = 16;
+    private static final byte[] magic = { 'Q', 'T', 'T', 'B' };
+    private static final byte version = 1;
+    private static final int depthOffset = 8;
+    private static final int slotBitsOffset = 12;
+    private static final int entryCountOffset = 16;
+
+    /**
+     * The value that is XORed with every hash before it is stored, so that the empty board (whose
+     * hash is 0) doesn't look like an empty slot.
+     */
+    private static final long keyMask = 0x9E3779B97F4A7C15L;
+
+    private final ByteBuffer buffer;
+    private final QubTicTacToeGeometry geometry;
+    private final QubTicTacToeSymmetry symmetry;
+    private final int depth;
+    private final int slotMask;
+    private final long entryCount;
+
+    private QubTicTacToeOpeningBook(ByteBuffer buffer, QubTicTacToeGeometry geometry, int depth, int slotBits, long entryCount)
+    {
+        this.buffer = buffer;
+        this.geometry = geometry;
+        this.symmetry = QubTicTacToeSymmetry.create(geometry);
+        this.depth = depth;
+        this.slotMask = (1 << slotBits) - 1;
+        this.entryCount = entryCount;
+    }
+
+    /**
+     * Memory-map the opening book that is stored in the file at the provided path.
+     * @param filePath The path to the file that contains the opening book.
+     * @return The memory-mapped opening book.
+     */
+    public static Result<QubTicTacToeOpeningBook> open(String filePath)
+    {
+        PreCondition.assertNotNullAndNotEmpty(filePath, "filePath");
+
+        return QubTicTacToeOpeningBook.open(Paths.get(filePath));
+    }
+
+    /**
+     * Memory-map the opening book that is stored in the file at the provided path.
+     * @param filePath The path to the file that contains the opening book.
+     * @return The memory-mapped opening book.
+     */
+    public static Result<QubTicTacToeOpeningBook> open(Path filePath)
+    {
+        PreCondition.assertNotNull(filePath, "filePath");
+
+        Result<QubTicTacToeOpeningBook> result;
+        try (final FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ))
+        {
+            final long fileSize = channel.size();
+            if (fileSize < QubTicTacToeOpeningBook.headerSize || fileSize > Integer.MAX_VALUE)
+            {
+                throw new IOException(filePath + " is not an opening book.");
+            }
+            result = Result.success(QubTicTacToeOpeningBook.read(channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize), filePath.toString()));
+        }
+        catch (IOException e)
+        {
+            result = Result.error(e);
+        }
+        return result;
+    }
+
+    /**
+     * Read the opening book that is in the provided buffer, which must start with a book header.
+     * @param buffer The buffer that contains the book.
+     * @param name The name of the book to use in error messages.
+     * @return The opening book.
+     */
+    static QubTicTacToeOpeningBook read(ByteBuffer buffer, String name) throws IOException
+    {
+        PreCondition.assertNotNull(buffer, "buffer");
+        PreCondition.assertNotNull(name, "name");
+
+        boolean valid = buffer.capacity() >= QubTicTacToeOpeningBook.headerSize && buffer.get(4) == QubTicTacToeOpeningBook.version;
+        for (int index = 0; valid && index < QubTicTacToeOpeningBook.magic.length; ++index)
+        {
+            valid = buffer.get(index) == QubTicTacToeOpeningBook.magic[index];
+        }
+        if (!valid)
+        {
+            throw new IOException(name + " is not an opening book.");
+        }
+
+        final int width = buffer.get(5) & 0xFF;
+        final int height = buffer.get(6) & 0xFF;
+        final int winLength = buffer.get(7) & 0xFF;
+        final int depth = buffer.getInt(QubTicTacToeOpeningBook.depthOffset);
+        final int slotBits = buffer.getInt(QubTicTacToeOpeningBook.slotBitsOffset);
+        final long entryCount = buffer.getLong(QubTicTacToeOpeningBook.entryCountOffset);
+        if (width < 1 || width > QubTicTacToeGeometry.maximumDimension ||
+            height < 1 || height > QubTicTacToeGeometry.maximumDimension ||
+            winLength < 1 || winLength > Math.max(width, height) ||
+            depth < 1 || depth > QubTicTacToeOpeningBook.maximumDepth ||
+            slotBits < QubTicTacToeOpeningBook.minimumSlotBits || slotBits > QubTicTacToeOpeningBook.maximumSlotBits ||
+            buffer.capacity() != QubTicTacToeOpeningBook.getFileSize(slotBits) ||
+            entryCount < 0 || 2 * entryCount > (1L << slotBits))
+        {
+            throw new IOException(name + " is not a valid opening book.");
+        }
+
+        return new QubTicTacToeOpeningBook(buffer, QubTicTacToeGeometry.create(width, height, winLength), depth, slotBits, entryCount);
+    }
+
+    /**
+     * Create a new opening book in memory that has the provided canonical positions and moves.
+     * @param geometry The geometry of the board that the book is for.
+     * @param depth The number of plies that the book covers.
+     * @param hashes The Zobrist hash of the canonical form of each position.
+     * @param moves The canonical cell index of the move for each position.
+     * @param gameCounts The number of recorded games that each move was chosen from.
+     * @param entryCount The number of positions.
+     * @return The new opening book.
+     */
+    static QubTicTacToeOpeningBook create(QubTicTacToeGeometry geometry, int depth, long[] hashes, int[] moves, int[] gameCounts, int entryCount)
+    {
+        PreCondition.assertNotNull(geometry, "geometry");
+        PreCondition.assertBetween(1, depth, QubTicTacToeOpeningBook.maximumDepth, "depth");
+        PreCondition.assertNotNull(hashes, "hashes");
+        PreCondition.assertNotNull(moves, "moves");
+        PreCondition.assertNotNull(gameCounts, "gameCounts");
+        PreCondition.assertBetween(0, entryCount, 1 << (QubTicTacToeOpeningBook.maximumSlotBits - 1), "entryCount");
+
+        int slotBits = QubTicTacToeOpeningBook.minimumSlotBits;
+        while ((1 << slotBits) < 2 * entryCount)
+        {
+            ++slotBits;
+        }
+
+        final ByteBuffer buffer = ByteBuffer.allocate(QubTicTacToeOpeningBook.getFileSize(slotBits));
+        buffer.put(QubTicTacToeOpeningBook.magic);
+        buffer.put(QubTicTacToeOpeningBook.version);
+        buffer.put((byte)geometry.getWidth());
+        buffer.put((byte)geometry.getHeight());
+        buffer.put((byte)geometry.getWinLength());
+        buffer.putInt(QubTicTacToeOpeningBook.depthOffset, depth);
+        buffer.putInt(QubTicTacToeOpeningBook.slotBitsOffset, slotBits);
+        buffer.putLong(QubTicTacToeOpeningBook.entryCountOffset, entryCount);
+
+        final int slotMask = (1 << slotBits) - 1;
+        for (int entryIndex = 0; entryIndex < entryCount; ++entryIndex)
+        {
+            final long key = hashes[entryIndex] ^ QubTicTacToeOpeningBook.keyMask;
+            int slot = (int)key & slotMask;
+            while (buffer.getLong(QubTicTacToeOpeningBook.getSlotOffset(slot)) != 0)
+            {
+                slot = (slot + 1) & slotMask;
+            }
+            final int slotOffset = QubTicTacToeOpeningBook.getSlotOffset(slot);
+            buffer.putLong(slotOffset, key);
+            buffer.putInt(slotOffset + 8, moves[entryIndex]);
+            buffer.putInt(slotOffset + 12, gameCounts[entryIndex]);
+        }
+        buffer.clear();
+
+        return new QubTicTacToeOpeningBook(buffer, geometry, depth, slotBits, entryCount);
+    }
+
+    private static int getFileSize(int slotBits)
+    {
+        return QubTicTacToeOpeningBook.headerSize + ((1 << slotBits) * QubTicTacToeOpeningBook.slotSize);
+    }
+
+    private static int getSlotOffset(int slot)
+    {
+        return QubTicTacToeOpeningBook.headerSize + (slot * QubTicTacToeOpeningBook.slotSize);
+    }
+
+    /**
+     * Get the geometry of the board that this book is for.
+     * @return The geometry of the board that this book is for.
+     */
+    public QubTicTacToeGeometry getGeometry()
+    {
+        return this.geometry;
+    }
+
+    /**
+     * Get the number of plies from the start of the game that this book covers.
+     * @return The number of plies from the start of the game that this book covers.
+     */
+    public int getDepth()
+    {
+        return this.depth;
+    }
+
+    /**
+     * Get the number of canonical positions in this book.
+     * @return The number of canonical positions in this book.
+     */
+    public long getEntryCount()
+    {
+        return this.entryCount;
+    }
+
+    /**
+     * Get the book move for the current position of the provided model.
+     * @param model The model of the game that is being played.
+     * @return The index of the cell that the current player should take, or -1 if the position
+     * isn't in this book.
+     */
+    public int getMove(QubTicTacToeModel model)
+    {
+        PreCondition.assertNotNull(model, "model");
+        PreCondition.assertSame(this.geometry, model.getGeometry(), "model.getGeometry()");
+
+        int result = -1;
+        final int moveCount = model.getFilledCellCount();
+        if (moveCount < this.depth && !model.isGameDone())
+        {
+            final int[] moves = new int[moveCount];
+            for (int moveIndex = 0; moveIndex < moveCount; ++moveIndex)
+            {
+                moves[moveIndex] = model.getMove(moveIndex);
+            }
+            result = this.getMove(moves, moveCount);
+        }
+        return result;
+    }
+
+    /**
+     * Get the book move for the position that the provided moves reach.
+     * @param moves The cell index of every move in the order that they were made.
+     * @param moveCount The number of moves at the start of moves that were made.
+     * @return The index of the cell that the player to move should take, or -1 if the position
+     * isn't in this book.
+     */
+    public int getMove(int[] moves, int moveCount)
+    {
+        PreCondition.assertNotNull(moves, "moves");
+        PreCondition.assertBetween(0, moveCount, moves.length, "moveCount");
+
+        int result = -1;
+        if (moveCount < this.depth)
+        {
+            final int transform = this.symmetry.getCanonicalTransform(moves, moveCount);
+            final long key = this.symmetry.getHash(moves, moveCount, transform) ^ QubTicTacToeOpeningBook.keyMask;
+            int slot = (int)key & this.slotMask;
+            long slotKey = this.buffer.getLong(QubTicTacToeOpeningBook.getSlotOffset(slot));
+
+            // A damaged book could have no empty slots, so stop after every slot has been probed.
+            int probeCount = 1;
+            while (slotKey != 0 && slotKey != key && probeCount <= this.slotMask)
+            {
+                slot = (slot + 1) & this.slotMask;
+                slotKey = this.buffer.getLong(QubTicTacToeOpeningBook.getSlotOffset(slot));
+                ++probeCount;
+            }
+
+            if (slotKey == key)
+            {
+                final int canonicalMove = this.buffer.getInt(QubTicTacToeOpeningBook.getSlotOffset(slot) + 8);
+                if (0 <= canonicalMove && canonicalMove < this.geometry.getCellCount())
+                {
+                    result = this.symmetry.inverseTransformCell(canonicalMove, transform);
+                    for (int moveIndex = 0; moveIndex < moveCount; ++moveIndex)
+                    {
+                        if (moves[moveIndex] == result)
+                        {
+                            result = -1;
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Write this book to the provided file.
+     * @param filePath The path to the file to write.
+     * @return This book once it has been written.
+     */
+    public Result<QubTicTacToeOpeningBook> save(String filePath)
+    {
+        PreCondition.assertNotNullAndNotEmpty(filePath, "filePath");
+
+        return this.save(Paths.get(filePath));
+    }
+
+    /**
+     * Write this book to the provided file.
+     * @param filePath The path to the file to write.
+     * @return This book once it has been written.
+     */
+    public Result<QubTicTacToeOpeningBook> save(Path filePath)
+    {
+        PreCondition.assertNotNull(filePath, "filePath");
+
+        Result<QubTicTacToeOpeningBook> result;
+        try (final FileChannel channel = FileChannel.open(filePath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            final ByteBuffer contents = this.buffer.duplicate();
+            contents.clear();
+            while (contents.hasRemaining())
+            {
+                channel.write(contents);
+            }
+            result = Result.success(this);
+        }
+        catch (IOException e)
+        {
+            result = Result.error(e);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,324 @@
+package qub;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects the moves for a QubTicTacToeOpeningBook from recorded games, from an engine's search, or
+ * from both.
+ * <p>
+ * Recorded games vote for the moves that were played in each canonical position. Every game that
+ * the player who made a move went on to win counts as 1, every draw counts as 1/2, and every loss
+ * counts as 0. The book keeps the move with the best average score, where every move starts with
+ * one imaginary win and one imaginary loss so that a move that was only played once can't outrank a
+ * move that was played many times with a slightly lower score.
+ * <p>
+ * Searched moves are found by enumerating every canonical position up to the book's depth and
+ * asking an engine for each of them on several threads. The number of positions grows with the
+ * number of cells to the power of the depth, so large boards should only be searched a few plies
+ * deep. A searched move replaces any move that was chosen from recorded games.
+ */
+public class QubTicTacToeOpeningBookBuilder
+{
+    private final QubTicTacToeGeometry geometry;
+    private final QubTicTacToeSymmetry symmetry;
+    private final int depth;
+
+    /**
+     * The votes of the recorded games, indexed by the hash of each canonical position and then by
+     * the canonical cell index of each move. Each vote is the number of games and the number of
+     * half points that the player who made the move scored.
+     */
+    private final HashMap<Long,HashMap<Integer,long[]>> gameMoves;
+
+    /**
+     * The canonical cell index of the searched move of each canonical position.
+     */
+    private final HashMap<Long,Integer> searchedMoves;
+
+    private QubTicTacToeOpeningBookBuilder(QubTicTacToeGeometry geometry, int depth)
+    {
+        PreCondition.assertNotNull(geometry, "geometry");
+        PreCondition.assertBetween(1, depth, QubTicTacToeOpeningBook.maximumDepth, "depth");
+
+        this.geometry = geometry;
+        this.symmetry = QubTicTacToeSymmetry.create(geometry);
+        this.depth = depth;
+        this.gameMoves = new HashMap<>();
+        this.searchedMoves = new HashMap<>();
+    }
+
+    /**
+     * Create a new builder for a book that covers the provided number of plies.
+     * @param geometry The geometry of the board that the book is for.
+     * @param depth The number of plies from the start of the game that the book covers.
+     * @return The new builder.
+     */
+    public static QubTicTacToeOpeningBookBuilder create(QubTicTacToeGeometry geometry, int depth)
+    {
+        return new QubTicTacToeOpeningBookBuilder(geometry, depth);
+    }
+
+    /**
+     * Get the geometry of the board that the book is for.
+     * @return The geometry of the board that the book is for.
+     */
+    public QubTicTacToeGeometry getGeometry()
+    {
+        return this.geometry;
+    }
+
+    /**
+     * Get the number of plies from the start of the game that the book covers.
+     * @return The number of plies from the start of the game that the book covers.
+     */
+    public int getDepth()
+    {
+        return this.depth;
+    }
+
+    /**
+     * Add the moves of the provided game to the book's votes. Games on other geometries and games
+     * that weren't finished are ignored.
+     * @param record The game to add.
+     * @return Whether the game was added.
+     */
+    public boolean addGame(QubTicTacToeGameRecord record)
+    {
+        PreCondition.assertNotNull(record, "record");
+
+        final int result = record.getResult();
+        final boolean added = record.getGeometry() == this.geometry &&
+            (result == QubTicTacToeSessionStore.xWins || result == QubTicTacToeSessionStore.oWins || result == QubTicTacToeSessionStore.tie);
+        if (added)
+        {
+            final int plyCount = Math.min(this.depth, record.getMoveCount());
+            final int[] moves = new int[plyCount];
+            for (int moveIndex = 0; moveIndex < plyCount; ++moveIndex)
+            {
+                final int transform = this.symmetry.getCanonicalTransform(moves, moveIndex);
+                final long hash = this.symmetry.getHash(moves, moveIndex, transform);
+                moves[moveIndex] = record.getMove(moveIndex);
+                final int canonicalMove = this.symmetry.transformCell(moves[moveIndex], transform);
+
+                final boolean xMoved = moveIndex % 2 == 0;
+                final int halfPoints;
+                if (result == QubTicTacToeSessionStore.tie)
+                {
+                    halfPoints = 1;
+                }
+                else
+                {
+                    halfPoints = (result == QubTicTacToeSessionStore.xWins) == xMoved ? 2 : 0;
+                }
+
+                final long[] vote = this.gameMoves.computeIfAbsent(hash, (Long key) -> new HashMap<>())
+                    .computeIfAbsent(canonicalMove, (Integer key) -> new long[2]);
+                ++vote[0];
+                vote[1] += halfPoints;
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Add every game in the provided archive that was played on this builder's geometry.
+     * @param archive The archive to read games from.
+     * @return The number of games that were added.
+     */
+    public long addGames(QubTicTacToeGameArchive archive)
+    {
+        PreCondition.assertNotNull(archive, "archive");
+
+        long result = 0;
+        final long gameCount = archive.getGameCount();
+        for (long gameId = 0; gameId < gameCount; ++gameId)
+        {
+            if (this.addGame(archive.get(gameId)))
+            {
+                ++result;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Search every canonical position that the book covers with the engine that the provided
+     * specification describes.
+     * @param engineSpecification The specification of the engine to search with.
+     * @param threadCount The number of positions to search at the same time.
+     * @return The number of positions that were searched.
+     */
+    public int addSearchedPositions(String engineSpecification, int threadCount)
+    {
+        PreCondition.assertNull(QubTicTacToeEngines.getSpecificationError(engineSpecification, this.geometry), "QubTicTacToeEngines.getSpecificationError(engineSpecification, geometry)");
+        PreCondition.assertNotEqual(QubTicTacToeEngines.human, QubTicTacToeEngines.getEngineName(engineSpecification), "QubTicTacToeEngines.getEngineName(engineSpecification)");
+        PreCondition.assertGreaterThanOrEqualTo(threadCount, 1, "threadCount");
+
+        final List<int[]> positions = this.getUnfinishedPositions();
+        final int positionCount = positions.getCount();
+        final int workerCount = Math.max(1, Math.min(threadCount, positionCount));
+        final AtomicInteger nextPosition = new AtomicInteger();
+
+        final ForkJoinPool pool = new ForkJoinPool(workerCount);
+        final List<ForkJoinTask<HashMap<Long,Integer>>> workers = List.create();
+        try
+        {
+            for (int workerIndex = 0; workerIndex < workerCount; ++workerIndex)
+            {
+                workers.add(pool.submit(() -> this.searchPositions(engineSpecification, positions, nextPosition)));
+            }
+            for (final ForkJoinTask<HashMap<Long,Integer>> worker : workers)
+            {
+                this.searchedMoves.putAll(worker.join());
+            }
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+        try
+        {
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        return positionCount;
+    }
+
+    /**
+     * Get one move sequence for every canonical position that the book covers and that isn't
+     * finished.
+     */
+    private List<int[]> getUnfinishedPositions()
+    {
+        final List<int[]> result = List.create();
+        final int wordCount = this.geometry.getWordCount();
+        final long[] boards = new long[2 * wordCount];
+
+        List<int[]> plyPositions = List.create(new int[0]);
+        for (int ply = 0; ply < this.depth && plyPositions.getCount() > 0; ++ply)
+        {
+            final HashMap<Long,int[]> nextPlyPositions = new HashMap<>();
+            for (final int[] moves : plyPositions)
+            {
+                result.add(moves);
+                if (ply + 1 < this.depth && ply + 1 < this.geometry.getCellCount())
+                {
+                    Arrays.fill(boards, 0);
+                    for (int moveIndex = 0; moveIndex < moves.length; ++moveIndex)
+                    {
+                        QubTicTacToeGeometry.set(boards, (moveIndex % 2) * wordCount, moves[moveIndex]);
+                    }
+
+                    final int boardOffset = (ply % 2) * wordCount;
+                    for (int cellIndex = 0; cellIndex < this.geometry.getCellCount(); ++cellIndex)
+                    {
+                        if (!QubTicTacToeGeometry.isSet(boards, 0, cellIndex) && !QubTicTacToeGeometry.isSet(boards, wordCount, cellIndex))
+                        {
+                            QubTicTacToeGeometry.set(boards, boardOffset, cellIndex);
+                            final boolean won = this.geometry.isWinningMove(boards, boardOffset, cellIndex);
+                            QubTicTacToeGeometry.clear(boards, boardOffset, cellIndex);
+
+                            if (!won)
+                            {
+                                final int[] nextMoves = Arrays.copyOf(moves, moves.length + 1);
+                                nextMoves[moves.length] = cellIndex;
+                                final long hash = this.symmetry.getHash(nextMoves, nextMoves.length, this.symmetry.getCanonicalTransform(nextMoves, nextMoves.length));
+                                nextPlyPositions.putIfAbsent(hash, nextMoves);
+                            }
+                        }
+                    }
+                }
+            }
+            plyPositions = List.create();
+            for (final int[] moves : nextPlyPositions.values())
+            {
+                plyPositions.add(moves);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Search positions until all of the positions have been handed out.
+     * @return The canonical move of each position that this worker searched.
+     */
+    private HashMap<Long,Integer> searchPositions(String engineSpecification, List<int[]> positions, AtomicInteger nextPosition)
+    {
+        final QubTicTacToeEngine engine = QubTicTacToeEngines.create(engineSpecification, this.geometry);
+        final HashMap<Long,Integer> result = new HashMap<>();
+
+        int positionIndex = nextPosition.getAndIncrement();
+        while (positionIndex < positions.getCount())
+        {
+            final int[] moves = positions.get(positionIndex);
+            final QubTicTacToeModel model = QubTicTacToeModel.create(this.geometry);
+            for (final int cellIndex : moves)
+            {
+                model.makeMove(this.geometry.getRow(cellIndex), this.geometry.getColumn(cellIndex));
+            }
+
+            final int transform = this.symmetry.getCanonicalTransform(moves, moves.length);
+            final int move = engine.chooseMove(model);
+            result.put(this.symmetry.getHash(moves, moves.length, transform), this.symmetry.transformCell(move, transform));
+
+            positionIndex = nextPosition.getAndIncrement();
+        }
+        return result;
+    }
+
+    /**
+     * Create the opening book from the searched moves and the recorded games' votes.
+     * @return The new opening book.
+     */
+    public QubTicTacToeOpeningBook build()
+    {
+        final HashMap<Long,long[]> entries = new HashMap<>();
+        for (final Map.Entry<Long,HashMap<Integer,long[]>> position : this.gameMoves.entrySet())
+        {
+            int bestMove = -1;
+            long bestGameCount = 0;
+            double bestScore = -1;
+            for (final Map.Entry<Integer,long[]> move : position.getValue().entrySet())
+            {
+                final long gameCount = move.getValue()[0];
+                final double score = (move.getValue()[1] + 2.0) / (2.0 * (gameCount + 2));
+                final int cellIndex = move.getKey();
+                if (score > bestScore ||
+                    (score == bestScore && (gameCount > bestGameCount || (gameCount == bestGameCount && cellIndex < bestMove))))
+                {
+                    bestMove = cellIndex;
+                    bestGameCount = gameCount;
+                    bestScore = score;
+                }
+            }
+            entries.put(position.getKey(), new long[] { bestMove, bestGameCount });
+        }
+        for (final Map.Entry<Long,Integer> position : this.searchedMoves.entrySet())
+        {
+            entries.put(position.getKey(), new long[] { position.getValue(), 0 });
+        }
+
+        final int entryCount = entries.size();
+        final long[] hashes = new long[entryCount];
+        final int[] moves = new int[entryCount];
+        final int[] gameCounts = new int[entryCount];
+        int entryIndex = 0;
+        for (final Map.Entry<Long,long[]> entry : entries.entrySet())
+        {
+            hashes[entryIndex] = entry.getKey();
+            moves[entryIndex] = (int)entry.getValue()[0];
+            gameCounts[entryIndex] = (int)Math.min(Integer.MAX_VALUE, entry.getValue()[1]);
+            ++entryIndex;
+        }
+        return QubTicTacToeOpeningBook.create(this.geometry, this.depth, hashes, moves, gameCounts, entryCount);
+    }
+}
@@ -0,0 +1,236 @@
+package qub;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Solves positions on boards that fit in a single long by splitting the upper plies of the game
+ * tree across a work-stealing ForkJoinPool. At each split position the first move is searched
+ * before its siblings are forked (young brothers wait), so the siblings get the first move's
+ * alpha-beta bound. Below the split plies every worker runs a sequential
+ * QubTicTacToeMinimaxEngine, and all of the workers share one lock-free transposition table.
+ */
+public class QubTicTacToeParallelSolver
+{
+    /**
+     * The default number of bits in an index into the shared transposition table.
+     */
+    public static final int defaultTranspositionTableBits = 22;
+
+    private final QubTicTacToeGeometry geometry;
+    private final int threadCount;
+    private final int transpositionTableBits;
+    private final long fullBoard;
+    private final int splitDepth;
+
+    private QubTicTacToeParallelSolver(QubTicTacToeGeometry geometry, int threadCount, int transpositionTableBits)
+    {
+        PreCondition.assertNotNull(geometry, "geometry");
+        PreCondition.assertEqual(1, geometry.getWordCount(), "geometry.getWordCount()");
+        PreCondition.assertGreaterThanOrEqualTo(threadCount, 1, "threadCount");
+
+        this.geometry = geometry;
+        this.threadCount = threadCount;
+        this.transpositionTableBits = transpositionTableBits;
+
+        final int cellCount = geometry.getCellCount();
+        this.fullBoard = cellCount == Long.SIZE ? -1L : (1L << cellCount) - 1;
+        this.splitDepth = QubTicTacToeParallelSolver.getSplitDepth(cellCount, threadCount);
+    }
+
+    public static QubTicTacToeParallelSolver create(QubTicTacToeGeometry geometry, int threadCount)
+    {
+        return QubTicTacToeParallelSolver.create(geometry, threadCount, QubTicTacToeParallelSolver.defaultTranspositionTableBits);
+    }
+
+    public static QubTicTacToeParallelSolver create(QubTicTacToeGeometry geometry, int threadCount, int transpositionTableBits)
+    {
+        return new QubTicTacToeParallelSolver(geometry, threadCount, transpositionTableBits);
+    }
+
+    /**
+     * Get the number of plies to split across threads. This is the smallest depth that creates at
+     * least 16 tasks per thread, so that idle threads always have work to steal.
+     */
+    private static int getSplitDepth(int cellCount, int threadCount)
+    {
+        int result = 0;
+        long taskCount = 1;
+        final long minimumTaskCount = threadCount == 1 ? 1 : threadCount * 16L;
+        while (taskCount < minimumTaskCount && result < cellCount - 1)
+        {
+            taskCount *= (cellCount - result);
+            ++result;
+        }
+        return result;
+    }
+
+    /**
+     * Get the geometry of the board that this solver solves positions on.
+     * @return The geometry of the board that this solver solves positions on.
+     */
+    public QubTicTacToeGeometry getGeometry()
+    {
+        return this.geometry;
+    }
+
+    /**
+     * Get the number of threads that this solver searches with.
+     * @return The number of threads that this solver searches with.
+     */
+    public int getThreadCount()
+    {
+        return this.threadCount;
+    }
+
+    /**
+     * Solve the empty board.
+     * @return The result of solving the empty board.
+     */
+    public QubTicTacToeSolveResult solve()
+    {
+        return this.solve(0, 0);
+    }
+
+    /**
+     * Solve the provided position.
+     * @param ownBoard The bitmask of the cells that the player to move has taken.
+     * @param otherBoard The bitmask of the cells that the other player has taken.
+     * @return The result of solving the provided position.
+     */
+    public QubTicTacToeSolveResult solve(long ownBoard, long otherBoard)
+    {
+        PreCondition.assertEqual(0L, ownBoard & otherBoard, "ownBoard & otherBoard");
+
+        final QubTicTacToeTranspositionTable transpositionTable = QubTicTacToeTranspositionTable.createConcurrent(this.transpositionTableBits);
+        final ConcurrentLinkedQueue<QubTicTacToeMinimaxEngine> engines = new ConcurrentLinkedQueue<>();
+        final ThreadLocal<QubTicTacToeMinimaxEngine> threadEngines = ThreadLocal.withInitial(() ->
+        {
+            final QubTicTacToeMinimaxEngine engine = QubTicTacToeMinimaxEngine.create(this.geometry, Integer.MAX_VALUE, transpositionTable);
+            engines.add(engine);
+            return engine;
+        });
+        final LongAdder splitNodeCount = new LongAdder();
+
+        final ForkJoinPool pool = new ForkJoinPool(this.threadCount);
+        final long startTime = System.nanoTime();
+        final int score;
+        try
+        {
+            score = pool.invoke(ForkJoinTask.adapt(() -> this.search(threadEngines, splitNodeCount, ownBoard, otherBoard, 0, -Integer.MAX_VALUE, Integer.MAX_VALUE)));
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+        final long elapsedNanoseconds = System.nanoTime() - startTime;
+        try
+        {
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        long nodeCount = splitNodeCount.sum();
+        for (final QubTicTacToeMinimaxEngine engine : engines)
+        {
+            nodeCount += engine.getNodeCount();
+        }
+
+        return QubTicTacToeSolveResult.create(score, this.threadCount, nodeCount, elapsedNanoseconds);
+    }
+
+    private int search(ThreadLocal<QubTicTacToeMinimaxEngine> threadEngines, LongAdder splitNodeCount, long ownBoard, long otherBoard, int ply, int alpha, int beta)
+    {
+        final QubTicTacToeMinimaxEngine engine = threadEngines.get();
+        if (ply >= this.splitDepth)
+        {
+            return engine.getScore(ownBoard, otherBoard, alpha, beta);
+        }
+
+        splitNodeCount.increment();
+
+        final long emptyCells = this.fullBoard & ~(ownBoard | otherBoard);
+        if (emptyCells == 0)
+        {
+            return 0;
+        }
+        if (engine.findWinningMove(ownBoard, emptyCells) != -1)
+        {
+            return QubTicTacToeMinimaxEngine.winScore + Long.bitCount(emptyCells);
+        }
+
+        final int[] moveOrder = engine.getMoveOrder();
+        int moveIndex = 0;
+        while ((emptyCells & (1L << moveOrder[moveIndex])) == 0)
+        {
+            ++moveIndex;
+        }
+
+        int bestScore = -this.search(threadEngines, splitNodeCount, otherBoard, ownBoard | (1L << moveOrder[moveIndex]), ply + 1, -beta, -alpha);
+        final int siblingAlpha = Math.max(alpha, bestScore);
+        if (siblingAlpha < beta)
+        {
+            final List<ForkJoinTask<Integer>> siblingTasks = List.create();
+            for (++moveIndex; moveIndex < moveOrder.length; ++moveIndex)
+            {
+                final long cellMask = 1L << moveOrder[moveIndex];
+                if ((emptyCells & cellMask) != 0)
+                {
+                    siblingTasks.add(ForkJoinTask.adapt(() -> -this.search(threadEngines, splitNodeCount, otherBoard, ownBoard | cellMask, ply + 1, -beta, -siblingAlpha)).fork());
+                }
+            }
+            for (final ForkJoinTask<Integer> siblingTask : siblingTasks)
+            {
+                bestScore = Math.max(bestScore, siblingTask.join());
+            }
+        }
+        return bestScore;
+    }
+
+    /**
+     * Solve the empty board with 1, 2, 4, ... threads up to maximumThreadCount, and write the
+     * nodes per second and the speedup over a single thread for each thread count.
+     * @param geometry The geometry of the board to solve.
+     * @param maximumThreadCount The largest number of threads to solve with.
+     * @param output The stream to write the results to.
+     */
+    public static void writeScaling(QubTicTacToeGeometry geometry, int maximumThreadCount, CharacterWriteStream output)
+    {
+        PreCondition.assertNotNull(geometry, "geometry");
+        PreCondition.assertGreaterThanOrEqualTo(maximumThreadCount, 1, "maximumThreadCount");
+        PreCondition.assertNotNull(output, "output");
+
+        output.writeLine("Solving " + geometry + "...").await();
+
+        long singleThreadNanoseconds = 0;
+        int threadCount = 1;
+        while (threadCount <= maximumThreadCount)
+        {
+            final QubTicTacToeSolveResult result = QubTicTacToeParallelSolver.create(geometry, threadCount).solve();
+            if (threadCount == 1)
+            {
+                singleThreadNanoseconds = result.getElapsedNanoseconds();
+            }
+            final double speedup = result.getElapsedNanoseconds() == 0 ? 0 : (double)singleThreadNanoseconds / result.getElapsedNanoseconds();
+            output.writeLine(String.format("Threads: %d, Result: %s, Nodes: %d, Time: %.3fs, Nodes/second: %.0f, Speedup: %.2fx",
+                threadCount,
+                result.getOutcome(),
+                result.getNodeCount(),
+                result.getElapsedNanoseconds() / 1000000000.0,
+                result.getNodesPerSecond(),
+                speedup)).await();
+
+            if (threadCount == maximumThreadCount)
+            {
+                break;
+            }
+            threadCount = Math.min(threadCount * 2, maximumThreadCount);
+        }
+    }
+}
@@ -4,6 +4,33 @@ public class QubTicTacToeParameters
 {
     private final CharacterWriteStream outputWriteStream;
     private final CharacterReadStream inputReadStream;
+    private int boardWidth;
+    private int boardHeight;
+    private int winLength;
+    private String xPlayer;
+    private String oPlayer;
+    private int threadCount;
+    private boolean solve;
+    private int simulateGameCount;
+    private Iterable<String> tournamentPlayers;
+    private String tournamentPairing;
+    private int tournamentRoundCount;
+    private int tournamentGamesPerPairing;
+    private boolean benchmark;
+    private boolean protocol;
+    private int serverPort;
+    private String recordFilePath;
+    private String analyzeFilePath;
+    private String validateFilePath;
+    private String bookFilePath;
+    private String buildBookFilePath;
+    private String bookGamesFilePath;
+    private int bookDepth;
+    private String tablebaseFilePath;
+    private String retrogradeFilePath;
+    private QubTicTacToeMetrics metrics;
+    private String metricsFilePath;
+    private int summaryInterval;
 
     private QubTicTacToeParameters(CharacterWriteStream outputWriteStream, CharacterReadStream inputReadStream)
     {
@@ -12,6 +39,19 @@ public class QubTicTacToeParameters
 
         this.outputWriteStream = outputWriteStream;
         this.inputReadStream = inputReadStream;
+
+        final QubTicTacToeGeometry defaultGeometry = QubTicTacToeGeometry.create();
+        this.boardWidth = defaultGeometry.getWidth();
+        this.boardHeight = defaultGeometry.getHeight();
+        this.winLength = defaultGeometry.getWinLength();
+        this.xPlayer = QubTicTacToeEngines.human;
+        this.oPlayer = QubTicTacToeEngines.human;
+        this.threadCount = Runtime.getRuntime().availableProcessors();
+        this.serverPort = -1;
+        this.bookDepth = QubTicTacToeOpeningBook.defaultDepth;
+        this.tournamentPairing = QubTicTacToeTournament.roundRobin;
+        this.tournamentRoundCount = QubTicTacToeTournament.defaultRoundCount;
+        this.tournamentGamesPerPairing = QubTicTacToeTournament.defaultGamesPerPairing;
     }
 
     public static QubTicTacToeParameters create(CharacterWriteStream outputWriteStream, CharacterReadStream inputReadStream)
@@ -36,4 +76,630 @@ public class QubTicTacToeParameters
     {
         return this.inputReadStream;
     }
+
+    /**
+     * Get the number of columns on the board.
+     * @return The number of columns on the board.
+     */
+    public int getBoardWidth()
+    {
+        return this.boardWidth;
+    }
+
+    /**
+     * Set the number of columns on the board.
+     * @param boardWidth The number of columns on the board.
+     * @return This object for method chaining.
+     */
+    public QubTicTacToeParameters setBoardWidth(int boardWidth)
+    {
+        PreCondition.assertBetween(1, boardWidth, QubTicTacToeGeometry.maximumDimension, "boardWidth");
+
+        this.boardWidth = boardWidth;
+        return this;
+    }
+
+    /**
+     * Get the number of rows on the board.
+     * @return The number of rows on the board.
+     */
+    public int getBoardHeight()
+    {
+        return this.boardHeight;
+    }
+
+    /**
+     * Set the number of rows on the board.
+     * @param boardHeight The number of rows on the board.
+     * @return This object for method chaining.
+     */
+    public QubTicTacToeParameters setBoardHeight(int boardHeight)
+    {
+        PreCondition.assertBetween(1, boardHeight, QubTicTacToeGeometry.maximumDimension, "boardHeight");
+
+        this.boardHeight = boardHeight;
+        return this;
+    }
+
+    /**
+     * Get the number of cells in a row that a player needs to win.
+     * @return The number of cells in a row that a player needs to win.
+     */
+    public int getWinLength()
+    {
+        return this.winLength;
+    }
+
+    /**
+     * Set the number of cells in a row that a player needs to win.
+     * @param winLength The number of cells in a row that a player needs to win.
+     * @return This object for method chaining.
+     */
+    public QubTicTacToeParameters setWinLength(int winLength)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(winLength, 1, "winLength");
+
+        this.winLength = winLength;
+        return this;
+    }
+
+    /**
+     * Get the geometry of the board that games will be played on.
+     * @return The geometry of the board that games will be played on.
+     */
+    public QubTicTacToeGeometry getGeometry()
+    {
+        return QubTicTacToeGeometry.create(this.boardWidth, this.boardHeight, this.winLength);
+    }
+
+    /**
+     * Get the specification of the player that controls X, such as "human" or "minimax".
+     * @return The specification of the player that controls X.
+     */
+    public String getXPlayer()
+    {
+        return this.xPlayer;
+    }
+
+    /**
+     * Set the specification of the player that controls X, such as "human" or "minimax".
+     * @param xPlayer The specification of the player that controls X.
+     * @return This object for method chaining.
+     */
+    public QubTicTacToeParameters setXPlayer(String xPlayer)
+    {
+        PreCondition.assertNotNullAndNotEmpty(xPlayer, "xPlayer");
+
+        this.xPlayer = xPlayer;
+        return this;
+    }
+
+    /**
+     * Get the specification of the player that controls O, such as "human" or "minimax".
+     * @return The specification of the player that controls O.
+     */
+    public String getOPlayer()
+    {
+        return this.oPlayer;
+    }
+
+    /**
+     * Set the specification of the player that controls O, such as "human" or "minimax".
+     * @param oPlayer The specification of the player that controls O.
+     * @return This object for method chaining.
+     */
+    public QubTicTacToeParameters setOPlayer(String oPlayer)
+    {
+        PreCondition.assertNotNullAndNotEmpty(oPlayer, "oPlayer");
+
+        this.oPlayer = oPlayer;
+        return this;
+    }
+
+    /**
+     * Get the number of threads that parallel modes will use.
+     * @return The number of threads that parallel modes will use.
+     */
+    public int getThreadCount()
+    {
+        return this.threadCount;
+    }
+
+    /**
+     * Set the number of threads that parallel modes will use.
+     * @param threadCount The number of threads that parallel modes will use.
+     * @return This object for method chaining.
+     */
+    public QubTicTacToeParameters setThreadCount(int threadCount)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(threadCount, 1, "threadCount");
+
+        this.threadCount = threadCount;
+        return this;
+    }
+
+    /**
+     * Get whether the application will solve the empty board and report how the solver scales
+     * with the number of threads instead of playing a game.
+     * @return Whether the application will solve the empty board.
+     */
+    public boolean getSolve()
+    {
+        return this.solve;
+    }
+
+    /**
+     * Set whether the application will solve the empty board and report how the solver scales
+     * with the number of threads instead of playing a game.
+     * @param solve Whether the application will solve the empty board.
+     * @return This object for method chaining.
+     */
+    public QubTicTacToeParameters setSolve(boolean solve)
+    {
+        this.solve = solve;
+        return this;
+    }
+
+    /**
+     * Get the number of games that the application will play between the X and O engines without
+     * rendering the board, or 0 if the application will play a normal game.
+     * @return The number of games to simulate, or 0 if no games will be simulated.
+     */
+    public int getSimulateGameCount()
+    {
+        return this.simulateGameCount;
+    }
+
+    /**
+     * Set the number of games that the application will play between the X and O engines without
+     * rendering the board, or 0 if the application should play a normal game.
+     * @param simulateGameCount The number of games to simulate, or 0 to play a normal game.
+     * @return This object for method chaining.
+     */
+    public QubTicTacToeParameters setSimulateGameCount(int simulateGameCount)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(simulateGameCount, 0, "simulateGameCount");
+
+        this.simulateGameCount = simulateGameCount;
+        return this;
+    }
+
+    /**
+     * Get the specifications of the engines that will play a tournament against each other, or
+     * null if no tournament will be played.
+     * @return The specifications of the tournament's engines, or null if no tournament will be
+     * played.
+     */
+    public Iterable<String> getTournamentPlayers()
+    {
+        return this.tournamentPlayers;
+    }
+
+    /**
+     * Set the specifications of the engines that will play a tournament against each other, or
+     * null if no tournament should be played.
+     * @param tournamentPlayers The specifications of the tournament's engines, or null to not play
+     * a tournament.
+     * @return This object for method chaining.
+     */
+    public QubTicTacToeParameters setTournamentPlayers(Iterable<String> tournamentPlayers)
+    {
+        PreCondition.assertTrue(tournamentPlayers == null || tournamentPlayers.getCount() >= 2, "tournamentPlayers == null || tournamentPlayers.getCount() >= 2");
+
+        this.tournamentPlayers = tournamentPlayers;
+        return this;
+    }
+
+    /**
+     * Get how the tournament's players will be paired in each round.
+     * @return QubTicTacToeTournament.roundRobin or QubTicTacToeTournament.swiss.
+     */
+    public String getTournamentPairing()
+    {
+        return this.tournamentPairing;
+    }
+
+    /**
+     * Set how the tournament's players will be paired in each round.
+     * @param tournamentPairing QubTicTacToeTournament.roundRobin or QubTicTacToeTournament.swiss.
+     * @return This object for method chaining.
+     */
+    public QubTicTacToeParameters setTournamentPairing(String tournamentPairing)
+    {
+        PreCondition.assertTrue(QubTicTacToeTournament.isPairing(tournamentPairing), "QubTicTacToeTournament.isPairing(tournamentPairing)");
+
+        this.tournamentPairing = tournamentPairing;
+        return this;
+    }
+
+    /**
+     * Get the number of rounds that the tournament will play.
+     * @return The number of rounds that the tournament will play.
+     */
+    public int getTournamentRoundCount()
+    {
+        return this.tournamentRoundCount;
+    }
+
+    /**
+     * Set the number of rounds that the tournament will play.
+     * @param tournamentRoundCount The number of rounds that the tournament will play.
+     * @return This object for method chaining.
+     */
+    public QubTicTacToeParameters setTournamentRoundCount(int tournamentRoundCount)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(tournamentRoundCount, 1, "tournamentRoundCount");
+
+        this.tournamentRoundCount = tournamentRoundCount;
+        return this;
+    }
+
+    /**
+     * Get the number of games that each pair of the tournament's players will play in a round.
+     * @return The number of games that each pair of players will play in a round.
+     */
+    public int getTournamentGamesPerPairing()
+    {
+        return this.tournamentGamesPerPairing;
+    }
+
+    /**
+     * Set the number of games that each pair of the tournament's players will play in a round.
+     * @param tournamentGamesPerPairing The number of games that each pair of players will play in
+     * a round.
+     * @return This object for method chaining.
+     */
+    public QubTicTacToeParameters setTournamentGamesPerPairing(int tournamentGamesPerPairing)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(tournamentGamesPerPairing, 1, "tournamentGamesPerPairing");
+
+        this.tournamentGamesPerPairing = tournamentGamesPerPairing;
+        return this;
+    }
+
+    /**
+     * Get whether the application will run the benchmark suite instead of playing a game.
+     * @return Whether the application will run the benchmark suite.
+     */
+    public boolean getBenchmark()
+    {
+        return this.benchmark;
+    }
+
+    /**
+     * Set whether the application will run the benchmark suite instead of playing a game.
+     * @param benchmark Whether the application will run the benchmark suite.
+     * @return This object for method chaining.
+     */
+    public QubTicTacToeParameters setBenchmark(boolean benchmark)
+    {
+        this.benchmark = benchmark;
+        return this;
+    }
+
+    /**
+     * Get whether the application will read protocol commands from the input stream instead of
+     * playing an interactive game.
+     * @return Whether the application will run the line-oriented protocol.
+     */
+    public boolean getProtocol()
+    {
+        return this.protocol;
+    }
+
+    /**
+     * Set whether the application will read protocol commands from the input stream instead of
+     * playing an interactive game.
+     * @param protocol Whether the application will run the line-oriented protocol.
+     * @return This object for method chaining.
+     */
+    public QubTicTacToeParameters setProtocol(boolean protocol)
+    {
+        this.protocol = protocol;
+        return this;
+    }
+
+    /**
+     * Get the port that the application will accept game connections on, or -1 if the application
+     * won't run as a server.
+     * @return The port to accept game connections on, or -1 if the application won't run as a
+     * server.
+     */
+    public int getServerPort()
+    {
+        return this.serverPort;
+    }
+
+    /**
+     * Set the port that the application will accept game connections on, or -1 if the application
+     * shouldn't run as a server.
+     * @param serverPort The port to accept game connections on, or -1 to not run as a server.
+     * @return This object for method chaining.
+     */
+    public QubTicTacToeParameters setServerPort(int serverPort)
+    {
+        PreCondition.assertBetween(-1, serverPort, 65535, "serverPort");
+
+        this.serverPort = serverPort;
+        return this;
+    }
+
+    /**
+     * Get the path to the game archive that finished games will be appended to, or null if games
+     * won't be recorded.
+     * @return The path to the game archive, or null if games won't be recorded.
+     */
+    public String getRecordFilePath()
+    {
+        return this.recordFilePath;
+    }
+
+    /**
+     * Set the path to the game archive that finished games will be appended to, or null if games
+     * shouldn't be recorded.
+     * @param recordFilePath The path to the game archive, or null to not record games.
+     * @return This object for method chaining.
+     */
+    public QubTicTacToeParameters setRecordFilePath(String recordFilePath)
+    {
+        this.recordFilePath = recordFilePath;
+        return this;
+    }
+
+    /**
+     * Get the path to the game archive that should be analyzed, or null if no archive should be
+     * analyzed.
+     * @return The path to the game archive to analyze, or null if no archive should be analyzed.
+     */
+    public String getAnalyzeFilePath()
+    {
+        return this.analyzeFilePath;
+    }
+
+    /**
+     * Set the path to the game archive that should be analyzed, or null if no archive should be
+     * analyzed.
+     * @param analyzeFilePath The path to the game archive to analyze, or null to not analyze an
+     * archive.
+     * @return This object for method chaining.
+     */
+    public QubTicTacToeParameters setAnalyzeFilePath(String analyzeFilePath)
+    {
+        this.analyzeFilePath = analyzeFilePath;
+        return this;
+    }
+
+    /**
+     * Get the path to the file of move scripts that will be validated, or null if no move scripts
+     * will be validated.
+     * @return The path to the file of move scripts that will be validated, or null if no move
+     * scripts will be validated.
+     */
+    public String getValidateFilePath()
+    {
+        return this.validateFilePath;
+    }
+
+    /**
+     * Set the path to the file of move scripts that will be validated, or null if no move scripts
+     * should be validated.
+     * @param validateFilePath The path to the file of move scripts to validate, or null to not
+     * validate move scripts.
+     * @return This object for method chaining.
+     */
+    public QubTicTacToeParameters setValidateFilePath(String validateFilePath)
+    {
+        this.validateFilePath = validateFilePath;
+        return this;
+    }
+
+    /**
+     * Get the path to the opening book that engines will consult before they search, or null if
+     * engines will always search.
+     * @return The path to the opening book, or null if engines will always search.
+     */
+    public String getBookFilePath()
+    {
+        return this.bookFilePath;
+    }
+
+    /**
+     * Set the path to the opening book that engines will consult before they search, or null if
+     * engines should always search.
+     * @param bookFilePath The path to the opening book, or null to always search.
+     * @return This object for method chaining.
+     */
+    public QubTicTacToeParameters setBookFilePath(String bookFilePath)
+    {
+        this.bookFilePath = bookFilePath;
+        return this;
+    }
+
+    /**
+     * Get the path that an opening book will be built at, or null if no opening book will be
+     * built.
+     * @return The path that an opening book will be built at, or null if no opening book will be
+     * built.
+     */
+    public String getBuildBookFilePath()
+    {
+        return this.buildBookFilePath;
+    }
+
+    /**
+     * Set the path that an opening book will be built at, or null if no opening book should be
+     * built.
+     * @param buildBookFilePath The path that an opening book will be built at, or null to not
+     * build an opening book.
+     * @return This object for method chaining.
+     */
+    public QubTicTacToeParameters setBuildBookFilePath(String buildBookFilePath)
+    {
+        this.buildBookFilePath = buildBookFilePath;
+        return this;
+    }
+
+    /**
+     * Get the path to the game archive that an opening book will be built from, or null if the
+     * opening book will be built by searching.
+     * @return The path to the game archive that an opening book will be built from, or null if the
+     * opening book will be built by searching.
+     */
+    public String getBookGamesFilePath()
+    {
+        return this.bookGamesFilePath;
+    }
+
+    /**
+     * Set the path to the game archive that an opening book will be built from, or null if the
+     * opening book should be built by searching.
+     * @param bookGamesFilePath The path to the game archive that an opening book will be built
+     * from, or null to build the opening book by searching.
+     * @return This object for method chaining.
+     */
+    public QubTicTacToeParameters setBookGamesFilePath(String bookGamesFilePath)
+    {
+        this.bookGamesFilePath = bookGamesFilePath;
+        return this;
+    }
+
+    /**
+     * Get the number of plies from the start of the game that a built opening book will cover.
+     * @return The number of plies from the start of the game that a built opening book will cover.
+     */
+    public int getBookDepth()
+    {
+        return this.bookDepth;
+    }
+
+    /**
+     * Set the number of plies from the start of the game that a built opening book will cover.
+     * @param bookDepth The number of plies from the start of the game that a built opening book
+     * will cover.
+     * @return This object for method chaining.
+     */
+    public QubTicTacToeParameters setBookDepth(int bookDepth)
+    {
+        PreCondition.assertBetween(1, bookDepth, QubTicTacToeOpeningBook.maximumDepth, "bookDepth");
+
+        this.bookDepth = bookDepth;
+        return this;
+    }
+
+    /**
+     * Get the path to the tablebase that engines will consult before they search, or null if
+     * engines will always search.
+     * @return The path to the tablebase, or null if engines will always search.
+     */
+    public String getTablebaseFilePath()
+    {
+        return this.tablebaseFilePath;
+    }
+
+    /**
+     * Set the path to the tablebase that engines will consult before they search, or null if
+     * engines should always search.
+     * @param tablebaseFilePath The path to the tablebase, or null to always search.
+     * @return This object for method chaining.
+     */
+    public QubTicTacToeParameters setTablebaseFilePath(String tablebaseFilePath)
+    {
+        this.tablebaseFilePath = tablebaseFilePath;
+        return this;
+    }
+
+    /**
+     * Get the path that a tablebase will be generated at, or null if no tablebase will be
+     * generated.
+     * @return The path that a tablebase will be generated at, or null if no tablebase will be
+     * generated.
+     */
+    public String getRetrogradeFilePath()
+    {
+        return this.retrogradeFilePath;
+    }
+
+    /**
+     * Set the path that a tablebase will be generated at, or null if no tablebase should be
+     * generated.
+     * @param retrogradeFilePath The path that a tablebase will be generated at, or null to not
+     * generate a tablebase.
+     * @return This object for method chaining.
+     */
+    public QubTicTacToeParameters setRetrogradeFilePath(String retrogradeFilePath)
+    {
+        this.retrogradeFilePath = retrogradeFilePath;
+        return this;
+    }
+
+    /**
+     * Get the metrics that games should be measured with.
+     * @return The metrics that games should be measured with, or null if games shouldn't be
+     * measured.
+     */
+    public QubTicTacToeMetrics getMetrics()
+    {
+        return this.metrics;
+    }
+
+    /**
+     * Set the metrics that games should be measured with.
+     * @param metrics The metrics that games should be measured with, or null if games shouldn't be
+     * measured.
+     * @return This object for method chaining.
+     */
+    public QubTicTacToeParameters setMetrics(QubTicTacToeMetrics metrics)
+    {
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * Get the path of the file that the metrics will be written to when the application exits.
+     * @return The path of the file that the metrics will be written to, or null if they won't be
+     * written to a file.
+     */
+    public String getMetricsFilePath()
+    {
+        return this.metricsFilePath;
+    }
+
+    /**
+     * Set the path of the file that the metrics will be written to when the application exits.
+     * @param metricsFilePath The path of the file that the metrics will be written to.
+     * @return This object for method chaining.
+     */
+    public QubTicTacToeParameters setMetricsFilePath(String metricsFilePath)
+    {
+        PreCondition.assertNotNullAndNotEmpty(metricsFilePath, "metricsFilePath");
+
+        this.metricsFilePath = metricsFilePath;
+        return this;
+    }
+
+    /**
+     * Get the number of seconds between the metrics summaries that are written while the
+     * application runs.
+     * @return The number of seconds between the metrics summaries, or 0 if summaries won't be
+     * written.
+     */
+    public int getSummaryInterval()
+    {
+        return this.summaryInterval;
+    }
+
+    /**
+     * Set the number of seconds between the metrics summaries that are written while the
+     * application runs.
+     * @param summaryInterval The number of seconds between the metrics summaries, or 0 to not
+     * write summaries.
+     * @return This object for method chaining.
+     */
+    public QubTicTacToeParameters setSummaryInterval(int summaryInterval)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(summaryInterval, 0, "summaryInterval");
+
+        this.summaryInterval = summaryInterval;
+        return this;
+    }
 }
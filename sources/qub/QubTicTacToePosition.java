@@ -0,0 +1,508 @@
+package qub;
+
+/**
+ * An immutable snapshot of a game. The whole position is packed into one long: bits 0 through 29
+ * hold X's cells, bits 30 through 59 hold O's cells, and bits 60 through 62 hold the game's
+ * status. The current player is derived from the number of cells that each player has taken, so
+ * only boards with up to 30 cells are supported.
+ * <p>
+ * Positions never change after they are created, so any number of threads can share them without
+ * locking or copying. Making a move creates a new position in constant time. Code that needs to
+ * avoid even that allocation, such as QubTicTacToeSessionStore, can work on the packed long with
+ * the static methods instead, and wrap it with create(QubTicTacToeGeometry,long) when it needs a
+ * position.
+ */
+public final class QubTicTacToePosition
+{
+    /**
+     * The largest number of cells that a position's board can have.
+     */
+    public static final int maximumCellCount = 30;
+
+    /**
+     * The status of a game that hasn't finished.
+     */
+    public static final int inProgress = 0;
+    /**
+     * The status of a game that X won.
+     */
+    public static final int xWins = 1;
+    /**
+     * The status of a game that O won.
+     */
+    public static final int oWins = 2;
+    /**
+     * The status of a game that filled the board without a winner.
+     */
+    public static final int tie = 3;
+    /**
+     * The status of a game that was stopped before it finished.
+     */
+    public static final int abandoned = 4;
+
+    private static final int oBoardShift = QubTicTacToePosition.maximumCellCount;
+    private static final int statusShift = 2 * QubTicTacToePosition.maximumCellCount;
+    private static final long cellsMask = (1L << QubTicTacToePosition.maximumCellCount) - 1;
+    private static final long statusMask = 0x7L << QubTicTacToePosition.statusShift;
+
+    private final QubTicTacToeGeometry geometry;
+    private final long state;
+
+    private QubTicTacToePosition(QubTicTacToeGeometry geometry, long state)
+    {
+        this.geometry = geometry;
+        this.state = state;
+    }
+
+    /**
+     * Get whether positions can be created for the provided geometry.
+     * @param geometry The geometry to check.
+     * @return Whether positions can be created for the provided geometry.
+     */
+    public static boolean supports(QubTicTacToeGeometry geometry)
+    {
+        PreCondition.assertNotNull(geometry, "geometry");
+
+        return geometry.getCellCount() <= QubTicTacToePosition.maximumCellCount;
+    }
+
+    /**
+     * Create the position of a game on the provided board that hasn't started.
+     * @param geometry The geometry of the board.
+     * @return The position with an empty board.
+     */
+    public static QubTicTacToePosition create(QubTicTacToeGeometry geometry)
+    {
+        PreCondition.assertTrue(QubTicTacToePosition.supports(geometry), "QubTicTacToePosition.supports(geometry)");
+
+        return new QubTicTacToePosition(geometry, 0);
+    }
+
+    /**
+     * Create the position with the provided packed state.
+     * @param geometry The geometry of the board.
+     * @param state The packed state of the position.
+     * @return The position with the provided packed state.
+     */
+    public static QubTicTacToePosition create(QubTicTacToeGeometry geometry, long state)
+    {
+        PreCondition.assertTrue(QubTicTacToePosition.isValid(geometry, state), "QubTicTacToePosition.isValid(geometry, state)");
+
+        return new QubTicTacToePosition(geometry, state);
+    }
+
+    /**
+     * Create a snapshot of the current position of the provided model. A game that the model marks
+     * as done without a winner or a full board is abandoned.
+     * @param model The model to take a snapshot of.
+     * @return The snapshot of the model's current position.
+     */
+    public static QubTicTacToePosition create(QubTicTacToeModel model)
+    {
+        PreCondition.assertNotNull(model, "model");
+        PreCondition.assertTrue(QubTicTacToePosition.supports(model.getGeometry()), "QubTicTacToePosition.supports(model.getGeometry())");
+
+        final long xBoard = model.getPlayerBoard("X");
+        final long oBoard = model.getPlayerBoard("O");
+        final int status;
+        if (model.hasWinner())
+        {
+            status = model.getWinner().equals("X") ? QubTicTacToePosition.xWins : QubTicTacToePosition.oWins;
+        }
+        else if (model.isTie())
+        {
+            status = QubTicTacToePosition.tie;
+        }
+        else
+        {
+            status = model.isGameDone() ? QubTicTacToePosition.abandoned : QubTicTacToePosition.inProgress;
+        }
+        return new QubTicTacToePosition(model.getGeometry(), QubTicTacToePosition.pack(xBoard, oBoard, status));
+    }
+
+    /**
+     * Get whether the provided packed state could be reached by playing a game on the provided
+     * board: X has taken the same number of cells as O or one more, and the status matches the
+     * lines on the board.
+     * @param geometry The geometry of the board.
+     * @param state The packed state to check.
+     * @return Whether the provided packed state is a valid position.
+     */
+    public static boolean isValid(QubTicTacToeGeometry geometry, long state)
+    {
+        PreCondition.assertTrue(QubTicTacToePosition.supports(geometry), "QubTicTacToePosition.supports(geometry)");
+
+        final long xBoard = QubTicTacToePosition.getXBoard(state);
+        final long oBoard = QubTicTacToePosition.getOBoard(state);
+        final long fullBoard = (1L << geometry.getCellCount()) - 1;
+        final int xCount = Long.bitCount(xBoard);
+        final int oCount = Long.bitCount(oBoard);
+        final int status = QubTicTacToePosition.getStatus(state);
+
+        boolean result = state >= 0 &&
+            (xBoard & oBoard) == 0 &&
+            ((xBoard | oBoard) & ~fullBoard) == 0 &&
+            (xCount == oCount || xCount == oCount + 1) &&
+            status <= QubTicTacToePosition.abandoned;
+        if (result)
+        {
+            final boolean xHasLine = QubTicTacToePosition.hasLine(geometry, xBoard);
+            final boolean oHasLine = QubTicTacToePosition.hasLine(geometry, oBoard);
+            if (status == QubTicTacToePosition.xWins)
+            {
+                result = xCount == oCount + 1 && !oHasLine && QubTicTacToePosition.getLastWinningCell(geometry, xBoard) != -1;
+            }
+            else if (status == QubTicTacToePosition.oWins)
+            {
+                result = xCount == oCount && !xHasLine && QubTicTacToePosition.getLastWinningCell(geometry, oBoard) != -1;
+            }
+            else
+            {
+                result = !xHasLine && !oHasLine &&
+                    (status != QubTicTacToePosition.tie || (xBoard | oBoard) == fullBoard) &&
+                    (status != QubTicTacToePosition.inProgress || (xBoard | oBoard) != fullBoard);
+            }
+        }
+        return result;
+    }
+
+    private static boolean hasLine(QubTicTacToeGeometry geometry, long board)
+    {
+        boolean result = false;
+        for (final long winLineMask : geometry.getWinLineMasks())
+        {
+            if ((board & winLineMask) == winLineMask)
+            {
+                result = true;
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get a cell of the provided board that could have been the winning move: the board has a
+     * line through it, and the board without it has no lines.
+     * @return The cell that could have been the winning move, or -1 if there isn't one.
+     */
+    private static int getLastWinningCell(QubTicTacToeGeometry geometry, long board)
+    {
+        int result = -1;
+        for (long remainingCells = board; remainingCells != 0 && result == -1; remainingCells &= remainingCells - 1)
+        {
+            final int cellIndex = Long.numberOfTrailingZeros(remainingCells);
+            if (geometry.isWinningMove(board, cellIndex) && !QubTicTacToePosition.hasLine(geometry, board & ~(1L << cellIndex)))
+            {
+                result = cellIndex;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Pack the provided boards and status into a state.
+     * @param xBoard The bitmask of the cells that X has taken.
+     * @param oBoard The bitmask of the cells that O has taken.
+     * @param status The status of the game.
+     * @return The packed state.
+     */
+    public static long pack(long xBoard, long oBoard, int status)
+    {
+        return xBoard | (oBoard << QubTicTacToePosition.oBoardShift) | ((long)status << QubTicTacToePosition.statusShift);
+    }
+
+    /**
+     * Get the bitmask of the cells that X has taken in the provided packed state.
+     * @param state The packed state.
+     * @return The bitmask of the cells that X has taken.
+     */
+    public static long getXBoard(long state)
+    {
+        return state & QubTicTacToePosition.cellsMask;
+    }
+
+    /**
+     * Get the bitmask of the cells that O has taken in the provided packed state.
+     * @param state The packed state.
+     * @return The bitmask of the cells that O has taken.
+     */
+    public static long getOBoard(long state)
+    {
+        return (state >>> QubTicTacToePosition.oBoardShift) & QubTicTacToePosition.cellsMask;
+    }
+
+    /**
+     * Get the status of the game in the provided packed state.
+     * @param state The packed state.
+     * @return inProgress, xWins, oWins, tie, or abandoned.
+     */
+    public static int getStatus(long state)
+    {
+        return (int)((state & QubTicTacToePosition.statusMask) >>> QubTicTacToePosition.statusShift);
+    }
+
+    /**
+     * Get the packed state with the game in the provided packed state marked as abandoned.
+     * @param state The packed state of a game that is in progress.
+     * @return The packed state of the abandoned game.
+     */
+    public static long abandon(long state)
+    {
+        PreCondition.assertEqual(QubTicTacToePosition.inProgress, QubTicTacToePosition.getStatus(state), "QubTicTacToePosition.getStatus(state)");
+
+        return (state & ~QubTicTacToePosition.statusMask) | ((long)QubTicTacToePosition.abandoned << QubTicTacToePosition.statusShift);
+    }
+
+    /**
+     * Get the packed state that results from the current player taking the provided cell.
+     * @param geometry The geometry of the board.
+     * @param state The packed state before the move.
+     * @param cellIndex The index of the cell to take.
+     * @return The packed state after the move, or -1 if the game is over or the cell is already
+     * taken.
+     */
+    public static long play(QubTicTacToeGeometry geometry, long state, int cellIndex)
+    {
+        PreCondition.assertNotNull(geometry, "geometry");
+        PreCondition.assertBetween(0, cellIndex, geometry.getCellCount() - 1, "cellIndex");
+
+        final long xBoard = QubTicTacToePosition.getXBoard(state);
+        final long oBoard = QubTicTacToePosition.getOBoard(state);
+        final long cell = 1L << cellIndex;
+
+        long result;
+        if (QubTicTacToePosition.getStatus(state) != QubTicTacToePosition.inProgress || ((xBoard | oBoard) & cell) != 0)
+        {
+            result = -1;
+        }
+        else
+        {
+            final boolean xMoves = Long.bitCount(xBoard) == Long.bitCount(oBoard);
+            final long newXBoard = xMoves ? xBoard | cell : xBoard;
+            final long newOBoard = xMoves ? oBoard : oBoard | cell;
+
+            int status = QubTicTacToePosition.inProgress;
+            if (geometry.isWinningMove(xMoves ? newXBoard : newOBoard, cellIndex))
+            {
+                status = xMoves ? QubTicTacToePosition.xWins : QubTicTacToePosition.oWins;
+            }
+            else if (Long.bitCount(newXBoard | newOBoard) == geometry.getCellCount())
+            {
+                status = QubTicTacToePosition.tie;
+            }
+            result = QubTicTacToePosition.pack(newXBoard, newOBoard, status);
+        }
+        return result;
+    }
+
+    /**
+     * Get the geometry of this position's board.
+     * @return The geometry of this position's board.
+     */
+    public QubTicTacToeGeometry getGeometry()
+    {
+        return this.geometry;
+    }
+
+    /**
+     * Get the packed state of this position, which can be stored in a primitive field or array and
+     * turned back into a position with create(QubTicTacToeGeometry,long).
+     * @return The packed state of this position.
+     */
+    public long getState()
+    {
+        return this.state;
+    }
+
+    /**
+     * Get the bitmask of the cells that X has taken.
+     * @return The bitmask of the cells that X has taken.
+     */
+    public long getXBoard()
+    {
+        return QubTicTacToePosition.getXBoard(this.state);
+    }
+
+    /**
+     * Get the bitmask of the cells that O has taken.
+     * @return The bitmask of the cells that O has taken.
+     */
+    public long getOBoard()
+    {
+        return QubTicTacToePosition.getOBoard(this.state);
+    }
+
+    /**
+     * Get the status of this position's game.
+     * @return inProgress, xWins, oWins, tie, or abandoned.
+     */
+    public int getStatus()
+    {
+        return QubTicTacToePosition.getStatus(this.state);
+    }
+
+    /**
+     * Get whether this position's game is done.
+     * @return Whether this position's game is done.
+     */
+    public boolean isGameDone()
+    {
+        return this.getStatus() != QubTicTacToePosition.inProgress;
+    }
+
+    /**
+     * Get the number of cells that have been taken by either player.
+     * @return The number of cells that have been taken by either player.
+     */
+    public int getFilledCellCount()
+    {
+        return Long.bitCount(this.getXBoard() | this.getOBoard());
+    }
+
+    /**
+     * Get the player whose turn it is.
+     * @return "X" or "O".
+     */
+    public String getCurrentPlayer()
+    {
+        return Long.bitCount(this.getXBoard()) == Long.bitCount(this.getOBoard()) ? "X" : "O";
+    }
+
+    /**
+     * Get the token in the provided cell.
+     * @param cellIndex The index of the cell.
+     * @return "X", "O", or " " if the cell is empty.
+     */
+    public String getBoardCell(int cellIndex)
+    {
+        PreCondition.assertBetween(0, cellIndex, this.geometry.getCellCount() - 1, "cellIndex");
+
+        final long cell = 1L << cellIndex;
+        return (this.getXBoard() & cell) != 0 ? "X"
+            : (this.getOBoard() & cell) != 0 ? "O"
+            : " ";
+    }
+
+    /**
+     * Get the bitmask of the cells that the current player can take, which is 0 if the game is
+     * done.
+     * @return The bitmask of the cells that the current player can take.
+     */
+    public long getLegalMoves()
+    {
+        return this.isGameDone() ? 0 : ((1L << this.geometry.getCellCount()) - 1) & ~(this.getXBoard() | this.getOBoard());
+    }
+
+    /**
+     * Get whether the current player can take the provided cell.
+     * @param cellIndex The index of the cell.
+     * @return Whether the current player can take the provided cell.
+     */
+    public boolean isLegalMove(int cellIndex)
+    {
+        PreCondition.assertBetween(0, cellIndex, this.geometry.getCellCount() - 1, "cellIndex");
+
+        return (this.getLegalMoves() & (1L << cellIndex)) != 0;
+    }
+
+    /**
+     * Get the position after the current player takes the provided cell. This position doesn't
+     * change.
+     * @param cellIndex The index of the cell to take.
+     * @return The position after the move.
+     */
+    public QubTicTacToePosition play(int cellIndex)
+    {
+        PreCondition.assertTrue(this.isLegalMove(cellIndex), "this.isLegalMove(cellIndex)");
+
+        return new QubTicTacToePosition(this.geometry, QubTicTacToePosition.play(this.geometry, this.state, cellIndex));
+    }
+
+    /**
+     * Create a model with this position on its board. The model's move history replays the cells
+     * in an order that reaches this position, with X's and O's cells in ascending order and the
+     * winning cell last.
+     * @return The new model.
+     */
+    public QubTicTacToeModel toModel()
+    {
+        final QubTicTacToeModel result = QubTicTacToeModel.create(this.geometry);
+        final int status = this.getStatus();
+        long xBoard = this.getXBoard();
+        long oBoard = this.getOBoard();
+        int lastCellIndex = -1;
+        if (status == QubTicTacToePosition.xWins)
+        {
+            lastCellIndex = QubTicTacToePosition.getLastWinningCell(this.geometry, xBoard);
+            xBoard &= ~(1L << lastCellIndex);
+        }
+        else if (status == QubTicTacToePosition.oWins)
+        {
+            lastCellIndex = QubTicTacToePosition.getLastWinningCell(this.geometry, oBoard);
+            oBoard &= ~(1L << lastCellIndex);
+        }
+
+        while (xBoard != 0 || oBoard != 0)
+        {
+            final boolean xMoves = result.getCurrentPlayer().equals("X");
+            final long board = xMoves ? xBoard : oBoard;
+            final int cellIndex = Long.numberOfTrailingZeros(board);
+            result.makeMove(this.geometry.getRow(cellIndex), this.geometry.getColumn(cellIndex));
+            if (xMoves)
+            {
+                xBoard &= xBoard - 1;
+            }
+            else
+            {
+                oBoard &= oBoard - 1;
+            }
+        }
+        if (lastCellIndex != -1)
+        {
+            result.makeMove(this.geometry.getRow(lastCellIndex), this.geometry.getColumn(lastCellIndex));
+        }
+        else if (status == QubTicTacToePosition.abandoned)
+        {
+            result.setGameDone(true);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object rhs)
+    {
+        return rhs instanceof QubTicTacToePosition && this.equals((QubTicTacToePosition)rhs);
+    }
+
+    /**
+     * Get whether the provided position has the same board, cells, and status as this position.
+     * @param rhs The position to compare against.
+     * @return Whether the provided position is equal to this position.
+     */
+    public boolean equals(QubTicTacToePosition rhs)
+    {
+        return rhs != null && this.geometry == rhs.geometry && this.state == rhs.state;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        // Spread the cells of small boards, which are all in the low bits, across the whole hash.
+        return Long.hashCode(this.state * 0x9E3779B97F4A7C15L);
+    }
+
+    @Override
+    public String toString()
+    {
+        final StringBuilder builder = new StringBuilder();
+        for (int cellIndex = 0; cellIndex < this.geometry.getCellCount(); ++cellIndex)
+        {
+            if (cellIndex > 0 && this.geometry.getColumn(cellIndex) == 0)
+            {
+                builder.append('/');
+            }
+            builder.append(this.getBoardCell(cellIndex));
+        }
+        return builder.toString();
+    }
+}
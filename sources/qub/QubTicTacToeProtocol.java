@@ -0,0 +1,365 @@
+package qub;
+
+/**
+ * A line-oriented protocol for driving games from another program, in the spirit of the UCI
+ * protocol for chess engines. Each line of input is one command, and each command that needs an
+ * answer gets exactly one line of output. The board is never rendered. The commands are:
+ * <ul>
+ *     <li>"isready": Answers "readyok".</li>
+ *     <li>"newgame [&lt;width&gt; &lt;height&gt; &lt;win-length&gt;]": Starts a new game, optionally on a
+ *     board with different dimensions. Answers "ok".</li>
+ *     <li>"position [startpos] [moves] &lt;cell&gt;...": Replaces the current game with a new game
+ *     where the provided moves have been made. Answers "ok" or the game's result.</li>
+ *     <li>"move &lt;cell&gt;": Makes a move for the current player. Answers "ok" or the game's
+ *     result.</li>
+ *     <li>"go [movetime &lt;milliseconds&gt;|playouts &lt;count&gt;|depth &lt;depth&gt;]": Searches the
+ *     current position and answers "bestmove &lt;cell&gt;". The move isn't made.</li>
+ *     <li>"quit": Stops reading commands.</li>
+ * </ul>
+ * A game's result is "result X", "result O", or "result draw". A command that can't be run is
+ * answered with a line that starts with "error".
+ */
+public class QubTicTacToeProtocol
+{
+    /**
+     * The largest board that "go" without any options searches exactly with minimax. Larger boards
+     * are searched with Monte Carlo tree search.
+     */
+    public static final int maximumExactSearchCellCount = 16;
+
+    private final CharacterWriteStream output;
+    private final int threadCount;
+    private QubTicTacToeModel model;
+    private QubTicTacToeMoveParser moveParser;
+
+    // The engines that the last searches used. Each one is reused until a search asks for a
+    // different budget or a new game changes the geometry, so repeated "go" commands don't
+    // allocate a new transposition table or search tree.
+    private QubTicTacToeMinimaxEngine minimaxEngine;
+    private int minimaxEngineDepth;
+    private QubTicTacToeMonteCarloEngine monteCarloEngine;
+    private int monteCarloEnginePlayoutCount;
+    private long monteCarloEngineMilliseconds;
+
+    private QubTicTacToeProtocol(QubTicTacToeGeometry geometry, int threadCount, CharacterWriteStream output)
+    {
+        PreCondition.assertNotNull(geometry, "geometry");
+        PreCondition.assertGreaterThanOrEqualTo(threadCount, 1, "threadCount");
+        PreCondition.assertNotNull(output, "output");
+
+        this.output = output;
+        this.threadCount = threadCount;
+        this.model = QubTicTacToeModel.create(geometry);
+        this.moveParser = QubTicTacToeMoveParser.get(geometry);
+    }
+
+    /**
+     * Create a new protocol session that starts with a game on the provided geometry.
+     * @param geometry The geometry of the first game's board.
+     * @param threadCount The number of threads that searches can use.
+     * @param output The stream to write responses to.
+     * @return The new protocol session.
+     */
+    public static QubTicTacToeProtocol create(QubTicTacToeGeometry geometry, int threadCount, CharacterWriteStream output)
+    {
+        return new QubTicTacToeProtocol(geometry, threadCount, output);
+    }
+
+    /**
+     * Get the model of the current game.
+     * @return The model of the current game.
+     */
+    public QubTicTacToeModel getModel()
+    {
+        return this.model;
+    }
+
+    /**
+     * Run commands from the provided stream until "quit" is read or the stream ends.
+     * @param input The stream to read commands from.
+     */
+    public void run(CharacterReadStream input)
+    {
+        PreCondition.assertNotNull(input, "input");
+
+        boolean running = true;
+        while (running)
+        {
+            final String line = input.readLine().catchError(EndOfStreamException.class).await();
+            running = line != null && this.runCommand(line);
+        }
+    }
+
+    /**
+     * Run the provided command and write its response.
+     * @param line The command line to run.
+     * @return Whether more commands should be read. This is false after "quit".
+     */
+    public boolean runCommand(String line)
+    {
+        PreCondition.assertNotNull(line, "line");
+
+        boolean result = true;
+        final String[] arguments = line.trim().split("\\s+");
+        final String command = arguments[0].toLowerCase();
+        switch (command)
+        {
+            case "":
+                break;
+
+            case "quit":
+                result = false;
+                break;
+
+            case "isready":
+                this.respond("readyok");
+                break;
+
+            case "newgame":
+                this.newGame(arguments);
+                break;
+
+            case "position":
+                this.position(arguments);
+                break;
+
+            case "move":
+                this.move(arguments);
+                break;
+
+            case "go":
+                this.go(arguments);
+                break;
+
+            default:
+                this.respond("error unknown command " + arguments[0]);
+                break;
+        }
+        return result;
+    }
+
+    private void respond(String response)
+    {
+        this.output.writeLine(response).await();
+    }
+
+    private void newGame(String[] arguments)
+    {
+        QubTicTacToeGeometry geometry = this.model.getGeometry();
+        String error = null;
+        if (arguments.length == 4)
+        {
+            final int width = QubTicTacToeEngines.parsePositiveInteger(arguments[1]);
+            final int height = QubTicTacToeEngines.parsePositiveInteger(arguments[2]);
+            final int winLength = QubTicTacToeEngines.parsePositiveInteger(arguments[3]);
+            if (width == -1 || width > QubTicTacToeGeometry.maximumDimension ||
+                height == -1 || height > QubTicTacToeGeometry.maximumDimension ||
+                winLength == -1 || winLength > Math.max(width, height))
+            {
+                error = "error invalid board " + arguments[1] + " " + arguments[2] + " " + arguments[3];
+            }
+            else
+            {
+                geometry = QubTicTacToeGeometry.create(width, height, winLength);
+            }
+        }
+        else if (arguments.length != 1)
+        {
+            error = "error usage: newgame [<width> <height> <win-length>]";
+        }
+
+        if (error != null)
+        {
+            this.respond(error);
+        }
+        else
+        {
+            if (geometry != this.model.getGeometry())
+            {
+                this.moveParser = QubTicTacToeMoveParser.get(geometry);
+                this.minimaxEngine = null;
+                this.monteCarloEngine = null;
+            }
+            this.model = QubTicTacToeModel.create(geometry);
+            this.respond("ok");
+        }
+    }
+
+    private void position(String[] arguments)
+    {
+        final QubTicTacToeModel newModel = QubTicTacToeModel.create(this.model.getGeometry());
+
+        String error = null;
+        int argumentIndex = 1;
+        if (argumentIndex < arguments.length && arguments[argumentIndex].equalsIgnoreCase("startpos"))
+        {
+            ++argumentIndex;
+        }
+        if (argumentIndex < arguments.length && arguments[argumentIndex].equalsIgnoreCase("moves"))
+        {
+            ++argumentIndex;
+        }
+        for (; argumentIndex < arguments.length && error == null; ++argumentIndex)
+        {
+            error = this.makeMove(newModel, arguments[argumentIndex]);
+        }
+
+        if (error != null)
+        {
+            this.respond(error);
+        }
+        else
+        {
+            this.model = newModel;
+            this.respond(this.getGameState());
+        }
+    }
+
+    private void move(String[] arguments)
+    {
+        String response;
+        if (arguments.length != 2)
+        {
+            response = "error usage: move <cell>";
+        }
+        else
+        {
+            response = this.makeMove(this.model, arguments[1]);
+            if (response == null)
+            {
+                response = this.getGameState();
+            }
+        }
+        this.respond(response);
+    }
+
+    /**
+     * Make the move with the provided cell name in the provided model.
+     * @return The error response, or null if the move was made.
+     */
+    private String makeMove(QubTicTacToeModel model, String cellName)
+    {
+        final QubTicTacToeGeometry geometry = model.getGeometry();
+        final int cellIndex = this.moveParser.parse(cellName);
+
+        String result = null;
+        if (model.isGameDone())
+        {
+            result = "error game over";
+        }
+        else if (cellIndex < 0 || !model.isLegalMove(cellIndex))
+        {
+            result = "error illegal move " + cellName;
+        }
+        else
+        {
+            model.makeMove(geometry.getRow(cellIndex), geometry.getColumn(cellIndex));
+        }
+        return result;
+    }
+
+    private String getGameState()
+    {
+        return this.model.hasWinner()
+            ? "result " + this.model.getWinner()
+            : this.model.isTie() ? "result draw" : "ok";
+    }
+
+    private void go(String[] arguments)
+    {
+        final QubTicTacToeGeometry geometry = this.model.getGeometry();
+
+        String response = null;
+        QubTicTacToeEngine engine = null;
+        if (this.model.isGameDone())
+        {
+            response = "error game over";
+        }
+        else if (arguments.length == 1)
+        {
+            if (geometry.getCellCount() <= QubTicTacToeProtocol.maximumExactSearchCellCount)
+            {
+                engine = this.getMinimaxEngine(Integer.MAX_VALUE);
+            }
+            else
+            {
+                engine = this.getMonteCarloEngine(QubTicTacToeMonteCarloEngine.defaultPlayoutCount, 0);
+            }
+        }
+        else if (arguments.length == 3)
+        {
+            final String option = arguments[1].toLowerCase();
+            final int value = QubTicTacToeEngines.parsePositiveInteger(arguments[2]);
+            if (value == -1)
+            {
+                response = "error " + option + " must be a positive integer";
+            }
+            else if (option.equals("movetime"))
+            {
+                engine = this.getMonteCarloEngine(0, value);
+            }
+            else if (option.equals("playouts"))
+            {
+                engine = this.getMonteCarloEngine(value, 0);
+            }
+            else if (option.equals("depth"))
+            {
+                if (geometry.getWordCount() != 1)
+                {
+                    response = "error depth only supports boards with up to " + Long.SIZE + " cells";
+                }
+                else
+                {
+                    engine = this.getMinimaxEngine(value);
+                }
+            }
+            else
+            {
+                response = "error unknown go option " + arguments[1];
+            }
+        }
+        else
+        {
+            response = "error usage: go [movetime <milliseconds>|playouts <count>|depth <depth>]";
+        }
+
+        if (engine != null)
+        {
+            response = "bestmove " + geometry.getCellName(engine.chooseMove(this.model));
+        }
+        this.respond(response);
+    }
+
+    /**
+     * Get a minimax engine for the current geometry that searches at most maximumDepth moves
+     * ahead. The same engine is returned until the depth or the geometry changes.
+     */
+    QubTicTacToeMinimaxEngine getMinimaxEngine(int maximumDepth)
+    {
+        if (this.minimaxEngine == null || this.minimaxEngineDepth != maximumDepth)
+        {
+            this.minimaxEngine = QubTicTacToeMinimaxEngine.create(this.model.getGeometry(), maximumDepth);
+            this.minimaxEngineDepth = maximumDepth;
+        }
+        return this.minimaxEngine;
+    }
+
+    /**
+     * Get a Monte Carlo engine for the current geometry that runs playoutCount playouts, or that
+     * searches for milliseconds if playoutCount is 0. The same engine is returned until the budget
+     * or the geometry changes.
+     */
+    QubTicTacToeMonteCarloEngine getMonteCarloEngine(int playoutCount, long milliseconds)
+    {
+        if (this.monteCarloEngine == null || this.monteCarloEnginePlayoutCount != playoutCount || this.monteCarloEngineMilliseconds != milliseconds)
+        {
+            final QubTicTacToeGeometry geometry = this.model.getGeometry();
+            this.monteCarloEngine = playoutCount > 0
+                ? QubTicTacToeMonteCarloEngine.createWithPlayouts(geometry, playoutCount, this.threadCount)
+                : QubTicTacToeMonteCarloEngine.createWithMilliseconds(geometry, milliseconds, this.threadCount);
+            this.monteCarloEnginePlayoutCount = playoutCount;
+            this.monteCarloEngineMilliseconds = milliseconds;
+        }
+        return this.monteCarloEngine;
+    }
+}
@@ -0,0 +1,78 @@
+package qub;
+
+/**
+ * A QubTicTacToeEngine that takes a uniformly random empty cell. It is the cheapest possible
+ * opponent, which makes it useful as a baseline in simulations.
+ */
+public class QubTicTacToeRandomEngine implements QubTicTacToeEngine
+{
+    private long randomState;
+
+    private QubTicTacToeRandomEngine(long seed)
+    {
+        this.randomState = seed == 0 ? 0x9E3779B97F4A7C15L : seed;
+    }
+
+    /**
+     * Create a new random engine that is seeded from the clock.
+     * @return The new engine.
+     */
+    public static QubTicTacToeRandomEngine create()
+    {
+        return QubTicTacToeRandomEngine.create(System.nanoTime());
+    }
+
+    /**
+     * Create a new random engine with the provided seed. Two engines with the same seed choose the
+     * same moves for the same positions.
+     * @param seed The seed of the engine's random number generator.
+     * @return The new engine.
+     */
+    public static QubTicTacToeRandomEngine create(long seed)
+    {
+        return new QubTicTacToeRandomEngine(seed);
+    }
+
+    @Override
+    public int chooseMove(QubTicTacToeModel model)
+    {
+        PreCondition.assertNotNull(model, "model");
+        PreCondition.assertFalse(model.isGameDone(), "model.isGameDone()");
+
+        int emptyCellIndex = this.nextRandomInt(model.getLegalMoveCount());
+
+        int result = -1;
+        for (int wordIndex = 0; result == -1; ++wordIndex)
+        {
+            long emptyCells = model.getLegalMovesWord(wordIndex);
+            final int wordEmptyCellCount = Long.bitCount(emptyCells);
+            if (emptyCellIndex >= wordEmptyCellCount)
+            {
+                emptyCellIndex -= wordEmptyCellCount;
+            }
+            else
+            {
+                for (int skippedCellCount = 0; skippedCellCount < emptyCellIndex; ++skippedCellCount)
+                {
+                    emptyCells &= emptyCells - 1;
+                }
+                result = (wordIndex * Long.SIZE) + Long.numberOfTrailingZeros(emptyCells);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get a random integer between 0 (inclusive) and bound (exclusive) from this engine's xorshift
+     * generator.
+     */
+    private int nextRandomInt(int bound)
+    {
+        long x = this.randomState;
+        x ^= x << 13;
+        x ^= x >>> 7;
+        x ^= x << 17;
+        this.randomState = x;
+        return (int)(((x >>> 32) * bound) >>> 32);
+    }
+}
@@ -0,0 +1,442 @@
+package qub;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A TCP server that runs one tic-tac-toe session for each connection. A session first asks its
+ * client to choose an opponent. An engine opponent is played with the same game loop as the
+ * console application, and a human opponent is found by pairing the session with the next
+ * session that also asks for a human.
+ * <p>
+ * Each session runs on its own virtual thread when the JVM supports them, so an idle session
+ * costs a small heap-allocated stack and the socket streams' buffers. On JVMs without virtual
+ * threads the sessions run on daemon platform threads with small stacks.
+ */
+public class QubTicTacToeServer
+{
+    /**
+     * The stack size of the platform threads that sessions run on when virtual threads aren't
+     * available.
+     */
+    public static final long platformThreadStackSize = 256 * 1024;
+
+    /**
+     * How often a session that is waiting for a human opponent checks whether its own client is
+     * still connected.
+     */
+    public static final long lobbyCheckMilliseconds = 1000;
+
+    private final QubTicTacToeGeometry geometry;
+    private final ExecutorService sessionExecutor;
+    private final Set<Socket> sessionSockets;
+    private final AtomicInteger sessionCount;
+    private final ReentrantLock lobbyLock;
+    private QubTicTacToeServerMatch waitingMatch;
+    private Socket waitingSocket;
+    private QubTicTacToeSocketReadStream waitingInput;
+    private QubTicTacToeMetrics metrics;
+    private ServerSocket serverSocket;
+    private Thread acceptThread;
+
+    private QubTicTacToeServer(QubTicTacToeGeometry geometry)
+    {
+        PreCondition.assertNotNull(geometry, "geometry");
+
+        this.geometry = geometry;
+        this.sessionExecutor = QubTicTacToeServer.createSessionExecutor();
+        this.sessionSockets = ConcurrentHashMap.newKeySet();
+        this.sessionCount = new AtomicInteger();
+        this.lobbyLock = new ReentrantLock();
+    }
+
+    /**
+     * Create a new server whose games are played on the provided geometry.
+     * @param geometry The geometry of the server's games.
+     * @return The new server.
+     */
+    public static QubTicTacToeServer create(QubTicTacToeGeometry geometry)
+    {
+        return new QubTicTacToeServer(geometry);
+    }
+
+    /**
+     * Create the executor that sessions run on. This uses
+     * Executors.newVirtualThreadPerTaskExecutor() when it exists, and otherwise falls back to a
+     * cached pool of daemon platform threads.
+     * @return The executor that sessions run on.
+     */
+    static ExecutorService createSessionExecutor()
+    {
+        ExecutorService result;
+        try
+        {
+            result = (ExecutorService)Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            final AtomicInteger threadNumber = new AtomicInteger();
+            result = Executors.newCachedThreadPool((Runnable runnable) ->
+            {
+                final Thread thread = new Thread(null, runnable, "qub-tictactoe-session-" + threadNumber.incrementAndGet(), QubTicTacToeServer.platformThreadStackSize);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return result;
+    }
+
+    /**
+     * Get the geometry of this server's games.
+     * @return The geometry of this server's games.
+     */
+    public QubTicTacToeGeometry getGeometry()
+    {
+        return this.geometry;
+    }
+
+    /**
+     * Set the metrics that every session's games will be measured with.
+     * @param metrics The metrics to measure games with, or null to not measure them.
+     * @return This object for method chaining.
+     */
+    public QubTicTacToeServer setMetrics(QubTicTacToeMetrics metrics)
+    {
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * Get the number of sessions that are connected to this server.
+     * @return The number of sessions that are connected to this server.
+     */
+    public int getSessionCount()
+    {
+        return this.sessionCount.get();
+    }
+
+    /**
+     * Start listening for connections on the provided port.
+     * @param port The port to listen on, or 0 to listen on any free port.
+     * @return The port that the server is listening on.
+     */
+    public Result<Integer> start(int port)
+    {
+        PreCondition.assertBetween(0, port, 65535, "port");
+        PreCondition.assertNull(this.serverSocket, "this.serverSocket");
+
+        Result<Integer> result;
+        try
+        {
+            final ServerSocket serverSocket = new ServerSocket();
+            serverSocket.bind(new InetSocketAddress(port));
+            this.serverSocket = serverSocket;
+
+            this.acceptThread = new Thread(this::acceptConnections, "qub-tictactoe-server");
+            this.acceptThread.start();
+
+            result = Result.success(serverSocket.getLocalPort());
+        }
+        catch (IOException e)
+        {
+            result = Result.error(e);
+        }
+        return result;
+    }
+
+    /**
+     * Wait until this server stops accepting connections.
+     */
+    public void join()
+    {
+        PreCondition.assertNotNull(this.acceptThread, "this.acceptThread");
+
+        try
+        {
+            this.acceptThread.join();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Stop accepting connections and disconnect every session.
+     */
+    public void stop()
+    {
+        PreCondition.assertNotNull(this.serverSocket, "this.serverSocket");
+
+        QubTicTacToeServer.close(this.serverSocket);
+        for (final Socket socket : this.sessionSockets)
+        {
+            QubTicTacToeServer.close(socket);
+        }
+        this.sessionExecutor.shutdownNow();
+        this.join();
+        try
+        {
+            this.sessionExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void acceptConnections()
+    {
+        while (!this.serverSocket.isClosed())
+        {
+            try
+            {
+                final Socket socket = this.serverSocket.accept();
+                this.sessionSockets.add(socket);
+                this.sessionCount.incrementAndGet();
+                this.sessionExecutor.execute(() -> this.runSession(socket));
+            }
+            catch (IOException e)
+            {
+                // The server socket was closed by stop().
+            }
+        }
+    }
+
+    private void runSession(Socket socket)
+    {
+        try
+        {
+            socket.setTcpNoDelay(true);
+            final QubTicTacToeSocketWriteStream output = QubTicTacToeSocketWriteStream.create(socket.getOutputStream());
+            final QubTicTacToeSocketReadStream input = QubTicTacToeSocketReadStream.create(socket.getInputStream(), output)
+                .setMetrics(this.metrics);
+
+            final String opponent = this.chooseOpponent(output, input);
+            if (opponent != null)
+            {
+                if (opponent.equals(QubTicTacToeEngines.human))
+                {
+                    this.playHuman(socket, output, input);
+                }
+                else
+                {
+                    final QubTicTacToeParameters parameters = QubTicTacToeParameters.create(output, input)
+                        .setBoardWidth(this.geometry.getWidth())
+                        .setBoardHeight(this.geometry.getHeight())
+                        .setWinLength(this.geometry.getWinLength())
+                        .setXPlayer(QubTicTacToeEngines.human)
+                        .setOPlayer(opponent)
+                        .setThreadCount(1)
+                        .setMetrics(this.metrics);
+                    QubTicTacToe.playGame(parameters);
+                }
+            }
+            QubTicTacToeServer.flush(output, this.metrics);
+        }
+        catch (IOException | RuntimeException e)
+        {
+            // The client disconnected in the middle of its session.
+        }
+        finally
+        {
+            this.sessionSockets.remove(socket);
+            this.sessionCount.decrementAndGet();
+            QubTicTacToeServer.close(socket);
+        }
+    }
+
+    /**
+     * Ask the client which opponent it wants to play against until it answers with a valid
+     * player specification.
+     * @return The opponent's player specification, or null if the client disconnected.
+     */
+    private String chooseOpponent(CharacterWriteStream output, CharacterReadStream input)
+    {
+        output.writeLine("Connected to the Qub Tic-Tac-Toe server.").await();
+        output.writeLine().await();
+
+        String result = null;
+        while (result == null)
+        {
+            output.write("Opponent (" + QubTicTacToeEngines.getSpecificationNames() + "): ").await();
+            final String line = input.readLine().catchError().await();
+            if (line == null)
+            {
+                break;
+            }
+
+            final String specification = line.trim().toLowerCase();
+            final String error = QubTicTacToeEngines.getSpecificationError(specification, this.geometry);
+            if (error != null)
+            {
+                output.writeLine(error).await();
+            }
+            else
+            {
+                result = specification;
+            }
+            output.writeLine().await();
+        }
+        return result;
+    }
+
+    private void playHuman(Socket socket, QubTicTacToeSocketWriteStream output, QubTicTacToeSocketReadStream input)
+    {
+        final QubTicTacToeServerMatch match;
+        final String player;
+        this.lobbyLock.lock();
+        try
+        {
+            if (this.waitingMatch != null && !QubTicTacToeServer.isConnected(this.waitingSocket, this.waitingInput))
+            {
+                // The waiting player left before anyone joined, so don't pair with them.
+                this.abandonWaitingMatch();
+            }
+
+            if (this.waitingMatch == null)
+            {
+                match = QubTicTacToeServerMatch.create(this.geometry, this.metrics);
+                player = "X";
+                this.waitingMatch = match;
+                this.waitingSocket = socket;
+                this.waitingInput = input;
+            }
+            else
+            {
+                match = this.waitingMatch;
+                player = "O";
+                this.waitingMatch = null;
+                this.waitingSocket = null;
+                this.waitingInput = null;
+                match.start();
+            }
+        }
+        finally
+        {
+            this.lobbyLock.unlock();
+        }
+
+        if (player.equals("X"))
+        {
+            output.writeLine("Waiting for an opponent...").await();
+            output.writeLine().await();
+            QubTicTacToeServer.flush(output, this.metrics);
+        }
+
+        if (player.equals("O") || this.awaitOpponent(match, socket, input))
+        {
+            match.play(player, output, input);
+        }
+    }
+
+    /**
+     * Wait until a second player joins the provided match. While it waits, the session checks
+     * whether its own client is still connected, so a client that leaves an empty lobby doesn't
+     * keep its session alive until the server stops.
+     * @param match The match that the session is waiting in.
+     * @param socket The session's socket.
+     * @param input The session's read stream.
+     * @return Whether the second player joined.
+     */
+    private boolean awaitOpponent(QubTicTacToeServerMatch match, Socket socket, QubTicTacToeSocketReadStream input)
+    {
+        boolean result = match.awaitStart(QubTicTacToeServer.lobbyCheckMilliseconds);
+        while (!result && match.isWaiting())
+        {
+            this.lobbyLock.lock();
+            try
+            {
+                if (this.waitingMatch == match && !QubTicTacToeServer.isConnected(socket, input))
+                {
+                    this.abandonWaitingMatch();
+                }
+            }
+            finally
+            {
+                this.lobbyLock.unlock();
+            }
+            result = match.awaitStart(QubTicTacToeServer.lobbyCheckMilliseconds);
+        }
+        return result;
+    }
+
+    /**
+     * Abandon the match that is waiting for a second player. The caller must hold the lobby lock.
+     */
+    private void abandonWaitingMatch()
+    {
+        this.waitingMatch.abandon();
+        this.waitingMatch = null;
+        this.waitingSocket = null;
+        this.waitingInput = null;
+    }
+
+    /**
+     * Get whether the client of a session that is waiting for an opponent is still connected. The
+     * session's thread isn't reading while it waits, so this reads on its behalf with a short
+     * timeout.
+     * @param socket The session's socket.
+     * @param input The session's read stream.
+     * @return Whether the client is still connected.
+     */
+    private static boolean isConnected(Socket socket, QubTicTacToeSocketReadStream input)
+    {
+        boolean result;
+        try
+        {
+            socket.setSoTimeout(1);
+            try
+            {
+                result = !input.isEndOfStream();
+            }
+            finally
+            {
+                socket.setSoTimeout(0);
+            }
+        }
+        catch (IOException e)
+        {
+            result = false;
+        }
+        return result;
+    }
+
+    /**
+     * Flush the provided stream's buffered output to its client.
+     * @param output The stream to flush.
+     * @param metrics The metrics to record the flush time in, or null to not measure it.
+     */
+    static void flush(QubTicTacToeSocketWriteStream output, QubTicTacToeMetrics metrics)
+    {
+        PreCondition.assertNotNull(output, "output");
+
+        final long startTime = metrics == null ? 0 : System.nanoTime();
+        output.flush();
+        if (metrics != null)
+        {
+            metrics.record(QubTicTacToeMetrics.outputFlush, startTime);
+        }
+    }
+
+    private static void close(Closeable closeable)
+    {
+        try
+        {
+            closeable.close();
+        }
+        catch (IOException ignored)
+        {
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package qub;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A game between two human players that are connected to a QubTicTacToeServer. Each player's
+ * session runs play() on its own thread. The player whose turn it is reads its move without
+ * holding the match's lock and only takes the lock to make the move, and the other player waits
+ * on the match's condition until the turn changes. Nothing is written to a socket while the lock
+ * is held, so a client that stops reading can only stall its own session. A ReentrantLock is used
+ * instead of synchronized so that waiting doesn't pin a virtual thread to its carrier thread.
+ */
+class QubTicTacToeServerMatch
+{
+    private final QubTicTacToeModel model;
+    private final ReentrantLock lock;
+    private final Condition changed;
+    private final QubTicTacToeMetrics metrics;
+    private boolean started;
+
+    private QubTicTacToeServerMatch(QubTicTacToeGeometry geometry, QubTicTacToeMetrics metrics)
+    {
+        PreCondition.assertNotNull(geometry, "geometry");
+
+        this.model = QubTicTacToeModel.create(geometry);
+        this.metrics = metrics;
+        this.lock = new ReentrantLock();
+        this.changed = this.lock.newCondition();
+    }
+
+    /**
+     * Create a new match on the provided geometry that is waiting for its second player.
+     * @param geometry The geometry of the match's board.
+     * @return The new match.
+     */
+    static QubTicTacToeServerMatch create(QubTicTacToeGeometry geometry)
+    {
+        return QubTicTacToeServerMatch.create(geometry, null);
+    }
+
+    /**
+     * Create a new match on the provided geometry that is waiting for its second player.
+     * @param geometry The geometry of the match's board.
+     * @param metrics The metrics to measure the match's game with, or null to not measure it.
+     * @return The new match.
+     */
+    static QubTicTacToeServerMatch create(QubTicTacToeGeometry geometry, QubTicTacToeMetrics metrics)
+    {
+        return new QubTicTacToeServerMatch(geometry, metrics);
+    }
+
+    /**
+     * Get the model of this match's game.
+     * @return The model of this match's game.
+     */
+    QubTicTacToeModel getModel()
+    {
+        return this.model;
+    }
+
+    /**
+     * Mark that the second player has joined this match.
+     */
+    void start()
+    {
+        this.lock.lock();
+        try
+        {
+            this.started = true;
+            if (this.metrics != null)
+            {
+                this.metrics.addGameStarted();
+            }
+            this.changed.signalAll();
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * End this match before its second player joins because its first player disconnected.
+     */
+    void abandon()
+    {
+        this.lock.lock();
+        try
+        {
+            this.model.setGameDone(true);
+            this.changed.signalAll();
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Get whether this match is still waiting for its second player.
+     * @return Whether this match is still waiting for its second player.
+     */
+    boolean isWaiting()
+    {
+        this.lock.lock();
+        try
+        {
+            return !this.started && !this.model.isGameDone();
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Wait until the second player joins this match or the provided number of milliseconds pass.
+     * @param milliseconds The longest time to wait.
+     * @return Whether the second player joined. This is false if the time ran out, the waiting
+     * thread was interrupted, or the match was abandoned. Use isWaiting() to tell these apart.
+     */
+    boolean awaitStart(long milliseconds)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(milliseconds, 1, "milliseconds");
+
+        final boolean result;
+        this.lock.lock();
+        try
+        {
+            long remainingNanoseconds = TimeUnit.MILLISECONDS.toNanos(milliseconds);
+            while (!this.started && !this.model.isGameDone() && remainingNanoseconds > 0)
+            {
+                try
+                {
+                    remainingNanoseconds = this.changed.awaitNanos(remainingNanoseconds);
+                }
+                catch (InterruptedException e)
+                {
+                    this.model.setGameDone(true);
+                }
+            }
+            result = this.started;
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Play this match as the provided player until the game is done.
+     * @param player The player ("X" or "O") that the connected client controls.
+     * @param output The stream to write the board and prompts to.
+     * @param input The stream to read moves from.
+     */
+    void play(String player, QubTicTacToeSocketWriteStream output, CharacterReadStream input)
+    {
+        PreCondition.assertOneOf(player, new String[] { "X", "O" }, "player");
+        PreCondition.assertNotNull(output, "output");
+        PreCondition.assertNotNull(input, "input");
+
+        output.writeLine("Welcome to Qub Tic-Tac-Toe!").await();
+        output.writeLine().await();
+        output.writeLine("You are " + player + ".").await();
+        output.writeLine().await();
+
+        boolean writeBoard = true;
+        while (this.awaitTurn(player, output))
+        {
+            // A client that stops reading can block a write to its socket, so text is only built
+            // while the lock is held and is written to the socket after the lock is released.
+            final InMemoryCharacterStream promptText = InMemoryCharacterStream.create();
+            this.lock.lock();
+            try
+            {
+                if (writeBoard)
+                {
+                    QubTicTacToe.writeBoard(this.model, promptText, this.metrics);
+                }
+                QubTicTacToe.writeMovePrompt(this.model, promptText);
+            }
+            finally
+            {
+                this.lock.unlock();
+            }
+            output.write(promptText.getText().await()).await();
+
+            // The opponent can't move until this player does, so the move is read without the
+            // lock and the lock is only held while the move is made.
+            final long startTime = this.metrics == null ? 0 : System.nanoTime();
+            final String moveText = input.readLine().catchError().await();
+            if (this.metrics != null)
+            {
+                this.metrics.record(QubTicTacToeMetrics.inputWait, startTime);
+            }
+
+            final InMemoryCharacterStream moveResultText = InMemoryCharacterStream.create();
+            this.lock.lock();
+            try
+            {
+                if (moveText == null)
+                {
+                    // The player disconnected, so their opponent can't finish the game.
+                    this.model.setGameDone(true);
+                }
+                else if (!this.model.isGameDone())
+                {
+                    // Undo and redo would let a player take back their opponent's move, and a line
+                    // of moves would let a player move for their opponent.
+                    writeBoard = QubTicTacToe.makeMove(this.model, moveResultText, moveText, this.metrics, 0, false);
+                }
+                if (this.model.isGameDone() || !this.model.getCurrentPlayer().equals(player))
+                {
+                    this.changed.signalAll();
+                }
+            }
+            finally
+            {
+                this.lock.unlock();
+            }
+            output.write(moveResultText.getText().await()).await();
+        }
+
+        final InMemoryCharacterStream resultText = InMemoryCharacterStream.create();
+        this.lock.lock();
+        try
+        {
+            if (this.model.hasWinner() || this.model.isTie())
+            {
+                QubTicTacToe.showGameResults(this.model, resultText, this.metrics);
+                if (this.metrics != null && player.equals("X"))
+                {
+                    this.metrics.addGameFinished();
+                }
+            }
+            else
+            {
+                resultText.writeLine("The game was abandoned.").await();
+                resultText.writeLine().await();
+            }
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+        output.write(resultText.getText().await()).await();
+        QubTicTacToeServer.flush(output, this.metrics);
+    }
+
+    /**
+     * Wait until it is the provided player's turn or the game is done.
+     * @param player The player ("X" or "O") that is waiting for its turn.
+     * @param output The stream to tell the player that it is waiting on.
+     * @return Whether it is the provided player's turn. This is false if the game is done.
+     */
+    private boolean awaitTurn(String player, QubTicTacToeSocketWriteStream output)
+    {
+        boolean result = false;
+        boolean waiting = true;
+        while (waiting)
+        {
+            final String currentPlayer;
+            this.lock.lock();
+            try
+            {
+                currentPlayer = this.model.getCurrentPlayer();
+                result = !this.model.isGameDone() && currentPlayer.equals(player);
+                waiting = !this.model.isGameDone() && !result;
+            }
+            finally
+            {
+                this.lock.unlock();
+            }
+
+            if (waiting)
+            {
+                // The message is written without the lock so that a client that stops reading
+                // can't keep its opponent from making a move.
+                output.writeLine("Waiting for " + currentPlayer + "'s move...").await();
+                QubTicTacToeServer.flush(output, this.metrics);
+
+                this.lock.lock();
+                try
+                {
+                    while (!this.model.isGameDone() && this.model.getCurrentPlayer().equals(currentPlayer))
+                    {
+                        try
+                        {
+                            this.changed.await();
+                        }
+                        catch (InterruptedException e)
+                        {
+                            this.model.setGameDone(true);
+                            this.changed.signalAll();
+                        }
+                    }
+                }
+                finally
+                {
+                    this.lock.unlock();
+                }
+            }
+        }
+        return result;
+    }
+}
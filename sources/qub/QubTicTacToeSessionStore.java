@@ -0,0 +1,327 @@
+package qub;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed-capacity store of live games where each game's whole state is packed into one long with
+ * the layout of QubTicTacToePosition. This means that a million games take 8 MB in one primitive
+ * array and that making a move doesn't allocate, so only boards with up to 30 cells are supported.
+ * <p>
+ * Moves are applied with a compare-and-set loop, so different threads can make moves in
+ * different sessions (or race on the same session) without locking.
+ */
+public class QubTicTacToeSessionStore
+{
+    /**
+     * The largest number of cells that a board in the store can have.
+     */
+    public static final int maximumCellCount = QubTicTacToePosition.maximumCellCount;
+
+    /**
+     * The status of a game that hasn't finished.
+     */
+    public static final int inProgress = QubTicTacToePosition.inProgress;
+    /**
+     * The status of a game that X won.
+     */
+    public static final int xWins = QubTicTacToePosition.xWins;
+    /**
+     * The status of a game that O won.
+     */
+    public static final int oWins = QubTicTacToePosition.oWins;
+    /**
+     * The status of a game that filled the board without a winner.
+     */
+    public static final int tie = QubTicTacToePosition.tie;
+    /**
+     * The status of a game that was stopped before it finished.
+     */
+    public static final int abandoned = QubTicTacToePosition.abandoned;
+    /**
+     * The value that makeMove() returns when the move can't be made.
+     */
+    public static final int illegalMove = -1;
+
+    private final QubTicTacToeGeometry geometry;
+    private final AtomicLongArray states;
+    private final ReentrantLock sessionIdLock;
+    private final int[] freeSessionIds;
+    private final AtomicLongArray openSessionBits;
+    private int freeSessionIdCount;
+    private int nextSessionId;
+
+    private QubTicTacToeSessionStore(QubTicTacToeGeometry geometry, int capacity)
+    {
+        PreCondition.assertNotNull(geometry, "geometry");
+        PreCondition.assertBetween(1, geometry.getCellCount(), QubTicTacToeSessionStore.maximumCellCount, "geometry.getCellCount()");
+        PreCondition.assertGreaterThanOrEqualTo(capacity, 1, "capacity");
+
+        this.geometry = geometry;
+        this.states = new AtomicLongArray(capacity);
+        this.sessionIdLock = new ReentrantLock();
+        this.freeSessionIds = new int[capacity];
+        this.openSessionBits = new AtomicLongArray((capacity + Long.SIZE - 1) / Long.SIZE);
+    }
+
+    /**
+     * Create a new session store for games on the provided geometry.
+     * @param geometry The geometry of the games in the store. The board can't have more than
+     * maximumCellCount cells.
+     * @param capacity The largest number of sessions that can be open at the same time.
+     * @return The new session store.
+     */
+    public static QubTicTacToeSessionStore create(QubTicTacToeGeometry geometry, int capacity)
+    {
+        return new QubTicTacToeSessionStore(geometry, capacity);
+    }
+
+    /**
+     * Get the geometry of the games in this store.
+     * @return The geometry of the games in this store.
+     */
+    public QubTicTacToeGeometry getGeometry()
+    {
+        return this.geometry;
+    }
+
+    /**
+     * Get the largest number of sessions that can be open at the same time.
+     * @return The largest number of sessions that can be open at the same time.
+     */
+    public int getCapacity()
+    {
+        return this.states.length();
+    }
+
+    /**
+     * Get the number of sessions that are open.
+     * @return The number of sessions that are open.
+     */
+    public int getSessionCount()
+    {
+        this.sessionIdLock.lock();
+        try
+        {
+            return this.nextSessionId - this.freeSessionIdCount;
+        }
+        finally
+        {
+            this.sessionIdLock.unlock();
+        }
+    }
+
+    /**
+     * Open a new session with an empty board.
+     * @return The id of the new session, or -1 if the store is full.
+     */
+    public int openSession()
+    {
+        int result = -1;
+        this.sessionIdLock.lock();
+        try
+        {
+            if (this.freeSessionIdCount > 0)
+            {
+                result = this.freeSessionIds[--this.freeSessionIdCount];
+            }
+            else if (this.nextSessionId < this.states.length())
+            {
+                result = this.nextSessionId++;
+            }
+            if (result != -1)
+            {
+                final int wordIndex = result / Long.SIZE;
+                this.openSessionBits.set(wordIndex, this.openSessionBits.get(wordIndex) | (1L << result));
+            }
+        }
+        finally
+        {
+            this.sessionIdLock.unlock();
+        }
+
+        if (result != -1)
+        {
+            this.states.set(result, 0);
+        }
+        return result;
+    }
+
+    /**
+     * Get whether the provided session is open. The open bits are only changed while the session
+     * id lock is held, but they can be read without it so that checking a session doesn't slow
+     * down making moves.
+     * @param sessionId The id of the session.
+     * @return Whether the session is open.
+     */
+    public boolean isSessionOpen(int sessionId)
+    {
+        PreCondition.assertBetween(0, sessionId, this.states.length() - 1, "sessionId");
+
+        return (this.openSessionBits.get(sessionId / Long.SIZE) & (1L << sessionId)) != 0;
+    }
+
+    /**
+     * Close the provided session so that its id can be reused.
+     * @param sessionId The id of the session to close. The session must be open.
+     */
+    public void closeSession(int sessionId)
+    {
+        PreCondition.assertBetween(0, sessionId, this.states.length() - 1, "sessionId");
+
+        this.sessionIdLock.lock();
+        try
+        {
+            PreCondition.assertTrue(this.isSessionOpen(sessionId), "this.isSessionOpen(sessionId)");
+
+            final int wordIndex = sessionId / Long.SIZE;
+            this.openSessionBits.set(wordIndex, this.openSessionBits.get(wordIndex) & ~(1L << sessionId));
+            this.freeSessionIds[this.freeSessionIdCount++] = sessionId;
+        }
+        finally
+        {
+            this.sessionIdLock.unlock();
+        }
+    }
+
+    /**
+     * Get the packed state of the provided session.
+     * @param sessionId The id of the session. The session must be open.
+     * @return The packed state of the session.
+     */
+    public long getState(int sessionId)
+    {
+        PreCondition.assertTrue(this.isSessionOpen(sessionId), "this.isSessionOpen(sessionId)");
+
+        return this.states.get(sessionId);
+    }
+
+    /**
+     * Make a move for the current player of the provided session.
+     * @param sessionId The id of the session. The session must be open.
+     * @param cellIndex The index of the cell to take.
+     * @return The status of the game after the move, or illegalMove if the game is over or the
+     * cell is already taken.
+     */
+    public int makeMove(int sessionId, int cellIndex)
+    {
+        PreCondition.assertTrue(this.isSessionOpen(sessionId), "this.isSessionOpen(sessionId)");
+        PreCondition.assertBetween(0, cellIndex, this.geometry.getCellCount() - 1, "cellIndex");
+
+        int result;
+        while (true)
+        {
+            final long state = this.states.get(sessionId);
+            final long newState = QubTicTacToePosition.play(this.geometry, state, cellIndex);
+            if (newState == -1)
+            {
+                result = QubTicTacToeSessionStore.illegalMove;
+                break;
+            }
+            else if (this.states.compareAndSet(sessionId, state, newState))
+            {
+                result = QubTicTacToePosition.getStatus(newState);
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get an immutable snapshot of the provided session's game, which can be shared with other
+     * threads while the session continues.
+     * @param sessionId The id of the session. The session must be open.
+     * @return The snapshot of the session's game.
+     */
+    public QubTicTacToePosition getPosition(int sessionId)
+    {
+        PreCondition.assertTrue(this.isSessionOpen(sessionId), "this.isSessionOpen(sessionId)");
+
+        return QubTicTacToePosition.create(this.geometry, this.states.get(sessionId));
+    }
+
+    /**
+     * Mark the provided session's game as abandoned if it is still in progress.
+     * @param sessionId The id of the session. The session must be open.
+     */
+    public void abandon(int sessionId)
+    {
+        PreCondition.assertTrue(this.isSessionOpen(sessionId), "this.isSessionOpen(sessionId)");
+
+        while (true)
+        {
+            final long state = this.states.get(sessionId);
+            if (QubTicTacToePosition.getStatus(state) != QubTicTacToePosition.inProgress ||
+                this.states.compareAndSet(sessionId, state, QubTicTacToePosition.abandon(state)))
+            {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Get the status of the provided session's game.
+     * @param sessionId The id of the session. The session must be open.
+     * @return inProgress, xWins, oWins, tie, or abandoned.
+     */
+    public int getStatus(int sessionId)
+    {
+        PreCondition.assertTrue(this.isSessionOpen(sessionId), "this.isSessionOpen(sessionId)");
+
+        return QubTicTacToePosition.getStatus(this.states.get(sessionId));
+    }
+
+    /**
+     * Get whether the provided session's game is done.
+     * @param sessionId The id of the session. The session must be open.
+     * @return Whether the session's game is done.
+     */
+    public boolean isGameDone(int sessionId)
+    {
+        return this.getStatus(sessionId) != QubTicTacToeSessionStore.inProgress;
+    }
+
+    /**
+     * Get the player whose turn it is in the provided session.
+     * @param sessionId The id of the session. The session must be open.
+     * @return "X" or "O".
+     */
+    public String getCurrentPlayer(int sessionId)
+    {
+        PreCondition.assertTrue(this.isSessionOpen(sessionId), "this.isSessionOpen(sessionId)");
+
+        final long state = this.states.get(sessionId);
+        return Long.bitCount(QubTicTacToePosition.getXBoard(state)) == Long.bitCount(QubTicTacToePosition.getOBoard(state)) ? "X" : "O";
+    }
+
+    /**
+     * Get the number of cells that have been taken in the provided session.
+     * @param sessionId The id of the session. The session must be open.
+     * @return The number of cells that have been taken.
+     */
+    public int getFilledCellCount(int sessionId)
+    {
+        PreCondition.assertTrue(this.isSessionOpen(sessionId), "this.isSessionOpen(sessionId)");
+
+        final long state = this.states.get(sessionId);
+        return Long.bitCount(QubTicTacToePosition.getXBoard(state)) + Long.bitCount(QubTicTacToePosition.getOBoard(state));
+    }
+
+    /**
+     * Get the token in the provided cell of the provided session.
+     * @param sessionId The id of the session. The session must be open.
+     * @param cellIndex The index of the cell.
+     * @return "X", "O", or " " if the cell is empty.
+     */
+    public String getBoardCell(int sessionId, int cellIndex)
+    {
+        PreCondition.assertTrue(this.isSessionOpen(sessionId), "this.isSessionOpen(sessionId)");
+        PreCondition.assertBetween(0, cellIndex, this.geometry.getCellCount() - 1, "cellIndex");
+
+        final long state = this.states.get(sessionId);
+        final long cell = 1L << cellIndex;
+        return (QubTicTacToePosition.getXBoard(state) & cell) != 0 ? "X"
+            : (QubTicTacToePosition.getOBoard(state) & cell) != 0 ? "O"
+            : " ";
+    }
+}
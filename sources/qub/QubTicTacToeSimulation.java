@@ -0,0 +1,261 @@
+package qub;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Plays many games between two engines without rendering the board or reading any input. Games
+ * are handed out to a fixed number of worker threads one at a time, so threads that draw short
+ * games keep taking more of them. Every worker creates its own pair of engines, because engines
+ * keep per-search state and aren't safe to share between threads.
+ */
+public class QubTicTacToeSimulation
+{
+    private final QubTicTacToeGeometry geometry;
+    private final String xPlayer;
+    private final String oPlayer;
+    private final int threadCount;
+    private QubTicTacToeGameArchive archive;
+    private QubTicTacToeOpeningBook book;
+    private QubTicTacToeTablebase tablebase;
+    private QubTicTacToeMetrics metrics;
+
+    private QubTicTacToeSimulation(QubTicTacToeGeometry geometry, String xPlayer, String oPlayer, int threadCount)
+    {
+        PreCondition.assertNotNull(geometry, "geometry");
+        PreCondition.assertNull(QubTicTacToeEngines.getSpecificationError(xPlayer, geometry), "QubTicTacToeEngines.getSpecificationError(xPlayer, geometry)");
+        PreCondition.assertNotEqual(QubTicTacToeEngines.human, QubTicTacToeEngines.getEngineName(xPlayer), "QubTicTacToeEngines.getEngineName(xPlayer)");
+        PreCondition.assertNull(QubTicTacToeEngines.getSpecificationError(oPlayer, geometry), "QubTicTacToeEngines.getSpecificationError(oPlayer, geometry)");
+        PreCondition.assertNotEqual(QubTicTacToeEngines.human, QubTicTacToeEngines.getEngineName(oPlayer), "QubTicTacToeEngines.getEngineName(oPlayer)");
+        PreCondition.assertGreaterThanOrEqualTo(threadCount, 1, "threadCount");
+
+        this.geometry = geometry;
+        this.xPlayer = xPlayer;
+        this.oPlayer = oPlayer;
+        this.threadCount = threadCount;
+    }
+
+    /**
+     * Create a new simulation between the engines that the provided player specifications describe.
+     * @param geometry The geometry of the board that the games will be played on.
+     * @param xPlayer The specification of the engine that plays X.
+     * @param oPlayer The specification of the engine that plays O.
+     * @param threadCount The number of games to play at the same time.
+     * @return The new simulation.
+     */
+    public static QubTicTacToeSimulation create(QubTicTacToeGeometry geometry, String xPlayer, String oPlayer, int threadCount)
+    {
+        return new QubTicTacToeSimulation(geometry, xPlayer, oPlayer, threadCount);
+    }
+
+    /**
+     * Set the archive that every finished game will be appended to.
+     * @param archive The archive to append games to, or null to not record games.
+     * @return This object for method chaining.
+     */
+    public QubTicTacToeSimulation setArchive(QubTicTacToeGameArchive archive)
+    {
+        this.archive = archive;
+        return this;
+    }
+
+    /**
+     * Set the opening book that both engines will consult before they search.
+     * @param book The opening book for the engines to consult, or null to always search.
+     * @return This object for method chaining.
+     */
+    public QubTicTacToeSimulation setBook(QubTicTacToeOpeningBook book)
+    {
+        PreCondition.assertTrue(book == null || book.getGeometry() == this.geometry, "book == null || book.getGeometry() == this.geometry");
+
+        this.book = book;
+        return this;
+    }
+
+    /**
+     * Set the tablebase that both engines will consult before they search.
+     * @param tablebase The tablebase for the engines to consult, or null to always search.
+     * @return This object for method chaining.
+     */
+    public QubTicTacToeSimulation setTablebase(QubTicTacToeTablebase tablebase)
+    {
+        PreCondition.assertTrue(tablebase == null || tablebase.getGeometry() == this.geometry, "tablebase == null || tablebase.getGeometry() == this.geometry");
+
+        this.tablebase = tablebase;
+        return this;
+    }
+
+    /**
+     * Set the metrics that every game's engine think and model update times will be recorded in.
+     * @param metrics The metrics to record in, or null to not measure the games.
+     * @return This object for method chaining.
+     */
+    public QubTicTacToeSimulation setMetrics(QubTicTacToeMetrics metrics)
+    {
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * Play the provided number of games.
+     * @param gameCount The number of games to play.
+     * @return The result of playing the games.
+     */
+    public QubTicTacToeSimulationResult run(int gameCount)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(gameCount, 1, "gameCount");
+
+        final int workerCount = Math.min(this.threadCount, gameCount);
+        final AtomicInteger nextGame = new AtomicInteger();
+
+        final ForkJoinPool pool = new ForkJoinPool(workerCount);
+        final long startTime = System.nanoTime();
+        final List<ForkJoinTask<long[]>> workers = List.create();
+        try
+        {
+            for (int workerIndex = 0; workerIndex < workerCount; ++workerIndex)
+            {
+                workers.add(pool.submit(() -> this.playGames(nextGame, gameCount)));
+            }
+            for (final ForkJoinTask<long[]> worker : workers)
+            {
+                worker.join();
+            }
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+        final long elapsedNanoseconds = System.nanoTime() - startTime;
+        try
+        {
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        long xWinCount = 0;
+        long oWinCount = 0;
+        long drawCount = 0;
+        long moveCount = 0;
+        for (final ForkJoinTask<long[]> worker : workers)
+        {
+            final long[] counts = worker.join();
+            xWinCount += counts[0];
+            oWinCount += counts[1];
+            drawCount += counts[2];
+            moveCount += counts[3];
+        }
+        return QubTicTacToeSimulationResult.create(xWinCount, oWinCount, drawCount, moveCount, workerCount, elapsedNanoseconds);
+    }
+
+    /**
+     * Play games until all of the games have been handed out.
+     * @return The X win, O win, draw, and move counts of the games that this worker played.
+     */
+    private long[] playGames(AtomicInteger nextGame, int gameCount)
+    {
+        final QubTicTacToeEngine xEngine = QubTicTacToeEngines.create(this.xPlayer, this.geometry, 1, this.book, this.tablebase);
+        final QubTicTacToeEngine oEngine = QubTicTacToeEngines.create(this.oPlayer, this.geometry, 1, this.book, this.tablebase);
+
+        final long[] result = new long[4];
+        while (nextGame.getAndIncrement() < gameCount)
+        {
+            final QubTicTacToeModel model = QubTicTacToeSimulation.playGame(this.geometry, xEngine, oEngine, this.metrics);
+
+            if (!model.hasWinner())
+            {
+                ++result[2];
+            }
+            else if (model.getWinner().equals("X"))
+            {
+                ++result[0];
+            }
+            else
+            {
+                ++result[1];
+            }
+            result[3] += model.getFilledCellCount();
+
+            if (this.archive != null)
+            {
+                this.archive.append(QubTicTacToeGameRecord.create(model, this.xPlayer, this.oPlayer));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Play one game between the provided engines.
+     * @param geometry The geometry of the board to play on.
+     * @param xEngine The engine that plays X.
+     * @param oEngine The engine that plays O.
+     * @param metrics The metrics to record the engines' think times and the model's update times
+     * in, or null to not measure the game.
+     * @return The model of the finished game.
+     */
+    static QubTicTacToeModel playGame(QubTicTacToeGeometry geometry, QubTicTacToeEngine xEngine, QubTicTacToeEngine oEngine, QubTicTacToeMetrics metrics)
+    {
+        final QubTicTacToeModel result = QubTicTacToeModel.create(geometry);
+        if (metrics == null)
+        {
+            while (!result.isGameDone())
+            {
+                final QubTicTacToeEngine engine = result.getTurnNumber() % 2 == 1 ? xEngine : oEngine;
+                final int cellIndex = engine.chooseMove(result);
+                result.makeMove(geometry.getRow(cellIndex), geometry.getColumn(cellIndex));
+            }
+        }
+        else
+        {
+            metrics.addGameStarted();
+            long time = System.nanoTime();
+            while (!result.isGameDone())
+            {
+                final QubTicTacToeEngine engine = result.getTurnNumber() % 2 == 1 ? xEngine : oEngine;
+                final int cellIndex = engine.chooseMove(result);
+                time = metrics.record(QubTicTacToeMetrics.engineThink, time);
+                result.makeMove(geometry.getRow(cellIndex), geometry.getColumn(cellIndex));
+                time = metrics.record(QubTicTacToeMetrics.modelUpdate, time);
+                metrics.addMoveMade();
+            }
+            metrics.addGameFinished();
+        }
+        return result;
+    }
+
+    /**
+     * Play the provided number of games and write the aggregate statistics.
+     * @param gameCount The number of games to play.
+     * @param output The stream to write the statistics to.
+     */
+    public void writeResults(int gameCount, CharacterWriteStream output)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(gameCount, 1, "gameCount");
+        PreCondition.assertNotNull(output, "output");
+
+        output.writeLine("Simulating " + gameCount + " games on " + this.geometry + " between X (" + this.xPlayer + ") and O (" + this.oPlayer + ")...").await();
+
+        final QubTicTacToeSimulationResult result = this.run(gameCount);
+        output.writeLine(String.format("X wins: %d (%.1f%%), O wins: %d (%.1f%%), Draws: %d (%.1f%%)",
+            result.getXWinCount(),
+            result.getXWinCount() * 100.0 / gameCount,
+            result.getOWinCount(),
+            result.getOWinCount() * 100.0 / gameCount,
+            result.getDrawCount(),
+            result.getDrawCount() * 100.0 / gameCount)).await();
+        output.writeLine(String.format("Average game length: %.2f moves", result.getAverageGameLength())).await();
+        output.writeLine(String.format("Threads: %d, Time: %.3fs, Games/second: %.0f",
+            result.getThreadCount(),
+            result.getElapsedNanoseconds() / 1000000000.0,
+            result.getGamesPerSecond())).await();
+        if (this.archive != null)
+        {
+            output.writeLine("Recorded " + gameCount + " games to " + this.archive.getDataFilePath() + ".").await();
+        }
+    }
+}
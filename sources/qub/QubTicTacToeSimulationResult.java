@@ -0,0 +1,118 @@
+package qub;
+
+/**
+ * The result of playing games between two engines with a QubTicTacToeSimulation.
+ */
+public class QubTicTacToeSimulationResult
+{
+    private final long xWinCount;
+    private final long oWinCount;
+    private final long drawCount;
+    private final long moveCount;
+    private final int threadCount;
+    private final long elapsedNanoseconds;
+
+    private QubTicTacToeSimulationResult(long xWinCount, long oWinCount, long drawCount, long moveCount, int threadCount, long elapsedNanoseconds)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(xWinCount, 0, "xWinCount");
+        PreCondition.assertGreaterThanOrEqualTo(oWinCount, 0, "oWinCount");
+        PreCondition.assertGreaterThanOrEqualTo(drawCount, 0, "drawCount");
+        PreCondition.assertGreaterThanOrEqualTo(moveCount, 0, "moveCount");
+        PreCondition.assertGreaterThanOrEqualTo(threadCount, 1, "threadCount");
+        PreCondition.assertGreaterThanOrEqualTo(elapsedNanoseconds, 0, "elapsedNanoseconds");
+
+        this.xWinCount = xWinCount;
+        this.oWinCount = oWinCount;
+        this.drawCount = drawCount;
+        this.moveCount = moveCount;
+        this.threadCount = threadCount;
+        this.elapsedNanoseconds = elapsedNanoseconds;
+    }
+
+    public static QubTicTacToeSimulationResult create(long xWinCount, long oWinCount, long drawCount, long moveCount, int threadCount, long elapsedNanoseconds)
+    {
+        return new QubTicTacToeSimulationResult(xWinCount, oWinCount, drawCount, moveCount, threadCount, elapsedNanoseconds);
+    }
+
+    /**
+     * Get the number of games that were played.
+     * @return The number of games that were played.
+     */
+    public long getGameCount()
+    {
+        return this.xWinCount + this.oWinCount + this.drawCount;
+    }
+
+    /**
+     * Get the number of games that X won.
+     * @return The number of games that X won.
+     */
+    public long getXWinCount()
+    {
+        return this.xWinCount;
+    }
+
+    /**
+     * Get the number of games that O won.
+     * @return The number of games that O won.
+     */
+    public long getOWinCount()
+    {
+        return this.oWinCount;
+    }
+
+    /**
+     * Get the number of games that ended in a draw.
+     * @return The number of games that ended in a draw.
+     */
+    public long getDrawCount()
+    {
+        return this.drawCount;
+    }
+
+    /**
+     * Get the total number of moves that were made across all of the games.
+     * @return The total number of moves that were made across all of the games.
+     */
+    public long getMoveCount()
+    {
+        return this.moveCount;
+    }
+
+    /**
+     * Get the number of threads that played the games.
+     * @return The number of threads that played the games.
+     */
+    public int getThreadCount()
+    {
+        return this.threadCount;
+    }
+
+    /**
+     * Get the number of nanoseconds that playing the games took.
+     * @return The number of nanoseconds that playing the games took.
+     */
+    public long getElapsedNanoseconds()
+    {
+        return this.elapsedNanoseconds;
+    }
+
+    /**
+     * Get the number of games that were played per second.
+     * @return The number of games that were played per second.
+     */
+    public double getGamesPerSecond()
+    {
+        return this.elapsedNanoseconds == 0 ? 0 : this.getGameCount() * 1000000000.0 / this.elapsedNanoseconds;
+    }
+
+    /**
+     * Get the average number of moves in a game.
+     * @return The average number of moves in a game.
+     */
+    public double getAverageGameLength()
+    {
+        final long gameCount = this.getGameCount();
+        return gameCount == 0 ? 0 : (double)this.moveCount / gameCount;
+    }
+}
@@ -0,0 +1,163 @@
+package qub;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A CharacterReadStream that reads lines of UTF-8 text from a socket's InputStream. The
+ * stream keeps only a small byte buffer so that an idle session costs very little memory. Before
+ * it blocks for more input it flushes the session's QubTicTacToeSocketWriteStream, so prompts
+ * reach the client before the server waits for the client's answer.
+ */
+public class QubTicTacToeSocketReadStream implements CharacterReadStream
+{
+    private static final int bufferSize = 256;
+
+    private final InputStream inputStream;
+    private final QubTicTacToeSocketWriteStream flushStream;
+    private final byte[] buffer;
+    private int bufferStart;
+    private int bufferEnd;
+    private boolean endOfStream;
+    private QubTicTacToeMetrics metrics;
+
+    private QubTicTacToeSocketReadStream(InputStream inputStream, QubTicTacToeSocketWriteStream flushStream)
+    {
+        PreCondition.assertNotNull(inputStream, "inputStream");
+
+        this.inputStream = inputStream;
+        this.flushStream = flushStream;
+        this.buffer = new byte[QubTicTacToeSocketReadStream.bufferSize];
+    }
+
+    /**
+     * Create a new read stream over the provided InputStream.
+     * @param inputStream The stream to read bytes from.
+     * @param flushStream The stream to flush before blocking for more input, or null.
+     * @return The new read stream.
+     */
+    public static QubTicTacToeSocketReadStream create(InputStream inputStream, QubTicTacToeSocketWriteStream flushStream)
+    {
+        return new QubTicTacToeSocketReadStream(inputStream, flushStream);
+    }
+
+    /**
+     * Set the metrics that the time spent flushing the flush stream is recorded in.
+     * @param metrics The metrics to record the flush time in, or null to not measure it.
+     * @return This object for method chaining.
+     */
+    public QubTicTacToeSocketReadStream setMetrics(QubTicTacToeMetrics metrics)
+    {
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * Read the next line of text, without its line ending. If the stream has ended, then the
+     * Result will contain an EndOfStreamException.
+     * @return The next line of text.
+     */
+    @Override
+    public Result<String> readLine()
+    {
+        Result<String> result;
+        try
+        {
+            final ByteArrayOutputStream line = new ByteArrayOutputStream();
+            boolean foundNewLine = false;
+            while (!foundNewLine && this.fillBuffer())
+            {
+                while (this.bufferStart < this.bufferEnd)
+                {
+                    final byte value = this.buffer[this.bufferStart++];
+                    if (value == '\n')
+                    {
+                        foundNewLine = true;
+                        break;
+                    }
+                    else if (value != '\r')
+                    {
+                        line.write(value);
+                    }
+                }
+            }
+
+            result = !foundNewLine && line.size() == 0
+                ? Result.error(new EndOfStreamException())
+                : Result.success(new String(line.toByteArray(), StandardCharsets.UTF_8));
+        }
+        catch (IOException e)
+        {
+            this.endOfStream = true;
+            result = Result.error(e);
+        }
+        return result;
+    }
+
+    /**
+     * Get whether the client has closed its side of the connection. If there are no unread bytes,
+     * then this waits for more input for at most the socket's read timeout, so the caller should
+     * set a short timeout first. Bytes that arrive are kept for the next readLine().
+     * @return Whether the client has closed its side of the connection.
+     */
+    public boolean isEndOfStream()
+    {
+        if (this.bufferStart == this.bufferEnd && !this.endOfStream)
+        {
+            try
+            {
+                final int bytesRead = this.inputStream.read(this.buffer, 0, this.buffer.length);
+                if (bytesRead < 0)
+                {
+                    this.endOfStream = true;
+                }
+                else
+                {
+                    this.bufferStart = 0;
+                    this.bufferEnd = bytesRead;
+                }
+            }
+            catch (SocketTimeoutException e)
+            {
+                // The client is still connected but hasn't sent anything.
+            }
+            catch (IOException e)
+            {
+                this.endOfStream = true;
+            }
+        }
+        return this.endOfStream && this.bufferStart == this.bufferEnd;
+    }
+
+    /**
+     * Make sure that there are unread bytes in the buffer.
+     * @return Whether there are unread bytes in the buffer.
+     */
+    private boolean fillBuffer() throws IOException
+    {
+        if (this.bufferStart == this.bufferEnd && !this.endOfStream)
+        {
+            if (this.flushStream != null)
+            {
+                QubTicTacToeServer.flush(this.flushStream, this.metrics);
+            }
+
+            final int bytesRead = this.inputStream.read(this.buffer, 0, this.buffer.length);
+            if (bytesRead < 0)
+            {
+                this.endOfStream = true;
+                this.bufferStart = 0;
+                this.bufferEnd = 0;
+            }
+            else
+            {
+                this.bufferStart = 0;
+                this.bufferEnd = bytesRead;
+            }
+        }
+        return this.bufferStart < this.bufferEnd;
+    }
+}
@@ -0,0 +1,148 @@
+package qub;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A CharacterWriteStream that writes ASCII text to a socket's OutputStream through a small
+ * buffer. The buffer is sent when it fills up, when flush() is called, and when the session's
+ * QubTicTacToeSocketReadStream is about to wait for more input.
+ */
+public class QubTicTacToeSocketWriteStream implements CharacterWriteStream
+{
+    private static final int bufferSize = 512;
+
+    private final OutputStream outputStream;
+    private final byte[] buffer;
+    private int bufferLength;
+
+    private QubTicTacToeSocketWriteStream(OutputStream outputStream)
+    {
+        PreCondition.assertNotNull(outputStream, "outputStream");
+
+        this.outputStream = outputStream;
+        this.buffer = new byte[QubTicTacToeSocketWriteStream.bufferSize];
+    }
+
+    /**
+     * Create a new write stream over the provided OutputStream.
+     * @param outputStream The stream to write bytes to.
+     * @return The new write stream.
+     */
+    public static QubTicTacToeSocketWriteStream create(OutputStream outputStream)
+    {
+        return new QubTicTacToeSocketWriteStream(outputStream);
+    }
+
+    @Override
+    public Result<Integer> write(char toWrite)
+    {
+        Result<Integer> result;
+        try
+        {
+            this.writeCharacter(toWrite);
+            result = Result.success(1);
+        }
+        catch (IOException e)
+        {
+            result = Result.error(e);
+        }
+        return result;
+    }
+
+    @Override
+    public Result<Integer> write(char[] toWrite, int startIndex, int length)
+    {
+        PreCondition.assertNotNull(toWrite, "toWrite");
+        PreCondition.assertBetween(0, startIndex, toWrite.length, "startIndex");
+        PreCondition.assertBetween(0, length, toWrite.length - startIndex, "length");
+
+        Result<Integer> result;
+        try
+        {
+            for (int index = startIndex; index < startIndex + length; ++index)
+            {
+                this.writeCharacter(toWrite[index]);
+            }
+            result = Result.success(length);
+        }
+        catch (IOException e)
+        {
+            result = Result.error(e);
+        }
+        return result;
+    }
+
+    @Override
+    public Result<Integer> write(String toWrite, Object... formattedStringArguments)
+    {
+        PreCondition.assertNotNull(toWrite, "toWrite");
+
+        final String text = formattedStringArguments == null || formattedStringArguments.length == 0
+            ? toWrite
+            : String.format(toWrite, formattedStringArguments);
+        Result<Integer> result;
+        try
+        {
+            for (int index = 0; index < text.length(); ++index)
+            {
+                this.writeCharacter(text.charAt(index));
+            }
+            result = Result.success(text.length());
+        }
+        catch (IOException e)
+        {
+            result = Result.error(e);
+        }
+        return result;
+    }
+
+    @Override
+    public Result<Integer> writeLine()
+    {
+        return this.write('\n');
+    }
+
+    @Override
+    public Result<Integer> writeLine(String toWrite, Object... formattedStringArguments)
+    {
+        final Result<Integer> result = this.write(toWrite, formattedStringArguments);
+        this.writeLine();
+        return result;
+    }
+
+    private void writeCharacter(char toWrite) throws IOException
+    {
+        if (this.bufferLength == this.buffer.length)
+        {
+            this.flushBuffer();
+        }
+        this.buffer[this.bufferLength++] = (byte)(toWrite < 0x80 ? toWrite : '?');
+    }
+
+    /**
+     * Send any buffered characters to the socket.
+     */
+    public void flush()
+    {
+        try
+        {
+            this.flushBuffer();
+            this.outputStream.flush();
+        }
+        catch (IOException ignored)
+        {
+            // A client that has disconnected is noticed the next time the session reads input.
+        }
+    }
+
+    private void flushBuffer() throws IOException
+    {
+        if (this.bufferLength > 0)
+        {
+            final int length = this.bufferLength;
+            this.bufferLength = 0;
+            this.outputStream.write(this.buffer, 0, length);
+        }
+    }
+}
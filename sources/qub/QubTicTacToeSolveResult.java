@@ -0,0 +1,86 @@
+package qub;
+
+/**
+ * The result of solving a position with a QubTicTacToeParallelSolver.
+ */
+public class QubTicTacToeSolveResult
+{
+    private final int score;
+    private final int threadCount;
+    private final long nodeCount;
+    private final long elapsedNanoseconds;
+
+    private QubTicTacToeSolveResult(int score, int threadCount, long nodeCount, long elapsedNanoseconds)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(threadCount, 1, "threadCount");
+        PreCondition.assertGreaterThanOrEqualTo(nodeCount, 0, "nodeCount");
+        PreCondition.assertGreaterThanOrEqualTo(elapsedNanoseconds, 0, "elapsedNanoseconds");
+
+        this.score = score;
+        this.threadCount = threadCount;
+        this.nodeCount = nodeCount;
+        this.elapsedNanoseconds = elapsedNanoseconds;
+    }
+
+    public static QubTicTacToeSolveResult create(int score, int threadCount, long nodeCount, long elapsedNanoseconds)
+    {
+        return new QubTicTacToeSolveResult(score, threadCount, nodeCount, elapsedNanoseconds);
+    }
+
+    /**
+     * Get the minimax score of the solved position from the point of view of the player to move.
+     * @return The minimax score of the solved position.
+     */
+    public int getScore()
+    {
+        return this.score;
+    }
+
+    /**
+     * Get the text that describes the outcome of the solved position with perfect play: "win",
+     * "draw", or "loss" for the player to move.
+     * @return The text that describes the outcome of the solved position.
+     */
+    public String getOutcome()
+    {
+        return QubTicTacToeMinimaxEngine.isWinScore(this.score)
+            ? "win"
+            : QubTicTacToeMinimaxEngine.isLossScore(this.score) ? "loss" : "draw";
+    }
+
+    /**
+     * Get the number of threads that searched the position.
+     * @return The number of threads that searched the position.
+     */
+    public int getThreadCount()
+    {
+        return this.threadCount;
+    }
+
+    /**
+     * Get the number of positions that were searched.
+     * @return The number of positions that were searched.
+     */
+    public long getNodeCount()
+    {
+        return this.nodeCount;
+    }
+
+    /**
+     * Get the number of nanoseconds that the search took.
+     * @return The number of nanoseconds that the search took.
+     */
+    public long getElapsedNanoseconds()
+    {
+        return this.elapsedNanoseconds;
+    }
+
+    /**
+     * Get the number of positions that were searched per second.
+     * @return The number of positions that were searched per second.
+     */
+    public double getNodesPerSecond()
+    {
+        return this.elapsedNanoseconds == 0 ? 0 : this.nodeCount * 1000000000.0 / this.elapsedNanoseconds;
+    }
+}
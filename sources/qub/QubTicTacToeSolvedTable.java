@@ -0,0 +1,433 @@
+package qub;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The game-theoretic value and best move of every reachable position of standard 3x3
+ * tic-tac-toe. Positions are indexed by their base-3 encoding (0 for an empty cell, 1 for X and 2
+ * for O, with cell 0 as the least significant digit), so a lookup is a single buffer read. The
+ * table is 3^9 two-byte entries plus a small header.
+ * <p>
+ * The table is generated by running this class's main method with the path of the file to write.
+ * At runtime get() memory-maps the table from the QubTicTacToeSolvedTable.bin resource next to
+ * this class when that resource is a plain file, reads it into memory when it is packaged inside
+ * a jar, and generates it in memory when the resource doesn't exist.
+ */
+public class QubTicTacToeSolvedTable
+{
+    /**
+     * The name of the resource that the table is loaded from.
+     */
+    public static final String resourceName = "QubTicTacToeSolvedTable.bin";
+
+    /**
+     * The value of a position that the player to move will win with perfect play.
+     */
+    public static final int win = 1;
+
+    /**
+     * The value of a position that will be a draw with perfect play.
+     */
+    public static final int draw = 0;
+
+    /**
+     * The value of a position that the player to move will lose with perfect play.
+     */
+    public static final int loss = -1;
+
+    private static final int headerSize = 8;
+    private static final byte[] magic = { 'Q', 'T', 'T', 'S' };
+    private static final byte version = 1;
+    private static final int cellCount = 9;
+    private static final int positionCount = 19683;
+    private static final int entrySize = 2;
+
+    private static final int noMove = 0xF;
+    private static final int unknownValue = 0;
+    private static final int winValue = 1;
+    private static final int drawValue = 2;
+    private static final int lossValue = 3;
+
+    /**
+     * The base-3 value of every 9-bit board, indexed by the board's bitmask. The index of a
+     * position is ternaryValues[xBoard] + (2 * ternaryValues[oBoard]).
+     */
+    private static final int[] ternaryValues = QubTicTacToeSolvedTable.createTernaryValues();
+
+    private static volatile QubTicTacToeSolvedTable defaultTable;
+
+    private final ByteBuffer buffer;
+
+    private QubTicTacToeSolvedTable(ByteBuffer buffer)
+    {
+        PreCondition.assertNotNull(buffer, "buffer");
+        PreCondition.assertEqual(QubTicTacToeSolvedTable.getFileSize(), buffer.capacity(), "buffer.capacity()");
+        for (int index = 0; index < QubTicTacToeSolvedTable.magic.length; ++index)
+        {
+            PreCondition.assertEqual(QubTicTacToeSolvedTable.magic[index], buffer.get(index), "buffer.get(" + index + ")");
+        }
+        PreCondition.assertEqual(QubTicTacToeSolvedTable.version, buffer.get(4), "buffer.get(4)");
+
+        this.buffer = buffer;
+    }
+
+    private static int[] createTernaryValues()
+    {
+        final int[] result = new int[1 << QubTicTacToeSolvedTable.cellCount];
+        for (int board = 0; board < result.length; ++board)
+        {
+            int value = 0;
+            int digit = 1;
+            for (int cellIndex = 0; cellIndex < QubTicTacToeSolvedTable.cellCount; ++cellIndex)
+            {
+                if ((board & (1 << cellIndex)) != 0)
+                {
+                    value += digit;
+                }
+                digit *= 3;
+            }
+            result[board] = value;
+        }
+        return result;
+    }
+
+    private static int getFileSize()
+    {
+        return QubTicTacToeSolvedTable.headerSize + (QubTicTacToeSolvedTable.positionCount * QubTicTacToeSolvedTable.entrySize);
+    }
+
+    /**
+     * Get whether the solved table can answer queries for the provided geometry.
+     * @param geometry The geometry to check.
+     * @return Whether the solved table can answer queries for the provided geometry.
+     */
+    public static boolean supports(QubTicTacToeGeometry geometry)
+    {
+        PreCondition.assertNotNull(geometry, "geometry");
+
+        return geometry == QubTicTacToeGeometry.create();
+    }
+
+    /**
+     * Get the shared solved table. The first call loads or generates the table.
+     * @return The shared solved table.
+     */
+    public static QubTicTacToeSolvedTable get()
+    {
+        QubTicTacToeSolvedTable result = QubTicTacToeSolvedTable.defaultTable;
+        if (result == null)
+        {
+            synchronized (QubTicTacToeSolvedTable.class)
+            {
+                result = QubTicTacToeSolvedTable.defaultTable;
+                if (result == null)
+                {
+                    result = QubTicTacToeSolvedTable.loadResource();
+                    if (result == null)
+                    {
+                        result = QubTicTacToeSolvedTable.create();
+                    }
+                    QubTicTacToeSolvedTable.defaultTable = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static QubTicTacToeSolvedTable loadResource()
+    {
+        QubTicTacToeSolvedTable result = null;
+        final URL resource = QubTicTacToeSolvedTable.class.getResource(QubTicTacToeSolvedTable.resourceName);
+        if (resource != null)
+        {
+            try
+            {
+                if ("file".equals(resource.getProtocol()))
+                {
+                    result = QubTicTacToeSolvedTable.load(Paths.get(resource.toURI()));
+                }
+                else
+                {
+                    try (final InputStream resourceStream = resource.openStream())
+                    {
+                        final byte[] bytes = new byte[QubTicTacToeSolvedTable.getFileSize()];
+                        int bytesRead = 0;
+                        while (bytesRead < bytes.length)
+                        {
+                            final int readCount = resourceStream.read(bytes, bytesRead, bytes.length - bytesRead);
+                            if (readCount < 0)
+                            {
+                                break;
+                            }
+                            bytesRead += readCount;
+                        }
+                        if (bytesRead == bytes.length)
+                        {
+                            result = new QubTicTacToeSolvedTable(ByteBuffer.wrap(bytes));
+                        }
+                    }
+                }
+            }
+            catch (IOException | URISyntaxException ignored)
+            {
+                result = null;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Memory-map the solved table that is stored in the provided file. Lookups read directly from
+     * the mapped file without copying it onto the heap.
+     * @param filePath The path to the file that contains the solved table.
+     * @return The memory-mapped solved table.
+     */
+    public static QubTicTacToeSolvedTable load(Path filePath) throws IOException
+    {
+        PreCondition.assertNotNull(filePath, "filePath");
+
+        try (final FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ))
+        {
+            return new QubTicTacToeSolvedTable(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Generate the solved table by searching every reachable position.
+     * @return The generated solved table.
+     */
+    public static QubTicTacToeSolvedTable create()
+    {
+        final ByteBuffer buffer = ByteBuffer.allocate(QubTicTacToeSolvedTable.getFileSize());
+        buffer.put(QubTicTacToeSolvedTable.magic);
+        buffer.put(QubTicTacToeSolvedTable.version);
+        final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create();
+        buffer.put((byte)geometry.getWidth());
+        buffer.put((byte)geometry.getHeight());
+        buffer.put((byte)geometry.getWinLength());
+
+        QubTicTacToeSolvedTable.solve(geometry, buffer, 0, 0, 1);
+
+        return new QubTicTacToeSolvedTable(buffer);
+    }
+
+    /**
+     * Solve the provided position and every position that can be reached from it.
+     * @return The entry for the provided position.
+     */
+    private static int solve(QubTicTacToeGeometry geometry, ByteBuffer buffer, long ownBoard, long otherBoard, int ownDigit)
+    {
+        final long xBoard = ownDigit == 1 ? ownBoard : otherBoard;
+        final long oBoard = ownDigit == 1 ? otherBoard : ownBoard;
+        final int entryOffset = QubTicTacToeSolvedTable.getEntryOffset(xBoard, oBoard);
+
+        int result = buffer.getShort(entryOffset);
+        if (result == 0)
+        {
+            final long emptyCells = ((1L << QubTicTacToeSolvedTable.cellCount) - 1) & ~(ownBoard | otherBoard);
+
+            int bestValue = QubTicTacToeSolvedTable.unknownValue;
+            int bestDistance = 0;
+            int bestMove = QubTicTacToeSolvedTable.noMove;
+            if (emptyCells == 0)
+            {
+                bestValue = QubTicTacToeSolvedTable.drawValue;
+            }
+            else
+            {
+                // Every child is solved, even when there is an immediate win, so that positions
+                // that are only reached through a non-winning move are also in the table.
+                for (long remainingCells = emptyCells; remainingCells != 0; remainingCells &= remainingCells - 1)
+                {
+                    final int cellIndex = Long.numberOfTrailingZeros(remainingCells);
+                    final long childOwnBoard = ownBoard | (1L << cellIndex);
+
+                    int value;
+                    int distance;
+                    if (geometry.isWinningMove(childOwnBoard, cellIndex))
+                    {
+                        value = QubTicTacToeSolvedTable.winValue;
+                        distance = 1;
+                    }
+                    else
+                    {
+                        final int childEntry = QubTicTacToeSolvedTable.solve(geometry, buffer, otherBoard, childOwnBoard, 3 - ownDigit);
+                        final int childValue = QubTicTacToeSolvedTable.getEntryValue(childEntry);
+                        value = childValue == QubTicTacToeSolvedTable.winValue
+                            ? QubTicTacToeSolvedTable.lossValue
+                            : childValue == QubTicTacToeSolvedTable.lossValue ? QubTicTacToeSolvedTable.winValue : QubTicTacToeSolvedTable.drawValue;
+                        distance = QubTicTacToeSolvedTable.getEntryDistance(childEntry) + 1;
+                    }
+
+                    if (bestMove == QubTicTacToeSolvedTable.noMove || QubTicTacToeSolvedTable.isBetter(value, distance, bestValue, bestDistance))
+                    {
+                        bestValue = value;
+                        bestDistance = distance;
+                        bestMove = cellIndex;
+                    }
+                }
+            }
+
+            result = QubTicTacToeSolvedTable.createEntry(bestValue, bestDistance, bestMove);
+            buffer.putShort(entryOffset, (short)result);
+        }
+        return result;
+    }
+
+    /**
+     * Get whether a move with the provided value and distance to the end of the game is better
+     * than the current best move. Faster wins and slower losses are better.
+     */
+    private static boolean isBetter(int value, int distance, int bestValue, int bestDistance)
+    {
+        final int rank = QubTicTacToeSolvedTable.getValueRank(value);
+        final int bestRank = QubTicTacToeSolvedTable.getValueRank(bestValue);
+        return rank > bestRank ||
+            (rank == bestRank && value == QubTicTacToeSolvedTable.winValue && distance < bestDistance) ||
+            (rank == bestRank && value == QubTicTacToeSolvedTable.lossValue && distance > bestDistance);
+    }
+
+    private static int getValueRank(int value)
+    {
+        return value == QubTicTacToeSolvedTable.winValue ? 2 : value == QubTicTacToeSolvedTable.drawValue ? 1 : 0;
+    }
+
+    private static int createEntry(int value, int distance, int move)
+    {
+        return (distance << 8) | (value << 4) | move;
+    }
+
+    private static int getEntryMove(int entry)
+    {
+        return entry & 0xF;
+    }
+
+    private static int getEntryValue(int entry)
+    {
+        return (entry >>> 4) & 0x3;
+    }
+
+    private static int getEntryDistance(int entry)
+    {
+        return (entry >>> 8) & 0xF;
+    }
+
+    /**
+     * Get the base-3 index of the position with the provided boards.
+     * @param xBoard The bitmask of the cells that X has taken.
+     * @param oBoard The bitmask of the cells that O has taken.
+     * @return The base-3 index of the position.
+     */
+    public static int getIndex(long xBoard, long oBoard)
+    {
+        return QubTicTacToeSolvedTable.ternaryValues[(int)xBoard] + (2 * QubTicTacToeSolvedTable.ternaryValues[(int)oBoard]);
+    }
+
+    private static int getEntryOffset(long xBoard, long oBoard)
+    {
+        return QubTicTacToeSolvedTable.headerSize + (QubTicTacToeSolvedTable.getIndex(xBoard, oBoard) * QubTicTacToeSolvedTable.entrySize);
+    }
+
+    private int getEntry(long xBoard, long oBoard)
+    {
+        return this.buffer.getShort(QubTicTacToeSolvedTable.getEntryOffset(xBoard, oBoard));
+    }
+
+    /**
+     * Get whether the provided position is in the table. Positions that can't be reached in a
+     * legal game and positions where a player has already won aren't in the table. Full boards that
+     * ended in a draw are in the table.
+     * @param xBoard The bitmask of the cells that X has taken.
+     * @param oBoard The bitmask of the cells that O has taken.
+     * @return Whether the provided position is in the table.
+     */
+    public boolean contains(long xBoard, long oBoard)
+    {
+        return this.getEntry(xBoard, oBoard) != 0;
+    }
+
+    /**
+     * Get the best move for the player to move in the provided position.
+     * @param xBoard The bitmask of the cells that X has taken.
+     * @param oBoard The bitmask of the cells that O has taken.
+     * @return The index of the cell that the player to move should take, or -1 if the position
+     * isn't in the table.
+     */
+    public int getBestMove(long xBoard, long oBoard)
+    {
+        final int entry = this.getEntry(xBoard, oBoard);
+        final int move = QubTicTacToeSolvedTable.getEntryMove(entry);
+        return entry == 0 || move == QubTicTacToeSolvedTable.noMove ? -1 : move;
+    }
+
+    /**
+     * Get the value of the provided position for the player to move: win, draw, or loss.
+     * @param xBoard The bitmask of the cells that X has taken.
+     * @param oBoard The bitmask of the cells that O has taken.
+     * @return The value of the provided position for the player to move.
+     */
+    public int getValue(long xBoard, long oBoard)
+    {
+        PreCondition.assertTrue(this.contains(xBoard, oBoard), "this.contains(xBoard, oBoard)");
+
+        final int value = QubTicTacToeSolvedTable.getEntryValue(this.getEntry(xBoard, oBoard));
+        return value == QubTicTacToeSolvedTable.winValue
+            ? QubTicTacToeSolvedTable.win
+            : value == QubTicTacToeSolvedTable.lossValue ? QubTicTacToeSolvedTable.loss : QubTicTacToeSolvedTable.draw;
+    }
+
+    /**
+     * Get the number of moves that are left in the game with perfect play from the provided
+     * position.
+     * @param xBoard The bitmask of the cells that X has taken.
+     * @param oBoard The bitmask of the cells that O has taken.
+     * @return The number of moves that are left in the game with perfect play.
+     */
+    public int getDistanceToEnd(long xBoard, long oBoard)
+    {
+        PreCondition.assertTrue(this.contains(xBoard, oBoard), "this.contains(xBoard, oBoard)");
+
+        return QubTicTacToeSolvedTable.getEntryDistance(this.getEntry(xBoard, oBoard));
+    }
+
+    /**
+     * Write this table to the provided file.
+     * @param filePath The path to the file to write.
+     */
+    public void save(Path filePath) throws IOException
+    {
+        PreCondition.assertNotNull(filePath, "filePath");
+
+        try (final FileChannel channel = FileChannel.open(filePath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            final ByteBuffer contents = this.buffer.duplicate();
+            contents.clear();
+            while (contents.hasRemaining())
+            {
+                channel.write(contents);
+            }
+        }
+    }
+
+    /**
+     * Generate the solved table and write it to the file at the first argument. This produced the
+     * QubTicTacToeSolvedTable.bin resource that is committed next to this class, and must be run
+     * again whenever the table's format changes.
+     * @param args The command-line arguments.
+     */
+    public static void main(String[] args) throws IOException
+    {
+        PreCondition.assertNotNull(args, "args");
+        PreCondition.assertEqual(1, args.length, "args.length");
+
+        QubTicTacToeSolvedTable.create().save(Paths.get(args[0]));
+    }
+}
@@ -0,0 +1,307 @@
+package qub;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The rotations and reflections that map a board onto itself. A square board has the eight
+ * transforms of the dihedral group D4, and a rectangular board has the four transforms that don't
+ * swap rows with columns. Every transform maps winning lines onto winning lines, so a position and
+ * all of its transforms have the same game-theoretic value. Caches can store a position once by
+ * keying it with its canonical form, and map moves back with the transform that produced that form.
+ * Cells and move lists can be transformed on every board, but whole bitboards can only be
+ * transformed on boards that fit in a single long.
+ */
+public class QubTicTacToeSymmetry
+{
+    /**
+     * The transform that leaves every cell where it is.
+     */
+    public static final int identityTransform = 0;
+
+    private static final ConcurrentHashMap<QubTicTacToeGeometry,QubTicTacToeSymmetry> symmetries = new ConcurrentHashMap<>();
+
+    private static final int bitsPerChunk = 8;
+    private static final int chunkValueCount = 1 << QubTicTacToeSymmetry.bitsPerChunk;
+
+    private final QubTicTacToeGeometry geometry;
+    private final int transformCount;
+
+    /**
+     * The cell that each cell moves to under each transform, indexed by [transform][cellIndex].
+     */
+    private final int[][] cellTransforms;
+
+    /**
+     * The cell that each cell came from under each transform, indexed by [transform][cellIndex].
+     */
+    private final int[][] inverseCellTransforms;
+
+    /**
+     * For each transform, the transformed bits of every possible 8-cell chunk of a board, indexed
+     * by [transform][(chunkIndex * 256) + chunkValue]. Transforming a board is the OR of one lookup
+     * per chunk.
+     */
+    private final long[][] chunkTransforms;
+    private final int chunkCount;
+
+    private QubTicTacToeSymmetry(QubTicTacToeGeometry geometry)
+    {
+        this.geometry = geometry;
+
+        final int width = geometry.getWidth();
+        final int height = geometry.getHeight();
+        final int cellCount = geometry.getCellCount();
+        this.transformCount = width == height ? 8 : 4;
+
+        this.cellTransforms = new int[this.transformCount][cellCount];
+        this.inverseCellTransforms = new int[this.transformCount][cellCount];
+        for (int transform = 0; transform < this.transformCount; ++transform)
+        {
+            for (int cellIndex = 0; cellIndex < cellCount; ++cellIndex)
+            {
+                final int transformedCellIndex = QubTicTacToeSymmetry.transformCell(width, height, transform, cellIndex);
+                this.cellTransforms[transform][cellIndex] = transformedCellIndex;
+                this.inverseCellTransforms[transform][transformedCellIndex] = cellIndex;
+            }
+        }
+
+        this.chunkCount = geometry.getWordCount() == 1 ? (cellCount + QubTicTacToeSymmetry.bitsPerChunk - 1) / QubTicTacToeSymmetry.bitsPerChunk : 0;
+        this.chunkTransforms = new long[this.transformCount][this.chunkCount * QubTicTacToeSymmetry.chunkValueCount];
+        for (int transform = 0; transform < this.transformCount; ++transform)
+        {
+            final long[] transformChunks = this.chunkTransforms[transform];
+            for (int chunkIndex = 0; chunkIndex < this.chunkCount; ++chunkIndex)
+            {
+                final int firstCellIndex = chunkIndex * QubTicTacToeSymmetry.bitsPerChunk;
+                for (int chunkValue = 0; chunkValue < QubTicTacToeSymmetry.chunkValueCount; ++chunkValue)
+                {
+                    long transformedBits = 0;
+                    for (int bit = 0; bit < QubTicTacToeSymmetry.bitsPerChunk; ++bit)
+                    {
+                        final int cellIndex = firstCellIndex + bit;
+                        if (cellIndex < cellCount && (chunkValue & (1 << bit)) != 0)
+                        {
+                            transformedBits |= 1L << this.cellTransforms[transform][cellIndex];
+                        }
+                    }
+                    transformChunks[(chunkIndex * QubTicTacToeSymmetry.chunkValueCount) + chunkValue] = transformedBits;
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the symmetries of the provided geometry.
+     * @param geometry The geometry of the board.
+     * @return The symmetries of the provided geometry.
+     */
+    public static QubTicTacToeSymmetry create(QubTicTacToeGeometry geometry)
+    {
+        PreCondition.assertNotNull(geometry, "geometry");
+
+        return QubTicTacToeSymmetry.symmetries.computeIfAbsent(geometry, QubTicTacToeSymmetry::new);
+    }
+
+    /**
+     * Get the cell that the provided cell moves to under the provided transform. Transforms 0
+     * through 3 are the identity, the 180 degree rotation, and the horizontal and vertical
+     * reflections. Transforms 4 through 7 are the 90 and 270 degree rotations and the two diagonal
+     * reflections, which are only symmetries of square boards.
+     */
+    private static int transformCell(int width, int height, int transform, int cellIndex)
+    {
+        final int row = cellIndex / width;
+        final int column = cellIndex % width;
+        final int lastRow = height - 1;
+        final int lastColumn = width - 1;
+
+        int transformedRow;
+        int transformedColumn;
+        switch (transform)
+        {
+            case 0:
+                transformedRow = row;
+                transformedColumn = column;
+                break;
+
+            case 1:
+                transformedRow = lastRow - row;
+                transformedColumn = lastColumn - column;
+                break;
+
+            case 2:
+                transformedRow = row;
+                transformedColumn = lastColumn - column;
+                break;
+
+            case 3:
+                transformedRow = lastRow - row;
+                transformedColumn = column;
+                break;
+
+            case 4:
+                transformedRow = column;
+                transformedColumn = lastRow - row;
+                break;
+
+            case 5:
+                transformedRow = lastColumn - column;
+                transformedColumn = row;
+                break;
+
+            case 6:
+                transformedRow = column;
+                transformedColumn = row;
+                break;
+
+            default:
+                transformedRow = lastColumn - column;
+                transformedColumn = lastRow - row;
+                break;
+        }
+        return (transformedRow * width) + transformedColumn;
+    }
+
+    /**
+     * Get the geometry that these symmetries belong to.
+     * @return The geometry that these symmetries belong to.
+     */
+    public QubTicTacToeGeometry getGeometry()
+    {
+        return this.geometry;
+    }
+
+    /**
+     * Get the number of transforms that map the board onto itself.
+     * @return The number of transforms that map the board onto itself.
+     */
+    public int getTransformCount()
+    {
+        return this.transformCount;
+    }
+
+    /**
+     * Get the cell that the provided cell moves to under the provided transform.
+     * @param cellIndex The index of the cell.
+     * @param transform The transform to apply.
+     * @return The cell that the provided cell moves to.
+     */
+    public int transformCell(int cellIndex, int transform)
+    {
+        return this.cellTransforms[transform][cellIndex];
+    }
+
+    /**
+     * Get the cell that moves to the provided cell under the provided transform. This maps a move
+     * that was found for a canonical position back to the original position.
+     * @param cellIndex The index of the transformed cell.
+     * @param transform The transform that was applied.
+     * @return The cell that moves to the provided cell.
+     */
+    public int inverseTransformCell(int cellIndex, int transform)
+    {
+        return this.inverseCellTransforms[transform][cellIndex];
+    }
+
+    /**
+     * Apply the provided transform to every cell of the provided board. This is only supported on
+     * boards that fit in a single long.
+     * @param board The bitmask of a player's cells.
+     * @param transform The transform to apply.
+     * @return The bitmask of the transformed cells.
+     */
+    public long transform(long board, int transform)
+    {
+        final long[] transformChunks = this.chunkTransforms[transform];
+
+        long result = 0;
+        int chunkOffset = 0;
+        for (long remainingBoard = board; remainingBoard != 0; remainingBoard >>>= QubTicTacToeSymmetry.bitsPerChunk)
+        {
+            result |= transformChunks[chunkOffset + (int)(remainingBoard & 0xFF)];
+            chunkOffset += QubTicTacToeSymmetry.chunkValueCount;
+        }
+        return result;
+    }
+
+    /**
+     * Get the transform that maps the provided position to its canonical form. The canonical form
+     * is the transformed position with the smallest (ownBoard, otherBoard) pair, so every position
+     * that is a rotation or reflection of another has the same canonical form. This is only
+     * supported on boards that fit in a single long.
+     * @param ownBoard The bitmask of the cells that the player to move has taken.
+     * @param otherBoard The bitmask of the cells that the other player has taken.
+     * @return The transform that maps the provided position to its canonical form.
+     */
+    public int getCanonicalTransform(long ownBoard, long otherBoard)
+    {
+        int result = QubTicTacToeSymmetry.identityTransform;
+        long canonicalOwnBoard = ownBoard;
+        long canonicalOtherBoard = otherBoard;
+        for (int transform = 1; transform < this.transformCount; ++transform)
+        {
+            final long transformedOwnBoard = this.transform(ownBoard, transform);
+            final int comparison = Long.compareUnsigned(transformedOwnBoard, canonicalOwnBoard);
+            if (comparison <= 0)
+            {
+                final long transformedOtherBoard = this.transform(otherBoard, transform);
+                if (comparison < 0 || Long.compareUnsigned(transformedOtherBoard, canonicalOtherBoard) < 0)
+                {
+                    result = transform;
+                    canonicalOwnBoard = transformedOwnBoard;
+                    canonicalOtherBoard = transformedOtherBoard;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the Zobrist hash of the position that the provided moves reach after the provided
+     * transform is applied to every move. X made the moves at even indexes and O made the moves at
+     * odd indexes.
+     * @param moves The cell index of every move in the order that they were made.
+     * @param moveCount The number of moves at the start of moves that were made.
+     * @param transform The transform to apply.
+     * @return The Zobrist hash of the transformed position.
+     */
+    public long getHash(int[] moves, int moveCount, int transform)
+    {
+        PreCondition.assertNotNull(moves, "moves");
+        PreCondition.assertBetween(0, moveCount, moves.length, "moveCount");
+        PreCondition.assertBetween(0, transform, this.transformCount - 1, "transform");
+
+        final int[] cellTransform = this.cellTransforms[transform];
+        long result = 0;
+        for (int moveIndex = 0; moveIndex < moveCount; ++moveIndex)
+        {
+            result ^= this.geometry.getZobristKey(moveIndex & 1, cellTransform[moves[moveIndex]]);
+        }
+        return result;
+    }
+
+    /**
+     * Get the transform that maps the position that the provided moves reach to its canonical
+     * form. The canonical form is the transformed position with the smallest Zobrist hash, so it
+     * only depends on which cells each player has taken and not on the order of the moves. Unlike
+     * getCanonicalTransform(long,long), this works on every board.
+     * @param moves The cell index of every move in the order that they were made.
+     * @param moveCount The number of moves at the start of moves that were made.
+     * @return The transform that maps the position to its canonical form.
+     */
+    public int getCanonicalTransform(int[] moves, int moveCount)
+    {
+        int result = QubTicTacToeSymmetry.identityTransform;
+        long canonicalHash = this.getHash(moves, moveCount, QubTicTacToeSymmetry.identityTransform);
+        for (int transform = 1; transform < this.transformCount; ++transform)
+        {
+            final long hash = this.getHash(moves, moveCount, transform);
+            if (Long.compareUnsigned(hash, canonicalHash) < 0)
+            {
+                result = transform;
+                canonicalHash = hash;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,670 @@
+package qub;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The game-theoretic value and distance to the end of every reachable position on a small board,
+ * generated by retrograde analysis. This generalizes QubTicTacToeSolvedTable to any board with at
+ * most maximumCellCount cells, such as 4x4.
+ * <p>
+ * Positions are indexed by their base-3 encoding (0 for an empty cell, 1 for X and 2 for O, with
+ * cell 0 as the least significant digit). This is a perfect hash of every board, so a lookup is a
+ * single buffer read, at the cost of also reserving entries for boards that can't be reached. Each
+ * entry is one byte that holds the position's value in its top two bits and its distance to the
+ * end of the game in its low six bits. An entry of 0 means that the position isn't in the table,
+ * either because it can't be reached in a legal game or because the game is already over.
+ * <p>
+ * Adding a piece to a position always moves it to the next level (the number of pieces on the
+ * board), so the table is generated one level at a time from the full boards back to the empty
+ * board. Every position on a level only depends on the level above it, so each level is split
+ * into index ranges that are solved in parallel.
+ * <p>
+ * The table has 3^cellCount entries, so it grows by 3x for every extra cell. 4x4 needs 43 MB, and
+ * maximumCellCount is the largest board whose table fits in a single memory-mapped region of up to
+ * 2 GB. A 5x5 table would need 3^25 bytes (847 GB), which is why 5x5 boards aren't supported.
+ */
+public class QubTicTacToeTablebase
+{
+    /**
+     * The largest number of cells that a tablebase's board can have.
+     */
+    public static final int maximumCellCount = 19;
+
+    private static final int headerSize = 8;
+    private static final byte[] magic = { 'Q', 'T', 'T', 'E' };
+    private static final byte version = 1;
+
+    /**
+     * The number of consecutive indexes that a generating thread takes at a time.
+     */
+    private static final int chunkSize = 1 << 16;
+
+    /**
+     * The number of low cells whose base-3 values are in lowTernaryValues. The remaining cells'
+     * values are in highTernaryValues.
+     */
+    private static final int lowCellCount = 10;
+
+    private static final int winValue = 1;
+    private static final int drawValue = 2;
+    private static final int lossValue = 3;
+
+    private final ByteBuffer buffer;
+    private final QubTicTacToeGeometry geometry;
+    private final int[] lowTernaryValues;
+    private final int[] highTernaryValues;
+    private final int highDigit;
+
+    private QubTicTacToeTablebase(ByteBuffer buffer, QubTicTacToeGeometry geometry)
+    {
+        PreCondition.assertNotNull(buffer, "buffer");
+        PreCondition.assertNotNull(geometry, "geometry");
+        PreCondition.assertTrue(QubTicTacToeTablebase.supports(geometry), "QubTicTacToeTablebase.supports(geometry)");
+
+        this.buffer = buffer;
+        this.geometry = geometry;
+
+        final int cellCount = geometry.getCellCount();
+        final int lowCellCount = Math.min(cellCount, QubTicTacToeTablebase.lowCellCount);
+        this.lowTernaryValues = QubTicTacToeTablebase.createTernaryValues(lowCellCount);
+        this.highTernaryValues = QubTicTacToeTablebase.createTernaryValues(cellCount - lowCellCount);
+        this.highDigit = (int)QubTicTacToeTablebase.getPower(lowCellCount);
+    }
+
+    /**
+     * Get the base-3 value of every board with the provided number of cells, indexed by the
+     * board's bitmask.
+     */
+    private static int[] createTernaryValues(int cellCount)
+    {
+        final int[] result = new int[1 << cellCount];
+        for (int board = 0; board < result.length; ++board)
+        {
+            int value = 0;
+            int digit = 1;
+            for (int cellIndex = 0; cellIndex < cellCount; ++cellIndex)
+            {
+                if ((board & (1 << cellIndex)) != 0)
+                {
+                    value += digit;
+                }
+                digit *= 3;
+            }
+            result[board] = value;
+        }
+        return result;
+    }
+
+    /**
+     * Get 3 to the power of the provided exponent.
+     */
+    private static long getPower(int exponent)
+    {
+        long result = 1;
+        for (int index = 0; index < exponent; ++index)
+        {
+            result *= 3;
+        }
+        return result;
+    }
+
+    /**
+     * Get whether a tablebase can be generated for the provided geometry.
+     * @param geometry The geometry to check.
+     * @return Whether a tablebase can be generated for the provided geometry.
+     */
+    public static boolean supports(QubTicTacToeGeometry geometry)
+    {
+        PreCondition.assertNotNull(geometry, "geometry");
+
+        return geometry.getCellCount() <= QubTicTacToeTablebase.maximumCellCount;
+    }
+
+    /**
+     * Get the number of entries in the tablebase of the provided geometry.
+     * @param geometry The geometry of the tablebase's board.
+     * @return The number of entries in the tablebase of the provided geometry.
+     */
+    public static long getPositionCount(QubTicTacToeGeometry geometry)
+    {
+        PreCondition.assertTrue(QubTicTacToeTablebase.supports(geometry), "QubTicTacToeTablebase.supports(geometry)");
+
+        return QubTicTacToeTablebase.getPower(geometry.getCellCount());
+    }
+
+    /**
+     * Get the size in bytes of the tablebase file of the provided geometry.
+     * @param geometry The geometry of the tablebase's board.
+     * @return The size in bytes of the tablebase file of the provided geometry.
+     */
+    public static long getFileSize(QubTicTacToeGeometry geometry)
+    {
+        return QubTicTacToeTablebase.headerSize + QubTicTacToeTablebase.getPositionCount(geometry);
+    }
+
+    /**
+     * Generate the tablebase of the provided geometry in memory.
+     * @param geometry The geometry of the tablebase's board.
+     * @param threadCount The number of threads to generate the tablebase with.
+     * @return The generated tablebase.
+     */
+    public static QubTicTacToeTablebase create(QubTicTacToeGeometry geometry, int threadCount)
+    {
+        PreCondition.assertTrue(QubTicTacToeTablebase.supports(geometry), "QubTicTacToeTablebase.supports(geometry)");
+        PreCondition.assertGreaterThanOrEqualTo(threadCount, 1, "threadCount");
+
+        final ByteBuffer buffer = ByteBuffer.allocate((int)QubTicTacToeTablebase.getFileSize(geometry));
+        QubTicTacToeTablebase.generate(geometry, buffer, threadCount);
+        return new QubTicTacToeTablebase(buffer, geometry);
+    }
+
+    /**
+     * Generate the tablebase of the provided geometry directly into a memory-mapped file.
+     * @param geometry The geometry of the tablebase's board.
+     * @param filePath The path of the file to write the tablebase to.
+     * @param threadCount The number of threads to generate the tablebase with.
+     * @return The generated tablebase, which stays mapped to the file.
+     */
+    public static Result<QubTicTacToeTablebase> create(QubTicTacToeGeometry geometry, String filePath, int threadCount)
+    {
+        PreCondition.assertNotNullAndNotEmpty(filePath, "filePath");
+
+        return QubTicTacToeTablebase.create(geometry, Paths.get(filePath), threadCount);
+    }
+
+    /**
+     * Generate the tablebase of the provided geometry directly into a memory-mapped file, so that
+     * the table never has to fit on the heap.
+     * @param geometry The geometry of the tablebase's board.
+     * @param filePath The path of the file to write the tablebase to.
+     * @param threadCount The number of threads to generate the tablebase with.
+     * @return The generated tablebase, which stays mapped to the file.
+     */
+    public static Result<QubTicTacToeTablebase> create(QubTicTacToeGeometry geometry, Path filePath, int threadCount)
+    {
+        PreCondition.assertTrue(QubTicTacToeTablebase.supports(geometry), "QubTicTacToeTablebase.supports(geometry)");
+        PreCondition.assertNotNull(filePath, "filePath");
+        PreCondition.assertGreaterThanOrEqualTo(threadCount, 1, "threadCount");
+
+        Result<QubTicTacToeTablebase> result;
+        try (final FileChannel channel = FileChannel.open(filePath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, QubTicTacToeTablebase.getFileSize(geometry));
+            QubTicTacToeTablebase.generate(geometry, buffer, threadCount);
+            buffer.force();
+            result = Result.success(new QubTicTacToeTablebase(buffer, geometry));
+        }
+        catch (IOException e)
+        {
+            result = Result.error(e);
+        }
+        return result;
+    }
+
+    /**
+     * Memory-map the tablebase that is stored in the file at the provided path.
+     * @param filePath The path to the file that contains the tablebase.
+     * @return The memory-mapped tablebase.
+     */
+    public static Result<QubTicTacToeTablebase> open(String filePath)
+    {
+        PreCondition.assertNotNullAndNotEmpty(filePath, "filePath");
+
+        return QubTicTacToeTablebase.open(Paths.get(filePath));
+    }
+
+    /**
+     * Memory-map the tablebase that is stored in the file at the provided path. Lookups read
+     * directly from the mapped file, so only the pages of the positions that are looked up are
+     * loaded.
+     * @param filePath The path to the file that contains the tablebase.
+     * @return The memory-mapped tablebase.
+     */
+    public static Result<QubTicTacToeTablebase> open(Path filePath)
+    {
+        PreCondition.assertNotNull(filePath, "filePath");
+
+        Result<QubTicTacToeTablebase> result;
+        try (final FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ))
+        {
+            final long fileSize = channel.size();
+            if (fileSize < QubTicTacToeTablebase.headerSize)
+            {
+                throw new IOException(filePath + " is not a tablebase.");
+            }
+
+            final MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, QubTicTacToeTablebase.headerSize);
+            for (int index = 0; index < QubTicTacToeTablebase.magic.length; ++index)
+            {
+                if (header.get(index) != QubTicTacToeTablebase.magic[index])
+                {
+                    throw new IOException(filePath + " is not a tablebase.");
+                }
+            }
+            if (header.get(4) != QubTicTacToeTablebase.version)
+            {
+                throw new IOException(filePath + " has an unsupported tablebase version.");
+            }
+
+            final int width = header.get(5);
+            final int height = header.get(6);
+            final int winLength = header.get(7);
+            if (width < 1 || height < 1 || winLength < 1 || winLength > Math.max(width, height) || width * height > QubTicTacToeTablebase.maximumCellCount)
+            {
+                throw new IOException(filePath + " has an invalid board size.");
+            }
+
+            final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create(width, height, winLength);
+            if (fileSize != QubTicTacToeTablebase.getFileSize(geometry))
+            {
+                throw new IOException(filePath + " is not a complete tablebase.");
+            }
+            result = Result.success(new QubTicTacToeTablebase(channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize), geometry));
+        }
+        catch (IOException e)
+        {
+            result = Result.error(e);
+        }
+        return result;
+    }
+
+    /**
+     * Write the header and every entry of the tablebase of the provided geometry into the provided
+     * buffer.
+     */
+    private static void generate(QubTicTacToeGeometry geometry, ByteBuffer buffer, int threadCount)
+    {
+        buffer.put(0, QubTicTacToeTablebase.magic[0]);
+        buffer.put(1, QubTicTacToeTablebase.magic[1]);
+        buffer.put(2, QubTicTacToeTablebase.magic[2]);
+        buffer.put(3, QubTicTacToeTablebase.magic[3]);
+        buffer.put(4, QubTicTacToeTablebase.version);
+        buffer.put(5, (byte)geometry.getWidth());
+        buffer.put(6, (byte)geometry.getHeight());
+        buffer.put(7, (byte)geometry.getWinLength());
+
+        final long positionCount = QubTicTacToeTablebase.getPositionCount(geometry);
+        final long chunkCount = (positionCount + QubTicTacToeTablebase.chunkSize - 1) / QubTicTacToeTablebase.chunkSize;
+        final int workerCount = (int)Math.max(1, Math.min(threadCount, chunkCount));
+
+        final ForkJoinPool pool = new ForkJoinPool(workerCount);
+        try
+        {
+            for (int level = geometry.getCellCount(); level >= 0; --level)
+            {
+                final int currentLevel = level;
+                final AtomicLong nextChunk = new AtomicLong();
+                final List<ForkJoinTask<?>> workers = List.create();
+                for (int workerIndex = 0; workerIndex < workerCount; ++workerIndex)
+                {
+                    workers.add(pool.submit(() ->
+                    {
+                        long chunkIndex = nextChunk.getAndIncrement();
+                        while (chunkIndex < chunkCount)
+                        {
+                            final long startIndex = chunkIndex * QubTicTacToeTablebase.chunkSize;
+                            final long endIndex = Math.min(positionCount, startIndex + QubTicTacToeTablebase.chunkSize);
+                            QubTicTacToeTablebase.solveLevel(geometry, buffer, currentLevel, startIndex, endIndex);
+                            chunkIndex = nextChunk.getAndIncrement();
+                        }
+                    }));
+                }
+                // Joining every worker before the next level starts makes this level's entries
+                // visible to the threads that solve the level below it.
+                for (final ForkJoinTask<?> worker : workers)
+                {
+                    worker.join();
+                }
+            }
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+        try
+        {
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Solve every position with the provided number of pieces whose index is in the provided
+     * range. Every position with one more piece must already be solved.
+     */
+    private static void solveLevel(QubTicTacToeGeometry geometry, ByteBuffer buffer, int level, long startIndex, long endIndex)
+    {
+        final int cellCount = geometry.getCellCount();
+        final long fullBoard = (1L << cellCount) - 1;
+        final long[] winLineMasks = geometry.getWinLineMasks();
+        final long[] powers = new long[cellCount];
+        for (int cellIndex = 0; cellIndex < cellCount; ++cellIndex)
+        {
+            powers[cellIndex] = QubTicTacToeTablebase.getPower(cellIndex);
+        }
+
+        // Decode the first index, and then step through the range like an odometer so that each
+        // index only changes the boards by the cells that carried.
+        long xBoard = 0;
+        long oBoard = 0;
+        long remainder = startIndex;
+        for (int cellIndex = 0; cellIndex < cellCount; ++cellIndex)
+        {
+            final long digit = remainder % 3;
+            if (digit == 1)
+            {
+                xBoard |= 1L << cellIndex;
+            }
+            else if (digit == 2)
+            {
+                oBoard |= 1L << cellIndex;
+            }
+            remainder /= 3;
+        }
+
+        for (long index = startIndex; index < endIndex; ++index)
+        {
+            final int xCount = Long.bitCount(xBoard);
+            final int oCount = Long.bitCount(oBoard);
+            if (xCount + oCount == level &&
+                (xCount == oCount || xCount == oCount + 1) &&
+                !QubTicTacToeTablebase.hasLine(xBoard, winLineMasks) &&
+                !QubTicTacToeTablebase.hasLine(oBoard, winLineMasks))
+            {
+                final boolean xToMove = xCount == oCount;
+                final long ownBoard = xToMove ? xBoard : oBoard;
+                final long ownDigit = xToMove ? 1 : 2;
+                final long emptyCells = fullBoard & ~(xBoard | oBoard);
+
+                int bestValue = QubTicTacToeTablebase.drawValue;
+                int bestDistance = 0;
+                boolean hasBestMove = false;
+                for (long remainingCells = emptyCells; remainingCells != 0; remainingCells &= remainingCells - 1)
+                {
+                    final int cellIndex = Long.numberOfTrailingZeros(remainingCells);
+
+                    int value;
+                    int distance;
+                    if (geometry.isWinningMove(ownBoard | (1L << cellIndex), cellIndex))
+                    {
+                        value = QubTicTacToeTablebase.winValue;
+                        distance = 1;
+                    }
+                    else
+                    {
+                        final int childEntry = buffer.get((int)(QubTicTacToeTablebase.headerSize + index + (ownDigit * powers[cellIndex]))) & 0xFF;
+                        value = QubTicTacToeTablebase.negate(QubTicTacToeTablebase.getEntryValue(childEntry));
+                        distance = QubTicTacToeTablebase.getEntryDistance(childEntry) + 1;
+                    }
+
+                    if (!hasBestMove || QubTicTacToeTablebase.isBetter(value, distance, bestValue, bestDistance))
+                    {
+                        bestValue = value;
+                        bestDistance = distance;
+                        hasBestMove = true;
+                    }
+                }
+                buffer.put((int)(QubTicTacToeTablebase.headerSize + index), (byte)QubTicTacToeTablebase.createEntry(bestValue, bestDistance));
+            }
+
+            int cellIndex = 0;
+            boolean carry = true;
+            while (carry && cellIndex < cellCount)
+            {
+                final long cell = 1L << cellIndex;
+                if ((xBoard & cell) != 0)
+                {
+                    xBoard &= ~cell;
+                    oBoard |= cell;
+                    carry = false;
+                }
+                else if ((oBoard & cell) != 0)
+                {
+                    oBoard &= ~cell;
+                    ++cellIndex;
+                }
+                else
+                {
+                    xBoard |= cell;
+                    carry = false;
+                }
+            }
+        }
+    }
+
+    private static boolean hasLine(long board, long[] winLineMasks)
+    {
+        boolean result = false;
+        for (final long winLineMask : winLineMasks)
+        {
+            if ((board & winLineMask) == winLineMask)
+            {
+                result = true;
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the value of a position for the player who moved into it from the value for the player
+     * to move.
+     */
+    private static int negate(int value)
+    {
+        return value == QubTicTacToeTablebase.winValue
+            ? QubTicTacToeTablebase.lossValue
+            : value == QubTicTacToeTablebase.lossValue ? QubTicTacToeTablebase.winValue : QubTicTacToeTablebase.drawValue;
+    }
+
+    /**
+     * Get whether a move with the provided value and distance to the end of the game is better
+     * than the current best move. Faster wins and slower losses are better.
+     */
+    private static boolean isBetter(int value, int distance, int bestValue, int bestDistance)
+    {
+        final int rank = QubTicTacToeTablebase.getValueRank(value);
+        final int bestRank = QubTicTacToeTablebase.getValueRank(bestValue);
+        return rank > bestRank ||
+            (rank == bestRank && value == QubTicTacToeTablebase.winValue && distance < bestDistance) ||
+            (rank == bestRank && value == QubTicTacToeTablebase.lossValue && distance > bestDistance);
+    }
+
+    private static int getValueRank(int value)
+    {
+        return value == QubTicTacToeTablebase.winValue ? 2 : value == QubTicTacToeTablebase.drawValue ? 1 : 0;
+    }
+
+    private static int createEntry(int value, int distance)
+    {
+        return (value << 6) | distance;
+    }
+
+    private static int getEntryValue(int entry)
+    {
+        return entry >>> 6;
+    }
+
+    private static int getEntryDistance(int entry)
+    {
+        return entry & 0x3F;
+    }
+
+    /**
+     * Get the geometry of the board that this tablebase is for.
+     * @return The geometry of the board that this tablebase is for.
+     */
+    public QubTicTacToeGeometry getGeometry()
+    {
+        return this.geometry;
+    }
+
+    /**
+     * Get the base-3 index of the position with the provided boards.
+     * @param xBoard The bitmask of the cells that X has taken.
+     * @param oBoard The bitmask of the cells that O has taken.
+     * @return The base-3 index of the position.
+     */
+    public long getIndex(long xBoard, long oBoard)
+    {
+        final int lowMask = this.lowTernaryValues.length - 1;
+        final int lowCellCount = Integer.numberOfTrailingZeros(this.lowTernaryValues.length);
+        final long xValue = this.lowTernaryValues[(int)(xBoard & lowMask)] + ((long)this.highTernaryValues[(int)(xBoard >>> lowCellCount)] * this.highDigit);
+        final long oValue = this.lowTernaryValues[(int)(oBoard & lowMask)] + ((long)this.highTernaryValues[(int)(oBoard >>> lowCellCount)] * this.highDigit);
+        return xValue + (2 * oValue);
+    }
+
+    private int getEntry(long xBoard, long oBoard)
+    {
+        return this.buffer.get((int)(QubTicTacToeTablebase.headerSize + this.getIndex(xBoard, oBoard))) & 0xFF;
+    }
+
+    /**
+     * Get whether the provided position is in the tablebase. Positions that can't be reached in a
+     * legal game and positions where the game is already over aren't in the tablebase.
+     * @param xBoard The bitmask of the cells that X has taken.
+     * @param oBoard The bitmask of the cells that O has taken.
+     * @return Whether the provided position is in the tablebase.
+     */
+    public boolean contains(long xBoard, long oBoard)
+    {
+        return (xBoard & oBoard) == 0 &&
+            ((xBoard | oBoard) >>> this.geometry.getCellCount()) == 0 &&
+            this.getEntry(xBoard, oBoard) != 0;
+    }
+
+    /**
+     * Get the value of the provided position for the player to move: QubTicTacToeSolvedTable.win,
+     * QubTicTacToeSolvedTable.draw, or QubTicTacToeSolvedTable.loss.
+     * @param xBoard The bitmask of the cells that X has taken.
+     * @param oBoard The bitmask of the cells that O has taken.
+     * @return The value of the provided position for the player to move.
+     */
+    public int getValue(long xBoard, long oBoard)
+    {
+        PreCondition.assertTrue(this.contains(xBoard, oBoard), "this.contains(xBoard, oBoard)");
+
+        final int value = QubTicTacToeTablebase.getEntryValue(this.getEntry(xBoard, oBoard));
+        return value == QubTicTacToeTablebase.winValue
+            ? QubTicTacToeSolvedTable.win
+            : value == QubTicTacToeTablebase.lossValue ? QubTicTacToeSolvedTable.loss : QubTicTacToeSolvedTable.draw;
+    }
+
+    /**
+     * Get the number of moves that are left in the game with perfect play from the provided
+     * position.
+     * @param xBoard The bitmask of the cells that X has taken.
+     * @param oBoard The bitmask of the cells that O has taken.
+     * @return The number of moves that are left in the game with perfect play.
+     */
+    public int getDistanceToEnd(long xBoard, long oBoard)
+    {
+        PreCondition.assertTrue(this.contains(xBoard, oBoard), "this.contains(xBoard, oBoard)");
+
+        return QubTicTacToeTablebase.getEntryDistance(this.getEntry(xBoard, oBoard));
+    }
+
+    /**
+     * Get the best move for the player to move in the provided position. The move isn't stored, so
+     * this looks up the position after each empty cell is taken and returns the first cell with the
+     * best value, preferring faster wins and slower losses.
+     * @param xBoard The bitmask of the cells that X has taken.
+     * @param oBoard The bitmask of the cells that O has taken.
+     * @return The index of the cell that the player to move should take, or -1 if the position
+     * isn't in the tablebase or the board is full.
+     */
+    public int getBestMove(long xBoard, long oBoard)
+    {
+        int result = -1;
+        if (this.contains(xBoard, oBoard))
+        {
+            final boolean xToMove = Long.bitCount(xBoard) == Long.bitCount(oBoard);
+            final long ownBoard = xToMove ? xBoard : oBoard;
+            final long emptyCells = ((1L << this.geometry.getCellCount()) - 1) & ~(xBoard | oBoard);
+
+            int bestValue = QubTicTacToeTablebase.drawValue;
+            int bestDistance = 0;
+            for (long remainingCells = emptyCells; remainingCells != 0; remainingCells &= remainingCells - 1)
+            {
+                final int cellIndex = Long.numberOfTrailingZeros(remainingCells);
+                final long cell = 1L << cellIndex;
+
+                int value;
+                int distance;
+                if (this.geometry.isWinningMove(ownBoard | cell, cellIndex))
+                {
+                    value = QubTicTacToeTablebase.winValue;
+                    distance = 1;
+                }
+                else
+                {
+                    final int childEntry = xToMove ? this.getEntry(xBoard | cell, oBoard) : this.getEntry(xBoard, oBoard | cell);
+                    value = QubTicTacToeTablebase.negate(QubTicTacToeTablebase.getEntryValue(childEntry));
+                    distance = QubTicTacToeTablebase.getEntryDistance(childEntry) + 1;
+                }
+
+                if (result == -1 || QubTicTacToeTablebase.isBetter(value, distance, bestValue, bestDistance))
+                {
+                    bestValue = value;
+                    bestDistance = distance;
+                    result = cellIndex;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the best move for the current player of the provided model.
+     * @param model The model of the game that is being played.
+     * @return The index of the cell that the current player should take, or -1 if the position
+     * isn't in the tablebase.
+     */
+    public int getBestMove(QubTicTacToeModel model)
+    {
+        PreCondition.assertNotNull(model, "model");
+        PreCondition.assertSame(this.geometry, model.getGeometry(), "model.getGeometry()");
+
+        return model.isGameDone() ? -1 : this.getBestMove(model.getPlayerBoard("X"), model.getPlayerBoard("O"));
+    }
+
+    /**
+     * Write this tablebase to the provided file.
+     * @param filePath The path to the file to write.
+     * @return This tablebase once it has been written.
+     */
+    public Result<QubTicTacToeTablebase> save(Path filePath)
+    {
+        PreCondition.assertNotNull(filePath, "filePath");
+
+        Result<QubTicTacToeTablebase> result;
+        try (final FileChannel channel = FileChannel.open(filePath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            final ByteBuffer contents = this.buffer.duplicate();
+            contents.clear();
+            while (contents.hasRemaining())
+            {
+                channel.write(contents);
+            }
+            result = Result.success(this);
+        }
+        catch (IOException e)
+        {
+            result = Result.error(e);
+        }
+        return result;
+    }
+}
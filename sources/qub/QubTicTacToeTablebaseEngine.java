@@ -0,0 +1,77 @@
+package qub;
+
+/**
+ * A QubTicTacToeEngine that plays the moves of a QubTicTacToeTablebase for the positions that are
+ * in the tablebase, and asks another engine for every other move.
+ */
+public class QubTicTacToeTablebaseEngine implements QubTicTacToeEngine
+{
+    private final QubTicTacToeTablebase tablebase;
+    private final QubTicTacToeEngine engine;
+    private long tablebaseMoveCount;
+
+    private QubTicTacToeTablebaseEngine(QubTicTacToeTablebase tablebase, QubTicTacToeEngine engine)
+    {
+        PreCondition.assertNotNull(tablebase, "tablebase");
+        PreCondition.assertNotNull(engine, "engine");
+
+        this.tablebase = tablebase;
+        this.engine = engine;
+    }
+
+    /**
+     * Create a new engine that looks up moves in the provided tablebase before it asks the provided
+     * engine.
+     * @param tablebase The tablebase to look up moves in.
+     * @param engine The engine to ask for the moves that aren't in the tablebase.
+     * @return The new engine.
+     */
+    public static QubTicTacToeTablebaseEngine create(QubTicTacToeTablebase tablebase, QubTicTacToeEngine engine)
+    {
+        return new QubTicTacToeTablebaseEngine(tablebase, engine);
+    }
+
+    /**
+     * Get the tablebase that this engine looks up moves in.
+     * @return The tablebase that this engine looks up moves in.
+     */
+    public QubTicTacToeTablebase getTablebase()
+    {
+        return this.tablebase;
+    }
+
+    /**
+     * Get the engine that this engine asks for the moves that aren't in the tablebase.
+     * @return The engine that this engine asks for the moves that aren't in the tablebase.
+     */
+    public QubTicTacToeEngine getEngine()
+    {
+        return this.engine;
+    }
+
+    /**
+     * Get the number of moves that this engine found in the tablebase.
+     * @return The number of moves that this engine found in the tablebase.
+     */
+    public long getTablebaseMoveCount()
+    {
+        return this.tablebaseMoveCount;
+    }
+
+    @Override
+    public int chooseMove(QubTicTacToeModel model)
+    {
+        PreCondition.assertNotNull(model, "model");
+
+        int result = this.tablebase.getBestMove(model);
+        if (result == -1)
+        {
+            result = this.engine.chooseMove(model);
+        }
+        else
+        {
+            ++this.tablebaseMoveCount;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,530 @@
+package qub;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Plays a tournament between a roster of engines without rendering the board or reading any
+ * input. In each round the players are split into pairings, and the two players of every pairing
+ * play a fixed number of games against each other, alternating who plays X. A round-robin
+ * tournament pairs every player with every other player in every round, so all of its rounds are
+ * played as one batch of games. A Swiss tournament pairs players with similar scores who have met
+ * the fewest times, so each round is only paired once the round before it has finished.
+ * <p>
+ * The games of a batch are handed out to a fixed number of worker threads one at a time, so
+ * threads that draw short games keep taking more of them. Every worker creates its own engine for
+ * each player the first time it needs one and keeps it for the rest of the tournament, because
+ * engines keep per-search state and aren't safe to share between threads.
+ */
+public class QubTicTacToeTournament
+{
+    /**
+     * The pairing that pairs every player with every other player in every round.
+     */
+    public static final String roundRobin = "round-robin";
+
+    /**
+     * The pairing that pairs players with similar scores who have met the fewest times.
+     */
+    public static final String swiss = "swiss";
+
+    /**
+     * The number of rounds that a tournament plays if no round count is set.
+     */
+    public static final int defaultRoundCount = 1;
+
+    /**
+     * The number of games that each pairing plays in a round if no game count is set.
+     */
+    public static final int defaultGamesPerPairing = 2;
+
+    private final QubTicTacToeGeometry geometry;
+    private final String[] players;
+    private final int threadCount;
+    private String pairing;
+    private int roundCount;
+    private int gamesPerPairing;
+    private QubTicTacToeGameArchive archive;
+    private QubTicTacToeOpeningBook book;
+    private QubTicTacToeTablebase tablebase;
+    private QubTicTacToeMetrics metrics;
+
+    private QubTicTacToeTournament(QubTicTacToeGeometry geometry, Iterable<String> players, int threadCount)
+    {
+        PreCondition.assertNotNull(geometry, "geometry");
+        PreCondition.assertNotNull(players, "players");
+        PreCondition.assertGreaterThanOrEqualTo(players.getCount(), 2, "players.getCount()");
+        PreCondition.assertGreaterThanOrEqualTo(threadCount, 1, "threadCount");
+
+        this.geometry = geometry;
+        this.players = new String[players.getCount()];
+        int playerIndex = 0;
+        for (final String player : players)
+        {
+            PreCondition.assertNull(QubTicTacToeEngines.getSpecificationError(player, geometry), "QubTicTacToeEngines.getSpecificationError(player, geometry)");
+            PreCondition.assertNotEqual(QubTicTacToeEngines.human, QubTicTacToeEngines.getEngineName(player), "QubTicTacToeEngines.getEngineName(player)");
+
+            this.players[playerIndex] = player;
+            ++playerIndex;
+        }
+        this.threadCount = threadCount;
+        this.pairing = QubTicTacToeTournament.roundRobin;
+        this.roundCount = QubTicTacToeTournament.defaultRoundCount;
+        this.gamesPerPairing = QubTicTacToeTournament.defaultGamesPerPairing;
+    }
+
+    /**
+     * Create a new tournament between the engines that the provided player specifications
+     * describe.
+     * @param geometry The geometry of the board that the games will be played on.
+     * @param players The specifications of the engines that will play. The same specification can
+     * be entered more than once, in which case each entry is rated as a separate player.
+     * @param threadCount The number of games to play at the same time.
+     * @return The new tournament.
+     */
+    public static QubTicTacToeTournament create(QubTicTacToeGeometry geometry, Iterable<String> players, int threadCount)
+    {
+        return new QubTicTacToeTournament(geometry, players, threadCount);
+    }
+
+    /**
+     * Get whether the provided text is the name of a pairing.
+     * @param pairing The text to check.
+     * @return Whether the provided text is the name of a pairing.
+     */
+    public static boolean isPairing(String pairing)
+    {
+        return QubTicTacToeTournament.roundRobin.equals(pairing) || QubTicTacToeTournament.swiss.equals(pairing);
+    }
+
+    /**
+     * Set how the players are paired in each round.
+     * @param pairing Either roundRobin or swiss.
+     * @return This object for method chaining.
+     */
+    public QubTicTacToeTournament setPairing(String pairing)
+    {
+        PreCondition.assertTrue(QubTicTacToeTournament.isPairing(pairing), "QubTicTacToeTournament.isPairing(pairing)");
+
+        this.pairing = pairing;
+        return this;
+    }
+
+    /**
+     * Set the number of rounds that the tournament plays.
+     * @param roundCount The number of rounds that the tournament plays.
+     * @return This object for method chaining.
+     */
+    public QubTicTacToeTournament setRoundCount(int roundCount)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(roundCount, 1, "roundCount");
+
+        this.roundCount = roundCount;
+        return this;
+    }
+
+    /**
+     * Set the number of games that the two players of each pairing play against each other in a
+     * round.
+     * @param gamesPerPairing The number of games that each pairing plays in a round.
+     * @return This object for method chaining.
+     */
+    public QubTicTacToeTournament setGamesPerPairing(int gamesPerPairing)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(gamesPerPairing, 1, "gamesPerPairing");
+
+        this.gamesPerPairing = gamesPerPairing;
+        return this;
+    }
+
+    /**
+     * Set the archive that every finished game will be appended to.
+     * @param archive The archive to append games to, or null to not record games.
+     * @return This object for method chaining.
+     */
+    public QubTicTacToeTournament setArchive(QubTicTacToeGameArchive archive)
+    {
+        this.archive = archive;
+        return this;
+    }
+
+    /**
+     * Set the opening book that every engine will consult before it searches.
+     * @param book The opening book for the engines to consult, or null to always search.
+     * @return This object for method chaining.
+     */
+    public QubTicTacToeTournament setBook(QubTicTacToeOpeningBook book)
+    {
+        PreCondition.assertTrue(book == null || book.getGeometry() == this.geometry, "book == null || book.getGeometry() == this.geometry");
+
+        this.book = book;
+        return this;
+    }
+
+    /**
+     * Set the tablebase that every engine will consult before it searches.
+     * @param tablebase The tablebase for the engines to consult, or null to always search.
+     * @return This object for method chaining.
+     */
+    public QubTicTacToeTournament setTablebase(QubTicTacToeTablebase tablebase)
+    {
+        PreCondition.assertTrue(tablebase == null || tablebase.getGeometry() == this.geometry, "tablebase == null || tablebase.getGeometry() == this.geometry");
+
+        this.tablebase = tablebase;
+        return this;
+    }
+
+    /**
+     * Set the metrics that every game's engine think and model update times will be recorded in.
+     * @param metrics The metrics to record in, or null to not measure the games.
+     * @return This object for method chaining.
+     */
+    public QubTicTacToeTournament setMetrics(QubTicTacToeMetrics metrics)
+    {
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * Get the number of pairings in each round.
+     * @return The number of pairings in each round.
+     */
+    public int getPairingsPerRound()
+    {
+        final int playerCount = this.players.length;
+        return this.pairing.equals(QubTicTacToeTournament.roundRobin)
+            ? playerCount * (playerCount - 1) / 2
+            : playerCount / 2;
+    }
+
+    /**
+     * Get the number of games that the tournament will play.
+     * @return The number of games that the tournament will play.
+     */
+    public long getGameCount()
+    {
+        return (long)this.roundCount * this.getPairingsPerRound() * this.gamesPerPairing;
+    }
+
+    /**
+     * Play every round of the tournament.
+     * @return The result of the tournament.
+     */
+    public QubTicTacToeTournamentResult run()
+    {
+        return this.run(null);
+    }
+
+    /**
+     * Play every round of the tournament.
+     * @param batchFinished The function to call with the result so far each time a batch of rounds
+     * has finished, or null to not report progress.
+     * @return The result of the tournament.
+     */
+    private QubTicTacToeTournamentResult run(Action1<QubTicTacToeTournamentResult> batchFinished)
+    {
+        final int playerCount = this.players.length;
+        final boolean isRoundRobin = this.pairing.equals(QubTicTacToeTournament.roundRobin);
+        final int roundsPerBatch = isRoundRobin ? this.roundCount : 1;
+        final long gamesPerBatch = (long)roundsPerBatch * this.getPairingsPerRound() * this.gamesPerPairing;
+        final int workerCount = (int)Math.min(this.threadCount, gamesPerBatch);
+        final QubTicTacToeEngine[][] workerEngines = new QubTicTacToeEngine[workerCount][playerCount];
+
+        final long[][] winCounts = new long[playerCount][playerCount];
+        final long[][] drawCounts = new long[playerCount][playerCount];
+        final int[] byeCounts = new int[playerCount];
+        long moveCount = 0;
+        QubTicTacToeTournamentResult result = null;
+
+        final ForkJoinPool pool = new ForkJoinPool(workerCount);
+        final long startTime = System.nanoTime();
+        try
+        {
+            for (int firstRound = 0; firstRound < this.roundCount; firstRound += roundsPerBatch)
+            {
+                final int[][] pairings = isRoundRobin
+                    ? QubTicTacToeTournament.getRoundRobinPairings(playerCount)
+                    : QubTicTacToeTournament.getSwissPairings(winCounts, drawCounts, byeCounts);
+                final int batchFirstRound = firstRound;
+                final AtomicLong nextGame = new AtomicLong();
+
+                final List<ForkJoinTask<long[]>> workers = List.create();
+                for (int workerIndex = 0; workerIndex < workerCount; ++workerIndex)
+                {
+                    final QubTicTacToeEngine[] engines = workerEngines[workerIndex];
+                    workers.add(pool.submit(() -> this.playGames(pairings, batchFirstRound, nextGame, gamesPerBatch, engines)));
+                }
+                for (final ForkJoinTask<long[]> worker : workers)
+                {
+                    final long[] counts = worker.join();
+                    for (int player = 0; player < playerCount; ++player)
+                    {
+                        for (int opponent = 0; opponent < playerCount; ++opponent)
+                        {
+                            winCounts[player][opponent] += counts[player * playerCount + opponent];
+                            drawCounts[player][opponent] += counts[(playerCount + player) * playerCount + opponent];
+                        }
+                    }
+                    moveCount += counts[2 * playerCount * playerCount];
+                }
+
+                result = QubTicTacToeTournamentResult.create(this.players, winCounts, drawCounts, moveCount, workerCount, System.nanoTime() - startTime);
+                if (batchFinished != null)
+                {
+                    batchFinished.run(result);
+                }
+            }
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+        try
+        {
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Get the pairings of a round-robin round, which pair every player with every other player.
+     * @param playerCount The number of players.
+     * @return The pairs of player indexes that play each other.
+     */
+    static int[][] getRoundRobinPairings(int playerCount)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(playerCount, 2, "playerCount");
+
+        final int[][] result = new int[playerCount * (playerCount - 1) / 2][];
+        int pairingIndex = 0;
+        for (int player = 0; player < playerCount; ++player)
+        {
+            for (int opponent = player + 1; opponent < playerCount; ++opponent)
+            {
+                result[pairingIndex] = new int[] { player, opponent };
+                ++pairingIndex;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the pairings of the next Swiss round. The players are ranked by score, and the highest
+     * ranked player who hasn't been paired yet is paired with the next highest ranked player that
+     * they have played the fewest games against. If there is an odd number of players, then the
+     * lowest ranked player with the fewest byes sits out the round.
+     * @param winCounts The number of games that each player has won against each other player.
+     * @param drawCounts The number of games that each pair of players has drawn.
+     * @param byeCounts The number of rounds that each player has sat out, which is updated with
+     * this round's bye.
+     * @return The pairs of player indexes that play each other, with the higher ranked player
+     * first.
+     */
+    static int[][] getSwissPairings(long[][] winCounts, long[][] drawCounts, int[] byeCounts)
+    {
+        PreCondition.assertNotNull(winCounts, "winCounts");
+        PreCondition.assertGreaterThanOrEqualTo(winCounts.length, 2, "winCounts.length");
+        PreCondition.assertNotNull(drawCounts, "drawCounts");
+        PreCondition.assertEqual(winCounts.length, drawCounts.length, "drawCounts.length");
+        PreCondition.assertNotNull(byeCounts, "byeCounts");
+        PreCondition.assertEqual(winCounts.length, byeCounts.length, "byeCounts.length");
+
+        final int playerCount = winCounts.length;
+        final long[] points = new long[playerCount];
+        for (int player = 0; player < playerCount; ++player)
+        {
+            for (int opponent = 0; opponent < playerCount; ++opponent)
+            {
+                points[player] += 2 * winCounts[player][opponent] + drawCounts[player][opponent];
+            }
+        }
+
+        final int[] ranking = new int[playerCount];
+        for (int player = 0; player < playerCount; ++player)
+        {
+            int rank = player;
+            while (rank > 0 && points[ranking[rank - 1]] < points[player])
+            {
+                ranking[rank] = ranking[rank - 1];
+                --rank;
+            }
+            ranking[rank] = player;
+        }
+
+        final boolean[] paired = new boolean[playerCount];
+        if (playerCount % 2 == 1)
+        {
+            int byePlayer = ranking[playerCount - 1];
+            for (int rank = playerCount - 2; rank >= 0; --rank)
+            {
+                if (byeCounts[ranking[rank]] < byeCounts[byePlayer])
+                {
+                    byePlayer = ranking[rank];
+                }
+            }
+            paired[byePlayer] = true;
+            ++byeCounts[byePlayer];
+        }
+
+        final int[][] result = new int[playerCount / 2][];
+        int pairingIndex = 0;
+        for (int rank = 0; rank < playerCount; ++rank)
+        {
+            final int player = ranking[rank];
+            if (!paired[player])
+            {
+                int opponent = -1;
+                long opponentGameCount = Long.MAX_VALUE;
+                for (int opponentRank = rank + 1; opponentRank < playerCount; ++opponentRank)
+                {
+                    final int candidate = ranking[opponentRank];
+                    if (!paired[candidate])
+                    {
+                        final long gameCount = winCounts[player][candidate] + winCounts[candidate][player] + drawCounts[player][candidate];
+                        if (gameCount < opponentGameCount)
+                        {
+                            opponent = candidate;
+                            opponentGameCount = gameCount;
+                        }
+                    }
+                }
+                paired[player] = true;
+                paired[opponent] = true;
+                result[pairingIndex] = new int[] { player, opponent };
+                ++pairingIndex;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Play games until all of the games in the batch have been handed out. Game g of the batch is
+     * game g % gamesPerPairing of pairing (g / gamesPerPairing) % pairings.length in round
+     * firstRound + g / (pairings.length * gamesPerPairing), and the first player of the pairing
+     * plays X when the game's number across all of the pairing's rounds is even.
+     * @return The win counts of each player against each other player, followed by the draw counts
+     * of each pair of players, followed by the number of moves that were made.
+     */
+    private long[] playGames(int[][] pairings, int firstRound, AtomicLong nextGame, long gameCount, QubTicTacToeEngine[] engines)
+    {
+        final int playerCount = this.players.length;
+        final long[] result = new long[2 * playerCount * playerCount + 1];
+        long game;
+        while ((game = nextGame.getAndIncrement()) < gameCount)
+        {
+            final int[] pairing = pairings[(int)((game / this.gamesPerPairing) % pairings.length)];
+            final long round = firstRound + game / ((long)pairings.length * this.gamesPerPairing);
+            final boolean firstPlaysX = (round * this.gamesPerPairing + game % this.gamesPerPairing) % 2 == 0;
+            final int xPlayer = firstPlaysX ? pairing[0] : pairing[1];
+            final int oPlayer = firstPlaysX ? pairing[1] : pairing[0];
+
+            final QubTicTacToeModel model = QubTicTacToeSimulation.playGame(this.geometry, this.getEngine(engines, xPlayer), this.getEngine(engines, oPlayer), this.metrics);
+
+            if (!model.hasWinner())
+            {
+                ++result[(playerCount + xPlayer) * playerCount + oPlayer];
+                ++result[(playerCount + oPlayer) * playerCount + xPlayer];
+            }
+            else if (model.getWinner().equals("X"))
+            {
+                ++result[xPlayer * playerCount + oPlayer];
+            }
+            else
+            {
+                ++result[oPlayer * playerCount + xPlayer];
+            }
+            result[2 * playerCount * playerCount] += model.getFilledCellCount();
+
+            if (this.archive != null)
+            {
+                this.archive.append(QubTicTacToeGameRecord.create(model, this.players[xPlayer], this.players[oPlayer]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the provided worker's engine for the provided player, and create it if the worker hasn't
+     * needed it yet.
+     */
+    private QubTicTacToeEngine getEngine(QubTicTacToeEngine[] engines, int player)
+    {
+        if (engines[player] == null)
+        {
+            engines[player] = QubTicTacToeEngines.create(this.players[player], this.geometry, 1, this.book, this.tablebase);
+        }
+        return engines[player];
+    }
+
+    /**
+     * Play the tournament and write the standings.
+     * @param output The stream to write the standings to.
+     */
+    public void writeResults(CharacterWriteStream output)
+    {
+        PreCondition.assertNotNull(output, "output");
+
+        final long gameCount = this.getGameCount();
+        output.writeLine("Playing a " + this.pairing + " tournament of " + this.roundCount + (this.roundCount == 1 ? " round" : " rounds") +
+            " with " + this.gamesPerPairing + (this.gamesPerPairing == 1 ? " game" : " games") + " per pairing on " + this.geometry +
+            " between " + this.players.length + " players...").await();
+
+        final boolean reportRounds = this.pairing.equals(QubTicTacToeTournament.swiss) && this.roundCount > 1;
+        final long gamesPerRound = (long)this.getPairingsPerRound() * this.gamesPerPairing;
+        final QubTicTacToeTournamentResult result = this.run((QubTicTacToeTournamentResult roundResult) ->
+        {
+            if (reportRounds)
+            {
+                final int leader = roundResult.getRanking()[0];
+                output.writeLine(String.format("Round %d of %d: %d of %d games, leader %s (%+.0f Elo)",
+                    roundResult.getGameCount() / gamesPerRound,
+                    this.roundCount,
+                    roundResult.getGameCount(),
+                    gameCount,
+                    roundResult.getPlayer(leader),
+                    roundResult.getElo(leader))).await();
+            }
+        });
+
+        int playerWidth = "Player".length();
+        for (final String player : this.players)
+        {
+            playerWidth = Math.max(playerWidth, player.length());
+        }
+        final String rowFormat = "%4s  %-" + playerWidth + "s  %6s  %6s  %6s  %6s  %6s  %s";
+        output.writeLine(String.format(rowFormat, "Rank", "Player", "Games", "Wins", "Draws", "Losses", "Score", "Elo (95% CI)")).await();
+        final int[] ranking = result.getRanking();
+        for (int rank = 0; rank < ranking.length; ++rank)
+        {
+            final int player = ranking[rank];
+            final long playerGameCount = result.getGameCount(player);
+            output.writeLine(String.format(rowFormat,
+                rank + 1,
+                result.getPlayer(player),
+                playerGameCount,
+                result.getWinCount(player),
+                result.getDrawCount(player),
+                result.getLossCount(player),
+                playerGameCount == 0 ? "-" : String.format("%.1f%%", result.getScore(player) * 100 / playerGameCount),
+                playerGameCount == 0 ? "-" : String.format("%+.0f +/- %.0f", result.getElo(player), result.getEloError(player)))).await();
+        }
+        output.writeLine(String.format("Average game length: %.2f moves", result.getAverageGameLength())).await();
+        output.writeLine(String.format("Threads: %d, Time: %.3fs, Games/second: %.0f",
+            result.getThreadCount(),
+            result.getElapsedNanoseconds() / 1000000000.0,
+            result.getGamesPerSecond())).await();
+        if (this.archive != null)
+        {
+            output.writeLine("Recorded " + result.getGameCount() + " games to " + this.archive.getDataFilePath() + ".").await();
+        }
+    }
+}
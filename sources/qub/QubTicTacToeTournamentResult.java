@@ -0,0 +1,405 @@
+package qub;
+
+import java.util.Arrays;
+
+/**
+ * The result of playing a QubTicTacToeTournament. Each player's Elo rating is the maximum
+ * likelihood Bradley-Terry estimate of all of the games that were played, with half a point for
+ * every draw, and the ratings are shifted so that the average player that has played is rated 0.
+ * Every pair of players that has met is also given one extra draw against each other, so that a
+ * player that has won or lost every game still gets a finite rating.
+ */
+public class QubTicTacToeTournamentResult
+{
+    /**
+     * The number of standard errors on either side of a rating that its 95% confidence interval
+     * covers.
+     */
+    public static final double confidenceZScore = 1.959964;
+
+    private final String[] players;
+    private final long[][] winCounts;
+    private final long[][] drawCounts;
+    private final long moveCount;
+    private final int threadCount;
+    private final long elapsedNanoseconds;
+    private final double[] elos;
+    private final double[] eloErrors;
+
+    private QubTicTacToeTournamentResult(String[] players, long[][] winCounts, long[][] drawCounts, long moveCount, int threadCount, long elapsedNanoseconds)
+    {
+        PreCondition.assertNotNull(players, "players");
+        PreCondition.assertGreaterThanOrEqualTo(players.length, 2, "players.length");
+        PreCondition.assertNotNull(winCounts, "winCounts");
+        PreCondition.assertEqual(players.length, winCounts.length, "winCounts.length");
+        PreCondition.assertNotNull(drawCounts, "drawCounts");
+        PreCondition.assertEqual(players.length, drawCounts.length, "drawCounts.length");
+        PreCondition.assertGreaterThanOrEqualTo(moveCount, 0, "moveCount");
+        PreCondition.assertGreaterThanOrEqualTo(threadCount, 1, "threadCount");
+        PreCondition.assertGreaterThanOrEqualTo(elapsedNanoseconds, 0, "elapsedNanoseconds");
+
+        final int playerCount = players.length;
+        this.players = players.clone();
+        this.winCounts = new long[playerCount][];
+        this.drawCounts = new long[playerCount][];
+        for (int player = 0; player < playerCount; ++player)
+        {
+            this.winCounts[player] = winCounts[player].clone();
+            this.drawCounts[player] = drawCounts[player].clone();
+        }
+        this.moveCount = moveCount;
+        this.threadCount = threadCount;
+        this.elapsedNanoseconds = elapsedNanoseconds;
+        this.elos = new double[playerCount];
+        this.eloErrors = new double[playerCount];
+        this.estimateRatings();
+    }
+
+    /**
+     * Create a new tournament result.
+     * @param players The specifications of the players.
+     * @param winCounts The number of games that each player won against each other player, so
+     * winCounts[a][b] is the number of games that player a won against player b.
+     * @param drawCounts The number of games that each pair of players drew, so drawCounts[a][b] and
+     * drawCounts[b][a] are the same.
+     * @param moveCount The total number of moves that were made across all of the games.
+     * @param threadCount The number of threads that played the games.
+     * @param elapsedNanoseconds The number of nanoseconds that playing the games took.
+     * @return The new tournament result.
+     */
+    public static QubTicTacToeTournamentResult create(String[] players, long[][] winCounts, long[][] drawCounts, long moveCount, int threadCount, long elapsedNanoseconds)
+    {
+        return new QubTicTacToeTournamentResult(players, winCounts, drawCounts, moveCount, threadCount, elapsedNanoseconds);
+    }
+
+    /**
+     * Estimate every player's rating with the minorization-maximization algorithm for the
+     * Bradley-Terry model, and the confidence interval of each rating from the variance of the
+     * player's game scores against the opponents that it met.
+     */
+    private void estimateRatings()
+    {
+        final int playerCount = this.players.length;
+        final double[] scores = new double[playerCount];
+        final double[] gameCounts = new double[playerCount];
+        final double[][] pairGameCounts = new double[playerCount][playerCount];
+        for (int player = 0; player < playerCount; ++player)
+        {
+            for (int opponent = 0; opponent < playerCount; ++opponent)
+            {
+                final long realGameCount = this.getGameCount(player, opponent);
+                if (realGameCount > 0)
+                {
+                    pairGameCounts[player][opponent] = realGameCount + 1;
+                    scores[player] += this.winCounts[player][opponent] + (this.drawCounts[player][opponent] + 1) / 2.0;
+                    gameCounts[player] += realGameCount + 1;
+                }
+            }
+        }
+
+        final double[] strengths = new double[playerCount];
+        Arrays.fill(strengths, 1);
+        final int maximumIterationCount = 10000;
+        boolean converged = false;
+        for (int iteration = 0; iteration < maximumIterationCount && !converged; ++iteration)
+        {
+            final double[] newStrengths = new double[playerCount];
+            double logStrengthSum = 0;
+            int ratedPlayerCount = 0;
+            for (int player = 0; player < playerCount; ++player)
+            {
+                newStrengths[player] = 1;
+                if (gameCounts[player] > 0)
+                {
+                    double denominator = 0;
+                    for (int opponent = 0; opponent < playerCount; ++opponent)
+                    {
+                        if (pairGameCounts[player][opponent] > 0)
+                        {
+                            denominator += pairGameCounts[player][opponent] / (strengths[player] + strengths[opponent]);
+                        }
+                    }
+                    newStrengths[player] = scores[player] / denominator;
+                    logStrengthSum += Math.log(newStrengths[player]);
+                    ++ratedPlayerCount;
+                }
+            }
+
+            final double scale = ratedPlayerCount == 0 ? 1 : Math.exp(logStrengthSum / ratedPlayerCount);
+            converged = true;
+            for (int player = 0; player < playerCount; ++player)
+            {
+                if (gameCounts[player] > 0)
+                {
+                    newStrengths[player] /= scale;
+                    if (Math.abs(Math.log(newStrengths[player] / strengths[player])) > 1e-10)
+                    {
+                        converged = false;
+                    }
+                }
+                strengths[player] = newStrengths[player];
+            }
+        }
+
+        for (int player = 0; player < playerCount; ++player)
+        {
+            if (gameCounts[player] == 0)
+            {
+                this.elos[player] = 0;
+                this.eloErrors[player] = Double.POSITIVE_INFINITY;
+            }
+            else
+            {
+                this.elos[player] = 400 * Math.log10(strengths[player]);
+
+                final double winCount = this.getWinCount(player);
+                final double lossCount = this.getLossCount(player);
+                final double drawCount = gameCounts[player] - winCount - lossCount;
+                final double score = scores[player] / gameCounts[player];
+                final double variance = (winCount * (1 - score) * (1 - score) + drawCount * (0.5 - score) * (0.5 - score) + lossCount * score * score) / gameCounts[player];
+                final double scoreError = Math.sqrt(variance / gameCounts[player]);
+                this.eloErrors[player] = QubTicTacToeTournamentResult.confidenceZScore * scoreError * 400 / (Math.log(10) * score * (1 - score));
+            }
+        }
+    }
+
+    /**
+     * Get the number of players in the tournament.
+     * @return The number of players in the tournament.
+     */
+    public int getPlayerCount()
+    {
+        return this.players.length;
+    }
+
+    /**
+     * Get the specification of the provided player.
+     * @param player The index of the player.
+     * @return The specification of the player.
+     */
+    public String getPlayer(int player)
+    {
+        PreCondition.assertBetween(0, player, this.players.length - 1, "player");
+
+        return this.players[player];
+    }
+
+    /**
+     * Get the number of games that were played.
+     * @return The number of games that were played.
+     */
+    public long getGameCount()
+    {
+        long result = 0;
+        for (int player = 0; player < this.players.length; ++player)
+        {
+            result += this.getGameCount(player);
+        }
+        return result / 2;
+    }
+
+    /**
+     * Get the number of games that the provided player played.
+     * @param player The index of the player.
+     * @return The number of games that the player played.
+     */
+    public long getGameCount(int player)
+    {
+        return this.getWinCount(player) + this.getDrawCount(player) + this.getLossCount(player);
+    }
+
+    /**
+     * Get the number of games that the provided players played against each other.
+     * @param player The index of one player.
+     * @param opponent The index of the other player.
+     * @return The number of games that the players played against each other.
+     */
+    public long getGameCount(int player, int opponent)
+    {
+        return this.getWinCount(player, opponent) + this.getDrawCount(player, opponent) + this.getWinCount(opponent, player);
+    }
+
+    /**
+     * Get the number of games that the provided player won.
+     * @param player The index of the player.
+     * @return The number of games that the player won.
+     */
+    public long getWinCount(int player)
+    {
+        PreCondition.assertBetween(0, player, this.players.length - 1, "player");
+
+        long result = 0;
+        for (final long winCount : this.winCounts[player])
+        {
+            result += winCount;
+        }
+        return result;
+    }
+
+    /**
+     * Get the number of games that the provided player won against the provided opponent.
+     * @param player The index of the player.
+     * @param opponent The index of the opponent.
+     * @return The number of games that the player won against the opponent.
+     */
+    public long getWinCount(int player, int opponent)
+    {
+        PreCondition.assertBetween(0, player, this.players.length - 1, "player");
+        PreCondition.assertBetween(0, opponent, this.players.length - 1, "opponent");
+
+        return this.winCounts[player][opponent];
+    }
+
+    /**
+     * Get the number of games that the provided player drew.
+     * @param player The index of the player.
+     * @return The number of games that the player drew.
+     */
+    public long getDrawCount(int player)
+    {
+        PreCondition.assertBetween(0, player, this.players.length - 1, "player");
+
+        long result = 0;
+        for (final long drawCount : this.drawCounts[player])
+        {
+            result += drawCount;
+        }
+        return result;
+    }
+
+    /**
+     * Get the number of games that the provided players drew against each other.
+     * @param player The index of one player.
+     * @param opponent The index of the other player.
+     * @return The number of games that the players drew against each other.
+     */
+    public long getDrawCount(int player, int opponent)
+    {
+        PreCondition.assertBetween(0, player, this.players.length - 1, "player");
+        PreCondition.assertBetween(0, opponent, this.players.length - 1, "opponent");
+
+        return this.drawCounts[player][opponent];
+    }
+
+    /**
+     * Get the number of games that the provided player lost.
+     * @param player The index of the player.
+     * @return The number of games that the player lost.
+     */
+    public long getLossCount(int player)
+    {
+        PreCondition.assertBetween(0, player, this.players.length - 1, "player");
+
+        long result = 0;
+        for (int opponent = 0; opponent < this.players.length; ++opponent)
+        {
+            result += this.winCounts[opponent][player];
+        }
+        return result;
+    }
+
+    /**
+     * Get the number of points that the provided player scored, with one point for a win and half
+     * a point for a draw.
+     * @param player The index of the player.
+     * @return The number of points that the player scored.
+     */
+    public double getScore(int player)
+    {
+        return this.getWinCount(player) + this.getDrawCount(player) / 2.0;
+    }
+
+    /**
+     * Get the estimated Elo rating of the provided player.
+     * @param player The index of the player.
+     * @return The estimated Elo rating of the player, or 0 if the player hasn't played any games.
+     */
+    public double getElo(int player)
+    {
+        PreCondition.assertBetween(0, player, this.players.length - 1, "player");
+
+        return this.elos[player];
+    }
+
+    /**
+     * Get the distance from the provided player's estimated Elo rating to either end of its 95%
+     * confidence interval. The interval treats the ratings of the player's opponents as exact.
+     * @param player The index of the player.
+     * @return The distance to either end of the rating's confidence interval, or infinity if the
+     * player hasn't played any games.
+     */
+    public double getEloError(int player)
+    {
+        PreCondition.assertBetween(0, player, this.players.length - 1, "player");
+
+        return this.eloErrors[player];
+    }
+
+    /**
+     * Get the indexes of the players ordered from the highest estimated Elo rating to the lowest.
+     * Players with the same rating stay in the order that they were entered.
+     * @return The indexes of the players ordered by rating.
+     */
+    public int[] getRanking()
+    {
+        final int playerCount = this.players.length;
+        final int[] result = new int[playerCount];
+        for (int player = 0; player < playerCount; ++player)
+        {
+            int rank = player;
+            while (rank > 0 && this.elos[result[rank - 1]] < this.elos[player])
+            {
+                result[rank] = result[rank - 1];
+                --rank;
+            }
+            result[rank] = player;
+        }
+        return result;
+    }
+
+    /**
+     * Get the total number of moves that were made across all of the games.
+     * @return The total number of moves that were made across all of the games.
+     */
+    public long getMoveCount()
+    {
+        return this.moveCount;
+    }
+
+    /**
+     * Get the average number of moves in a game.
+     * @return The average number of moves in a game.
+     */
+    public double getAverageGameLength()
+    {
+        final long gameCount = this.getGameCount();
+        return gameCount == 0 ? 0 : (double)this.moveCount / gameCount;
+    }
+
+    /**
+     * Get the number of threads that played the games.
+     * @return The number of threads that played the games.
+     */
+    public int getThreadCount()
+    {
+        return this.threadCount;
+    }
+
+    /**
+     * Get the number of nanoseconds that playing the games took.
+     * @return The number of nanoseconds that playing the games took.
+     */
+    public long getElapsedNanoseconds()
+    {
+        return this.elapsedNanoseconds;
+    }
+
+    /**
+     * Get the number of games that were played per second.
+     * @return The number of games that were played per second.
+     */
+    public double getGamesPerSecond()
+    {
+        return this.elapsedNanoseconds == 0 ? 0 : this.getGameCount() * 1000000000.0 / this.elapsedNanoseconds;
+    }
+}
@@ -0,0 +1,67 @@
+package qub;
+
+/**
+ * A fixed-size cache of search results that is keyed by position. Each position is stored as the
+ * pair of bitmasks of the player to move and the other player, so only boards that fit in a
+ * single long can be stored. A newer entry always replaces an older entry at the same index.
+ */
+public interface QubTicTacToeTranspositionTable
+{
+    /**
+     * Create a new transposition table with 2^indexBits entries that can only be used by one
+     * thread at a time.
+     * @param indexBits The number of bits in an index into the table.
+     * @return The new transposition table.
+     */
+    static QubTicTacToeTranspositionTable create(int indexBits)
+    {
+        return QubTicTacToeArrayTranspositionTable.create(indexBits);
+    }
+
+    /**
+     * Create a new transposition table with 2^indexBits entries that can be shared by many
+     * threads without locking.
+     * @param indexBits The number of bits in an index into the table.
+     * @return The new transposition table.
+     */
+    static QubTicTacToeTranspositionTable createConcurrent(int indexBits)
+    {
+        return QubTicTacToeConcurrentTranspositionTable.create(indexBits);
+    }
+
+    /**
+     * Get the index of the entry that the provided position is stored in.
+     * @param ownBoard The bitmask of the cells that the player to move has taken.
+     * @param otherBoard The bitmask of the cells that the other player has taken.
+     * @param indexBits The number of bits in an index into the table.
+     * @return The index of the entry that the provided position is stored in.
+     */
+    static int getIndex(long ownBoard, long otherBoard, int indexBits)
+    {
+        final long hash = (ownBoard * 0x9E3779B97F4A7C15L) ^ (otherBoard * 0xC2B2AE3D27D4EB4FL);
+        return (int)((hash ^ (hash >>> 29)) >>> (Long.SIZE - indexBits));
+    }
+
+    /**
+     * Get the number of entries in this table.
+     * @return The number of entries in this table.
+     */
+    int getEntryCount();
+
+    /**
+     * Get the data that is stored for the provided position.
+     * @param ownBoard The bitmask of the cells that the player to move has taken.
+     * @param otherBoard The bitmask of the cells that the other player has taken.
+     * @return The data that is stored for the provided position, or 0 if the position isn't in
+     * the table.
+     */
+    long get(long ownBoard, long otherBoard);
+
+    /**
+     * Store the provided data for the provided position.
+     * @param ownBoard The bitmask of the cells that the player to move has taken.
+     * @param otherBoard The bitmask of the cells that the other player has taken.
+     * @param data The non-zero data to store.
+     */
+    void set(long ownBoard, long otherBoard, long data);
+}
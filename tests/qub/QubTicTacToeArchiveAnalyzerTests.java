@@ -0,0 +1,265 @@
+package qub;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+
+public interface QubTicTacToeArchiveAnalyzerTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(QubTicTacToeArchiveAnalyzer.class, () ->
+        {
+            runner.testGroup("hasPerfectPlayValues(QubTicTacToeGeometry)", () ->
+            {
+                final Action2<QubTicTacToeGeometry,Boolean> hasPerfectPlayValuesTest = (QubTicTacToeGeometry geometry, Boolean expected) ->
+                {
+                    runner.test("with " + geometry, (Test test) ->
+                    {
+                        test.assertEqual(expected, QubTicTacToeArchiveAnalyzer.hasPerfectPlayValues(geometry));
+                    });
+                };
+
+                hasPerfectPlayValuesTest.run(QubTicTacToeGeometry.create(), true);
+                hasPerfectPlayValuesTest.run(QubTicTacToeGeometry.create(4, 3, 3), true);
+                hasPerfectPlayValuesTest.run(QubTicTacToeGeometry.create(4, 4, 3), false);
+                hasPerfectPlayValuesTest.run(QubTicTacToeGeometry.create(15, 15, 5), false);
+            });
+
+            runner.testGroup("analyzeGame(QubTicTacToeGameRecord,QubTicTacToeArchiveAnalysis,long[],HashMap<QubTicTacToeGeometry,QubTicTacToeMinimaxEngine>)", () ->
+            {
+                runner.test("with O blundering after X's corner opening", (Test test) ->
+                {
+                    final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create();
+                    final QubTicTacToeGameStatistics statistics = QubTicTacToeArchiveAnalyzerTests.analyzeGame(
+                        QubTicTacToeGameRecord.create(geometry, "human", "human", QubTicTacToeSessionStore.xWins, new int[] { 0, 3, 1, 4, 2 }));
+                    test.assertEqual(1L, statistics.getGameCount());
+                    test.assertEqual(1L, statistics.getResultCount(QubTicTacToeSessionStore.xWins));
+                    test.assertEqual(1L, statistics.getGameLengthCount(5));
+                    test.assertEqual(1L, statistics.getOpeningResultCount(0, QubTicTacToeSessionStore.xWins));
+                    test.assertTrue(statistics.hasBlunderCounts());
+                    test.assertEqual(0L, statistics.getXBlunderCount());
+                    test.assertEqual(1L, statistics.getOBlunderCount());
+                    test.assertEqual(1L, statistics.getBlunderGameCount());
+                });
+
+                runner.test("with both players throwing away wins", (Test test) ->
+                {
+                    final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create();
+                    final QubTicTacToeGameStatistics statistics = QubTicTacToeArchiveAnalyzerTests.analyzeGame(
+                        QubTicTacToeGameRecord.create(geometry, "human", "human", QubTicTacToeSessionStore.tie, new int[] { 0, 3, 1, 2, 6, 4, 5, 8, 7 }));
+                    test.assertEqual(1L, statistics.getResultCount(QubTicTacToeSessionStore.tie));
+                    test.assertEqual(1L, statistics.getXBlunderCount());
+                    test.assertEqual(2L, statistics.getOBlunderCount());
+                    test.assertEqual(1L, statistics.getBlunderGameCount());
+                });
+
+                runner.test("with perfect play", (Test test) ->
+                {
+                    final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create(4, 3, 3);
+                    final QubTicTacToeMinimaxEngine engine = QubTicTacToeMinimaxEngine.create(geometry);
+                    final QubTicTacToeModel model = QubTicTacToeModel.create(geometry);
+                    while (!model.isGameDone())
+                    {
+                        final int cellIndex = engine.chooseMove(model);
+                        model.makeMove(geometry.getRow(cellIndex), geometry.getColumn(cellIndex));
+                    }
+
+                    final QubTicTacToeGameStatistics statistics = QubTicTacToeArchiveAnalyzerTests.analyzeGame(
+                        QubTicTacToeGameRecord.create(model, "minimax", "minimax"));
+                    test.assertEqual(1L, statistics.getGameCount());
+                    test.assertEqual(0L, statistics.getXBlunderCount());
+                    test.assertEqual(0L, statistics.getOBlunderCount());
+                });
+
+                runner.test("with board that is too large to search", (Test test) ->
+                {
+                    final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create(15, 15, 5);
+                    final QubTicTacToeGameStatistics statistics = QubTicTacToeArchiveAnalyzerTests.analyzeGame(
+                        QubTicTacToeGameRecord.create(geometry, "human", "human", QubTicTacToeSessionStore.abandoned, new int[] { 112, 113 }));
+                    test.assertEqual(1L, statistics.getResultCount(QubTicTacToeSessionStore.abandoned));
+                    test.assertEqual(1L, statistics.getOpeningGameCount(112));
+                    test.assertFalse(statistics.hasBlunderCounts());
+                });
+
+                final Action2<String,int[]> invalidGameTest = (String testName, int[] moves) ->
+                {
+                    runner.test(testName, (Test test) ->
+                    {
+                        final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create();
+                        final QubTicTacToeArchiveAnalysis analysis = QubTicTacToeArchiveAnalysis.create();
+                        QubTicTacToeArchiveAnalyzer.analyzeGame(
+                            QubTicTacToeGameRecord.create(geometry, "human", "human", QubTicTacToeSessionStore.xWins, moves),
+                            analysis,
+                            new long[2],
+                            new HashMap<>());
+                        test.assertEqual(1L, analysis.getInvalidGameCount());
+                        test.assertEqual(0L, analysis.getGameCount());
+                        test.assertNull(analysis.getStatistics(geometry));
+                    });
+                };
+
+                invalidGameTest.run("with move on a taken cell", new int[] { 0, 0 });
+                invalidGameTest.run("with move outside of the board", new int[] { 0, 15 });
+                invalidGameTest.run("with move after the game was won", new int[] { 0, 3, 1, 4, 2, 5 });
+                invalidGameTest.run("with result that doesn't match the moves", new int[] { 0, 3, 1, 4 });
+            });
+
+            runner.testGroup("run()", () ->
+            {
+                runner.test("with empty archive", (Test test) ->
+                {
+                    final Path folder = QubTicTacToeGameArchiveTests.createTemporaryFolder();
+                    try (final QubTicTacToeGameArchive archive = QubTicTacToeGameArchive.open(folder.resolve("games.bin"), 1024).await())
+                    {
+                        final QubTicTacToeArchiveAnalysis analysis = QubTicTacToeArchiveAnalyzer.create(archive, 4).run();
+                        test.assertEqual(0L, analysis.getGameCount());
+                        test.assertEqual(0L, analysis.getInvalidGameCount());
+                        test.assertEqual(1, analysis.getThreadCount());
+                        test.assertFalse(analysis.getGeometries().iterator().hasNext());
+                    }
+                    finally
+                    {
+                        QubTicTacToeGameArchiveTests.deleteFolder(folder);
+                    }
+                });
+
+                runner.test("with more games than one chunk on several threads", (Test test) ->
+                {
+                    final Path folder = QubTicTacToeGameArchiveTests.createTemporaryFolder();
+                    try (final QubTicTacToeGameArchive archive = QubTicTacToeGameArchive.open(folder.resolve("games.bin"), 64 * 1024).await())
+                    {
+                        final QubTicTacToeGeometry smallGeometry = QubTicTacToeGeometry.create();
+                        final QubTicTacToeGeometry largeGeometry = QubTicTacToeGeometry.create(7, 7, 4);
+                        final QubTicTacToeRandomEngine engine = QubTicTacToeRandomEngine.create(5);
+                        final int gameCount = (2 * QubTicTacToeArchiveAnalyzer.chunkSize) + 100;
+                        for (int game = 0; game < gameCount; ++game)
+                        {
+                            final QubTicTacToeGeometry geometry = game % 10 == 0 ? largeGeometry : smallGeometry;
+                            final QubTicTacToeModel model = QubTicTacToeModel.create(geometry);
+                            while (!model.isGameDone())
+                            {
+                                final int cellIndex = engine.chooseMove(model);
+                                model.makeMove(geometry.getRow(cellIndex), geometry.getColumn(cellIndex));
+                            }
+                            archive.append(QubTicTacToeGameRecord.create(model, "random", "random"));
+                        }
+                        archive.append(QubTicTacToeGameRecord.create(smallGeometry, "human", "human", QubTicTacToeSessionStore.tie, new int[] { 4, 4 }));
+
+                        final QubTicTacToeArchiveAnalysis expected = QubTicTacToeArchiveAnalyzer.create(archive, 1).run();
+                        test.assertEqual(1, expected.getThreadCount());
+                        test.assertEqual((long)gameCount, expected.getGameCount());
+                        test.assertEqual(1L, expected.getInvalidGameCount());
+                        test.assertEqual(Iterable.create(smallGeometry, largeGeometry), expected.getGeometries());
+
+                        final QubTicTacToeArchiveAnalysis actual = QubTicTacToeArchiveAnalyzer.create(archive, 4).run();
+                        test.assertEqual(3, actual.getThreadCount());
+                        test.assertEqual(expected.getGameCount(), actual.getGameCount());
+                        test.assertEqual(expected.getInvalidGameCount(), actual.getInvalidGameCount());
+                        for (final QubTicTacToeGeometry geometry : expected.getGeometries())
+                        {
+                            final QubTicTacToeGameStatistics expectedStatistics = expected.getStatistics(geometry);
+                            final QubTicTacToeGameStatistics actualStatistics = actual.getStatistics(geometry);
+                            for (int result = QubTicTacToeSessionStore.inProgress; result <= QubTicTacToeSessionStore.abandoned; ++result)
+                            {
+                                test.assertEqual(expectedStatistics.getResultCount(result), actualStatistics.getResultCount(result));
+                            }
+                            for (int gameLength = 0; gameLength <= geometry.getCellCount(); ++gameLength)
+                            {
+                                test.assertEqual(expectedStatistics.getGameLengthCount(gameLength), actualStatistics.getGameLengthCount(gameLength));
+                            }
+                            for (int cellIndex = 0; cellIndex < geometry.getCellCount(); ++cellIndex)
+                            {
+                                test.assertEqual(expectedStatistics.getOpeningGameCount(cellIndex), actualStatistics.getOpeningGameCount(cellIndex));
+                            }
+                            test.assertEqual(expectedStatistics.getXBlunderCount(), actualStatistics.getXBlunderCount());
+                            test.assertEqual(expectedStatistics.getOBlunderCount(), actualStatistics.getOBlunderCount());
+                        }
+                        test.assertTrue(expected.getStatistics(smallGeometry).getXBlunderCount() > 0);
+                    }
+                    finally
+                    {
+                        QubTicTacToeGameArchiveTests.deleteFolder(folder);
+                    }
+                });
+            });
+
+            runner.testGroup("writeResults(CharacterWriteStream)", () ->
+            {
+                runner.test("with empty archive", (Test test) ->
+                {
+                    final Path folder = QubTicTacToeGameArchiveTests.createTemporaryFolder();
+                    try (final QubTicTacToeGameArchive archive = QubTicTacToeGameArchive.open(folder.resolve("games.bin"), 1024).await())
+                    {
+                        final InMemoryCharacterStream output = InMemoryCharacterStream.create();
+                        QubTicTacToeArchiveAnalyzer.create(archive, 1).writeResults(output);
+                        test.assertEqual(
+                            Iterable.create("The game archive " + archive.getDataFilePath() + " doesn't contain any games."),
+                            Strings.getLines(output.getText().await()));
+                    }
+                    finally
+                    {
+                        QubTicTacToeGameArchiveTests.deleteFolder(folder);
+                    }
+                });
+
+                runner.test("with games", (Test test) ->
+                {
+                    final Path folder = QubTicTacToeGameArchiveTests.createTemporaryFolder();
+                    try (final QubTicTacToeGameArchive archive = QubTicTacToeGameArchive.open(folder.resolve("games.bin"), 1024).await())
+                    {
+                        final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create();
+                        archive.append(QubTicTacToeGameRecord.create(geometry, "human", "human", QubTicTacToeSessionStore.xWins, new int[] { 0, 3, 1, 4, 2 }));
+                        archive.append(QubTicTacToeGameRecord.create(geometry, "human", "human", QubTicTacToeSessionStore.abandoned, new int[] { 0 }));
+                        archive.append(QubTicTacToeGameRecord.create(geometry, "human", "human", QubTicTacToeSessionStore.tie, new int[] { 4, 0, 8, 2, 1, 7, 6, 3, 5 }));
+                        archive.append(QubTicTacToeGameRecord.create(geometry, "human", "human", QubTicTacToeSessionStore.xWins, new int[] { 4, 4 }));
+                        archive.append(QubTicTacToeGameRecord.create(QubTicTacToeGeometry.create(5, 5, 4), "human", "human", QubTicTacToeSessionStore.abandoned, new int[0]));
+
+                        final InMemoryCharacterStream output = InMemoryCharacterStream.create();
+                        QubTicTacToeArchiveAnalyzer.create(archive, 2).writeResults(output);
+
+                        final Iterable<String> lines = Strings.getLines(output.getText().await());
+                        final String[] lineArray = new String[lines.getCount()];
+                        int lineIndex = 0;
+                        for (final String line : lines)
+                        {
+                            lineArray[lineIndex++] = line;
+                        }
+                        test.assertEqual(21, lineArray.length);
+                        test.assertEqual("Analyzing 5 games in " + archive.getDataFilePath() + "...", lineArray[0]);
+                        test.assertEqual("3x3 (3 in a row): 3 games", lineArray[1]);
+                        test.assertEqual("  X wins: 1 (33.3%), O wins: 0 (0.0%), Draws: 1 (33.3%), Unfinished: 1 (33.3%)", lineArray[2]);
+                        test.assertEqual("  Average game length: 5.00 moves", lineArray[3]);
+                        test.assertEqual("  Game lengths:", lineArray[4]);
+                        test.assertEqual("    1 moves: 1 (33.3%)", lineArray[5]);
+                        test.assertEqual("    5 moves: 1 (33.3%)", lineArray[6]);
+                        test.assertEqual("    9 moves: 1 (33.3%)", lineArray[7]);
+                        test.assertEqual("  Openings:", lineArray[8]);
+                        test.assertEqual("    a1: 2 games, X wins: 50.0%, O wins: 0.0%, Draws: 0.0%", lineArray[9]);
+                        test.assertEqual("    b2: 1 games, X wins: 0.0%, O wins: 0.0%, Draws: 100.0%", lineArray[10]);
+                        test.assertEqual("  Blunders: X: 0 (0.00 per game), O: 1 (0.33 per game), Games with a blunder: 1 (33.3%)", lineArray[11]);
+                        test.assertEqual("5x5 (4 in a row): 1 games", lineArray[12]);
+                        test.assertEqual("  X wins: 0 (0.0%), O wins: 0 (0.0%), Draws: 0 (0.0%), Unfinished: 1 (100.0%)", lineArray[13]);
+                        test.assertEqual("  Average game length: 0.00 moves", lineArray[14]);
+                        test.assertEqual("  Game lengths:", lineArray[15]);
+                        test.assertEqual("    0 moves: 1 (100.0%)", lineArray[16]);
+                        test.assertEqual("  Openings:", lineArray[17]);
+                        test.assertEqual("  Blunders: Not counted, because the board is too large to search completely.", lineArray[18]);
+                        test.assertEqual("Invalid games: 1", lineArray[19]);
+                        test.assertTrue(lineArray[20].startsWith("Threads: 1, Time: "));
+                    }
+                    finally
+                    {
+                        QubTicTacToeGameArchiveTests.deleteFolder(folder);
+                    }
+                });
+            });
+        });
+    }
+
+    static QubTicTacToeGameStatistics analyzeGame(QubTicTacToeGameRecord record)
+    {
+        final QubTicTacToeArchiveAnalysis analysis = QubTicTacToeArchiveAnalysis.create();
+        QubTicTacToeArchiveAnalyzer.analyzeGame(record, analysis, new long[2 * record.getGeometry().getWordCount()], new HashMap<>());
+        return analysis.getStatistics(record.getGeometry());
+    }
+}
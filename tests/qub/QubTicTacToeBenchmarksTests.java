@@ -0,0 +1,56 @@
+package qub;
+
+public interface QubTicTacToeBenchmarksTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(QubTicTacToeBenchmarks.class, () ->
+        {
+            runner.testGroup("run(int,int,int,CharacterWriteStream)", () ->
+            {
+                runner.test("with null output", (Test test) ->
+                {
+                    test.assertThrows(() -> QubTicTacToeBenchmarks.run(0, 1, 1, null),
+                        new PreConditionFailure("output cannot be null."));
+                });
+
+                runner.test("with short iterations", (Test test) ->
+                {
+                    final InMemoryCharacterStream output = InMemoryCharacterStream.create();
+
+                    QubTicTacToeBenchmarks.run(0, 1, 1, output);
+
+                    final String[] lines = output.getText().await().split("\n");
+                    test.assertEqual(12, lines.length);
+                    test.assertEqual("Running benchmarks (0 warmup and 1 measurement iterations of 1 ms)...", lines[0]);
+                    test.assertTrue(lines[1].startsWith("QubTicTacToeModel.setBoardCell (3x3 tie game): "));
+                    test.assertTrue(lines[9].startsWith("QubTicTacToe.writeBoard (15x15): "));
+                    test.assertTrue(lines[10].startsWith("QubTicTacToeSessionStore.makeMove (3x3 tie game): "));
+                    test.assertTrue(lines[11].startsWith("QubTicTacToeMoveParser.parseAll (15x15, 5 moves): "));
+                    for (int lineIndex = 1; lineIndex < lines.length; ++lineIndex)
+                    {
+                        test.assertTrue(lines[lineIndex].contains(" ops/s +/- "));
+                    }
+                });
+            });
+        });
+
+        runner.testGroup(QubTicTacToeBenchmark.class, () ->
+        {
+            runner.testGroup("run(int,int,int)", () ->
+            {
+                runner.test("with a counting operation", (Test test) ->
+                {
+                    final long[] count = new long[1];
+                    final QubTicTacToeBenchmark benchmark = QubTicTacToeBenchmark.create("count", () -> ++count[0]);
+                    final QubTicTacToeBenchmarkResult result = benchmark.run(1, 3, 5);
+                    test.assertEqual("count", result.getName());
+                    test.assertEqual(3, result.getIterationCount());
+                    test.assertTrue(count[0] > 0);
+                    test.assertTrue(result.getOperationsPerSecond() > 0);
+                    test.assertTrue(result.getOperationsPerSecondDeviation() >= 0);
+                });
+            });
+        });
+    }
+}
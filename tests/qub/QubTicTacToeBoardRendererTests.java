@@ -0,0 +1,119 @@
+package qub;
+
+public interface QubTicTacToeBoardRendererTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(QubTicTacToeBoardRenderer.class, () ->
+        {
+            runner.testGroup("get(QubTicTacToeGeometry)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> QubTicTacToeBoardRenderer.get(null),
+                        new PreConditionFailure("geometry cannot be null."));
+                });
+
+                runner.test("with same geometry twice", (Test test) ->
+                {
+                    final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create(4, 5, 3);
+                    final QubTicTacToeBoardRenderer renderer = QubTicTacToeBoardRenderer.get(geometry);
+                    test.assertSame(geometry, renderer.getGeometry());
+                    test.assertSame(renderer, QubTicTacToeBoardRenderer.get(geometry));
+                });
+            });
+
+            runner.testGroup("write(QubTicTacToeModel,CharacterWriteStream)", () ->
+            {
+                runner.test("with 3x3 game in progress", (Test test) ->
+                {
+                    final QubTicTacToeModel model = QubTicTacToeModel.create(QubTicTacToeGeometry.create());
+                    model.makeMove(1, 1);
+                    model.makeMove(0, 2);
+                    final InMemoryCharacterStream output = InMemoryCharacterStream.create();
+
+                    QubTicTacToeBoardRenderer.get(model.getGeometry()).write(model, output);
+
+                    test.assertEqual(
+                        "  | 1 | 2 | 3\n" +
+                        "-------------\n" +
+                        "A |   |   | O\n" +
+                        "-------------\n" +
+                        "B |   | X |  \n" +
+                        "-------------\n" +
+                        "C |   |   |  \n" +
+                        "\n",
+                        output.getText().await());
+                });
+
+                final Action2<QubTicTacToeGeometry,Integer> matchesCharacterTableTest = (QubTicTacToeGeometry geometry, Integer moveCount) ->
+                {
+                    runner.test("with " + geometry + " and " + moveCount + " moves", (Test test) ->
+                    {
+                        final QubTicTacToeModel model = QubTicTacToeModel.create(geometry);
+                        final QubTicTacToeRandomEngine engine = QubTicTacToeRandomEngine.create(moveCount);
+                        for (int move = 0; move < moveCount.intValue() && !model.isGameDone(); ++move)
+                        {
+                            final int cellIndex = engine.chooseMove(model);
+                            model.makeMove(geometry.getRow(cellIndex), geometry.getColumn(cellIndex));
+                        }
+
+                        final InMemoryCharacterStream output = InMemoryCharacterStream.create();
+                        final QubTicTacToeBoardRenderer renderer = QubTicTacToeBoardRenderer.get(geometry);
+                        renderer.write(model, output);
+
+                        final String expected = QubTicTacToeBoardRendererTests.renderWithCharacterTable(model);
+                        test.assertEqual(expected, output.getText().await());
+                        test.assertEqual(expected.length(), renderer.getLength());
+                    });
+                };
+
+                matchesCharacterTableTest.run(QubTicTacToeGeometry.create(1, 1, 1), 0);
+                matchesCharacterTableTest.run(QubTicTacToeGeometry.create(1, 1, 1), 1);
+                matchesCharacterTableTest.run(QubTicTacToeGeometry.create(), 0);
+                matchesCharacterTableTest.run(QubTicTacToeGeometry.create(), 9);
+                matchesCharacterTableTest.run(QubTicTacToeGeometry.create(4, 2, 3), 5);
+                matchesCharacterTableTest.run(QubTicTacToeGeometry.create(2, 7, 2), 3);
+                matchesCharacterTableTest.run(QubTicTacToeGeometry.create(15, 15, 5), 60);
+                matchesCharacterTableTest.run(QubTicTacToeGeometry.create(26, 26, 26), 400);
+            });
+        });
+    }
+
+    /**
+     * Render the provided model's board the way that QubTicTacToe.writeBoard() did before it used
+     * QubTicTacToeBoardRenderer.
+     */
+    static String renderWithCharacterTable(QubTicTacToeModel model)
+    {
+        final CharacterTableFormat boardFormat = CharacterTableFormat.create()
+            .setColumnSeparator(" | ")
+            .setRowSeparator('-')
+            .setNewLine('\n');
+
+        final CharacterTable board = CharacterTable.create();
+
+        final List<String> topRow = List.create(" ");
+        for (int column = 0; column < model.getColumnCount(); ++column)
+        {
+            topRow.add(Integers.toString(column + 1));
+        }
+        board.addRow(topRow);
+
+        for (int row = 0; row < model.getRowCount(); ++row)
+        {
+            final List<String> rowCells = List.create(Characters.toString((char)('A' + row)));
+            for (int column = 0; column < model.getColumnCount(); ++column)
+            {
+                rowCells.add(model.getBoardCell(row, column));
+            }
+            board.addRow(rowCells);
+        }
+
+        final InMemoryCharacterStream writeStream = InMemoryCharacterStream.create();
+        board.toString(writeStream, boardFormat).await();
+        writeStream.writeLine().await();
+        writeStream.writeLine().await();
+        return writeStream.getText().await();
+    }
+}
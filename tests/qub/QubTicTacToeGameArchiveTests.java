@@ -0,0 +1,169 @@
+package qub;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public interface QubTicTacToeGameArchiveTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(QubTicTacToeGameArchive.class, () ->
+        {
+            runner.testGroup("getIndexFilePath(Path)", () ->
+            {
+                runner.test("with file name", (Test test) ->
+                {
+                    final Path dataFilePath = Paths.get("games", "games.bin");
+                    test.assertEqual(Paths.get("games", "games.bin.index"), QubTicTacToeGameArchive.getIndexFilePath(dataFilePath));
+                });
+            });
+
+            runner.testGroup("open(Path,int)", () ->
+            {
+                runner.test("with new file", (Test test) ->
+                {
+                    final Path folder = QubTicTacToeGameArchiveTests.createTemporaryFolder();
+                    try
+                    {
+                        final Path dataFilePath = folder.resolve("games.bin");
+                        try (final QubTicTacToeGameArchive archive = QubTicTacToeGameArchive.open(dataFilePath, 1024).await())
+                        {
+                            test.assertEqual(dataFilePath, archive.getDataFilePath());
+                            test.assertEqual(0L, archive.getGameCount());
+                        }
+                        test.assertTrue(Files.exists(dataFilePath));
+                        test.assertTrue(Files.exists(QubTicTacToeGameArchive.getIndexFilePath(dataFilePath)));
+                    }
+                    finally
+                    {
+                        QubTicTacToeGameArchiveTests.deleteFolder(folder);
+                    }
+                });
+
+                runner.test("with index file that isn't an archive index", (Test test) ->
+                {
+                    final Path folder = QubTicTacToeGameArchiveTests.createTemporaryFolder();
+                    try
+                    {
+                        final Path dataFilePath = folder.resolve("games.bin");
+                        QubTicTacToeGameArchiveTests.writeFile(QubTicTacToeGameArchive.getIndexFilePath(dataFilePath), "not an index");
+                        test.assertNull(QubTicTacToeGameArchive.open(dataFilePath, 1024).catchError().await());
+                    }
+                    finally
+                    {
+                        QubTicTacToeGameArchiveTests.deleteFolder(folder);
+                    }
+                });
+            });
+
+            runner.testGroup("append(QubTicTacToeGameRecord) and get(long)", () ->
+            {
+                runner.test("with records that cross regions and a reopened archive", (Test test) ->
+                {
+                    final Path folder = QubTicTacToeGameArchiveTests.createTemporaryFolder();
+                    try
+                    {
+                        final Path dataFilePath = folder.resolve("games.bin");
+                        final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create(7, 7, 4);
+                        final QubTicTacToeRandomEngine engine = QubTicTacToeRandomEngine.create(11);
+                        final List<QubTicTacToeGameRecord> records = List.create();
+                        try (final QubTicTacToeGameArchive archive = QubTicTacToeGameArchive.open(dataFilePath, 1024).await())
+                        {
+                            for (int game = 0; game < 200; ++game)
+                            {
+                                final QubTicTacToeModel model = QubTicTacToeModel.create(geometry);
+                                while (!model.isGameDone())
+                                {
+                                    final int cellIndex = engine.chooseMove(model);
+                                    model.makeMove(geometry.getRow(cellIndex), geometry.getColumn(cellIndex));
+                                }
+                                final QubTicTacToeGameRecord record = QubTicTacToeGameRecord.create(model, "random", "random");
+                                records.add(record);
+                                test.assertEqual((long)game, archive.append(record));
+                            }
+                            test.assertEqual(200L, archive.getGameCount());
+                            QubTicTacToeGameArchiveTests.assertRecords(test, records, archive);
+                        }
+
+                        try (final QubTicTacToeGameArchive archive = QubTicTacToeGameArchive.open(dataFilePath, 1024).await())
+                        {
+                            test.assertEqual(200L, archive.getGameCount());
+                            QubTicTacToeGameArchiveTests.assertRecords(test, records, archive);
+
+                            final QubTicTacToeGameRecord record = QubTicTacToeGameRecord.create(geometry, "human", "minimax", QubTicTacToeSessionStore.abandoned, new int[] { 24 });
+                            test.assertEqual(200L, archive.append(record));
+                            test.assertEqual("human", archive.get(200).getXPlayer());
+                            test.assertEqual(24, archive.get(200).getMove(0));
+                        }
+                    }
+                    finally
+                    {
+                        QubTicTacToeGameArchiveTests.deleteFolder(folder);
+                    }
+                });
+            });
+        });
+    }
+
+    static void assertRecords(Test test, List<QubTicTacToeGameRecord> expectedRecords, QubTicTacToeGameArchive archive)
+    {
+        for (int gameId = 0; gameId < expectedRecords.getCount(); ++gameId)
+        {
+            final QubTicTacToeGameRecord expected = expectedRecords.get(gameId);
+            final QubTicTacToeGameRecord actual = archive.get(gameId);
+            test.assertSame(expected.getGeometry(), actual.getGeometry());
+            test.assertEqual(expected.getResult(), actual.getResult());
+            test.assertEqual(expected.getMoveCount(), actual.getMoveCount());
+            for (int moveIndex = 0; moveIndex < expected.getMoveCount(); ++moveIndex)
+            {
+                test.assertEqual(expected.getMove(moveIndex), actual.getMove(moveIndex));
+            }
+        }
+    }
+
+    static Path createTemporaryFolder()
+    {
+        try
+        {
+            return Files.createTempDirectory("qub-tictactoe-");
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+
+    static void writeFile(Path path, String contents)
+    {
+        try
+        {
+            Files.write(path, contents.getBytes());
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+
+    static void deleteFolder(Path folder)
+    {
+        try
+        {
+            try (final DirectoryStream<Path> paths = Files.newDirectoryStream(folder))
+            {
+                for (final Path path : paths)
+                {
+                    Files.delete(path);
+                }
+            }
+            Files.delete(folder);
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package qub;
+
+import java.nio.ByteBuffer;
+
+public interface QubTicTacToeGameRecordTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(QubTicTacToeGameRecord.class, () ->
+        {
+            runner.testGroup("getBitsPerMove(QubTicTacToeGeometry)", () ->
+            {
+                final Action2<QubTicTacToeGeometry,Integer> getBitsPerMoveTest = (QubTicTacToeGeometry geometry, Integer expected) ->
+                {
+                    runner.test("with " + geometry, (Test test) ->
+                    {
+                        test.assertEqual(expected.intValue(), QubTicTacToeGameRecord.getBitsPerMove(geometry));
+                    });
+                };
+
+                getBitsPerMoveTest.run(QubTicTacToeGeometry.create(1, 1, 1), 1);
+                getBitsPerMoveTest.run(QubTicTacToeGeometry.create(2, 1, 1), 1);
+                getBitsPerMoveTest.run(QubTicTacToeGeometry.create(), 4);
+                getBitsPerMoveTest.run(QubTicTacToeGeometry.create(4, 4, 3), 4);
+                getBitsPerMoveTest.run(QubTicTacToeGeometry.create(15, 15, 5), 8);
+                getBitsPerMoveTest.run(QubTicTacToeGeometry.create(26, 26, 5), 10);
+            });
+
+            runner.testGroup("create(QubTicTacToeModel,String,String)", () ->
+            {
+                runner.test("with X winning game", (Test test) ->
+                {
+                    final QubTicTacToeModel model = QubTicTacToeModel.create(QubTicTacToeGeometry.create());
+                    for (final int cellIndex : new int[] { 0, 3, 1, 4, 2 })
+                    {
+                        model.makeMove(cellIndex / 3, cellIndex % 3);
+                    }
+
+                    final QubTicTacToeGameRecord record = QubTicTacToeGameRecord.create(model, "random", "mcts:100");
+                    test.assertSame(model.getGeometry(), record.getGeometry());
+                    test.assertEqual("random", record.getXPlayer());
+                    test.assertEqual("mcts:100", record.getOPlayer());
+                    test.assertEqual(QubTicTacToeSessionStore.xWins, record.getResult());
+                    test.assertEqual(5, record.getMoveCount());
+                    test.assertEqual(3, record.getMove(1));
+                    test.assertEqual(10 + 6 + 8 + 3, record.getEncodedLength());
+                });
+
+                runner.test("with abandoned game", (Test test) ->
+                {
+                    final QubTicTacToeModel model = QubTicTacToeModel.create(QubTicTacToeGeometry.create());
+                    model.makeMove(1, 1);
+                    model.setGameDone(true);
+
+                    final QubTicTacToeGameRecord record = QubTicTacToeGameRecord.create(model, "human", "human");
+                    test.assertEqual(QubTicTacToeSessionStore.abandoned, record.getResult());
+                    test.assertEqual(1, record.getMoveCount());
+                });
+            });
+
+            runner.testGroup("encode(ByteBuffer,int) and decode(ByteBuffer,int)", () ->
+            {
+                final Action2<QubTicTacToeGeometry,Integer> roundTripTest = (QubTicTacToeGeometry geometry, Integer seed) ->
+                {
+                    runner.test("with random game on " + geometry, (Test test) ->
+                    {
+                        final QubTicTacToeModel model = QubTicTacToeModel.create(geometry);
+                        final QubTicTacToeRandomEngine engine = QubTicTacToeRandomEngine.create(seed);
+                        while (!model.isGameDone())
+                        {
+                            final int cellIndex = engine.chooseMove(model);
+                            model.makeMove(geometry.getRow(cellIndex), geometry.getColumn(cellIndex));
+                        }
+                        final QubTicTacToeGameRecord record = QubTicTacToeGameRecord.create(model, "random", "minimax:2");
+
+                        final ByteBuffer buffer = ByteBuffer.allocate(record.getEncodedLength() + 3);
+                        test.assertEqual(record.getEncodedLength(), record.encode(buffer, 3));
+                        test.assertEqual(0, buffer.position());
+                        test.assertEqual(record.getEncodedLength(), QubTicTacToeGameRecord.getEncodedLength(buffer, 3));
+
+                        final QubTicTacToeGameRecord decoded = QubTicTacToeGameRecord.decode(buffer, 3);
+                        test.assertSame(geometry, decoded.getGeometry());
+                        test.assertEqual("random", decoded.getXPlayer());
+                        test.assertEqual("minimax:2", decoded.getOPlayer());
+                        test.assertEqual(record.getResult(), decoded.getResult());
+                        test.assertEqual(record.getMoveCount(), decoded.getMoveCount());
+                        for (int moveIndex = 0; moveIndex < record.getMoveCount(); ++moveIndex)
+                        {
+                            test.assertEqual(record.getMove(moveIndex), decoded.getMove(moveIndex));
+                        }
+                        test.assertEqual(model.getWinner(), decoded.createModel().getWinner());
+                    });
+                };
+
+                roundTripTest.run(QubTicTacToeGeometry.create(1, 1, 1), 1);
+                roundTripTest.run(QubTicTacToeGeometry.create(), 2);
+                roundTripTest.run(QubTicTacToeGeometry.create(5, 3, 3), 3);
+                roundTripTest.run(QubTicTacToeGeometry.create(15, 15, 5), 4);
+                roundTripTest.run(QubTicTacToeGeometry.create(26, 26, 26), 5);
+
+                runner.test("with non-ASCII player names", (Test test) ->
+                {
+                    final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create();
+                    final String xPlayer = "Ren\u00e9e";
+                    final String oPlayer = "\u738b\u82b3";
+                    final QubTicTacToeGameRecord record = QubTicTacToeGameRecord.create(geometry, xPlayer, oPlayer, QubTicTacToeSessionStore.xWins, new int[] { 0, 3, 1, 4, 2 });
+                    test.assertEqual(2 + 3 + 1 + (1 + 6) + (1 + 6) + 2 + 3, record.getEncodedLength());
+
+                    final ByteBuffer buffer = ByteBuffer.allocate(record.getEncodedLength());
+                    test.assertEqual(record.getEncodedLength(), record.encode(buffer, 0));
+
+                    final QubTicTacToeGameRecord decoded = QubTicTacToeGameRecord.decode(buffer, 0);
+                    test.assertEqual(xPlayer, decoded.getXPlayer());
+                    test.assertEqual(oPlayer, decoded.getOPlayer());
+                    test.assertEqual(5, decoded.getMoveCount());
+                    test.assertEqual(2, decoded.getMove(4));
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,87 @@
+package qub;
+
+public interface QubTicTacToeGeometryTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(QubTicTacToeGeometry.class, () ->
+        {
+            runner.testGroup("create()", () ->
+            {
+                runner.test("with no arguments", (Test test) ->
+                {
+                    final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create();
+                    test.assertEqual(3, geometry.getWidth());
+                    test.assertEqual(3, geometry.getHeight());
+                    test.assertEqual(3, geometry.getWinLength());
+                    test.assertEqual(9, geometry.getCellCount());
+                    test.assertEqual(1, geometry.getWordCount());
+                    test.assertEqual(8, geometry.getWinLineMasks().length);
+                });
+
+                runner.test("with same dimensions", (Test test) ->
+                {
+                    test.assertSame(QubTicTacToeGeometry.create(15, 15, 5), QubTicTacToeGeometry.create(15, 15, 5));
+                });
+
+                runner.test("with 0 width", (Test test) ->
+                {
+                    test.assertThrows(() -> QubTicTacToeGeometry.create(0, 3, 3),
+                        new PreConditionFailure("width (0) must be between 1 and 26."));
+                });
+
+                runner.test("with win length greater than both dimensions", (Test test) ->
+                {
+                    test.assertThrows(() -> QubTicTacToeGeometry.create(3, 4, 5),
+                        new PreConditionFailure("winLength (5) must be between 1 and 4."));
+                });
+
+                runner.test("with 4x4 board and three in a row to win", (Test test) ->
+                {
+                    final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create(4, 4, 3);
+                    test.assertEqual(24, geometry.getWinLineMasks().length);
+                    test.assertEqual(7, geometry.getCellWinLineMasks(geometry.getCellIndex(1, 1)).length);
+                });
+
+                runner.test("with 15x15 board", (Test test) ->
+                {
+                    final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create(15, 15, 5);
+                    test.assertEqual(225, geometry.getCellCount());
+                    test.assertEqual(4, geometry.getWordCount());
+                });
+            });
+
+            runner.testGroup("isWinningMove(long[],int,int)", () ->
+            {
+                runner.test("with diagonal across words on 15x15 board", (Test test) ->
+                {
+                    final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create(15, 15, 5);
+                    final long[] board = new long[geometry.getWordCount()];
+                    for (int index = 3; index < 7; ++index)
+                    {
+                        QubTicTacToeGeometry.set(board, 0, geometry.getCellIndex(index, index));
+                    }
+                    test.assertFalse(geometry.isWinningMove(board, 0, geometry.getCellIndex(6, 6)));
+                    test.assertFalse(geometry.isWin(board, 0));
+
+                    QubTicTacToeGeometry.set(board, 0, geometry.getCellIndex(7, 7));
+                    test.assertTrue(geometry.isWinningMove(board, 0, geometry.getCellIndex(7, 7)));
+                    test.assertTrue(geometry.isWin(board, 0));
+                });
+
+                runner.test("with row that wraps to the next row", (Test test) ->
+                {
+                    final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create(15, 15, 5);
+                    final long[] board = new long[geometry.getWordCount()];
+                    for (int column = 12; column < 15; ++column)
+                    {
+                        QubTicTacToeGeometry.set(board, 0, geometry.getCellIndex(0, column));
+                    }
+                    QubTicTacToeGeometry.set(board, 0, geometry.getCellIndex(1, 0));
+                    QubTicTacToeGeometry.set(board, 0, geometry.getCellIndex(1, 1));
+                    test.assertFalse(geometry.isWinningMove(board, 0, geometry.getCellIndex(1, 0)));
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,203 @@
+package qub;
+
+public interface QubTicTacToeMetricsTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(QubTicTacToeMetrics.class, () ->
+        {
+            runner.testGroup("QubTicTacToeLatencyHistogram.getBucketIndex(long)", () ->
+            {
+                final Action2<Long,Integer> getBucketIndexTest = (Long nanoseconds, Integer expected) ->
+                {
+                    runner.test("with " + nanoseconds, (Test test) ->
+                    {
+                        test.assertEqual(expected.intValue(), QubTicTacToeLatencyHistogram.getBucketIndex(nanoseconds.longValue()));
+                    });
+                };
+
+                getBucketIndexTest.run(0L, 0);
+                getBucketIndexTest.run(1L, 1);
+                getBucketIndexTest.run(2L, 2);
+                getBucketIndexTest.run(3L, 2);
+                getBucketIndexTest.run(4L, 3);
+                getBucketIndexTest.run(1023L, 10);
+                getBucketIndexTest.run(1024L, 11);
+                getBucketIndexTest.run(Long.MAX_VALUE, 63);
+            });
+
+            runner.testGroup("QubTicTacToeLatencyHistogram.getBucketUpperBound(int)", () ->
+            {
+                runner.test("with every bucket", (Test test) ->
+                {
+                    test.assertEqual(0L, QubTicTacToeLatencyHistogram.getBucketUpperBound(0));
+                    for (int bucketIndex = 1; bucketIndex < QubTicTacToeLatencyHistogram.bucketCount; ++bucketIndex)
+                    {
+                        final long upperBound = QubTicTacToeLatencyHistogram.getBucketUpperBound(bucketIndex);
+                        test.assertEqual(bucketIndex, QubTicTacToeLatencyHistogram.getBucketIndex(upperBound));
+                        if (upperBound < Long.MAX_VALUE)
+                        {
+                            test.assertEqual(bucketIndex + 1, QubTicTacToeLatencyHistogram.getBucketIndex(upperBound + 1));
+                        }
+                    }
+                });
+            });
+
+            runner.testGroup("QubTicTacToeLatencyHistogram.record(long)", () ->
+            {
+                runner.test("with no durations", (Test test) ->
+                {
+                    final QubTicTacToeLatencyHistogram histogram = QubTicTacToeLatencyHistogram.create();
+                    test.assertEqual(0L, histogram.getCount());
+                    test.assertEqual(0L, histogram.getTotalNanoseconds());
+                    test.assertEqual(0L, histogram.getMaximumNanoseconds());
+                    test.assertEqual(0.0, histogram.getMeanNanoseconds());
+                    test.assertEqual(0L, histogram.getPercentileNanoseconds(50));
+                });
+
+                runner.test("with several durations", (Test test) ->
+                {
+                    final QubTicTacToeLatencyHistogram histogram = QubTicTacToeLatencyHistogram.create();
+                    for (int index = 0; index < 98; ++index)
+                    {
+                        histogram.record(100);
+                    }
+                    histogram.record(5000);
+                    histogram.record(-3);
+
+                    test.assertEqual(100L, histogram.getCount());
+                    test.assertEqual(14800L, histogram.getTotalNanoseconds());
+                    test.assertEqual(5000L, histogram.getMaximumNanoseconds());
+                    test.assertEqual(148.0, histogram.getMeanNanoseconds());
+                    test.assertEqual(1L, histogram.getBucketCount(0));
+                    test.assertEqual(98L, histogram.getBucketCount(7));
+                    test.assertEqual(1L, histogram.getBucketCount(13));
+                    test.assertEqual(0L, histogram.getPercentileNanoseconds(0));
+                    test.assertEqual(0L, histogram.getPercentileNanoseconds(1));
+                    test.assertEqual(127L, histogram.getPercentileNanoseconds(50));
+                    test.assertEqual(127L, histogram.getPercentileNanoseconds(99));
+                    test.assertEqual(5000L, histogram.getPercentileNanoseconds(100));
+                });
+
+                runner.test("with many threads", (Test test) ->
+                {
+                    final QubTicTacToeLatencyHistogram histogram = QubTicTacToeLatencyHistogram.create();
+                    final Thread[] threads = new Thread[4];
+                    for (int threadIndex = 0; threadIndex < threads.length; ++threadIndex)
+                    {
+                        threads[threadIndex] = new Thread(() ->
+                        {
+                            for (int index = 0; index < 10000; ++index)
+                            {
+                                histogram.record(index);
+                            }
+                        });
+                        threads[threadIndex].start();
+                    }
+                    for (final Thread thread : threads)
+                    {
+                        try
+                        {
+                            thread.join();
+                        }
+                        catch (InterruptedException e)
+                        {
+                            throw new RuntimeException(e);
+                        }
+                    }
+
+                    test.assertEqual(40000L, histogram.getCount());
+                    test.assertEqual(4L * (9999L * 10000L / 2), histogram.getTotalNanoseconds());
+                    test.assertEqual(9999L, histogram.getMaximumNanoseconds());
+                });
+            });
+
+            runner.testGroup("record(int,long)", () ->
+            {
+                runner.test("with start time in the past", (Test test) ->
+                {
+                    final QubTicTacToeMetrics metrics = QubTicTacToeMetrics.create();
+                    final long startTime = System.nanoTime();
+                    final long endTime = metrics.record(QubTicTacToeMetrics.engineThink, startTime);
+                    test.assertTrue(startTime <= endTime);
+
+                    final QubTicTacToeLatencyHistogram histogram = metrics.getPhase(QubTicTacToeMetrics.engineThink);
+                    test.assertEqual(1L, histogram.getCount());
+                    test.assertEqual(endTime - startTime, histogram.getTotalNanoseconds());
+                    for (int phase = 0; phase < QubTicTacToeMetrics.phaseCount; ++phase)
+                    {
+                        if (phase != QubTicTacToeMetrics.engineThink)
+                        {
+                            test.assertEqual(0L, metrics.getPhase(phase).getCount());
+                        }
+                    }
+                });
+            });
+
+            runner.testGroup("formatDuration(double)", () ->
+            {
+                final Action2<Double,String> formatDurationTest = (Double nanoseconds, String expected) ->
+                {
+                    runner.test("with " + nanoseconds, (Test test) ->
+                    {
+                        test.assertEqual(expected, QubTicTacToeMetrics.formatDuration(nanoseconds));
+                    });
+                };
+
+                formatDurationTest.run(0.0, "0ns");
+                formatDurationTest.run(999.0, "999ns");
+                formatDurationTest.run(1500.0, "1.5us");
+                formatDurationTest.run(2500000.0, "2.5ms");
+                formatDurationTest.run(3250000000.0, "3.25s");
+            });
+
+            runner.testGroup("writeSummary(CharacterWriteStream)", () ->
+            {
+                runner.test("with counters and one phase", (Test test) ->
+                {
+                    final QubTicTacToeMetrics metrics = QubTicTacToeMetrics.create();
+                    metrics.addGameStarted();
+                    metrics.addGameStarted();
+                    metrics.addGameFinished();
+                    metrics.addMoveMade();
+                    metrics.addInvalidMove();
+                    metrics.getPhase(QubTicTacToeMetrics.render).record(2000);
+                    metrics.getPhase(QubTicTacToeMetrics.render).record(4000);
+
+                    final InMemoryCharacterStream output = InMemoryCharacterStream.create();
+                    metrics.writeSummary(output);
+
+                    final String[] lines = output.getText().await().split("\n");
+                    test.assertEqual(2, lines.length);
+                    test.assertTrue(lines[0].startsWith("Metrics after "));
+                    test.assertTrue(lines[0].contains(": Games started: 2, Games finished: 1, Moves: 1 ("));
+                    test.assertTrue(lines[0].endsWith(", Invalid moves: 1"));
+                    test.assertEqual("  Render: 2, Mean: 3.0us, P50: 2.0us, P99: 4.0us, Max: 4.0us", lines[1]);
+                });
+            });
+
+            runner.testGroup("toJson()", () ->
+            {
+                runner.test("with counters and one phase", (Test test) ->
+                {
+                    final QubTicTacToeMetrics metrics = QubTicTacToeMetrics.create();
+                    metrics.addGameStarted();
+                    metrics.addMoveMade();
+                    metrics.addMoveMade();
+                    metrics.getPhase(QubTicTacToeMetrics.outputFlush).record(5);
+
+                    final String json = metrics.toJson();
+                    test.assertTrue(json.startsWith("{\"elapsedNanoseconds\":"));
+                    test.assertTrue(json.endsWith(
+                        ",\"gamesStarted\":1,\"gamesFinished\":0,\"movesMade\":2,\"invalidMoves\":0,\"phases\":{" +
+                        "\"inputWait\":{\"count\":0,\"totalNanoseconds\":0,\"meanNanoseconds\":0,\"p50Nanoseconds\":0,\"p99Nanoseconds\":0,\"maximumNanoseconds\":0,\"buckets\":[]}," +
+                        "\"moveParse\":{\"count\":0,\"totalNanoseconds\":0,\"meanNanoseconds\":0,\"p50Nanoseconds\":0,\"p99Nanoseconds\":0,\"maximumNanoseconds\":0,\"buckets\":[]}," +
+                        "\"modelUpdate\":{\"count\":0,\"totalNanoseconds\":0,\"meanNanoseconds\":0,\"p50Nanoseconds\":0,\"p99Nanoseconds\":0,\"maximumNanoseconds\":0,\"buckets\":[]}," +
+                        "\"engineThink\":{\"count\":0,\"totalNanoseconds\":0,\"meanNanoseconds\":0,\"p50Nanoseconds\":0,\"p99Nanoseconds\":0,\"maximumNanoseconds\":0,\"buckets\":[]}," +
+                        "\"render\":{\"count\":0,\"totalNanoseconds\":0,\"meanNanoseconds\":0,\"p50Nanoseconds\":0,\"p99Nanoseconds\":0,\"maximumNanoseconds\":0,\"buckets\":[]}," +
+                        "\"outputFlush\":{\"count\":1,\"totalNanoseconds\":5,\"meanNanoseconds\":5,\"p50Nanoseconds\":5,\"p99Nanoseconds\":5,\"maximumNanoseconds\":5,\"buckets\":[0,0,0,1]}}}"));
+                });
+            });
+        });
+    }
+}
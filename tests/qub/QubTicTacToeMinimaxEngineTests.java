@@ -0,0 +1,92 @@
+package qub;
+
+public interface QubTicTacToeMinimaxEngineTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(QubTicTacToeMinimaxEngine.class, () ->
+        {
+            runner.testGroup("create(QubTicTacToeGeometry)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> QubTicTacToeMinimaxEngine.create(null),
+                        new PreConditionFailure("geometry cannot be null."));
+                });
+
+                runner.test("with 15x15 board", (Test test) ->
+                {
+                    test.assertThrows(() -> QubTicTacToeMinimaxEngine.create(QubTicTacToeGeometry.create(15, 15, 5)),
+                        new PreConditionFailure("geometry.getWordCount() (4) must be 1."));
+                });
+            });
+
+            runner.testGroup("chooseMove(QubTicTacToeModel)", () ->
+            {
+                runner.test("with winning move available", (Test test) ->
+                {
+                    final QubTicTacToeModel model = QubTicTacToeModel.create();
+                    model.makeMove(0, 0);
+                    model.makeMove(1, 0);
+                    model.makeMove(0, 1);
+                    model.makeMove(1, 1);
+
+                    final QubTicTacToeMinimaxEngine engine = QubTicTacToeMinimaxEngine.create(model.getGeometry());
+                    test.assertEqual(2, engine.chooseMove(model));
+                });
+
+                runner.test("with opponent about to win", (Test test) ->
+                {
+                    final QubTicTacToeModel model = QubTicTacToeModel.create();
+                    model.makeMove(0, 0);
+                    model.makeMove(1, 1);
+                    model.makeMove(0, 1);
+
+                    final QubTicTacToeMinimaxEngine engine = QubTicTacToeMinimaxEngine.create(model.getGeometry());
+                    test.assertEqual(2, engine.chooseMove(model));
+                });
+
+                runner.test("with perfect play on both sides", (Test test) ->
+                {
+                    final QubTicTacToeModel model = QubTicTacToeModel.create();
+                    final QubTicTacToeGeometry geometry = model.getGeometry();
+                    final QubTicTacToeMinimaxEngine engine = QubTicTacToeMinimaxEngine.create(geometry);
+                    while (!model.isGameDone())
+                    {
+                        final int cellIndex = engine.chooseMove(model);
+                        model.makeMove(geometry.getRow(cellIndex), geometry.getColumn(cellIndex));
+                    }
+                    test.assertTrue(model.isTie());
+                });
+
+                runner.test("with perfect play on both sides on a 4x4 board", (Test test) ->
+                {
+                    final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create(4, 4, 4);
+                    final QubTicTacToeModel model = QubTicTacToeModel.create(geometry);
+                    final QubTicTacToeMinimaxEngine engine = QubTicTacToeMinimaxEngine.create(geometry);
+                    while (!model.isGameDone())
+                    {
+                        final int cellIndex = engine.chooseMove(model);
+                        model.makeMove(geometry.getRow(cellIndex), geometry.getColumn(cellIndex));
+                    }
+                    test.assertTrue(model.isTie());
+                });
+            });
+
+            runner.testGroup("getScore(long,long)", () ->
+            {
+                runner.test("with empty 3x3 board", (Test test) ->
+                {
+                    final QubTicTacToeMinimaxEngine engine = QubTicTacToeMinimaxEngine.create(QubTicTacToeGeometry.create());
+                    test.assertEqual(0, engine.getScore(0, 0));
+                });
+
+                runner.test("with empty 4x4 board and three in a row to win", (Test test) ->
+                {
+                    final QubTicTacToeMinimaxEngine engine = QubTicTacToeMinimaxEngine.create(QubTicTacToeGeometry.create(4, 4, 3));
+                    test.assertTrue(QubTicTacToeMinimaxEngine.isWinScore(engine.getScore(0, 0)));
+                });
+            });
+        });
+    }
+}
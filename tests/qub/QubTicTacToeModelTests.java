@@ -0,0 +1,362 @@
+package qub;
+
+public interface QubTicTacToeModelTests
+{
+    static QubTicTacToeModel play(QubTicTacToeGeometry geometry, int... cellIndexes)
+    {
+        final QubTicTacToeModel result = QubTicTacToeModel.create(geometry);
+        for (final int cellIndex : cellIndexes)
+        {
+            result.makeMove(geometry.getRow(cellIndex), geometry.getColumn(cellIndex));
+        }
+        return result;
+    }
+
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(QubTicTacToeModel.class, () ->
+        {
+            runner.testGroup("makeMove(int,int)", () ->
+            {
+                runner.test("stores each player's cells in their own bitmask", (Test test) ->
+                {
+                    final QubTicTacToeModel model = QubTicTacToeModelTests.play(QubTicTacToeGeometry.create(), 4, 0, 8);
+                    test.assertEqual((1L << 4) | (1L << 8), model.getPlayerBoard("X"));
+                    test.assertEqual(1L << 0, model.getPlayerBoard("O"));
+                    test.assertEqual("X", model.getBoardCell(1, 1));
+                    test.assertEqual("O", model.getBoardCell(0, 0));
+                    test.assertEqual(" ", model.getBoardCell(0, 1));
+                    test.assertEqual(3, model.getFilledCellCount());
+                    test.assertEqual("O", model.getCurrentPlayer());
+                });
+
+                runner.test("with board of more than 64 cells", (Test test) ->
+                {
+                    final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create(10, 10, 5);
+                    final QubTicTacToeModel model = QubTicTacToeModelTests.play(geometry, 63, 64);
+                    test.assertEqual(1L << 63, model.getPlayerBoardWord("X", 0));
+                    test.assertEqual(0L, model.getPlayerBoardWord("X", 1));
+                    test.assertEqual(1L, model.getPlayerBoardWord("O", 1));
+                    test.assertEqual("X", model.getBoardCell(6, 3));
+                    test.assertEqual("O", model.getBoardCell(6, 4));
+                });
+
+                runner.test("with tie game", (Test test) ->
+                {
+                    final QubTicTacToeModel model = QubTicTacToeModelTests.play(QubTicTacToeGeometry.create(), QubTicTacToeBenchmarks.tieGameCells);
+                    test.assertTrue(model.isGameDone());
+                    test.assertTrue(model.isTie());
+                    test.assertFalse(model.hasWinner());
+                    test.assertEqual(9, model.getFilledCellCount());
+                });
+
+                runner.test("with full board won by the last move", (Test test) ->
+                {
+                    final QubTicTacToeModel model = QubTicTacToeModelTests.play(QubTicTacToeGeometry.create(), 0, 3, 1, 4, 5, 7, 6, 8, 2);
+                    test.assertTrue(model.isGameDone());
+                    test.assertFalse(model.isTie());
+                    test.assertEqual("X", model.getWinner());
+                });
+            });
+
+            runner.testGroup("hasWinner()", () ->
+            {
+                final Action3<String,QubTicTacToeGeometry,int[]> winTest = (String testName, QubTicTacToeGeometry geometry, int[] cellIndexes) ->
+                {
+                    runner.test(testName, (Test test) ->
+                    {
+                        final QubTicTacToeModel model = QubTicTacToeModelTests.play(geometry, cellIndexes);
+                        test.assertTrue(model.hasWinner());
+                        test.assertTrue(model.isGameDone());
+                        test.assertEqual("X", model.getWinner());
+                        test.assertFalse(model.isTie());
+                    });
+                };
+
+                winTest.run("with row", QubTicTacToeGeometry.create(), new int[] { 3, 0, 4, 1, 5 });
+                winTest.run("with column", QubTicTacToeGeometry.create(), new int[] { 1, 0, 4, 2, 7 });
+                winTest.run("with diagonal", QubTicTacToeGeometry.create(), new int[] { 0, 1, 4, 2, 8 });
+                winTest.run("with anti-diagonal", QubTicTacToeGeometry.create(), new int[] { 2, 0, 4, 1, 6 });
+                winTest.run("with last move in the middle of the line", QubTicTacToeGeometry.create(4, 4, 3), new int[] { 4, 0, 6, 1, 5 });
+                winTest.run("with row across 64-bit words", QubTicTacToeGeometry.create(10, 10, 5), new int[] { 60, 0, 61, 1, 62, 2, 64, 3, 63 });
+                winTest.run("with diagonal across 64-bit words", QubTicTacToeGeometry.create(10, 10, 5), new int[] { 33, 0, 44, 1, 55, 2, 77, 3, 66 });
+
+                runner.test("with last move not on a win line", (Test test) ->
+                {
+                    final QubTicTacToeModel model = QubTicTacToeModelTests.play(QubTicTacToeGeometry.create(), 0, 3, 1, 4, 8);
+                    test.assertFalse(model.hasWinner());
+                    test.assertFalse(model.isGameDone());
+                    test.assertEqual("O", model.getCurrentPlayer());
+                });
+
+                runner.test("with line longer than the win length", (Test test) ->
+                {
+                    final QubTicTacToeModel model = QubTicTacToeModelTests.play(QubTicTacToeGeometry.create(5, 5, 4), 0, 5, 1, 6, 3, 7, 4);
+                    test.assertFalse(model.hasWinner());
+
+                    model.makeMove(2, 2);
+                    model.makeMove(0, 2);
+                    test.assertEqual("X", model.getWinner());
+                });
+
+                runner.test("with O winning", (Test test) ->
+                {
+                    final QubTicTacToeModel model = QubTicTacToeModelTests.play(QubTicTacToeGeometry.create(), 0, 2, 1, 4, 8, 6);
+                    test.assertEqual("O", model.getWinner());
+                    test.assertTrue(model.isWinner("O"));
+                    test.assertFalse(model.isWinner("X"));
+                });
+            });
+
+            runner.testGroup("undoMove()", () ->
+            {
+                runner.test("with no moves", (Test test) ->
+                {
+                    final QubTicTacToeModel model = QubTicTacToeModel.create();
+                    test.assertFalse(model.canUndo());
+                    test.assertThrows(() -> model.undoMove(),
+                        new PreConditionFailure("this.canUndo() cannot be false."));
+                });
+
+                runner.test("with one move", (Test test) ->
+                {
+                    final QubTicTacToeModel model = QubTicTacToeModel.create();
+                    model.makeMove(1, 1);
+                    test.assertTrue(model.canUndo());
+                    test.assertNotEqual(0L, model.getZobristHash());
+
+                    model.undoMove();
+                    test.assertFalse(model.canUndo());
+                    test.assertEqual(" ", model.getBoardCell(1, 1));
+                    test.assertEqual(0, model.getFilledCellCount());
+                    test.assertEqual(1, model.getTurnNumber());
+                    test.assertEqual("X", model.getCurrentPlayer());
+                    test.assertEqual(0L, model.getZobristHash());
+                });
+
+                runner.test("with winning move", (Test test) ->
+                {
+                    final QubTicTacToeModel model = QubTicTacToeModel.create();
+                    model.makeMove(0, 0);
+                    model.makeMove(1, 0);
+                    model.makeMove(0, 1);
+                    model.makeMove(1, 1);
+                    model.makeMove(0, 2);
+                    test.assertTrue(model.isGameDone());
+                    test.assertEqual("X", model.getWinner());
+
+                    model.undoMove();
+                    test.assertFalse(model.isGameDone());
+                    test.assertFalse(model.hasWinner());
+                    test.assertEqual(5, model.getTurnNumber());
+                    test.assertEqual("X", model.getCurrentPlayer());
+
+                    model.makeMove(2, 2);
+                    test.assertFalse(model.isGameDone());
+                    test.assertEqual("O", model.getCurrentPlayer());
+                });
+
+                runner.test("with 15x15 board", (Test test) ->
+                {
+                    final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create(15, 15, 5);
+                    final QubTicTacToeModel model = QubTicTacToeModel.create(geometry);
+                    model.makeMove(14, 14);
+                    test.assertEqual(1L << (224 - 192), model.getPlayerBoardWord("X", 3));
+
+                    model.undoMove();
+                    test.assertEqual(0L, model.getPlayerBoardWord("X", 3));
+                    test.assertEqual(0L, model.getZobristHash());
+                });
+            });
+
+            runner.testGroup("redoMove()", () ->
+            {
+                runner.test("with no undone moves", (Test test) ->
+                {
+                    final QubTicTacToeModel model = QubTicTacToeModel.create();
+                    model.makeMove(1, 1);
+                    test.assertFalse(model.canRedo());
+                    test.assertThrows(() -> model.redoMove(),
+                        new PreConditionFailure("this.canRedo() cannot be false."));
+                });
+
+                runner.test("with undone moves", (Test test) ->
+                {
+                    final QubTicTacToeModel model = QubTicTacToeModel.create();
+                    model.makeMove(1, 1);
+                    model.makeMove(0, 0);
+                    final long zobristHash = model.getZobristHash();
+
+                    model.undoMove();
+                    model.undoMove();
+                    test.assertTrue(model.canRedo());
+
+                    model.redoMove();
+                    test.assertEqual("X", model.getBoardCell(1, 1));
+                    test.assertEqual("O", model.getCurrentPlayer());
+                    test.assertTrue(model.canRedo());
+
+                    model.redoMove();
+                    test.assertEqual("O", model.getBoardCell(0, 0));
+                    test.assertFalse(model.canRedo());
+                    test.assertEqual(zobristHash, model.getZobristHash());
+                    test.assertEqual(4, model.getMove(0));
+                    test.assertEqual(0, model.getMove(1));
+                });
+
+                runner.test("after a new move", (Test test) ->
+                {
+                    final QubTicTacToeModel model = QubTicTacToeModel.create();
+                    model.makeMove(1, 1);
+                    model.undoMove();
+                    model.makeMove(0, 0);
+                    test.assertFalse(model.canRedo());
+                });
+            });
+
+            runner.testGroup("getZobristHash()", () ->
+            {
+                runner.test("with the same cells taken in a different order", (Test test) ->
+                {
+                    final QubTicTacToeModel first = QubTicTacToeModel.create();
+                    first.makeMove(0, 0);
+                    first.makeMove(1, 1);
+                    first.makeMove(2, 2);
+
+                    final QubTicTacToeModel second = QubTicTacToeModel.create();
+                    second.makeMove(2, 2);
+                    second.makeMove(1, 1);
+                    second.makeMove(0, 0);
+
+                    test.assertEqual(first.getZobristHash(), second.getZobristHash());
+                });
+
+                runner.test("with the same cells taken by different players", (Test test) ->
+                {
+                    final QubTicTacToeModel first = QubTicTacToeModel.create();
+                    first.makeMove(0, 0);
+                    first.makeMove(1, 1);
+
+                    final QubTicTacToeModel second = QubTicTacToeModel.create();
+                    second.makeMove(1, 1);
+                    second.makeMove(0, 0);
+
+                    test.assertNotEqual(first.getZobristHash(), second.getZobristHash());
+                });
+            });
+
+            runner.testGroup("getLegalMoves()", () ->
+            {
+                runner.test("with empty board", (Test test) ->
+                {
+                    final QubTicTacToeModel model = QubTicTacToeModel.create();
+                    test.assertEqual(0x1FFL, model.getLegalMoves());
+                    test.assertEqual(9, model.getLegalMoveCount());
+                });
+
+                runner.test("with some cells taken", (Test test) ->
+                {
+                    final QubTicTacToeModel model = QubTicTacToeModel.create();
+                    model.makeMove(0, 0);
+                    model.makeMove(1, 1);
+                    test.assertEqual(0x1EEL, model.getLegalMoves());
+                    test.assertEqual(7, model.getLegalMoveCount());
+                    test.assertFalse(model.isLegalMove(0));
+                    test.assertTrue(model.isLegalMove(1));
+                    test.assertFalse(model.isLegalMove(4));
+                });
+
+                runner.test("with game won", (Test test) ->
+                {
+                    final QubTicTacToeModel model = QubTicTacToeModel.create();
+                    model.makeMove(0, 0);
+                    model.makeMove(1, 0);
+                    model.makeMove(0, 1);
+                    model.makeMove(1, 1);
+                    model.makeMove(0, 2);
+                    test.assertTrue(model.isGameDone());
+                    test.assertEqual(0L, model.getLegalMoves());
+                    test.assertEqual(0, model.getLegalMoveCount());
+                    test.assertFalse(model.isLegalMove(8));
+                    test.assertEqual(-1, model.getNextLegalMove(0));
+
+                    model.undoMove();
+                    test.assertEqual(0x1E4L, model.getLegalMoves());
+                    test.assertEqual(5, model.getLegalMoveCount());
+                });
+
+                runner.test("with board of 64 cells", (Test test) ->
+                {
+                    final QubTicTacToeModel model = QubTicTacToeModel.create(QubTicTacToeGeometry.create(8, 8, 5));
+                    model.makeMove(7, 7);
+                    test.assertEqual(Long.MAX_VALUE, model.getLegalMoves());
+                    test.assertEqual(63, model.getLegalMoveCount());
+                });
+            });
+
+            runner.testGroup("getLegalMoves(int[])", () ->
+            {
+                runner.test("with some cells taken", (Test test) ->
+                {
+                    final QubTicTacToeModel model = QubTicTacToeModel.create();
+                    model.makeMove(0, 1);
+                    model.makeMove(2, 2);
+                    final int[] moves = new int[9];
+                    test.assertEqual(7, model.getLegalMoves(moves));
+                    final int[] expectedMoves = { 0, 2, 3, 4, 5, 6, 7 };
+                    for (int moveIndex = 0; moveIndex < expectedMoves.length; ++moveIndex)
+                    {
+                        test.assertEqual(expectedMoves[moveIndex], moves[moveIndex]);
+                    }
+                });
+
+                runner.test("with board of more than 64 cells", (Test test) ->
+                {
+                    final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create(10, 10, 5);
+                    final QubTicTacToeModel model = QubTicTacToeModel.create(geometry);
+                    model.makeMove(6, 3);
+                    model.makeMove(6, 4);
+                    final int[] moves = new int[model.getLegalMoveCount()];
+                    test.assertEqual(98, model.getLegalMoves(moves));
+                    test.assertEqual(62, moves[62]);
+                    test.assertEqual(65, moves[63]);
+                    test.assertEqual(99, moves[97]);
+                });
+            });
+
+            runner.testGroup("getNextLegalMove(int)", () ->
+            {
+                runner.test("with every legal move", (Test test) ->
+                {
+                    final QubTicTacToeModel model = QubTicTacToeModel.create();
+                    model.makeMove(0, 0);
+                    model.makeMove(1, 1);
+                    model.makeMove(2, 2);
+
+                    final int[] moves = new int[model.getLegalMoveCount()];
+                    model.getLegalMoves(moves);
+                    int moveCount = 0;
+                    for (int cellIndex = model.getNextLegalMove(0); cellIndex != -1; cellIndex = model.getNextLegalMove(cellIndex + 1))
+                    {
+                        test.assertEqual(moves[moveCount], cellIndex);
+                        ++moveCount;
+                    }
+                    test.assertEqual(6, moveCount);
+                    test.assertEqual(-1, model.getNextLegalMove(9));
+                });
+
+                runner.test("with board of more than 64 cells", (Test test) ->
+                {
+                    final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create(10, 10, 5);
+                    final QubTicTacToeModel model = QubTicTacToeModel.create(geometry);
+                    model.makeMove(6, 3);
+                    model.makeMove(6, 4);
+                    test.assertEqual(62, model.getNextLegalMove(62));
+                    test.assertEqual(65, model.getNextLegalMove(63));
+                    test.assertEqual(99, model.getNextLegalMove(99));
+                    test.assertEqual(-1, model.getNextLegalMove(100));
+                });
+            });
+        });
+    }
+}
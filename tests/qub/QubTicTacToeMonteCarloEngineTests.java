@@ -0,0 +1,170 @@
+package qub;
+
+public interface QubTicTacToeMonteCarloEngineTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(QubTicTacToeMonteCarloEngine.class, () ->
+        {
+            runner.testGroup("createWithPlayouts(QubTicTacToeGeometry,int,int)", () ->
+            {
+                runner.test("with null geometry", (Test test) ->
+                {
+                    test.assertThrows(() -> QubTicTacToeMonteCarloEngine.createWithPlayouts(null, 100, 1),
+                        new PreConditionFailure("geometry cannot be null."));
+                });
+
+                runner.test("with 0 playouts", (Test test) ->
+                {
+                    test.assertThrows(() -> QubTicTacToeMonteCarloEngine.createWithPlayouts(QubTicTacToeGeometry.create(), 0, 1),
+                        new PreConditionFailure("playoutCount (0) must be greater than or equal to 1."));
+                });
+
+                runner.test("with 0 threads", (Test test) ->
+                {
+                    test.assertThrows(() -> QubTicTacToeMonteCarloEngine.createWithPlayouts(QubTicTacToeGeometry.create(), 100, 0),
+                        new PreConditionFailure("threadCount (0) must be greater than or equal to 1."));
+                });
+
+                runner.test("with 15x15 board", (Test test) ->
+                {
+                    final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create(15, 15, 5);
+                    final QubTicTacToeMonteCarloEngine engine = QubTicTacToeMonteCarloEngine.createWithPlayouts(geometry, 100, 2);
+                    test.assertSame(geometry, engine.getGeometry());
+                    test.assertEqual(2, engine.getThreadCount());
+                    test.assertEqual(0L, engine.getPlayoutCount());
+                });
+            });
+
+            runner.testGroup("chooseMove(QubTicTacToeModel)", () ->
+            {
+                runner.test("with winning move available", (Test test) ->
+                {
+                    final QubTicTacToeModel model = QubTicTacToeModel.create();
+                    model.makeMove(0, 0);
+                    model.makeMove(1, 0);
+                    model.makeMove(0, 1);
+                    model.makeMove(1, 1);
+
+                    final QubTicTacToeMonteCarloEngine engine = QubTicTacToeMonteCarloEngine.createWithPlayouts(model.getGeometry(), 100, 1);
+                    test.assertEqual(2, engine.chooseMove(model));
+                });
+
+                runner.test("with opponent about to win", (Test test) ->
+                {
+                    final QubTicTacToeModel model = QubTicTacToeModel.create();
+                    model.makeMove(0, 0);
+                    model.makeMove(1, 1);
+                    model.makeMove(0, 1);
+
+                    final QubTicTacToeMonteCarloEngine engine = QubTicTacToeMonteCarloEngine.createWithPlayouts(model.getGeometry(), 100, 1);
+                    test.assertEqual(2, engine.chooseMove(model));
+                });
+
+                runner.test("with opponent about to win on a 15x15 board", (Test test) ->
+                {
+                    final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create(15, 15, 5);
+                    final QubTicTacToeModel model = QubTicTacToeModel.create(geometry);
+                    model.makeMove(7, 7);
+                    model.makeMove(0, 0);
+                    model.makeMove(7, 8);
+                    model.makeMove(0, 14);
+                    model.makeMove(7, 9);
+                    model.makeMove(14, 0);
+                    model.makeMove(7, 10);
+
+                    final QubTicTacToeMonteCarloEngine engine = QubTicTacToeMonteCarloEngine.createWithPlayouts(geometry, 100, 1);
+                    final int cellIndex = engine.chooseMove(model);
+                    test.assertTrue(cellIndex == geometry.getCellIndex(7, 6) || cellIndex == geometry.getCellIndex(7, 11));
+                    test.assertEqual(0L, engine.getPlayoutCount());
+                });
+
+                runner.test("against perfect play", (Test test) ->
+                {
+                    final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create();
+                    final QubTicTacToeModel model = QubTicTacToeModel.create(geometry);
+                    final QubTicTacToeEngine xEngine = QubTicTacToeMonteCarloEngine.createWithPlayouts(geometry, 20000, 2);
+                    final QubTicTacToeEngine oEngine = QubTicTacToeMinimaxEngine.create(geometry);
+                    while (!model.isGameDone())
+                    {
+                        final QubTicTacToeEngine engine = model.getCurrentPlayer().equals("X") ? xEngine : oEngine;
+                        final int cellIndex = engine.chooseMove(model);
+                        model.makeMove(geometry.getRow(cellIndex), geometry.getColumn(cellIndex));
+                    }
+                    test.assertTrue(model.isTie());
+                });
+
+                runner.test("with a time budget on a 15x15 board", (Test test) ->
+                {
+                    final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create(15, 15, 5);
+                    final QubTicTacToeModel model = QubTicTacToeModel.create(geometry);
+                    model.makeMove(7, 7);
+
+                    final QubTicTacToeMonteCarloEngine engine = QubTicTacToeMonteCarloEngine.createWithMilliseconds(geometry, 50, 2);
+                    final int cellIndex = engine.chooseMove(model);
+                    test.assertEqual(" ", model.getBoardCell(geometry.getRow(cellIndex), geometry.getColumn(cellIndex)));
+                    test.assertTrue(engine.getPlayoutCount() > 0);
+                });
+            });
+        });
+
+        runner.testGroup(QubTicTacToeMonteCarloSearch.class, () ->
+        {
+            runner.testGroup("iterate()", () ->
+            {
+                runner.test("visits every child of the root once before revisiting any", (Test test) ->
+                {
+                    final QubTicTacToeMonteCarloSearch search = new QubTicTacToeMonteCarloSearch(QubTicTacToeGeometry.create(), 1000, 5);
+                    search.reset(new long[1], new long[1]);
+                    for (int iteration = 0; iteration < 9; ++iteration)
+                    {
+                        search.iterate();
+                    }
+
+                    final long[] cellVisits = new long[9];
+                    search.addRootVisits(cellVisits);
+                    for (final long visits : cellVisits)
+                    {
+                        test.assertEqual(1L, visits);
+                    }
+                });
+
+                runner.test("tries unvisited children in a random order", (Test test) ->
+                {
+                    // The first iteration expands the root, and the second one selects among the
+                    // eight children that haven't been visited yet.
+                    final boolean[] secondCells = new boolean[9];
+                    for (int seed = 1; seed <= 50; ++seed)
+                    {
+                        final QubTicTacToeMonteCarloSearch search = new QubTicTacToeMonteCarloSearch(QubTicTacToeGeometry.create(), 1000, seed);
+                        search.reset(new long[1], new long[1]);
+                        search.iterate();
+                        final long[] firstVisits = new long[9];
+                        search.addRootVisits(firstVisits);
+
+                        search.iterate();
+                        final long[] secondVisits = new long[9];
+                        search.addRootVisits(secondVisits);
+                        for (int cellIndex = 0; cellIndex < 9; ++cellIndex)
+                        {
+                            if (secondVisits[cellIndex] != firstVisits[cellIndex])
+                            {
+                                secondCells[cellIndex] = true;
+                            }
+                        }
+                    }
+
+                    int secondCellCount = 0;
+                    for (final boolean secondCell : secondCells)
+                    {
+                        if (secondCell)
+                        {
+                            ++secondCellCount;
+                        }
+                    }
+                    test.assertTrue(secondCellCount > 2);
+                });
+            });
+        });
+    }
+}
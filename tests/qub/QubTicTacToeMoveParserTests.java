@@ -0,0 +1,138 @@
+package qub;
+
+public interface QubTicTacToeMoveParserTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(QubTicTacToeMoveParser.class, () ->
+        {
+            runner.testGroup("get(QubTicTacToeGeometry)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> QubTicTacToeMoveParser.get(null),
+                        new PreConditionFailure("geometry cannot be null."));
+                });
+
+                runner.test("with same geometry twice", (Test test) ->
+                {
+                    final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create(5, 4, 3);
+                    final QubTicTacToeMoveParser parser = QubTicTacToeMoveParser.get(geometry);
+                    test.assertSame(geometry, parser.getGeometry());
+                    test.assertSame(parser, QubTicTacToeMoveParser.get(geometry));
+                });
+            });
+
+            runner.testGroup("parse(CharSequence)", () ->
+            {
+                final Action3<QubTicTacToeGeometry,String,Integer> parseTest = (QubTicTacToeGeometry geometry, String text, Integer expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(text) + " on " + geometry, (Test test) ->
+                    {
+                        final QubTicTacToeMoveParser parser = QubTicTacToeMoveParser.get(geometry);
+                        test.assertEqual(expected.intValue(), parser.parse(text));
+                        test.assertEqual(expected.intValue(), parser.parse(new StringBuilder(text)));
+                    });
+                };
+
+                final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create();
+                parseTest.run(geometry, "", QubTicTacToeMoveParser.noMove);
+                parseTest.run(geometry, "   ", QubTicTacToeMoveParser.noMove);
+                parseTest.run(geometry, "a1", 0);
+                parseTest.run(geometry, "A1", 0);
+                parseTest.run(geometry, "b2", 4);
+                parseTest.run(geometry, "2b", 4);
+                parseTest.run(geometry, " b 2 ", 4);
+                parseTest.run(geometry, "2 B", 4);
+                parseTest.run(geometry, "c3", 8);
+                parseTest.run(geometry, "03c", 8);
+                parseTest.run(geometry, "d1", QubTicTacToeMoveParser.invalidMove);
+                parseTest.run(geometry, "a4", QubTicTacToeMoveParser.invalidMove);
+                parseTest.run(geometry, "a0", QubTicTacToeMoveParser.invalidMove);
+                parseTest.run(geometry, "a", QubTicTacToeMoveParser.invalidMove);
+                parseTest.run(geometry, "1", QubTicTacToeMoveParser.invalidMove);
+                parseTest.run(geometry, "a1b", QubTicTacToeMoveParser.invalidMove);
+                parseTest.run(geometry, "a1!", QubTicTacToeMoveParser.invalidMove);
+                parseTest.run(geometry, "ab1", QubTicTacToeMoveParser.invalidMove);
+                parseTest.run(geometry, "a1 b2", QubTicTacToeMoveParser.invalidMove);
+                parseTest.run(geometry, "a99999999999999999999", QubTicTacToeMoveParser.invalidMove);
+                parseTest.run(geometry, "zzzzzzzzzzzzzzzzzzzz1", QubTicTacToeMoveParser.invalidMove);
+
+                final QubTicTacToeGeometry largeGeometry = QubTicTacToeGeometry.create(15, 26, 5);
+                parseTest.run(largeGeometry, "a10", 9);
+                parseTest.run(largeGeometry, "15z", (25 * 15) + 14);
+                parseTest.run(largeGeometry, "a16", QubTicTacToeMoveParser.invalidMove);
+                parseTest.run(largeGeometry, "aa1", QubTicTacToeMoveParser.invalidMove);
+                parseTest.run(largeGeometry, "1aa", QubTicTacToeMoveParser.invalidMove);
+            });
+
+            runner.testGroup("parseNext(CharSequence,int,int)", () ->
+            {
+                runner.test("with moves separated by whitespace", (Test test) ->
+                {
+                    final QubTicTacToeMoveParser parser = QubTicTacToeMoveParser.get(QubTicTacToeGeometry.create());
+                    final String text = "a1  2b x c3";
+
+                    long parseResult = parser.parseNext(text, 0, text.length());
+                    test.assertEqual(0, QubTicTacToeMoveParser.getCellIndex(parseResult));
+                    test.assertEqual(2, QubTicTacToeMoveParser.getEndIndex(parseResult));
+
+                    parseResult = parser.parseNext(text, 2, text.length());
+                    test.assertEqual(4, QubTicTacToeMoveParser.getCellIndex(parseResult));
+                    test.assertEqual(6, QubTicTacToeMoveParser.getEndIndex(parseResult));
+
+                    parseResult = parser.parseNext(text, 6, text.length());
+                    test.assertEqual(QubTicTacToeMoveParser.invalidMove, QubTicTacToeMoveParser.getCellIndex(parseResult));
+                    test.assertEqual(8, QubTicTacToeMoveParser.getEndIndex(parseResult));
+
+                    parseResult = parser.parseNext(text, 8, text.length());
+                    test.assertEqual(8, QubTicTacToeMoveParser.getCellIndex(parseResult));
+                    test.assertEqual(11, QubTicTacToeMoveParser.getEndIndex(parseResult));
+
+                    parseResult = parser.parseNext(text, 11, text.length());
+                    test.assertEqual(QubTicTacToeMoveParser.noMove, QubTicTacToeMoveParser.getCellIndex(parseResult));
+                    test.assertEqual(11, QubTicTacToeMoveParser.getEndIndex(parseResult));
+                });
+
+                runner.test("with end index before the end of the text", (Test test) ->
+                {
+                    final QubTicTacToeMoveParser parser = QubTicTacToeMoveParser.get(QubTicTacToeGeometry.create());
+                    final long parseResult = parser.parseNext("b23", 0, 2);
+                    test.assertEqual(4, QubTicTacToeMoveParser.getCellIndex(parseResult));
+                    test.assertEqual(2, QubTicTacToeMoveParser.getEndIndex(parseResult));
+                });
+            });
+
+            runner.testGroup("parseAll(CharSequence,int[])", () ->
+            {
+                runner.test("with batch of moves", (Test test) ->
+                {
+                    final QubTicTacToeMoveParser parser = QubTicTacToeMoveParser.get(QubTicTacToeGeometry.create());
+                    final int[] cellIndexes = new int[9];
+                    test.assertEqual(3, parser.parseAll("a1 b2 3c", cellIndexes));
+                    test.assertEqual(0, cellIndexes[0]);
+                    test.assertEqual(4, cellIndexes[1]);
+                    test.assertEqual(8, cellIndexes[2]);
+                });
+
+                runner.test("with empty text", (Test test) ->
+                {
+                    final QubTicTacToeMoveParser parser = QubTicTacToeMoveParser.get(QubTicTacToeGeometry.create());
+                    test.assertEqual(0, parser.parseAll("", new int[1]));
+                });
+
+                runner.test("with invalid move", (Test test) ->
+                {
+                    final QubTicTacToeMoveParser parser = QubTicTacToeMoveParser.get(QubTicTacToeGeometry.create());
+                    test.assertEqual(QubTicTacToeMoveParser.invalidMove, parser.parseAll("a1 d4 c3", new int[9]));
+                });
+
+                runner.test("with more moves than the array can hold", (Test test) ->
+                {
+                    final QubTicTacToeMoveParser parser = QubTicTacToeMoveParser.get(QubTicTacToeGeometry.create());
+                    test.assertEqual(QubTicTacToeMoveParser.invalidMove, parser.parseAll("a1 b2", new int[1]));
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,183 @@
+package qub;
+
+import java.nio.file.Path;
+
+public interface QubTicTacToeMoveScriptValidatorTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(QubTicTacToeMoveScriptValidator.class, () ->
+        {
+            runner.testGroup("validateLine(String,QubTicTacToeMoveParser,long[],StringBuilder)", () ->
+            {
+                final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create();
+                final Action3<String,Integer,String> validateLineTest = (String line, Integer expectedOutcome, String expectedReport) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(line), (Test test) ->
+                    {
+                        final QubTicTacToeMoveScriptValidator validator = QubTicTacToeMoveScriptValidator.create(geometry, 1);
+                        final StringBuilder builder = new StringBuilder();
+                        final int outcome = validator.validateLine(line, QubTicTacToeMoveParser.get(geometry), new long[2 * geometry.getWordCount()], builder);
+                        test.assertEqual(expectedOutcome.intValue(), outcome);
+                        test.assertEqual(expectedReport, builder.toString());
+                    });
+                };
+
+                validateLineTest.run("", QubTicTacToeMoveScriptValidator.unfinished, "Unfinished after 0 moves.");
+                validateLineTest.run("b2 a1", QubTicTacToeMoveScriptValidator.unfinished, "Unfinished after 2 moves.");
+                validateLineTest.run("a1 b1 a2 b2 a3", QubTicTacToeMoveScriptValidator.xWin, "X wins after 5 moves.");
+                validateLineTest.run("1a 2b 3c 1b 2a 3b", QubTicTacToeMoveScriptValidator.oWin, "O wins after 6 moves.");
+                validateLineTest.run("a1 b2 c3 a2 c2 c1 a3 b3 b1", QubTicTacToeMoveScriptValidator.tie, "Tie after 9 moves.");
+                validateLineTest.run("a1 b1 a 2 b 2", QubTicTacToeMoveScriptValidator.unfinished, "Unfinished after 4 moves.");
+                validateLineTest.run("a1 d1", QubTicTacToeMoveScriptValidator.invalid, "Move 2 \"d1\" is not a valid space on the board.");
+                validateLineTest.run("a1 b1 hello", QubTicTacToeMoveScriptValidator.invalid, "Move 3 \"hello\" is not a valid space on the board.");
+                validateLineTest.run("a1 b1 1a", QubTicTacToeMoveScriptValidator.invalid, "Move 3 \"1a\" is already taken by \"X\".");
+                validateLineTest.run("a1 b1 c1 b1", QubTicTacToeMoveScriptValidator.invalid, "Move 4 \"b1\" is already taken by \"O\".");
+                validateLineTest.run("a1 b1 a2 b2 a3 c3", QubTicTacToeMoveScriptValidator.invalid, "Move 6 \"c3\" is after the end of the game.");
+                validateLineTest.run("a1 b2 c3 a2 c2 c1 a3 b3 b1 a1", QubTicTacToeMoveScriptValidator.invalid, "Move 10 \"a1\" is after the end of the game.");
+                validateLineTest.run("a1 b1 a2 b2 a3 a3", QubTicTacToeMoveScriptValidator.invalid, "Move 6 \"a3\" is after the end of the game.");
+                validateLineTest.run("a1 b1 a2 b2 a3 d1", QubTicTacToeMoveScriptValidator.invalid, "Move 6 \"d1\" is not a valid space on the board.");
+
+                runner.test("with boards from an earlier line", (Test test) ->
+                {
+                    final QubTicTacToeMoveScriptValidator validator = QubTicTacToeMoveScriptValidator.create(geometry, 1);
+                    final QubTicTacToeMoveParser parser = QubTicTacToeMoveParser.get(geometry);
+                    final long[] boards = new long[2 * geometry.getWordCount()];
+                    final StringBuilder builder = new StringBuilder();
+                    test.assertEqual(QubTicTacToeMoveScriptValidator.xWin, validator.validateLine("a1 b1 a2 b2 a3", parser, boards, builder));
+
+                    builder.setLength(0);
+                    test.assertEqual(QubTicTacToeMoveScriptValidator.unfinished, validator.validateLine("a1 b1", parser, boards, builder));
+                    test.assertEqual("Unfinished after 2 moves.", builder.toString());
+                });
+
+                runner.test("with board that has more than 64 cells", (Test test) ->
+                {
+                    final QubTicTacToeGeometry largeGeometry = QubTicTacToeGeometry.create(10, 10, 5);
+                    final QubTicTacToeMoveScriptValidator validator = QubTicTacToeMoveScriptValidator.create(largeGeometry, 1);
+                    final StringBuilder builder = new StringBuilder();
+                    final int outcome = validator.validateLine("j10 a1 j9 b1 j8 c1 j7 d1 j6", QubTicTacToeMoveParser.get(largeGeometry), new long[2 * largeGeometry.getWordCount()], builder);
+                    test.assertEqual(QubTicTacToeMoveScriptValidator.xWin, outcome);
+                    test.assertEqual("X wins after 9 moves.", builder.toString());
+                });
+            });
+
+            runner.testGroup("validate(Path,CharacterWriteStream)", () ->
+            {
+                runner.test("with more lines than a batch", (Test test) ->
+                {
+                    final Path folder = QubTicTacToeGameArchiveTests.createTemporaryFolder();
+                    try
+                    {
+                        final String[] games = { "a1 b1 a2 b2 a3", "b2 a1", "a1 a1", "a1 b2 c3 a2 c2 c1 a3 b3 b1" };
+                        final int lineCount = (3 * QubTicTacToeMoveScriptValidator.chunkSize * 2) + 5;
+                        final StringBuilder contents = new StringBuilder();
+                        for (int lineIndex = 0; lineIndex < lineCount; ++lineIndex)
+                        {
+                            contents.append(games[lineIndex % games.length]).append('\n');
+                        }
+                        final Path filePath = folder.resolve("games.txt");
+                        QubTicTacToeGameArchiveTests.writeFile(filePath, contents.toString());
+
+                        final InMemoryCharacterStream output = InMemoryCharacterStream.create();
+                        final QubTicTacToeMoveScriptValidator validator = QubTicTacToeMoveScriptValidator.create(QubTicTacToeGeometry.create(), 2);
+                        test.assertSame(validator, validator.validate(filePath, output).await());
+
+                        final String[] reports = { "X wins after 5 moves.", "Unfinished after 2 moves.", "Move 2 \"a1\" is already taken by \"X\".", "Tie after 9 moves." };
+                        final String[] lines = output.getText().await().split("\n");
+                        test.assertEqual(lineCount, lines.length);
+                        for (int lineIndex = 0; lineIndex < lineCount; ++lineIndex)
+                        {
+                            test.assertEqual((lineIndex + 1) + ": " + reports[lineIndex % reports.length], lines[lineIndex]);
+                        }
+                        test.assertEqual((long)lineCount, validator.getLineCount());
+                        test.assertEqual(1538L, validator.getOutcomeCount(QubTicTacToeMoveScriptValidator.xWin));
+                        test.assertEqual(0L, validator.getOutcomeCount(QubTicTacToeMoveScriptValidator.oWin));
+                        test.assertEqual(1537L, validator.getOutcomeCount(QubTicTacToeMoveScriptValidator.tie));
+                        test.assertEqual(1537L, validator.getOutcomeCount(QubTicTacToeMoveScriptValidator.unfinished));
+                        test.assertEqual(1537L, validator.getOutcomeCount(QubTicTacToeMoveScriptValidator.invalid));
+                    }
+                    finally
+                    {
+                        QubTicTacToeGameArchiveTests.deleteFolder(folder);
+                    }
+                });
+
+                runner.test("with more lines than a batch and reports that don't repeat within a chunk", (Test test) ->
+                {
+                    final Path folder = QubTicTacToeGameArchiveTests.createTemporaryFolder();
+                    try
+                    {
+                        // Every prefix of a tied game is unfinished, and 9 doesn't divide the chunk
+                        // size, so a chunk's reports written at another chunk's place don't match.
+                        final String[] moves = { "a1", "b2", "c3", "a2", "c2", "c1", "a3", "b3" };
+                        final int threadCount = 3;
+                        final int lineCount = (2 * QubTicTacToeMoveScriptValidator.chunkSize * threadCount) + 100;
+                        final StringBuilder contents = new StringBuilder();
+                        for (int lineIndex = 0; lineIndex < lineCount; ++lineIndex)
+                        {
+                            for (int moveIndex = 0; moveIndex < lineIndex % 9; ++moveIndex)
+                            {
+                                contents.append(moves[moveIndex]).append(' ');
+                            }
+                            contents.append('\n');
+                        }
+                        final Path filePath = folder.resolve("games.txt");
+                        QubTicTacToeGameArchiveTests.writeFile(filePath, contents.toString());
+
+                        final InMemoryCharacterStream output = InMemoryCharacterStream.create();
+                        final QubTicTacToeMoveScriptValidator validator = QubTicTacToeMoveScriptValidator.create(QubTicTacToeGeometry.create(), threadCount);
+                        validator.validate(filePath, output).await();
+
+                        final String[] lines = output.getText().await().split("\n");
+                        test.assertEqual(lineCount, lines.length);
+                        for (int lineIndex = 0; lineIndex < lineCount; ++lineIndex)
+                        {
+                            test.assertEqual((lineIndex + 1) + ": Unfinished after " + (lineIndex % 9) + " moves.", lines[lineIndex]);
+                        }
+                        test.assertEqual((long)lineCount, validator.getOutcomeCount(QubTicTacToeMoveScriptValidator.unfinished));
+                    }
+                    finally
+                    {
+                        QubTicTacToeGameArchiveTests.deleteFolder(folder);
+                    }
+                });
+
+                runner.test("with empty file", (Test test) ->
+                {
+                    final Path folder = QubTicTacToeGameArchiveTests.createTemporaryFolder();
+                    try
+                    {
+                        final Path filePath = folder.resolve("games.txt");
+                        QubTicTacToeGameArchiveTests.writeFile(filePath, "");
+
+                        final InMemoryCharacterStream output = InMemoryCharacterStream.create();
+                        final QubTicTacToeMoveScriptValidator validator = QubTicTacToeMoveScriptValidator.create(QubTicTacToeGeometry.create(), 4);
+                        validator.validate(filePath, output).await();
+                        test.assertEqual("", output.getText().await());
+                        test.assertEqual(0L, validator.getLineCount());
+                    }
+                    finally
+                    {
+                        QubTicTacToeGameArchiveTests.deleteFolder(folder);
+                    }
+                });
+
+                runner.test("with file that doesn't exist", (Test test) ->
+                {
+                    final Path folder = QubTicTacToeGameArchiveTests.createTemporaryFolder();
+                    try
+                    {
+                        final InMemoryCharacterStream output = InMemoryCharacterStream.create();
+                        final QubTicTacToeMoveScriptValidator validator = QubTicTacToeMoveScriptValidator.create(QubTicTacToeGeometry.create(), 1);
+                        test.assertNull(validator.validate(folder.resolve("games.txt"), output).catchError().await());
+                    }
+                    finally
+                    {
+                        QubTicTacToeGameArchiveTests.deleteFolder(folder);
+                    }
+                });
+            });
+        });
+    }
+}
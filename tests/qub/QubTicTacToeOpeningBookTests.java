@@ -0,0 +1,288 @@
+package qub;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+public interface QubTicTacToeOpeningBookTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(QubTicTacToeOpeningBook.class, () ->
+        {
+            runner.testGroup("QubTicTacToeOpeningBookBuilder.addGame(QubTicTacToeGameRecord)", () ->
+            {
+                runner.test("with game on a different geometry", (Test test) ->
+                {
+                    final QubTicTacToeOpeningBookBuilder builder = QubTicTacToeOpeningBookBuilder.create(QubTicTacToeGeometry.create(3, 3, 3), 4);
+                    final QubTicTacToeGameRecord record = QubTicTacToeGameRecord.create(QubTicTacToeGeometry.create(4, 4, 3), "random", "random", QubTicTacToeSessionStore.tie, new int[] { 0 });
+                    test.assertFalse(builder.addGame(record));
+                    test.assertEqual(0L, builder.build().getEntryCount());
+                });
+
+                runner.test("with unfinished game", (Test test) ->
+                {
+                    final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create(3, 3, 3);
+                    final QubTicTacToeOpeningBookBuilder builder = QubTicTacToeOpeningBookBuilder.create(geometry, 4);
+                    final QubTicTacToeGameRecord record = QubTicTacToeGameRecord.create(geometry, "random", "random", QubTicTacToeSessionStore.inProgress, new int[] { 0, 4 });
+                    test.assertFalse(builder.addGame(record));
+                });
+
+                runner.test("with the winner's moves outvoting the loser's moves", (Test test) ->
+                {
+                    final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create(3, 3, 3);
+                    final QubTicTacToeOpeningBookBuilder builder = QubTicTacToeOpeningBookBuilder.create(geometry, 2);
+
+                    // X opens in the center and wins twice. X opens in a corner and loses three times.
+                    test.assertTrue(builder.addGame(QubTicTacToeGameRecord.create(geometry, "a", "b", QubTicTacToeSessionStore.xWins, new int[] { 4, 1, 0, 2, 8 })));
+                    test.assertTrue(builder.addGame(QubTicTacToeGameRecord.create(geometry, "a", "b", QubTicTacToeSessionStore.xWins, new int[] { 4, 1, 0, 2, 8 })));
+                    for (int gameIndex = 0; gameIndex < 3; ++gameIndex)
+                    {
+                        test.assertTrue(builder.addGame(QubTicTacToeGameRecord.create(geometry, "a", "b", QubTicTacToeSessionStore.oWins, new int[] { 0, 4, 1, 2, 3, 6 })));
+                    }
+
+                    final QubTicTacToeOpeningBook book = builder.build();
+                    test.assertEqual(3L, book.getEntryCount());
+                    test.assertEqual(4, book.getMove(new int[0], 0));
+                    // O's answer to the center is a side, which only ever lost, but it is the only
+                    // answer that was played.
+                    test.assertEqual(1, book.getMove(new int[] { 4 }, 1));
+                    // The corner openings are all one canonical position, so O's answer to any
+                    // corner is the center.
+                    test.assertEqual(4, book.getMove(new int[] { 0 }, 1));
+                    test.assertEqual(4, book.getMove(new int[] { 8 }, 1));
+                    test.assertEqual(4, book.getMove(new int[] { 2 }, 1));
+                });
+            });
+
+            runner.testGroup("QubTicTacToeOpeningBookBuilder.addSearchedPositions(String,int)", () ->
+            {
+                runner.test("with minimax on 3x3", (Test test) ->
+                {
+                    final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create(3, 3, 3);
+                    final QubTicTacToeOpeningBookBuilder builder = QubTicTacToeOpeningBookBuilder.create(geometry, 3);
+                    // 1 empty board, 3 canonical first moves, and 12 canonical second moves.
+                    test.assertEqual(16, builder.addSearchedPositions("minimax", 2));
+
+                    final QubTicTacToeOpeningBook book = builder.build();
+                    test.assertEqual(16L, book.getEntryCount());
+
+                    final QubTicTacToeSolvedTable table = QubTicTacToeSolvedTable.get();
+                    final int[][] positions = { {}, { 0 }, { 1 }, { 4 }, { 8 }, { 4, 0 }, { 0, 4 }, { 8, 4 }, { 1, 7 } };
+                    for (final int[] moves : positions)
+                    {
+                        final QubTicTacToeModel model = QubTicTacToeModel.create(geometry);
+                        for (final int cellIndex : moves)
+                        {
+                            model.makeMove(geometry.getRow(cellIndex), geometry.getColumn(cellIndex));
+                        }
+                        final int value = table.getValue(model.getPlayerBoard("X"), model.getPlayerBoard("O"));
+
+                        // The book's move must keep the perfect-play value of the position.
+                        final int bookMove = book.getMove(model);
+                        test.assertEqual(" ", model.getBoardCell(geometry.getRow(bookMove), geometry.getColumn(bookMove)));
+                        model.makeMove(geometry.getRow(bookMove), geometry.getColumn(bookMove));
+                        test.assertEqual(-value, table.getValue(model.getPlayerBoard("X"), model.getPlayerBoard("O")));
+                    }
+                });
+
+                runner.test("with positions past the book's depth", (Test test) ->
+                {
+                    final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create(3, 3, 3);
+                    final QubTicTacToeOpeningBookBuilder builder = QubTicTacToeOpeningBookBuilder.create(geometry, 1);
+                    test.assertEqual(1, builder.addSearchedPositions("random", 1));
+
+                    final QubTicTacToeOpeningBook book = builder.build();
+                    test.assertTrue(0 <= book.getMove(new int[0], 0));
+                    test.assertEqual(-1, book.getMove(new int[] { 4 }, 1));
+                });
+
+                runner.test("with 15x15", (Test test) ->
+                {
+                    final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create(15, 15, 5);
+                    final QubTicTacToeOpeningBookBuilder builder = QubTicTacToeOpeningBookBuilder.create(geometry, 2);
+                    // 1 empty board and the 36 canonical first moves.
+                    test.assertEqual(37, builder.addSearchedPositions("random", 2));
+
+                    final QubTicTacToeOpeningBook book = builder.build();
+                    test.assertEqual(37L, book.getEntryCount());
+                    for (int cellIndex = 0; cellIndex < geometry.getCellCount(); ++cellIndex)
+                    {
+                        final int bookMove = book.getMove(new int[] { cellIndex }, 1);
+                        test.assertTrue(0 <= bookMove && bookMove < geometry.getCellCount() && bookMove != cellIndex);
+                    }
+                });
+            });
+
+            runner.testGroup("getMove(int[],int)", () ->
+            {
+                runner.test("with empty book", (Test test) ->
+                {
+                    final QubTicTacToeOpeningBook book = QubTicTacToeOpeningBookBuilder.create(QubTicTacToeGeometry.create(3, 3, 3), 4).build();
+                    test.assertEqual(-1, book.getMove(new int[0], 0));
+                    test.assertEqual(-1, book.getMove(new int[] { 4, 0 }, 2));
+                });
+
+                runner.test("with book move that is already taken", (Test test) ->
+                {
+                    final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create(3, 3, 3);
+                    final QubTicTacToeSymmetry symmetry = QubTicTacToeSymmetry.create(geometry);
+                    final int[] moves = { 4 };
+                    final long hash = symmetry.getHash(moves, 1, symmetry.getCanonicalTransform(moves, 1));
+                    final QubTicTacToeOpeningBook book = QubTicTacToeOpeningBook.create(geometry, 4, new long[] { hash }, new int[] { 4 }, new int[] { 1 }, 1);
+                    test.assertEqual(-1, book.getMove(moves, 1));
+                });
+            });
+
+            runner.testGroup("read(ByteBuffer,String)", () ->
+            {
+                runner.test("with every slot taken", (Test test) ->
+                {
+                    // A damaged book that claims to be empty but has no empty slots.
+                    final ByteBuffer buffer = QubTicTacToeOpeningBookTests.createBookBuffer(QubTicTacToeOpeningBook.minimumSlotBits, 0);
+                    for (int slot = 0; slot < (1 << QubTicTacToeOpeningBook.minimumSlotBits); ++slot)
+                    {
+                        buffer.putLong(24 + (slot * 16), slot + 1);
+                    }
+                    final QubTicTacToeOpeningBook book = QubTicTacToeOpeningBookTests.read(buffer);
+                    test.assertNotNull(book);
+                    test.assertEqual(-1, book.getMove(new int[0], 0));
+                    test.assertEqual(-1, book.getMove(new int[] { 4 }, 1));
+                });
+
+                final Action1<Integer> invalidSlotBitsTest = (Integer slotBits) ->
+                {
+                    runner.test("with " + slotBits + " slot bits", (Test test) ->
+                    {
+                        test.assertNull(QubTicTacToeOpeningBookTests.read(QubTicTacToeOpeningBookTests.createBookBuffer(slotBits, 0)));
+                    });
+                };
+                invalidSlotBitsTest.run(-1);
+                invalidSlotBitsTest.run(QubTicTacToeOpeningBook.minimumSlotBits - 1);
+                invalidSlotBitsTest.run(31);
+
+                runner.test("with more positions than half of the slots", (Test test) ->
+                {
+                    test.assertNull(QubTicTacToeOpeningBookTests.read(QubTicTacToeOpeningBookTests.createBookBuffer(QubTicTacToeOpeningBook.minimumSlotBits, 9)));
+                });
+            });
+
+            runner.testGroup("save(Path) and open(Path)", () ->
+            {
+                runner.test("with searched book", (Test test) ->
+                {
+                    final Path folder = QubTicTacToeGameArchiveTests.createTemporaryFolder();
+                    try
+                    {
+                        final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create(4, 4, 3);
+                        final QubTicTacToeOpeningBookBuilder builder = QubTicTacToeOpeningBookBuilder.create(geometry, 3);
+                        builder.addSearchedPositions("random", 2);
+                        final QubTicTacToeOpeningBook book = builder.build();
+
+                        final Path filePath = folder.resolve("book.bin");
+                        test.assertSame(book, book.save(filePath).await());
+
+                        final QubTicTacToeOpeningBook openedBook = QubTicTacToeOpeningBook.open(filePath).await();
+                        test.assertSame(geometry, openedBook.getGeometry());
+                        test.assertEqual(3, openedBook.getDepth());
+                        test.assertEqual(book.getEntryCount(), openedBook.getEntryCount());
+                        for (int first = 0; first < geometry.getCellCount(); ++first)
+                        {
+                            for (int second = 0; second < geometry.getCellCount(); ++second)
+                            {
+                                if (first != second)
+                                {
+                                    final int[] moves = { first, second };
+                                    test.assertEqual(book.getMove(moves, 2), openedBook.getMove(moves, 2));
+                                }
+                            }
+                        }
+                    }
+                    finally
+                    {
+                        QubTicTacToeGameArchiveTests.deleteFolder(folder);
+                    }
+                });
+
+                runner.test("with file that doesn't exist", (Test test) ->
+                {
+                    final Path folder = QubTicTacToeGameArchiveTests.createTemporaryFolder();
+                    try
+                    {
+                        test.assertNull(QubTicTacToeOpeningBook.open(folder.resolve("book.bin")).catchError().await());
+                    }
+                    finally
+                    {
+                        QubTicTacToeGameArchiveTests.deleteFolder(folder);
+                    }
+                });
+
+                runner.test("with file that isn't an opening book", (Test test) ->
+                {
+                    final Path folder = QubTicTacToeGameArchiveTests.createTemporaryFolder();
+                    try
+                    {
+                        final Path filePath = folder.resolve("book.bin");
+                        QubTicTacToeGameArchiveTests.writeFile(filePath, "not an opening book, but long enough to have a header");
+                        test.assertNull(QubTicTacToeOpeningBook.open(filePath).catchError().await());
+                    }
+                    finally
+                    {
+                        QubTicTacToeGameArchiveTests.deleteFolder(folder);
+                    }
+                });
+            });
+
+            runner.testGroup(QubTicTacToeBookEngine.class, () ->
+            {
+                runner.test("with position in and out of the book", (Test test) ->
+                {
+                    final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create(3, 3, 3);
+                    final QubTicTacToeOpeningBookBuilder builder = QubTicTacToeOpeningBookBuilder.create(geometry, 1);
+                    builder.addGame(QubTicTacToeGameRecord.create(geometry, "a", "b", QubTicTacToeSessionStore.xWins, new int[] { 4, 1, 0, 2, 8 }));
+                    final QubTicTacToeBookEngine engine = QubTicTacToeBookEngine.create(builder.build(), QubTicTacToeMinimaxEngine.create(geometry));
+
+                    final QubTicTacToeModel model = QubTicTacToeModel.create(geometry);
+                    test.assertEqual(4, engine.chooseMove(model));
+                    test.assertEqual(1L, engine.getBookMoveCount());
+
+                    model.makeMove(1, 1);
+                    final int move = engine.chooseMove(model);
+                    test.assertTrue(0 <= move && move != 4);
+                    test.assertEqual(1L, engine.getBookMoveCount());
+                });
+            });
+        });
+    }
+
+    /**
+     * Create a buffer with a 3x3 book header and the provided number of empty slots.
+     */
+    static ByteBuffer createBookBuffer(int slotBits, long entryCount)
+    {
+        final int slotCount = 0 <= slotBits && slotBits <= QubTicTacToeOpeningBook.maximumSlotBits ? 1 << slotBits : 0;
+        final ByteBuffer result = ByteBuffer.allocate(24 + (slotCount * 16));
+        result.put(new byte[] { 'Q', 'T', 'T', 'B', 1, 3, 3, 3 });
+        result.putInt(8, 4);
+        result.putInt(12, slotBits);
+        result.putLong(16, entryCount);
+        return result;
+    }
+
+    /**
+     * Read the book in the provided buffer, or return null if it isn't a valid book.
+     */
+    static QubTicTacToeOpeningBook read(ByteBuffer buffer)
+    {
+        QubTicTacToeOpeningBook result;
+        try
+        {
+            result = QubTicTacToeOpeningBook.read(buffer, "book.bin");
+        }
+        catch (IOException e)
+        {
+            result = null;
+        }
+        return result;
+    }
+}
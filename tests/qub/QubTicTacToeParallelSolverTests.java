@@ -0,0 +1,248 @@
+package qub;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public interface QubTicTacToeParallelSolverTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(QubTicTacToeParallelSolver.class, () ->
+        {
+            runner.testGroup("create(QubTicTacToeGeometry,int)", () ->
+            {
+                runner.test("with 0 threads", (Test test) ->
+                {
+                    test.assertThrows(() -> QubTicTacToeParallelSolver.create(QubTicTacToeGeometry.create(), 0),
+                        new PreConditionFailure("threadCount (0) must be greater than or equal to 1."));
+                });
+
+                runner.test("with 15x15 board", (Test test) ->
+                {
+                    test.assertThrows(() -> QubTicTacToeParallelSolver.create(QubTicTacToeGeometry.create(15, 15, 5), 2),
+                        new PreConditionFailure("geometry.getWordCount() (4) must be 1."));
+                });
+            });
+
+            runner.testGroup("solve(long,long)", () ->
+            {
+                final Action1<Integer> solvedTableTest = (Integer threadCount) ->
+                {
+                    runner.test("on 3x3 board with " + threadCount + " threads", (Test test) ->
+                    {
+                        final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create();
+                        final QubTicTacToeSolvedTable table = QubTicTacToeSolvedTable.get();
+                        final QubTicTacToeParallelSolver solver = QubTicTacToeParallelSolver.create(geometry, threadCount, 12);
+                        test.assertEqual(threadCount.intValue(), solver.getThreadCount());
+
+                        // Every position in the table after at most three moves.
+                        int positionCount = 0;
+                        for (long xBoard = 0; xBoard < 512; ++xBoard)
+                        {
+                            for (long oBoard = 0; oBoard < 512; ++oBoard)
+                            {
+                                final int moveCount = Long.bitCount(xBoard) + Long.bitCount(oBoard);
+                                if ((xBoard & oBoard) == 0 && moveCount <= 3 && table.contains(xBoard, oBoard))
+                                {
+                                    final boolean xToMove = Long.bitCount(xBoard) == Long.bitCount(oBoard);
+                                    final long ownBoard = xToMove ? xBoard : oBoard;
+                                    final long otherBoard = xToMove ? oBoard : xBoard;
+                                    final QubTicTacToeSolveResult result = solver.solve(ownBoard, otherBoard);
+                                    test.assertEqual(QubTicTacToeParallelSolverTests.getOutcome(table.getValue(xBoard, oBoard)), result.getOutcome());
+                                    test.assertEqual(threadCount.intValue(), result.getThreadCount());
+
+                                    // The table's best move must keep the solver's score.
+                                    final int bestMove = table.getBestMove(xBoard, oBoard);
+                                    final QubTicTacToeSolveResult childResult = solver.solve(otherBoard, ownBoard | (1L << bestMove));
+                                    test.assertEqual(result.getScore(), -childResult.getScore());
+
+                                    ++positionCount;
+                                }
+                            }
+                        }
+                        test.assertEqual(334, positionCount);
+                    });
+                };
+                solvedTableTest.run(2);
+                solvedTableTest.run(4);
+
+                final Action1<Integer> minimaxTest = (Integer threadCount) ->
+                {
+                    runner.test("on 4x4 board with 3 in a row and " + threadCount + " threads", (Test test) ->
+                    {
+                        final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create(4, 4, 3);
+                        final QubTicTacToeParallelSolver solver = QubTicTacToeParallelSolver.create(geometry, threadCount, 16);
+                        final QubTicTacToeMinimaxEngine engine = QubTicTacToeMinimaxEngine.create(geometry);
+
+                        final QubTicTacToeSolveResult emptyResult = solver.solve();
+                        test.assertEqual(engine.getScore(0, 0), emptyResult.getScore());
+                        test.assertEqual("win", emptyResult.getOutcome());
+                        test.assertTrue(emptyResult.getNodeCount() > 0);
+
+                        // Every first move, and every reply to a corner opening.
+                        for (int cellIndex = 0; cellIndex < geometry.getCellCount(); ++cellIndex)
+                        {
+                            final long xBoard = 1L << cellIndex;
+                            final QubTicTacToeSolveResult result = solver.solve(0, xBoard);
+                            test.assertEqual(engine.getScore(0, xBoard), result.getScore());
+
+                            if (cellIndex != 0)
+                            {
+                                final long cornerReply = 1L << cellIndex;
+                                test.assertEqual(engine.getScore(1L, cornerReply), solver.solve(1L, cornerReply).getScore());
+                            }
+                        }
+
+                        // The minimax engine's move must keep the solver's score.
+                        final int move = engine.chooseMove(0, 0);
+                        test.assertEqual(emptyResult.getScore(), -solver.solve(0, 1L << move).getScore());
+                    });
+                };
+                minimaxTest.run(2);
+                minimaxTest.run(3);
+            });
+        });
+
+        runner.testGroup(QubTicTacToeConcurrentTranspositionTable.class, () ->
+        {
+            runner.testGroup("create(int)", () ->
+            {
+                runner.test("with 0", (Test test) ->
+                {
+                    test.assertThrows(() -> QubTicTacToeConcurrentTranspositionTable.create(0),
+                        new PreConditionFailure("indexBits (0) must be between 1 and 28."));
+                });
+
+                runner.test("with 10", (Test test) ->
+                {
+                    test.assertEqual(1024, QubTicTacToeConcurrentTranspositionTable.create(10).getEntryCount());
+                });
+            });
+
+            runner.testGroup("get(long,long) and set(long,long,long)", () ->
+            {
+                runner.test("with empty table", (Test test) ->
+                {
+                    final QubTicTacToeConcurrentTranspositionTable table = QubTicTacToeConcurrentTranspositionTable.create(4);
+                    test.assertEqual(0L, table.get(1, 2));
+                });
+
+                runner.test("with stored position", (Test test) ->
+                {
+                    final QubTicTacToeConcurrentTranspositionTable table = QubTicTacToeConcurrentTranspositionTable.create(4);
+                    table.set(1, 2, 42);
+                    test.assertEqual(42L, table.get(1, 2));
+                    test.assertEqual(0L, table.get(2, 1));
+
+                    table.set(1, 2, 7);
+                    test.assertEqual(7L, table.get(1, 2));
+                });
+
+                runner.test("with positions that share an entry", (Test test) ->
+                {
+                    // With one index bit, three positions can't all have their own entry.
+                    final QubTicTacToeConcurrentTranspositionTable table = QubTicTacToeConcurrentTranspositionTable.create(1);
+                    table.set(1, 2, 10);
+                    table.set(4, 8, 20);
+                    table.set(16, 32, 30);
+                    test.assertEqual(30L, table.get(16, 32));
+                    final int storedCount = (table.get(1, 2) == 10 ? 1 : 0) + (table.get(4, 8) == 20 ? 1 : 0);
+                    test.assertTrue(storedCount <= 1);
+                });
+
+                runner.test("with many threads writing", (Test test) ->
+                {
+                    final QubTicTacToeConcurrentTranspositionTable table = QubTicTacToeConcurrentTranspositionTable.create(6);
+                    final Thread[] threads = new Thread[4];
+                    for (int threadIndex = 0; threadIndex < threads.length; ++threadIndex)
+                    {
+                        final long threadBoard = 1L << (40 + threadIndex);
+                        threads[threadIndex] = new Thread(() ->
+                        {
+                            for (long position = 0; position < 10000; ++position)
+                            {
+                                table.set(position, threadBoard, position + 1);
+                            }
+                        });
+                        threads[threadIndex].start();
+                    }
+                    for (final Thread thread : threads)
+                    {
+                        try
+                        {
+                            thread.join();
+                        }
+                        catch (InterruptedException e)
+                        {
+                            throw new RuntimeException(e);
+                        }
+                    }
+
+                    // A hit must always be the data that was stored for that position.
+                    for (int threadIndex = 0; threadIndex < threads.length; ++threadIndex)
+                    {
+                        final long threadBoard = 1L << (40 + threadIndex);
+                        for (long position = 0; position < 10000; ++position)
+                        {
+                            final long data = table.get(position, threadBoard);
+                            test.assertTrue(data == 0 || data == position + 1);
+                        }
+                    }
+                });
+
+                runner.test("with threads reading while other threads write", (Test test) ->
+                {
+                    // With one index bit, every write replaces another position's entry while
+                    // readers are reading it, and every position has the same other board.
+                    final QubTicTacToeConcurrentTranspositionTable table = QubTicTacToeConcurrentTranspositionTable.create(1);
+                    final AtomicInteger wrongHitCount = new AtomicInteger();
+                    final Thread[] threads = new Thread[4];
+                    for (int threadIndex = 0; threadIndex < threads.length; ++threadIndex)
+                    {
+                        final boolean writer = threadIndex % 2 == 0;
+                        threads[threadIndex] = new Thread(() ->
+                        {
+                            for (int iteration = 0; iteration < 200; ++iteration)
+                            {
+                                for (long position = 1; position <= 1000; ++position)
+                                {
+                                    if (writer)
+                                    {
+                                        table.set(position, 1L << 40, position + 1);
+                                    }
+                                    else
+                                    {
+                                        final long data = table.get(position, 1L << 40);
+                                        if (data != 0 && data != position + 1)
+                                        {
+                                            wrongHitCount.incrementAndGet();
+                                        }
+                                    }
+                                }
+                            }
+                        });
+                        threads[threadIndex].start();
+                    }
+                    for (final Thread thread : threads)
+                    {
+                        try
+                        {
+                            thread.join();
+                        }
+                        catch (InterruptedException e)
+                        {
+                            throw new RuntimeException(e);
+                        }
+                    }
+                    test.assertEqual(0, wrongHitCount.get());
+                });
+            });
+        });
+    }
+
+    static String getOutcome(int solvedTableValue)
+    {
+        return solvedTableValue == QubTicTacToeSolvedTable.win
+            ? "win"
+            : solvedTableValue == QubTicTacToeSolvedTable.loss ? "loss" : "draw";
+    }
+}
@@ -0,0 +1,195 @@
+package qub;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public interface QubTicTacToePositionTests
+{
+    static QubTicTacToePosition play(QubTicTacToePosition position, int... cellIndexes)
+    {
+        QubTicTacToePosition result = position;
+        for (final int cellIndex : cellIndexes)
+        {
+            result = result.play(cellIndex);
+        }
+        return result;
+    }
+
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(QubTicTacToePosition.class, () ->
+        {
+            runner.testGroup("create(QubTicTacToeGeometry)", () ->
+            {
+                runner.test("with null geometry", (Test test) ->
+                {
+                    test.assertThrows(() -> QubTicTacToePosition.create((QubTicTacToeGeometry)null),
+                        new PreConditionFailure("geometry cannot be null."));
+                });
+
+                runner.test("with 6x6 geometry", (Test test) ->
+                {
+                    test.assertFalse(QubTicTacToePosition.supports(QubTicTacToeGeometry.create(6, 6, 4)));
+                    test.assertThrows(() -> QubTicTacToePosition.create(QubTicTacToeGeometry.create(6, 6, 4)),
+                        new PreConditionFailure("QubTicTacToePosition.supports(geometry) cannot be false."));
+                });
+
+                runner.test("with 3x3 geometry", (Test test) ->
+                {
+                    final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create();
+                    final QubTicTacToePosition position = QubTicTacToePosition.create(geometry);
+                    test.assertSame(geometry, position.getGeometry());
+                    test.assertEqual(0L, position.getState());
+                    test.assertEqual(QubTicTacToePosition.inProgress, position.getStatus());
+                    test.assertEqual("X", position.getCurrentPlayer());
+                    test.assertEqual(0, position.getFilledCellCount());
+                    test.assertEqual(0x1FFL, position.getLegalMoves());
+                    test.assertEqual("   /   /   ", position.toString());
+                });
+            });
+
+            runner.testGroup("isValid(QubTicTacToeGeometry,long)", () ->
+            {
+                final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create();
+                final Action3<String,Long,Boolean> isValidTest = (String testName, Long state, Boolean expected) ->
+                {
+                    runner.test(testName, (Test test) ->
+                    {
+                        test.assertEqual(expected, QubTicTacToePosition.isValid(geometry, state.longValue()));
+                    });
+                };
+
+                isValidTest.run("with empty board", QubTicTacToePosition.pack(0, 0, QubTicTacToePosition.inProgress), true);
+                isValidTest.run("with O ahead of X", QubTicTacToePosition.pack(0, 0x1, QubTicTacToePosition.inProgress), false);
+                isValidTest.run("with X two cells ahead of O", QubTicTacToePosition.pack(0x3, 0, QubTicTacToePosition.inProgress), false);
+                isValidTest.run("with shared cell", QubTicTacToePosition.pack(0x1, 0x1, QubTicTacToePosition.inProgress), false);
+                isValidTest.run("with cell off the board", QubTicTacToePosition.pack(0x200, 0, QubTicTacToePosition.inProgress), false);
+                isValidTest.run("with unknown status", QubTicTacToePosition.pack(0, 0, 5), false);
+                isValidTest.run("with X win", QubTicTacToePosition.pack(0x7, 0x18, QubTicTacToePosition.xWins), true);
+                isValidTest.run("with X line marked in progress", QubTicTacToePosition.pack(0x7, 0x18, QubTicTacToePosition.inProgress), false);
+                isValidTest.run("with X win after O's move", QubTicTacToePosition.pack(0x7, 0x38, QubTicTacToePosition.xWins), false);
+                isValidTest.run("with O win", QubTicTacToePosition.pack(0x103, 0x38, QubTicTacToePosition.oWins), true);
+                isValidTest.run("with tie on a partial board", QubTicTacToePosition.pack(0x1, 0, QubTicTacToePosition.tie), false);
+                isValidTest.run("with abandoned game", QubTicTacToePosition.pack(0x1, 0, QubTicTacToePosition.abandoned), true);
+            });
+
+            runner.testGroup("play(int)", () ->
+            {
+                runner.test("leaves the original position unchanged", (Test test) ->
+                {
+                    final QubTicTacToePosition start = QubTicTacToePosition.create(QubTicTacToeGeometry.create());
+                    final QubTicTacToePosition next = start.play(4);
+                    test.assertNotEqual(start, next);
+                    test.assertEqual(0L, start.getState());
+                    test.assertEqual(" ", start.getBoardCell(4));
+                    test.assertEqual("X", next.getBoardCell(4));
+                    test.assertEqual("O", next.getCurrentPlayer());
+                    test.assertFalse(next.isLegalMove(4));
+                    test.assertEqual("   / X /   ", next.toString());
+                });
+
+                runner.test("with taken cell", (Test test) ->
+                {
+                    final QubTicTacToePosition position = QubTicTacToePosition.create(QubTicTacToeGeometry.create()).play(4);
+                    test.assertThrows(() -> position.play(4),
+                        new PreConditionFailure("this.isLegalMove(cellIndex) cannot be false."));
+                    test.assertEqual(-1L, QubTicTacToePosition.play(position.getGeometry(), position.getState(), 4));
+                });
+
+                runner.test("with X winning game", (Test test) ->
+                {
+                    final QubTicTacToePosition position = QubTicTacToePositionTests.play(QubTicTacToePosition.create(QubTicTacToeGeometry.create()), 0, 3, 1, 4, 2);
+                    test.assertEqual(QubTicTacToePosition.xWins, position.getStatus());
+                    test.assertTrue(position.isGameDone());
+                    test.assertEqual(0L, position.getLegalMoves());
+                });
+
+                runner.test("with tie game", (Test test) ->
+                {
+                    final QubTicTacToePosition position = QubTicTacToePositionTests.play(QubTicTacToePosition.create(QubTicTacToeGeometry.create()), QubTicTacToeBenchmarks.tieGameCells);
+                    test.assertEqual(QubTicTacToePosition.tie, position.getStatus());
+                    test.assertEqual(9, position.getFilledCellCount());
+                });
+            });
+
+            runner.testGroup("equals(Object) and hashCode()", () ->
+            {
+                runner.test("with different move orders", (Test test) ->
+                {
+                    final QubTicTacToePosition start = QubTicTacToePosition.create(QubTicTacToeGeometry.create());
+                    final QubTicTacToePosition first = QubTicTacToePositionTests.play(start, 0, 4, 8);
+                    final QubTicTacToePosition second = QubTicTacToePositionTests.play(start, 8, 4, 0);
+                    test.assertEqual(first, second);
+                    test.assertEqual(first.hashCode(), second.hashCode());
+                    test.assertNotEqual(first, QubTicTacToePositionTests.play(start, 0, 8, 4));
+                });
+
+                runner.test("with different geometries", (Test test) ->
+                {
+                    test.assertNotEqual(QubTicTacToePosition.create(QubTicTacToeGeometry.create()),
+                        QubTicTacToePosition.create(QubTicTacToeGeometry.create(4, 4, 3)));
+                });
+
+                runner.test("as keys of a set", (Test test) ->
+                {
+                    final Set<QubTicTacToePosition> positions = new HashSet<>();
+                    final QubTicTacToePosition start = QubTicTacToePosition.create(QubTicTacToeGeometry.create());
+                    for (int first = 0; first < 9; ++first)
+                    {
+                        for (int second = 0; second < 9; ++second)
+                        {
+                            if (first != second)
+                            {
+                                positions.add(start.play(first).play(second));
+                            }
+                        }
+                    }
+                    test.assertEqual(72, positions.size());
+                });
+            });
+
+            runner.testGroup("create(QubTicTacToeModel) and toModel()", () ->
+            {
+                runner.test("with abandoned game", (Test test) ->
+                {
+                    final QubTicTacToeModel model = QubTicTacToeModel.create(QubTicTacToeGeometry.create());
+                    model.makeMove(1, 1);
+                    model.setGameDone(true);
+                    final QubTicTacToePosition position = QubTicTacToePosition.create(model);
+                    test.assertEqual(QubTicTacToePosition.abandoned, position.getStatus());
+
+                    final QubTicTacToeModel copy = position.toModel();
+                    test.assertTrue(copy.isGameDone());
+                    test.assertFalse(copy.hasWinner());
+                    test.assertEqual("X", copy.getBoardCell(1, 1));
+                    test.assertEqual(position, QubTicTacToePosition.create(copy));
+                });
+
+                runner.test("matches QubTicTacToeModel for random games", (Test test) ->
+                {
+                    final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create(4, 4, 3);
+                    final QubTicTacToeRandomEngine engine = QubTicTacToeRandomEngine.create(11);
+                    for (int game = 0; game < 50; ++game)
+                    {
+                        final QubTicTacToeModel model = QubTicTacToeModel.create(geometry);
+                        QubTicTacToePosition position = QubTicTacToePosition.create(geometry);
+                        while (!model.isGameDone())
+                        {
+                            final int cellIndex = engine.chooseMove(model);
+                            model.makeMove(geometry.getRow(cellIndex), geometry.getColumn(cellIndex));
+                            position = position.play(cellIndex);
+                            test.assertEqual(QubTicTacToePosition.create(model), position);
+                            test.assertTrue(QubTicTacToePosition.isValid(geometry, position.getState()));
+                        }
+
+                        final QubTicTacToeModel copy = position.toModel();
+                        test.assertEqual(model.isGameDone(), copy.isGameDone());
+                        test.assertEqual(model.hasWinner(), copy.hasWinner());
+                        test.assertEqual(model.getWinner(), copy.getWinner());
+                        test.assertEqual(position, QubTicTacToePosition.create(copy));
+                    }
+                });
+            });
+        });
+    }
+}
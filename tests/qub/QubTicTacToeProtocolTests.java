@@ -0,0 +1,130 @@
+package qub;
+
+public interface QubTicTacToeProtocolTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(QubTicTacToeProtocol.class, () ->
+        {
+            runner.testGroup("runCommand(String)", () ->
+            {
+                final Action2<Iterable<String>,Iterable<String>> runCommandTest = (Iterable<String> commands, Iterable<String> expectedResponses) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(Strings.join(';', commands)), (Test test) ->
+                    {
+                        final InMemoryCharacterStream output = InMemoryCharacterStream.create();
+                        final QubTicTacToeProtocol protocol = QubTicTacToeProtocol.create(QubTicTacToeGeometry.create(), 1, output);
+                        for (final String command : commands)
+                        {
+                            test.assertTrue(protocol.runCommand(command));
+                        }
+                        test.assertEqual(expectedResponses, Strings.getLines(output.getText().await()));
+                    });
+                };
+
+                runCommandTest.run(Iterable.create(""), Iterable.create());
+                runCommandTest.run(Iterable.create("isready"), Iterable.create("readyok"));
+                runCommandTest.run(Iterable.create("ISREADY"), Iterable.create("readyok"));
+                runCommandTest.run(Iterable.create("fly"), Iterable.create("error unknown command fly"));
+                runCommandTest.run(Iterable.create("newgame"), Iterable.create("ok"));
+                runCommandTest.run(Iterable.create("newgame 4 4"), Iterable.create("error usage: newgame [<width> <height> <win-length>]"));
+                runCommandTest.run(Iterable.create("newgame 4 4 5"), Iterable.create("error invalid board 4 4 5"));
+                runCommandTest.run(Iterable.create("newgame 15 15 5", "move o15"), Iterable.create("ok", "ok"));
+                runCommandTest.run(Iterable.create("move"), Iterable.create("error usage: move <cell>"));
+                runCommandTest.run(Iterable.create("move b2"), Iterable.create("ok"));
+                runCommandTest.run(Iterable.create("move d1"), Iterable.create("error illegal move d1"));
+                runCommandTest.run(Iterable.create("move b2", "move b2"), Iterable.create("ok", "error illegal move b2"));
+                runCommandTest.run(
+                    Iterable.create("move a1", "move b1", "move a2", "move b2", "move a3", "move c3"),
+                    Iterable.create("ok", "ok", "ok", "ok", "result X", "error game over"));
+                runCommandTest.run(Iterable.create("position startpos moves a1 b1 a2 b2"), Iterable.create("ok"));
+                runCommandTest.run(Iterable.create("position a1 b1 a2 b2 a3"), Iterable.create("result X"));
+                runCommandTest.run(Iterable.create("position a1 b2 c3 a2 c2 c1 a3 b3 b1"), Iterable.create("result draw"));
+                runCommandTest.run(Iterable.create("move c3", "position a1 a1", "move c3"), Iterable.create("ok", "error illegal move a1", "error illegal move c3"));
+                runCommandTest.run(Iterable.create("position moves a1 b1 a2 b2", "go"), Iterable.create("ok", "bestmove a3"));
+                runCommandTest.run(Iterable.create("position a1 b2 a2", "go depth 9"), Iterable.create("ok", "bestmove a3"));
+                runCommandTest.run(Iterable.create("position a1 b2 a2", "go playouts 100"), Iterable.create("ok", "bestmove a3"));
+                runCommandTest.run(Iterable.create("position a1 b2 a2", "go movetime 10"), Iterable.create("ok", "bestmove a3"));
+                runCommandTest.run(Iterable.create("go movetime abc"), Iterable.create("error movetime must be a positive integer"));
+                runCommandTest.run(Iterable.create("go nodes 10"), Iterable.create("error unknown go option nodes"));
+                runCommandTest.run(Iterable.create("go depth"), Iterable.create("error usage: go [movetime <milliseconds>|playouts <count>|depth <depth>]"));
+                runCommandTest.run(Iterable.create("newgame 15 15 5", "go depth 3"), Iterable.create("ok", "error depth only supports boards with up to 64 cells"));
+                runCommandTest.run(Iterable.create("position a1 b1 a2 b2 a3", "go"), Iterable.create("result X", "error game over"));
+
+                runner.test("with quit", (Test test) ->
+                {
+                    final InMemoryCharacterStream output = InMemoryCharacterStream.create();
+                    final QubTicTacToeProtocol protocol = QubTicTacToeProtocol.create(QubTicTacToeGeometry.create(), 1, output);
+                    test.assertFalse(protocol.runCommand("quit"));
+                    test.assertEqual("", output.getText().await());
+                });
+            });
+
+            runner.testGroup("run(CharacterReadStream)", () ->
+            {
+                runner.test("with input that ends without quit", (Test test) ->
+                {
+                    final InMemoryCharacterStream output = InMemoryCharacterStream.create();
+                    final QubTicTacToeProtocol protocol = QubTicTacToeProtocol.create(QubTicTacToeGeometry.create(), 1, output);
+                    protocol.run(InMemoryCharacterStream.create("move b2\nmove a1\n").endOfStream());
+                    test.assertEqual(Iterable.create("ok", "ok"), Strings.getLines(output.getText().await()));
+                    test.assertEqual(2, protocol.getModel().getFilledCellCount());
+                });
+            });
+
+            runner.testGroup("getMinimaxEngine(int)", () ->
+            {
+                runner.test("with repeated searches", (Test test) ->
+                {
+                    final QubTicTacToeProtocol protocol = QubTicTacToeProtocol.create(QubTicTacToeGeometry.create(), 1, InMemoryCharacterStream.create());
+                    final QubTicTacToeMinimaxEngine engine = protocol.getMinimaxEngine(Integer.MAX_VALUE);
+                    test.assertSame(engine, protocol.getMinimaxEngine(Integer.MAX_VALUE));
+
+                    final QubTicTacToeMinimaxEngine depthEngine = protocol.getMinimaxEngine(3);
+                    test.assertNotEqual(engine, depthEngine);
+                    test.assertSame(depthEngine, protocol.getMinimaxEngine(3));
+                });
+
+                runner.test("with new game", (Test test) ->
+                {
+                    final QubTicTacToeProtocol protocol = QubTicTacToeProtocol.create(QubTicTacToeGeometry.create(), 1, InMemoryCharacterStream.create());
+                    final QubTicTacToeMinimaxEngine engine = protocol.getMinimaxEngine(3);
+
+                    protocol.runCommand("newgame");
+                    test.assertSame(engine, protocol.getMinimaxEngine(3));
+
+                    protocol.runCommand("newgame 4 4 3");
+                    final QubTicTacToeMinimaxEngine newEngine = protocol.getMinimaxEngine(3);
+                    test.assertNotEqual(engine, newEngine);
+                    test.assertSame(QubTicTacToeGeometry.create(4, 4, 3), newEngine.getGeometry());
+                });
+            });
+
+            runner.testGroup("getMonteCarloEngine(int,long)", () ->
+            {
+                runner.test("with repeated searches", (Test test) ->
+                {
+                    final QubTicTacToeProtocol protocol = QubTicTacToeProtocol.create(QubTicTacToeGeometry.create(), 1, InMemoryCharacterStream.create());
+                    final QubTicTacToeMonteCarloEngine playoutEngine = protocol.getMonteCarloEngine(100, 0);
+                    test.assertSame(playoutEngine, protocol.getMonteCarloEngine(100, 0));
+
+                    final QubTicTacToeMonteCarloEngine timeEngine = protocol.getMonteCarloEngine(0, 10);
+                    test.assertNotEqual(playoutEngine, timeEngine);
+                    test.assertSame(timeEngine, protocol.getMonteCarloEngine(0, 10));
+                    test.assertNotEqual(timeEngine, protocol.getMonteCarloEngine(0, 20));
+                });
+
+                runner.test("with new game", (Test test) ->
+                {
+                    final QubTicTacToeProtocol protocol = QubTicTacToeProtocol.create(QubTicTacToeGeometry.create(), 1, InMemoryCharacterStream.create());
+                    final QubTicTacToeMonteCarloEngine engine = protocol.getMonteCarloEngine(100, 0);
+
+                    protocol.runCommand("newgame 4 4 3");
+                    final QubTicTacToeMonteCarloEngine newEngine = protocol.getMonteCarloEngine(100, 0);
+                    test.assertNotEqual(engine, newEngine);
+                    test.assertSame(QubTicTacToeGeometry.create(4, 4, 3), newEngine.getGeometry());
+                });
+            });
+        });
+    }
+}
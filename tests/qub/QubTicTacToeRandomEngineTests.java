@@ -0,0 +1,43 @@
+package qub;
+
+public interface QubTicTacToeRandomEngineTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(QubTicTacToeRandomEngine.class, () ->
+        {
+            runner.testGroup("chooseMove(QubTicTacToeModel)", () ->
+            {
+                final Action1<QubTicTacToeGeometry> chooseMoveTest = (QubTicTacToeGeometry geometry) ->
+                {
+                    runner.test("with " + geometry, (Test test) ->
+                    {
+                        final QubTicTacToeRandomEngine engine = QubTicTacToeRandomEngine.create(1);
+                        for (int game = 0; game < 10; ++game)
+                        {
+                            final QubTicTacToeModel model = QubTicTacToeModel.create(geometry);
+                            while (!model.isGameDone())
+                            {
+                                final int cellIndex = engine.chooseMove(model);
+                                test.assertEqual(" ", model.getBoardCell(geometry.getRow(cellIndex), geometry.getColumn(cellIndex)));
+                                model.makeMove(geometry.getRow(cellIndex), geometry.getColumn(cellIndex));
+                            }
+                        }
+                    });
+                };
+
+                chooseMoveTest.run(QubTicTacToeGeometry.create());
+                chooseMoveTest.run(QubTicTacToeGeometry.create(8, 8, 8));
+                chooseMoveTest.run(QubTicTacToeGeometry.create(15, 15, 5));
+            });
+
+            runner.test("with the same seed", (Test test) ->
+            {
+                final QubTicTacToeModel model = QubTicTacToeModel.create();
+                test.assertEqual(
+                    QubTicTacToeRandomEngine.create(5).chooseMove(model),
+                    QubTicTacToeRandomEngine.create(5).chooseMove(model));
+            });
+        });
+    }
+}
@@ -0,0 +1,367 @@
+package qub;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+public interface QubTicTacToeServerTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(QubTicTacToeServer.class, () ->
+        {
+            runner.testGroup("create(QubTicTacToeGeometry)", () ->
+            {
+                runner.test("with 3x3 geometry", (Test test) ->
+                {
+                    final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create();
+                    final QubTicTacToeServer server = QubTicTacToeServer.create(geometry);
+                    test.assertSame(geometry, server.getGeometry());
+                    test.assertEqual(0, server.getSessionCount());
+                });
+            });
+
+            runner.testGroup("start(int)", () ->
+            {
+                runner.test("with engine opponent and exit", (Test test) ->
+                {
+                    final QubTicTacToeServer server = QubTicTacToeServer.create(QubTicTacToeGeometry.create());
+                    final int port = server.start(0).await();
+                    final Socket client = QubTicTacToeServerTests.connect(port);
+                    try
+                    {
+                        QubTicTacToeServerTests.send(client, "minimax\nexit\n");
+
+                        test.assertEqual(
+                            Iterable.create(
+                                "Connected to the Qub Tic-Tac-Toe server.",
+                                "",
+                                "Opponent (human, random, minimax[:<depth>], or mcts[:<playouts>|:<milliseconds>ms]): ",
+                                "Welcome to Qub Tic-Tac-Toe!",
+                                "",
+                                "  | 1 | 2 | 3",
+                                "-------------",
+                                "A |   |   |  ",
+                                "-------------",
+                                "B |   |   |  ",
+                                "-------------",
+                                "C |   |   |  ",
+                                "",
+                                "1) X's move: "),
+                            Strings.getLines(QubTicTacToeServerTests.receiveAll(client)));
+                    }
+                    finally
+                    {
+                        QubTicTacToeServerTests.close(client);
+                        server.stop();
+                    }
+                });
+
+                runner.test("with invalid opponent", (Test test) ->
+                {
+                    final QubTicTacToeServer server = QubTicTacToeServer.create(QubTicTacToeGeometry.create());
+                    final int port = server.start(0).await();
+                    final Socket client = QubTicTacToeServerTests.connect(port);
+                    try
+                    {
+                        QubTicTacToeServerTests.send(client, "robot\n");
+                        QubTicTacToeServerTests.shutdownOutput(client);
+
+                        test.assertEqual(
+                            Iterable.create(
+                                "Connected to the Qub Tic-Tac-Toe server.",
+                                "",
+                                "Opponent (human, random, minimax[:<depth>], or mcts[:<playouts>|:<milliseconds>ms]): Unknown player \"robot\". Expected human, random, minimax[:<depth>], or mcts[:<playouts>|:<milliseconds>ms].",
+                                "",
+                                "Opponent (human, random, minimax[:<depth>], or mcts[:<playouts>|:<milliseconds>ms]): "),
+                            Strings.getLines(QubTicTacToeServerTests.receiveAll(client)));
+                    }
+                    finally
+                    {
+                        QubTicTacToeServerTests.close(client);
+                        server.stop();
+                    }
+                });
+
+                runner.test("with two human clients", (Test test) ->
+                {
+                    final QubTicTacToeServer server = QubTicTacToeServer.create(QubTicTacToeGeometry.create());
+                    final int port = server.start(0).await();
+                    final Socket xClient = QubTicTacToeServerTests.connect(port);
+                    final Socket oClient = QubTicTacToeServerTests.connect(port);
+                    try
+                    {
+                        QubTicTacToeServerTests.send(xClient, "human\n");
+                        final String xWaiting = QubTicTacToeServerTests.receiveUntil(xClient, "Waiting for an opponent...");
+                        test.assertTrue(xWaiting.endsWith("Waiting for an opponent..."));
+
+                        // X's first move is sent before O's, so X has to wait for O.
+                        QubTicTacToeServerTests.send(oClient, "human\n");
+                        final String oWaiting = QubTicTacToeServerTests.receiveUntil(oClient, "Waiting for X's move...\n");
+                        QubTicTacToeServerTests.send(xClient, "a1\n");
+                        final String xFirstMove = QubTicTacToeServerTests.receiveUntil(xClient, "Waiting for O's move...\n");
+                        QubTicTacToeServerTests.send(oClient, "b1\nb2\n");
+                        QubTicTacToeServerTests.send(xClient, "a2\na3\n");
+
+                        final String xText = xWaiting + xFirstMove + QubTicTacToeServerTests.receiveAll(xClient);
+                        final String oText = oWaiting + QubTicTacToeServerTests.receiveAll(oClient);
+
+                        test.assertTrue(xText.contains("You are X."));
+                        test.assertTrue(xText.contains("1) X's move: "));
+                        test.assertTrue(xText.contains("Waiting for O's move..."));
+                        test.assertTrue(xText.endsWith("X wins!\n\n"));
+
+                        test.assertTrue(oText.contains("You are O."));
+                        test.assertTrue(oText.contains("2) O's move: "));
+                        test.assertTrue(oText.contains("4) O's move: "));
+                        test.assertTrue(oText.endsWith("X wins!\n\n"));
+                    }
+                    finally
+                    {
+                        QubTicTacToeServerTests.close(xClient);
+                        QubTicTacToeServerTests.close(oClient);
+                        server.stop();
+                    }
+                    test.assertEqual(0, server.getSessionCount());
+                });
+
+                runner.test("with human client that leaves", (Test test) ->
+                {
+                    final QubTicTacToeServer server = QubTicTacToeServer.create(QubTicTacToeGeometry.create());
+                    final int port = server.start(0).await();
+                    final Socket xClient = QubTicTacToeServerTests.connect(port);
+                    final Socket oClient = QubTicTacToeServerTests.connect(port);
+                    try
+                    {
+                        QubTicTacToeServerTests.send(xClient, "human\n");
+                        QubTicTacToeServerTests.receiveUntil(xClient, "Waiting for an opponent...");
+
+                        QubTicTacToeServerTests.send(oClient, "human\n");
+                        QubTicTacToeServerTests.send(xClient, "b2\n");
+                        QubTicTacToeServerTests.receiveUntil(oClient, "2) O's move: ");
+                        QubTicTacToeServerTests.shutdownOutput(oClient);
+
+                        test.assertTrue(QubTicTacToeServerTests.receiveAll(xClient).endsWith("The game was abandoned.\n\n"));
+                    }
+                    finally
+                    {
+                        QubTicTacToeServerTests.close(xClient);
+                        QubTicTacToeServerTests.close(oClient);
+                        server.stop();
+                    }
+                });
+
+                runner.test("with waiting human client that leaves", (Test test) ->
+                {
+                    final QubTicTacToeServer server = QubTicTacToeServer.create(QubTicTacToeGeometry.create());
+                    final int port = server.start(0).await();
+                    final Socket leavingClient = QubTicTacToeServerTests.connect(port);
+                    final Socket xClient = QubTicTacToeServerTests.connect(port);
+                    final Socket oClient = QubTicTacToeServerTests.connect(port);
+                    try
+                    {
+                        QubTicTacToeServerTests.send(leavingClient, "human\n");
+                        QubTicTacToeServerTests.receiveUntil(leavingClient, "Waiting for an opponent...");
+                        QubTicTacToeServerTests.close(leavingClient);
+
+                        // The next client must wait for a new opponent instead of joining the
+                        // match of the client that left.
+                        QubTicTacToeServerTests.send(xClient, "human\n");
+                        final String xWaiting = QubTicTacToeServerTests.receiveUntil(xClient, "Waiting for an opponent...");
+                        test.assertTrue(xWaiting.endsWith("Waiting for an opponent..."));
+
+                        QubTicTacToeServerTests.send(oClient, "human\nb1\nb2\n");
+                        QubTicTacToeServerTests.send(xClient, "a1\na2\na3\n");
+
+                        final String xText = xWaiting + QubTicTacToeServerTests.receiveAll(xClient);
+                        test.assertTrue(xText.contains("You are X."));
+                        test.assertTrue(xText.endsWith("X wins!\n\n"));
+                        test.assertTrue(QubTicTacToeServerTests.receiveAll(oClient).contains("You are O."));
+                    }
+                    finally
+                    {
+                        QubTicTacToeServerTests.close(xClient);
+                        QubTicTacToeServerTests.close(oClient);
+                        server.stop();
+                    }
+                    test.assertEqual(0, server.getSessionCount());
+                });
+
+                runner.test("with waiting human client that leaves an empty lobby", (Test test) ->
+                {
+                    final QubTicTacToeServer server = QubTicTacToeServer.create(QubTicTacToeGeometry.create());
+                    final int port = server.start(0).await();
+                    final Socket leavingClient = QubTicTacToeServerTests.connect(port);
+                    try
+                    {
+                        QubTicTacToeServerTests.send(leavingClient, "human\n");
+                        QubTicTacToeServerTests.receiveUntil(leavingClient, "Waiting for an opponent...");
+                        QubTicTacToeServerTests.close(leavingClient);
+
+                        // No one else connects, so the session must notice on its own that its
+                        // client left.
+                        final long endTime = System.currentTimeMillis() + (5 * QubTicTacToeServer.lobbyCheckMilliseconds);
+                        while (server.getSessionCount() > 0 && System.currentTimeMillis() < endTime)
+                        {
+                            Thread.sleep(10);
+                        }
+                        test.assertEqual(0, server.getSessionCount());
+                    }
+                    catch (InterruptedException e)
+                    {
+                        throw new RuntimeException(e);
+                    }
+                    finally
+                    {
+                        server.stop();
+                    }
+                });
+
+                runner.test("with human client that sends a line of moves", (Test test) ->
+                {
+                    final QubTicTacToeServer server = QubTicTacToeServer.create(QubTicTacToeGeometry.create());
+                    final int port = server.start(0).await();
+                    final Socket xClient = QubTicTacToeServerTests.connect(port);
+                    final Socket oClient = QubTicTacToeServerTests.connect(port);
+                    try
+                    {
+                        QubTicTacToeServerTests.send(xClient, "human\n");
+                        QubTicTacToeServerTests.receiveUntil(xClient, "Waiting for an opponent...");
+
+                        // X's line can't make O's move, so O still gets to play b1 and b2.
+                        QubTicTacToeServerTests.send(oClient, "human\nb1\nb2\n");
+                        QubTicTacToeServerTests.send(xClient, "a1 c1\na2\na3\n");
+
+                        final String xText = QubTicTacToeServerTests.receiveAll(xClient);
+                        final String oText = QubTicTacToeServerTests.receiveAll(oClient);
+                        test.assertTrue(xText.contains("1) X's move: \"c1\" wasn't made because it is O's turn.\n"));
+                        test.assertTrue(xText.endsWith("X wins!\n\n"));
+                        test.assertTrue(oText.contains("4) O's move: "));
+                        test.assertTrue(oText.endsWith("X wins!\n\n"));
+                    }
+                    finally
+                    {
+                        QubTicTacToeServerTests.close(xClient);
+                        QubTicTacToeServerTests.close(oClient);
+                        server.stop();
+                    }
+                });
+
+                runner.test("with human client that tries to undo", (Test test) ->
+                {
+                    final QubTicTacToeServer server = QubTicTacToeServer.create(QubTicTacToeGeometry.create());
+                    final int port = server.start(0).await();
+                    final Socket xClient = QubTicTacToeServerTests.connect(port);
+                    final Socket oClient = QubTicTacToeServerTests.connect(port);
+                    try
+                    {
+                        QubTicTacToeServerTests.send(xClient, "human\n");
+                        QubTicTacToeServerTests.receiveUntil(xClient, "Waiting for an opponent...");
+
+                        QubTicTacToeServerTests.send(oClient, "human\nundo\nredo\nb1\nb2\n");
+                        QubTicTacToeServerTests.send(xClient, "a1\na2\na3\n");
+
+                        final String xText = QubTicTacToeServerTests.receiveAll(xClient);
+                        final String oText = QubTicTacToeServerTests.receiveAll(oClient);
+                        test.assertTrue(xText.endsWith("X wins!\n\n"));
+                        test.assertTrue(oText.contains("2) O's move: Moves can't be undone or redone in this game.\n\n2) O's move: Moves can't be undone or redone in this game.\n\n2) O's move: \n"));
+                        test.assertTrue(oText.endsWith("X wins!\n\n"));
+                    }
+                    finally
+                    {
+                        QubTicTacToeServerTests.close(xClient);
+                        QubTicTacToeServerTests.close(oClient);
+                        server.stop();
+                    }
+                });
+            });
+        });
+    }
+
+    static Socket connect(int port)
+    {
+        try
+        {
+            final Socket result = new Socket(InetAddress.getLoopbackAddress(), port);
+            result.setSoTimeout(10000);
+            return result;
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+
+    static void send(Socket socket, String text)
+    {
+        try
+        {
+            socket.getOutputStream().write(text.getBytes(StandardCharsets.US_ASCII));
+            socket.getOutputStream().flush();
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+
+    static void shutdownOutput(Socket socket)
+    {
+        try
+        {
+            socket.shutdownOutput();
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+
+    static String receiveAll(Socket socket)
+    {
+        try
+        {
+            return new String(socket.getInputStream().readAllBytes(), StandardCharsets.US_ASCII);
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+
+    static String receiveUntil(Socket socket, String expectedEnding)
+    {
+        final StringBuilder result = new StringBuilder();
+        try
+        {
+            final InputStream inputStream = socket.getInputStream();
+            while (result.length() < expectedEnding.length() || !result.substring(result.length() - expectedEnding.length()).equals(expectedEnding))
+            {
+                final int value = inputStream.read();
+                if (value == -1)
+                {
+                    break;
+                }
+                result.append((char)value);
+            }
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeException(e);
+        }
+        return result.toString();
+    }
+
+    static void close(Socket socket)
+    {
+        try
+        {
+            socket.close();
+        }
+        catch (IOException ignored)
+        {
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package qub;
+
+public interface QubTicTacToeSessionStoreTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(QubTicTacToeSessionStore.class, () ->
+        {
+            runner.testGroup("create(QubTicTacToeGeometry,int)", () ->
+            {
+                runner.test("with null geometry", (Test test) ->
+                {
+                    test.assertThrows(() -> QubTicTacToeSessionStore.create(null, 1),
+                        new PreConditionFailure("geometry cannot be null."));
+                });
+
+                runner.test("with 6x6 geometry", (Test test) ->
+                {
+                    test.assertThrows(() -> QubTicTacToeSessionStore.create(QubTicTacToeGeometry.create(6, 6, 4), 1),
+                        new PreConditionFailure("geometry.getCellCount() (36) must be between 1 and 30."));
+                });
+
+                runner.test("with 3x3 geometry", (Test test) ->
+                {
+                    final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create();
+                    final QubTicTacToeSessionStore store = QubTicTacToeSessionStore.create(geometry, 2);
+                    test.assertSame(geometry, store.getGeometry());
+                    test.assertEqual(2, store.getCapacity());
+                    test.assertEqual(0, store.getSessionCount());
+                });
+            });
+
+            runner.testGroup("openSession()", () ->
+            {
+                runner.test("until full", (Test test) ->
+                {
+                    final QubTicTacToeSessionStore store = QubTicTacToeSessionStore.create(QubTicTacToeGeometry.create(), 2);
+                    test.assertEqual(0, store.openSession());
+                    test.assertEqual(1, store.openSession());
+                    test.assertEqual(-1, store.openSession());
+                    test.assertEqual(2, store.getSessionCount());
+                });
+
+                runner.test("after closeSession()", (Test test) ->
+                {
+                    final QubTicTacToeSessionStore store = QubTicTacToeSessionStore.create(QubTicTacToeGeometry.create(), 2);
+                    final int sessionId = store.openSession();
+                    test.assertEqual(QubTicTacToeSessionStore.xWins, QubTicTacToeSessionStoreTests.play(store, sessionId, 0, 3, 1, 4, 2));
+                    store.closeSession(sessionId);
+                    test.assertEqual(0, store.getSessionCount());
+
+                    test.assertEqual(sessionId, store.openSession());
+                    test.assertEqual(0L, store.getState(sessionId));
+                    test.assertEqual(QubTicTacToeSessionStore.inProgress, store.getStatus(sessionId));
+                });
+            });
+
+            runner.testGroup("closeSession(int)", () ->
+            {
+                runner.test("with open session", (Test test) ->
+                {
+                    final QubTicTacToeSessionStore store = QubTicTacToeSessionStore.create(QubTicTacToeGeometry.create(), 2);
+                    final int sessionId = store.openSession();
+                    test.assertTrue(store.isSessionOpen(sessionId));
+                    test.assertFalse(store.isSessionOpen(1));
+
+                    store.closeSession(sessionId);
+                    test.assertFalse(store.isSessionOpen(sessionId));
+                    test.assertEqual(0, store.getSessionCount());
+                });
+
+                runner.test("with session that was already closed", (Test test) ->
+                {
+                    final QubTicTacToeSessionStore store = QubTicTacToeSessionStore.create(QubTicTacToeGeometry.create(), 2);
+                    final int sessionId = store.openSession();
+                    store.closeSession(sessionId);
+                    test.assertThrows(() -> store.closeSession(sessionId),
+                        new PreConditionFailure("this.isSessionOpen(sessionId) cannot be false."));
+                    test.assertEqual(0, store.getSessionCount());
+                });
+
+                runner.test("then using the closed session", (Test test) ->
+                {
+                    final QubTicTacToeSessionStore store = QubTicTacToeSessionStore.create(QubTicTacToeGeometry.create(), 2);
+                    final int sessionId = store.openSession();
+                    store.makeMove(sessionId, 4);
+                    store.closeSession(sessionId);
+
+                    final PreConditionFailure expected = new PreConditionFailure("this.isSessionOpen(sessionId) cannot be false.");
+                    test.assertThrows(() -> store.makeMove(sessionId, 0), expected);
+                    test.assertThrows(() -> store.getState(sessionId), expected);
+                    test.assertThrows(() -> store.abandon(sessionId), expected);
+                    test.assertThrows(() -> store.getStatus(sessionId), expected);
+                    test.assertThrows(() -> store.getPosition(sessionId), expected);
+                });
+
+                runner.test("with session that was never opened", (Test test) ->
+                {
+                    final QubTicTacToeSessionStore store = QubTicTacToeSessionStore.create(QubTicTacToeGeometry.create(), 2);
+                    store.openSession();
+                    test.assertThrows(() -> store.closeSession(1),
+                        new PreConditionFailure("this.isSessionOpen(sessionId) cannot be false."));
+                    test.assertEqual(1, store.getSessionCount());
+                });
+
+                runner.test("with more than 64 sessions", (Test test) ->
+                {
+                    final QubTicTacToeSessionStore store = QubTicTacToeSessionStore.create(QubTicTacToeGeometry.create(), 100);
+                    for (int sessionId = 0; sessionId < 100; ++sessionId)
+                    {
+                        test.assertEqual(sessionId, store.openSession());
+                    }
+                    store.closeSession(70);
+                    test.assertFalse(store.isSessionOpen(70));
+                    test.assertTrue(store.isSessionOpen(6));
+                    test.assertEqual(70, store.openSession());
+                    test.assertTrue(store.isSessionOpen(70));
+                });
+            });
+
+            runner.testGroup("makeMove(int,int)", () ->
+            {
+                runner.test("with first move", (Test test) ->
+                {
+                    final QubTicTacToeSessionStore store = QubTicTacToeSessionStore.create(QubTicTacToeGeometry.create(), 1);
+                    final int sessionId = store.openSession();
+                    test.assertEqual("X", store.getCurrentPlayer(sessionId));
+                    test.assertEqual(QubTicTacToeSessionStore.inProgress, store.makeMove(sessionId, 4));
+                    test.assertEqual("X", store.getBoardCell(sessionId, 4));
+                    test.assertEqual(" ", store.getBoardCell(sessionId, 0));
+                    test.assertEqual("O", store.getCurrentPlayer(sessionId));
+                    test.assertEqual(1, store.getFilledCellCount(sessionId));
+                    test.assertFalse(store.isGameDone(sessionId));
+                });
+
+                runner.test("with taken cell", (Test test) ->
+                {
+                    final QubTicTacToeSessionStore store = QubTicTacToeSessionStore.create(QubTicTacToeGeometry.create(), 1);
+                    final int sessionId = store.openSession();
+                    store.makeMove(sessionId, 4);
+                    test.assertEqual(QubTicTacToeSessionStore.illegalMove, store.makeMove(sessionId, 4));
+                    test.assertEqual("O", store.getCurrentPlayer(sessionId));
+                });
+
+                runner.test("with O winning game", (Test test) ->
+                {
+                    final QubTicTacToeSessionStore store = QubTicTacToeSessionStore.create(QubTicTacToeGeometry.create(), 1);
+                    final int sessionId = store.openSession();
+                    test.assertEqual(QubTicTacToeSessionStore.oWins, QubTicTacToeSessionStoreTests.play(store, sessionId, 0, 3, 1, 4, 8, 5));
+                    test.assertEqual("O", store.getBoardCell(sessionId, 5));
+                    test.assertTrue(store.isGameDone(sessionId));
+                    test.assertEqual(QubTicTacToeSessionStore.illegalMove, store.makeMove(sessionId, 7));
+                });
+
+                runner.test("with tie game", (Test test) ->
+                {
+                    final QubTicTacToeSessionStore store = QubTicTacToeSessionStore.create(QubTicTacToeGeometry.create(), 1);
+                    final int sessionId = store.openSession();
+                    test.assertEqual(QubTicTacToeSessionStore.tie, QubTicTacToeSessionStoreTests.play(store, sessionId, QubTicTacToeBenchmarks.tieGameCells));
+                    test.assertEqual(9, store.getFilledCellCount(sessionId));
+                });
+
+                runner.test("with 5x6 board", (Test test) ->
+                {
+                    final QubTicTacToeSessionStore store = QubTicTacToeSessionStore.create(QubTicTacToeGeometry.create(5, 6, 4), 1);
+                    final int sessionId = store.openSession();
+                    test.assertEqual(QubTicTacToeSessionStore.xWins, QubTicTacToeSessionStoreTests.play(store, sessionId, 29, 0, 24, 1, 19, 2, 14));
+                    test.assertEqual("X", store.getBoardCell(sessionId, 29));
+                    test.assertEqual("O", store.getBoardCell(sessionId, 2));
+                });
+
+                runner.test("matches QubTicTacToeModel for random games", (Test test) ->
+                {
+                    final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create(4, 4, 3);
+                    final QubTicTacToeSessionStore store = QubTicTacToeSessionStore.create(geometry, 1);
+                    final QubTicTacToeRandomEngine engine = QubTicTacToeRandomEngine.create(7);
+                    for (int game = 0; game < 50; ++game)
+                    {
+                        final int sessionId = store.openSession();
+                        final QubTicTacToeModel model = QubTicTacToeModel.create(geometry);
+                        while (!model.isGameDone())
+                        {
+                            test.assertEqual(model.getCurrentPlayer(), store.getCurrentPlayer(sessionId));
+                            final int cellIndex = engine.chooseMove(model);
+                            model.makeMove(geometry.getRow(cellIndex), geometry.getColumn(cellIndex));
+                            store.makeMove(sessionId, cellIndex);
+                        }
+
+                        final int expectedStatus = model.hasWinner()
+                            ? (model.getWinner().equals("X") ? QubTicTacToeSessionStore.xWins : QubTicTacToeSessionStore.oWins)
+                            : QubTicTacToeSessionStore.tie;
+                        test.assertEqual(expectedStatus, store.getStatus(sessionId));
+                        for (int cellIndex = 0; cellIndex < geometry.getCellCount(); ++cellIndex)
+                        {
+                            test.assertEqual(model.getBoardCell(geometry.getRow(cellIndex), geometry.getColumn(cellIndex)), store.getBoardCell(sessionId, cellIndex));
+                        }
+                        store.closeSession(sessionId);
+                    }
+                });
+            });
+
+            runner.testGroup("getPosition(int)", () ->
+            {
+                runner.test("with game in progress", (Test test) ->
+                {
+                    final QubTicTacToeSessionStore store = QubTicTacToeSessionStore.create(QubTicTacToeGeometry.create(), 1);
+                    final int sessionId = store.openSession();
+                    store.makeMove(sessionId, 4);
+                    final QubTicTacToePosition position = store.getPosition(sessionId);
+                    store.makeMove(sessionId, 0);
+                    test.assertEqual(QubTicTacToePosition.create(QubTicTacToeGeometry.create()).play(4), position);
+                    test.assertEqual(position.play(0), store.getPosition(sessionId));
+                });
+            });
+
+            runner.testGroup("abandon(int)", () ->
+            {
+                runner.test("with game in progress", (Test test) ->
+                {
+                    final QubTicTacToeSessionStore store = QubTicTacToeSessionStore.create(QubTicTacToeGeometry.create(), 1);
+                    final int sessionId = store.openSession();
+                    store.makeMove(sessionId, 4);
+                    store.abandon(sessionId);
+                    test.assertEqual(QubTicTacToeSessionStore.abandoned, store.getStatus(sessionId));
+                    test.assertEqual("X", store.getBoardCell(sessionId, 4));
+                    test.assertEqual(QubTicTacToeSessionStore.illegalMove, store.makeMove(sessionId, 0));
+                });
+
+                runner.test("with finished game", (Test test) ->
+                {
+                    final QubTicTacToeSessionStore store = QubTicTacToeSessionStore.create(QubTicTacToeGeometry.create(), 1);
+                    final int sessionId = store.openSession();
+                    QubTicTacToeSessionStoreTests.play(store, sessionId, 0, 3, 1, 4, 2);
+                    store.abandon(sessionId);
+                    test.assertEqual(QubTicTacToeSessionStore.xWins, store.getStatus(sessionId));
+                });
+            });
+        });
+    }
+
+    static int play(QubTicTacToeSessionStore store, int sessionId, int... cellIndexes)
+    {
+        int result = QubTicTacToeSessionStore.inProgress;
+        for (final int cellIndex : cellIndexes)
+        {
+            result = store.makeMove(sessionId, cellIndex);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,68 @@
+package qub;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+public interface QubTicTacToeSocketReadStreamTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(QubTicTacToeSocketReadStream.class, () ->
+        {
+            runner.testGroup("readLine()", () ->
+            {
+                runner.test("with lines that end with \\r\\n and \\n", (Test test) ->
+                {
+                    final QubTicTacToeSocketReadStream input = QubTicTacToeSocketReadStreamTests.create("a1\r\nb2\nc3");
+                    test.assertEqual("a1", input.readLine().await());
+                    test.assertEqual("b2", input.readLine().await());
+                    test.assertEqual("c3", input.readLine().await());
+                    test.assertNull(input.readLine().catchError().await());
+                });
+
+                runner.test("with UTF-8 text", (Test test) ->
+                {
+                    final QubTicTacToeSocketReadStream input = QubTicTacToeSocketReadStreamTests.create("\u00e91 \u2715\n");
+                    test.assertEqual("\u00e91 \u2715", input.readLine().await());
+                });
+
+                runner.test("with flush stream and metrics", (Test test) ->
+                {
+                    final ByteArrayOutputStream outputBytes = new ByteArrayOutputStream();
+                    final QubTicTacToeSocketWriteStream output = QubTicTacToeSocketWriteStream.create(outputBytes);
+                    final QubTicTacToeMetrics metrics = QubTicTacToeMetrics.create();
+                    final QubTicTacToeSocketReadStream input = QubTicTacToeSocketReadStream.create(new ByteArrayInputStream("a1\n".getBytes(StandardCharsets.UTF_8)), output)
+                        .setMetrics(metrics);
+
+                    output.write("Enter a move: ").await();
+                    test.assertEqual(0, outputBytes.size());
+                    test.assertEqual("a1", input.readLine().await());
+                    test.assertEqual("Enter a move: ", new String(outputBytes.toByteArray(), StandardCharsets.UTF_8));
+                    test.assertEqual(1L, metrics.getPhase(QubTicTacToeMetrics.outputFlush).getCount());
+                });
+            });
+
+            runner.testGroup("isEndOfStream()", () ->
+            {
+                runner.test("with unread input", (Test test) ->
+                {
+                    final QubTicTacToeSocketReadStream input = QubTicTacToeSocketReadStreamTests.create("a1\n");
+                    test.assertFalse(input.isEndOfStream());
+                    test.assertEqual("a1", input.readLine().await());
+                    test.assertTrue(input.isEndOfStream());
+                });
+
+                runner.test("with no input", (Test test) ->
+                {
+                    test.assertTrue(QubTicTacToeSocketReadStreamTests.create("").isEndOfStream());
+                });
+            });
+        });
+    }
+
+    static QubTicTacToeSocketReadStream create(String text)
+    {
+        return QubTicTacToeSocketReadStream.create(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), null);
+    }
+}
@@ -0,0 +1,106 @@
+package qub;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+public interface QubTicTacToeSolvedTableTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(QubTicTacToeSolvedTable.class, () ->
+        {
+            runner.testGroup("supports(QubTicTacToeGeometry)", () ->
+            {
+                runner.test("with 3x3 board", (Test test) ->
+                {
+                    test.assertTrue(QubTicTacToeSolvedTable.supports(QubTicTacToeGeometry.create()));
+                });
+
+                runner.test("with 4x4 board", (Test test) ->
+                {
+                    test.assertFalse(QubTicTacToeSolvedTable.supports(QubTicTacToeGeometry.create(4, 4, 4)));
+                });
+            });
+
+            runner.testGroup("resourceName", () ->
+            {
+                runner.test("matches create()", (Test test) ->
+                {
+                    final Path folder = QubTicTacToeGameArchiveTests.createTemporaryFolder();
+                    try
+                    {
+                        final Path generatedFilePath = folder.resolve("generated.bin");
+                        QubTicTacToeSolvedTable.create().save(generatedFilePath);
+                        final byte[] generatedBytes = Files.readAllBytes(generatedFilePath);
+
+                        try (final InputStream resourceStream = QubTicTacToeSolvedTable.class.getResourceAsStream(QubTicTacToeSolvedTable.resourceName))
+                        {
+                            test.assertNotNull(resourceStream);
+                            test.assertTrue(Arrays.equals(generatedBytes, resourceStream.readAllBytes()));
+                        }
+                    }
+                    catch (IOException e)
+                    {
+                        throw new RuntimeException(e);
+                    }
+                    finally
+                    {
+                        QubTicTacToeGameArchiveTests.deleteFolder(folder);
+                    }
+                });
+            });
+
+            runner.testGroup("create()", () ->
+            {
+                runner.test("with empty board", (Test test) ->
+                {
+                    final QubTicTacToeSolvedTable table = QubTicTacToeSolvedTable.create();
+                    test.assertTrue(table.contains(0, 0));
+                    test.assertEqual(QubTicTacToeSolvedTable.draw, table.getValue(0, 0));
+                    test.assertEqual(9, table.getDistanceToEnd(0, 0));
+                });
+
+                runner.test("with every reachable position", (Test test) ->
+                {
+                    final QubTicTacToeSolvedTable table = QubTicTacToeSolvedTable.create();
+                    int positionCount = 0;
+                    for (int xBoard = 0; xBoard < 512; ++xBoard)
+                    {
+                        for (int oBoard = 0; oBoard < 512; ++oBoard)
+                        {
+                            if ((xBoard & oBoard) == 0 && table.contains(xBoard, oBoard))
+                            {
+                                ++positionCount;
+                            }
+                        }
+                    }
+
+                    // The 4,520 positions where the game isn't over plus the 16 drawn full boards.
+                    test.assertEqual(4536, positionCount);
+                });
+
+                runner.test("with X able to win", (Test test) ->
+                {
+                    final QubTicTacToeSolvedTable table = QubTicTacToeSolvedTable.create();
+                    final long xBoard = (1L << 0) | (1L << 1);
+                    final long oBoard = (1L << 3) | (1L << 4);
+                    test.assertEqual(QubTicTacToeSolvedTable.win, table.getValue(xBoard, oBoard));
+                    test.assertEqual(2, table.getBestMove(xBoard, oBoard));
+                    test.assertEqual(1, table.getDistanceToEnd(xBoard, oBoard));
+                });
+
+                runner.test("with game already won", (Test test) ->
+                {
+                    final QubTicTacToeSolvedTable table = QubTicTacToeSolvedTable.create();
+                    final long xBoard = (1L << 0) | (1L << 1) | (1L << 2);
+                    final long oBoard = (1L << 3) | (1L << 4);
+                    test.assertFalse(table.contains(xBoard, oBoard));
+                    test.assertEqual(-1, table.getBestMove(xBoard, oBoard));
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,115 @@
+package qub;
+
+public interface QubTicTacToeSymmetryTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(QubTicTacToeSymmetry.class, () ->
+        {
+            runner.testGroup("create(QubTicTacToeGeometry)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> QubTicTacToeSymmetry.create(null),
+                        new PreConditionFailure("geometry cannot be null."));
+                });
+
+                runner.test("with square board", (Test test) ->
+                {
+                    final QubTicTacToeSymmetry symmetry = QubTicTacToeSymmetry.create(QubTicTacToeGeometry.create());
+                    test.assertEqual(8, symmetry.getTransformCount());
+                    test.assertSame(symmetry, QubTicTacToeSymmetry.create(QubTicTacToeGeometry.create()));
+                });
+
+                runner.test("with rectangular board", (Test test) ->
+                {
+                    final QubTicTacToeSymmetry symmetry = QubTicTacToeSymmetry.create(QubTicTacToeGeometry.create(4, 2, 2));
+                    test.assertEqual(4, symmetry.getTransformCount());
+                });
+            });
+
+            runner.testGroup("transform(long,int)", () ->
+            {
+                runner.test("with every transform of a corner", (Test test) ->
+                {
+                    final QubTicTacToeSymmetry symmetry = QubTicTacToeSymmetry.create(QubTicTacToeGeometry.create());
+                    final long corners = (1L << 0) | (1L << 2) | (1L << 6) | (1L << 8);
+                    for (int transform = 0; transform < symmetry.getTransformCount(); ++transform)
+                    {
+                        final long transformed = symmetry.transform(1L << 0, transform);
+                        test.assertEqual(1, Long.bitCount(transformed));
+                        test.assertEqual(transformed, transformed & corners);
+                        test.assertEqual(0, symmetry.inverseTransformCell(symmetry.transformCell(0, transform), transform));
+                    }
+                });
+
+                runner.test("with center", (Test test) ->
+                {
+                    final QubTicTacToeSymmetry symmetry = QubTicTacToeSymmetry.create(QubTicTacToeGeometry.create());
+                    for (int transform = 0; transform < symmetry.getTransformCount(); ++transform)
+                    {
+                        test.assertEqual(1L << 4, symmetry.transform(1L << 4, transform));
+                    }
+                });
+            });
+
+            runner.testGroup("getCanonicalTransform(long,long)", () ->
+            {
+                runner.test("with every corner opening", (Test test) ->
+                {
+                    final QubTicTacToeSymmetry symmetry = QubTicTacToeSymmetry.create(QubTicTacToeGeometry.create());
+                    final int[] corners = { 0, 2, 6, 8 };
+                    long canonicalBoard = -1;
+                    for (final int corner : corners)
+                    {
+                        final long board = 1L << corner;
+                        final int transform = symmetry.getCanonicalTransform(0, board);
+                        final long transformedBoard = symmetry.transform(board, transform);
+                        if (canonicalBoard == -1)
+                        {
+                            canonicalBoard = transformedBoard;
+                        }
+                        test.assertEqual(canonicalBoard, transformedBoard);
+                    }
+                });
+            });
+
+            runner.testGroup("getCanonicalTransform(int[],int)", () ->
+            {
+                runner.test("with every corner opening on a board that doesn't fit in a long", (Test test) ->
+                {
+                    final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create(15, 15, 5);
+                    final QubTicTacToeSymmetry symmetry = QubTicTacToeSymmetry.create(geometry);
+                    test.assertEqual(8, symmetry.getTransformCount());
+
+                    final int[] corners = { 0, 14, 210, 224 };
+                    final int[] moves = new int[1];
+                    moves[0] = corners[0];
+                    final long canonicalHash = symmetry.getHash(moves, 1, symmetry.getCanonicalTransform(moves, 1));
+                    for (final int corner : corners)
+                    {
+                        moves[0] = corner;
+                        test.assertEqual(canonicalHash, symmetry.getHash(moves, 1, symmetry.getCanonicalTransform(moves, 1)));
+                    }
+                });
+
+                runner.test("with the same position reached in a different order", (Test test) ->
+                {
+                    final QubTicTacToeSymmetry symmetry = QubTicTacToeSymmetry.create(QubTicTacToeGeometry.create(7, 5, 4));
+                    final int[] moves = { 3, 10, 17, 11 };
+                    final int[] reorderedMoves = { 17, 11, 3, 10 };
+                    test.assertEqual(
+                        symmetry.getHash(moves, moves.length, symmetry.getCanonicalTransform(moves, moves.length)),
+                        symmetry.getHash(reorderedMoves, reorderedMoves.length, symmetry.getCanonicalTransform(reorderedMoves, reorderedMoves.length)));
+                });
+
+                runner.test("with no moves", (Test test) ->
+                {
+                    final QubTicTacToeSymmetry symmetry = QubTicTacToeSymmetry.create(QubTicTacToeGeometry.create());
+                    test.assertEqual(QubTicTacToeSymmetry.identityTransform, symmetry.getCanonicalTransform(new int[0], 0));
+                    test.assertEqual(0L, symmetry.getHash(new int[0], 0, QubTicTacToeSymmetry.identityTransform));
+                });
+            });
+        });
+    }
+}
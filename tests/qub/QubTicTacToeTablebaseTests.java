@@ -0,0 +1,305 @@
+package qub;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+
+public interface QubTicTacToeTablebaseTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(QubTicTacToeTablebase.class, () ->
+        {
+            runner.testGroup("supports(QubTicTacToeGeometry)", () ->
+            {
+                runner.test("with 3x3 board", (Test test) ->
+                {
+                    test.assertTrue(QubTicTacToeTablebase.supports(QubTicTacToeGeometry.create()));
+                });
+
+                runner.test("with 4x4 board", (Test test) ->
+                {
+                    test.assertTrue(QubTicTacToeTablebase.supports(QubTicTacToeGeometry.create(4, 4, 4)));
+                });
+
+                runner.test("with 5x5 board", (Test test) ->
+                {
+                    test.assertFalse(QubTicTacToeTablebase.supports(QubTicTacToeGeometry.create(5, 5, 4)));
+                });
+            });
+
+            runner.testGroup("getIndex(long,long)", () ->
+            {
+                runner.test("with 3x3 board", (Test test) ->
+                {
+                    final QubTicTacToeTablebase tablebase = QubTicTacToeTablebase.create(QubTicTacToeGeometry.create(), 1);
+                    test.assertEqual(0L, tablebase.getIndex(0, 0));
+                    test.assertEqual(1L, tablebase.getIndex(1L << 0, 0));
+                    test.assertEqual(2L, tablebase.getIndex(0, 1L << 0));
+                    test.assertEqual(3L + (2L * 9L), tablebase.getIndex(1L << 1, 1L << 2));
+                    test.assertEqual(19682L, tablebase.getIndex(0, (1L << 9) - 1));
+                });
+            });
+
+            runner.testGroup("create(QubTicTacToeGeometry,int)", () ->
+            {
+                runner.test("with 3x3 board", (Test test) ->
+                {
+                    final QubTicTacToeSolvedTable table = QubTicTacToeSolvedTable.create();
+                    final QubTicTacToeTablebase tablebase = QubTicTacToeTablebase.create(QubTicTacToeGeometry.create(), 3);
+                    for (int xBoard = 0; xBoard < 512; ++xBoard)
+                    {
+                        for (int oBoard = 0; oBoard < 512; ++oBoard)
+                        {
+                            if ((xBoard & oBoard) == 0)
+                            {
+                                final boolean contains = table.contains(xBoard, oBoard);
+                                test.assertEqual(contains, tablebase.contains(xBoard, oBoard));
+                                if (contains)
+                                {
+                                    test.assertEqual(table.getValue(xBoard, oBoard), tablebase.getValue(xBoard, oBoard));
+                                    test.assertEqual(table.getDistanceToEnd(xBoard, oBoard), tablebase.getDistanceToEnd(xBoard, oBoard));
+                                    test.assertEqual(table.getBestMove(xBoard, oBoard), tablebase.getBestMove(xBoard, oBoard));
+                                }
+                            }
+                        }
+                    }
+                });
+
+                runner.test("with 4x3 board", (Test test) ->
+                {
+                    final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create(4, 3, 3);
+                    final QubTicTacToeTablebase tablebase = QubTicTacToeTablebase.create(geometry, 4);
+                    final HashMap<Long,Integer> solutions = new HashMap<>();
+                    final int solution = QubTicTacToeTablebaseTests.solve(geometry, 0, 0, solutions);
+                    test.assertEqual(solution, (tablebase.getValue(0, 0) << 8) | tablebase.getDistanceToEnd(0, 0));
+
+                    int positionCount = 0;
+                    for (int xBoard = 0; xBoard < (1 << 12); ++xBoard)
+                    {
+                        for (int oBoard = 0; oBoard < (1 << 12); ++oBoard)
+                        {
+                            if ((xBoard & oBoard) == 0 && tablebase.contains(xBoard, oBoard))
+                            {
+                                ++positionCount;
+                            }
+                        }
+                    }
+                    // Every position that is reached from the empty board by a game that isn't over
+                    // yet, but no others.
+                    test.assertEqual(solutions.size(), positionCount);
+                    for (final Long index : solutions.keySet())
+                    {
+                        long xBoard = 0;
+                        long oBoard = 0;
+                        long remainder = index;
+                        for (int cellIndex = 0; cellIndex < geometry.getCellCount(); ++cellIndex)
+                        {
+                            if (remainder % 3 == 1)
+                            {
+                                xBoard |= 1L << cellIndex;
+                            }
+                            else if (remainder % 3 == 2)
+                            {
+                                oBoard |= 1L << cellIndex;
+                            }
+                            remainder /= 3;
+                        }
+                        test.assertTrue(tablebase.contains(xBoard, oBoard));
+                        test.assertEqual(solutions.get(index).intValue(), (tablebase.getValue(xBoard, oBoard) << 8) | tablebase.getDistanceToEnd(xBoard, oBoard));
+                    }
+                });
+
+                runner.test("with 4x4 board", (Test test) ->
+                {
+                    final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create(4, 4, 4);
+                    final QubTicTacToeTablebase tablebase = QubTicTacToeTablebase.create(geometry, 4);
+                    test.assertEqual(43046721L, QubTicTacToeTablebase.getPositionCount(geometry));
+                    test.assertEqual(14348907L, tablebase.getIndex(1L << 15, 0));
+                    test.assertEqual(QubTicTacToeTablebase.getPositionCount(geometry) - 1, tablebase.getIndex(0, (1L << 16) - 1));
+                    test.assertEqual(QubTicTacToeSolvedTable.draw, tablebase.getValue(0, 0));
+                    test.assertEqual(16, tablebase.getDistanceToEnd(0, 0));
+
+                    final long xBoard = (1L << 0) | (1L << 1) | (1L << 2);
+                    final long oBoard = (1L << 4) | (1L << 5) | (1L << 6);
+                    test.assertEqual(QubTicTacToeSolvedTable.win, tablebase.getValue(xBoard, oBoard));
+                    test.assertEqual(1, tablebase.getDistanceToEnd(xBoard, oBoard));
+                    test.assertEqual(3, tablebase.getBestMove(xBoard, oBoard));
+                });
+            });
+
+            runner.testGroup("getBestMove(QubTicTacToeModel)", () ->
+            {
+                runner.test("with game that is done", (Test test) ->
+                {
+                    final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create();
+                    final QubTicTacToeTablebase tablebase = QubTicTacToeTablebase.create(geometry, 1);
+                    final QubTicTacToeModel model = QubTicTacToeModel.create(geometry);
+                    model.setBoardCell(0, 0, "X");
+                    model.setBoardCell(1, 0, "O");
+                    model.setBoardCell(0, 1, "X");
+                    model.setBoardCell(1, 1, "O");
+                    model.setBoardCell(0, 2, "X");
+                    test.assertEqual(-1, tablebase.getBestMove(model));
+                });
+
+                runner.test("with X able to win", (Test test) ->
+                {
+                    final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create();
+                    final QubTicTacToeTablebase tablebase = QubTicTacToeTablebase.create(geometry, 1);
+                    final QubTicTacToeModel model = QubTicTacToeModel.create(geometry);
+                    model.setBoardCell(0, 0, "X");
+                    model.setBoardCell(1, 0, "O");
+                    model.setBoardCell(0, 1, "X");
+                    model.setBoardCell(1, 1, "O");
+                    test.assertEqual(2, tablebase.getBestMove(model));
+                });
+            });
+
+            runner.testGroup("create(QubTicTacToeGeometry,Path,int) and open(Path)", () ->
+            {
+                runner.test("with 3x4 board", (Test test) ->
+                {
+                    final Path folder = QubTicTacToeGameArchiveTests.createTemporaryFolder();
+                    try
+                    {
+                        final QubTicTacToeGeometry geometry = QubTicTacToeGeometry.create(3, 4, 3);
+                        final Path filePath = folder.resolve("tablebase.bin");
+                        final QubTicTacToeTablebase tablebase = QubTicTacToeTablebase.create(geometry, filePath, 2).await();
+                        final QubTicTacToeTablebase openedTablebase = QubTicTacToeTablebase.open(filePath).await();
+                        test.assertSame(geometry, openedTablebase.getGeometry());
+
+                        final QubTicTacToeTablebase heapTablebase = QubTicTacToeTablebase.create(geometry, 1);
+                        for (int xBoard = 0; xBoard < (1 << 12); ++xBoard)
+                        {
+                            for (int oBoard = 0; oBoard < (1 << 12); ++oBoard)
+                            {
+                                if ((xBoard & oBoard) == 0)
+                                {
+                                    final boolean contains = heapTablebase.contains(xBoard, oBoard);
+                                    test.assertEqual(contains, tablebase.contains(xBoard, oBoard));
+                                    test.assertEqual(contains, openedTablebase.contains(xBoard, oBoard));
+                                    if (contains)
+                                    {
+                                        test.assertEqual(heapTablebase.getValue(xBoard, oBoard), openedTablebase.getValue(xBoard, oBoard));
+                                        test.assertEqual(heapTablebase.getDistanceToEnd(xBoard, oBoard), openedTablebase.getDistanceToEnd(xBoard, oBoard));
+                                    }
+                                }
+                            }
+                        }
+                    }
+                    finally
+                    {
+                        QubTicTacToeGameArchiveTests.deleteFolder(folder);
+                    }
+                });
+
+                runner.test("with saved tablebase", (Test test) ->
+                {
+                    final Path folder = QubTicTacToeGameArchiveTests.createTemporaryFolder();
+                    try
+                    {
+                        final QubTicTacToeTablebase tablebase = QubTicTacToeTablebase.create(QubTicTacToeGeometry.create(), 1);
+                        final Path filePath = folder.resolve("tablebase.bin");
+                        test.assertSame(tablebase, tablebase.save(filePath).await());
+
+                        final QubTicTacToeTablebase openedTablebase = QubTicTacToeTablebase.open(filePath).await();
+                        test.assertSame(tablebase.getGeometry(), openedTablebase.getGeometry());
+                        test.assertEqual(QubTicTacToeSolvedTable.draw, openedTablebase.getValue(0, 0));
+                        test.assertEqual(9, openedTablebase.getDistanceToEnd(0, 0));
+                    }
+                    finally
+                    {
+                        QubTicTacToeGameArchiveTests.deleteFolder(folder);
+                    }
+                });
+
+                runner.test("with file that doesn't exist", (Test test) ->
+                {
+                    final Path folder = QubTicTacToeGameArchiveTests.createTemporaryFolder();
+                    try
+                    {
+                        test.assertNull(QubTicTacToeTablebase.open(folder.resolve("tablebase.bin")).catchError().await());
+                    }
+                    finally
+                    {
+                        QubTicTacToeGameArchiveTests.deleteFolder(folder);
+                    }
+                });
+
+                runner.test("with file that isn't a tablebase", (Test test) ->
+                {
+                    final Path folder = QubTicTacToeGameArchiveTests.createTemporaryFolder();
+                    try
+                    {
+                        final Path filePath = folder.resolve("tablebase.bin");
+                        QubTicTacToeGameArchiveTests.writeFile(filePath, "not a tablebase");
+                        test.assertNull(QubTicTacToeTablebase.open(filePath).catchError().await());
+                    }
+                    finally
+                    {
+                        QubTicTacToeGameArchiveTests.deleteFolder(folder);
+                    }
+                });
+            });
+        });
+    }
+
+    /**
+     * Solve the provided position with a memoized forward search, and record the solution of every
+     * position that is reached where the game isn't over yet. Each solution is the position's
+     * value for the player to move shifted left by 8 bits, combined with its distance to the end.
+     */
+    static int solve(QubTicTacToeGeometry geometry, long xBoard, long oBoard, HashMap<Long,Integer> solutions)
+    {
+        long index = 0;
+        for (int cellIndex = geometry.getCellCount() - 1; cellIndex >= 0; --cellIndex)
+        {
+            index = (index * 3) + ((xBoard & (1L << cellIndex)) != 0 ? 1 : (oBoard & (1L << cellIndex)) != 0 ? 2 : 0);
+        }
+
+        Integer result = solutions.get(index);
+        if (result == null)
+        {
+            final boolean xToMove = Long.bitCount(xBoard) == Long.bitCount(oBoard);
+            int bestValue = QubTicTacToeSolvedTable.draw;
+            int bestDistance = 0;
+            boolean hasMove = false;
+            for (int cellIndex = 0; cellIndex < geometry.getCellCount(); ++cellIndex)
+            {
+                final long cell = 1L << cellIndex;
+                if (((xBoard | oBoard) & cell) == 0)
+                {
+                    final long ownBoard = (xToMove ? xBoard : oBoard) | cell;
+                    int value;
+                    int distance;
+                    if (geometry.isWinningMove(ownBoard, cellIndex))
+                    {
+                        value = QubTicTacToeSolvedTable.win;
+                        distance = 1;
+                    }
+                    else
+                    {
+                        final int childSolution = xToMove
+                            ? QubTicTacToeTablebaseTests.solve(geometry, ownBoard, oBoard, solutions)
+                            : QubTicTacToeTablebaseTests.solve(geometry, xBoard, ownBoard, solutions);
+                        value = -(childSolution >> 8);
+                        distance = (childSolution & 0xFF) + 1;
+                    }
+
+                    if (!hasMove ||
+                        value > bestValue ||
+                        (value == bestValue && value == QubTicTacToeSolvedTable.win && distance < bestDistance) ||
+                        (value == bestValue && value == QubTicTacToeSolvedTable.loss && distance > bestDistance))
+                    {
+                        bestValue = value;
+                        bestDistance = distance;
+                        hasMove = true;
+                    }
+                }
+            }
+            result = (bestValue << 8) | bestDistance;
+            solutions.put(index, result);
+        }
+        return result;
+    }
+}
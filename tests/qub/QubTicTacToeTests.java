@@ -37,10 +37,36 @@ public interface QubTicTacToeTests
 
                         test.assertEqual(
                             Iterable.create(
-                                "Usage: qub-tictactoe [--profiler] [--help]",
+                                "Usage: qub-tictactoe [--width=<width>] [--height=<height>] [--win-length=<win-length>] [--x-player=<player>] [--o-player=<player>] [--solve] [--simulate=<games>] [--tournament=<players>] [--pairing=<pairing>] [--rounds=<count>] [--games=<count>] [--benchmark] [--protocol] [--server=<port>] [--record=<file>] [--analyze=<file>] [--validate=<file>] [--book=<file>] [--build-book=<file>] [--book-games=<file>] [--book-depth=<plies>] [--metrics=<file>] [--summary=<seconds>] [--retrograde=<file>] [--tablebase=<file>] [--threads=<count>] [--profiler] [--help]",
                                 "  Play the game tic-tac-toe.",
-                                "  --profiler: Whether or not this application should pause before it is run to allow a profiler to be attached.",
-                                "  --help(?):  Show the help message for this application."
+                                "  --width:      The number of columns on the board. Defaults to 3.",
+                                "  --height:     The number of rows on the board. Defaults to 3.",
+                                "  --win-length: The number of cells in a row that a player needs to win. Defaults to 3.",
+                                "  --x-player:   The player that controls X: human, random, minimax[:<depth>], or mcts[:<playouts>|:<milliseconds>ms]. Defaults to human.",
+                                "  --o-player:   The player that controls O: human, random, minimax[:<depth>], or mcts[:<playouts>|:<milliseconds>ms]. Defaults to human.",
+                                "  --solve:      Solve the empty board with 1, 2, 4, ... threads up to --threads and report the nodes per second and speedup.",
+                                "  --simulate:   Play the provided number of games between the --x-player and --o-player engines without showing the board, and report the results.",
+                                "  --tournament: Play a tournament between the provided comma-separated engine players without showing the board, and report each player's results and Elo rating.",
+                                "  --pairing:    How --tournament pairs the players in each round: round-robin or swiss. Defaults to round-robin.",
+                                "  --rounds:     The number of rounds that --tournament plays. Defaults to 1.",
+                                "  --games:      The number of games that each pair of --tournament players plays in a round, alternating who plays X. Defaults to 2.",
+                                "  --benchmark:  Run the benchmark suite and report the throughput, allocations, and garbage collections of each benchmark.",
+                                "  --protocol:   Read engine protocol commands (isready, newgame, position, move, go, quit) from standard input and answer with single lines.",
+                                "  --server:     Accept connections on the provided port and play a game with each client, against an engine or another connected client.",
+                                "  --record:     Append every game that is played or simulated to the binary game archive at the provided path.",
+                                "  --analyze:    Replay every game in the binary game archive at the provided path and report the results, game lengths, openings, and blunders.",
+                                "  --validate:   Validate the games in the file at the provided path, one line of moves per game, and report each game's outcome or first illegal move.",
+                                "  --book:       Play the moves of the opening book at the provided path before the engines search.",
+                                "  --build-book: Build an opening book at the provided path from the games in --book-games, or by searching with the --x-player engine.",
+                                "  --book-games: The binary game archive that --build-book chooses the opening moves from.",
+                                "  --book-depth: The number of moves from the start of the game that --build-book covers. Defaults to 6.",
+                                "  --metrics:    Measure every move and write the counters and latency histograms as JSON to the provided path when the application exits.",
+                                "  --summary:    Measure every move and write a summary of the counters and latencies every provided number of seconds and when the application exits.",
+                                "  --retrograde: Generate the tablebase of every position on the board at the provided path by retrograde analysis.",
+                                "  --tablebase:  Play the moves of the tablebase at the provided path for the positions that it contains.",
+                                "  --threads:    The number of threads to use. Defaults to the number of processors.",
+                                "  --profiler:   Whether or not this application should pause before it is run to allow a profiler to be attached.",
+                                "  --help(?):    Show the help message for this application."
                             ),
                             Strings.getLines(output.getText().await()));
                     }
@@ -61,10 +87,380 @@ public interface QubTicTacToeTests
                         test.assertNotNull(parameters);
                         test.assertSame(output, parameters.getOutputWriteStream());
                         test.assertSame(input, parameters.getInputReadStream());
+                        test.assertNull(parameters.getMetrics());
 
                         test.assertEqual("", output.getText().await());
                     }
                 });
+
+                runner.test("with --width=15 --height=15 --win-length=5", (Test test) ->
+                {
+                    try (final QubProcess process = QubProcess.create("--width=15", "--height=15", "--win-length=5"))
+                    {
+                        final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                        final InMemoryCharacterToByteStream input = InMemoryCharacterToByteStream.create().endOfStream();
+
+                        process.setOutputWriteStream(output);
+                        process.setInputReadStream(input);
+
+                        final QubTicTacToeParameters parameters = QubTicTacToe.getParameters(process);
+
+                        test.assertNotNull(parameters);
+                        test.assertEqual(15, parameters.getBoardWidth());
+                        test.assertEqual(15, parameters.getBoardHeight());
+                        test.assertEqual(5, parameters.getWinLength());
+                        test.assertSame(QubTicTacToeGeometry.create(15, 15, 5), parameters.getGeometry());
+
+                        test.assertEqual("", output.getText().await());
+                    }
+                });
+
+                runner.test("with --o-player=minimax", (Test test) ->
+                {
+                    try (final QubProcess process = QubProcess.create("--o-player=minimax"))
+                    {
+                        final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                        final InMemoryCharacterToByteStream input = InMemoryCharacterToByteStream.create().endOfStream();
+
+                        process.setOutputWriteStream(output);
+                        process.setInputReadStream(input);
+
+                        final QubTicTacToeParameters parameters = QubTicTacToe.getParameters(process);
+
+                        test.assertNotNull(parameters);
+                        test.assertEqual("human", parameters.getXPlayer());
+                        test.assertEqual("minimax", parameters.getOPlayer());
+
+                        test.assertEqual("", output.getText().await());
+                    }
+                });
+
+                runner.test("with --x-player=robot", (Test test) ->
+                {
+                    try (final QubProcess process = QubProcess.create("--x-player=robot"))
+                    {
+                        final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                        final InMemoryCharacterToByteStream input = InMemoryCharacterToByteStream.create().endOfStream();
+
+                        process.setOutputWriteStream(output);
+                        process.setInputReadStream(input);
+
+                        test.assertNull(QubTicTacToe.getParameters(process));
+
+                        test.assertEqual(
+                            Iterable.create(
+                                "Unknown player \"robot\". Expected human, random, minimax[:<depth>], or mcts[:<playouts>|:<milliseconds>ms]."
+                            ),
+                            Strings.getLines(output.getText().await()));
+                    }
+                });
+
+                runner.test("with --solve and 15x15 board", (Test test) ->
+                {
+                    try (final QubProcess process = QubProcess.create("--solve", "--width=15", "--height=15", "--win-length=5"))
+                    {
+                        final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                        final InMemoryCharacterToByteStream input = InMemoryCharacterToByteStream.create().endOfStream();
+
+                        process.setOutputWriteStream(output);
+                        process.setInputReadStream(input);
+
+                        test.assertNull(QubTicTacToe.getParameters(process));
+
+                        test.assertEqual(
+                            Iterable.create(
+                                "--solve only supports boards with up to 64 cells."
+                            ),
+                            Strings.getLines(output.getText().await()));
+                    }
+                });
+
+                runner.test("with --simulate and human players", (Test test) ->
+                {
+                    try (final QubProcess process = QubProcess.create("--simulate=10", "--x-player=random"))
+                    {
+                        final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                        final InMemoryCharacterToByteStream input = InMemoryCharacterToByteStream.create().endOfStream();
+
+                        process.setOutputWriteStream(output);
+                        process.setInputReadStream(input);
+
+                        test.assertNull(QubTicTacToe.getParameters(process));
+
+                        test.assertEqual(
+                            Iterable.create(
+                                "--simulate requires both --x-player and --o-player to be engines."
+                            ),
+                            Strings.getLines(output.getText().await()));
+                    }
+                });
+
+                runner.test("with --simulate and engine players", (Test test) ->
+                {
+                    try (final QubProcess process = QubProcess.create("--simulate=10", "--x-player=random", "--o-player=mcts:100"))
+                    {
+                        final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                        final InMemoryCharacterToByteStream input = InMemoryCharacterToByteStream.create().endOfStream();
+
+                        process.setOutputWriteStream(output);
+                        process.setInputReadStream(input);
+
+                        final QubTicTacToeParameters parameters = QubTicTacToe.getParameters(process);
+                        test.assertNotNull(parameters);
+                        test.assertEqual(10, parameters.getSimulateGameCount());
+                        test.assertEqual("random", parameters.getXPlayer());
+                        test.assertEqual("mcts:100", parameters.getOPlayer());
+                        test.assertEqual("", output.getText().await());
+                    }
+                });
+
+                runner.test("with --tournament and one player", (Test test) ->
+                {
+                    try (final QubProcess process = QubProcess.create("--tournament=random"))
+                    {
+                        final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                        final InMemoryCharacterToByteStream input = InMemoryCharacterToByteStream.create().endOfStream();
+
+                        process.setOutputWriteStream(output);
+                        process.setInputReadStream(input);
+
+                        test.assertNull(QubTicTacToe.getParameters(process));
+
+                        test.assertEqual(
+                            Iterable.create(
+                                "--tournament requires at least 2 players."
+                            ),
+                            Strings.getLines(output.getText().await()));
+                    }
+                });
+
+                runner.test("with --tournament and human player", (Test test) ->
+                {
+                    try (final QubProcess process = QubProcess.create("--tournament=random,human"))
+                    {
+                        final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                        final InMemoryCharacterToByteStream input = InMemoryCharacterToByteStream.create().endOfStream();
+
+                        process.setOutputWriteStream(output);
+                        process.setInputReadStream(input);
+
+                        test.assertNull(QubTicTacToe.getParameters(process));
+
+                        test.assertEqual(
+                            Iterable.create(
+                                "--tournament players must be engines."
+                            ),
+                            Strings.getLines(output.getText().await()));
+                    }
+                });
+
+                runner.test("with --tournament and unknown player", (Test test) ->
+                {
+                    try (final QubProcess process = QubProcess.create("--tournament=random,,minimax"))
+                    {
+                        final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                        final InMemoryCharacterToByteStream input = InMemoryCharacterToByteStream.create().endOfStream();
+
+                        process.setOutputWriteStream(output);
+                        process.setInputReadStream(input);
+
+                        test.assertNull(QubTicTacToe.getParameters(process));
+
+                        test.assertEqual(
+                            Iterable.create(
+                                "Unknown player \"\". Expected human, random, minimax[:<depth>], or mcts[:<playouts>|:<milliseconds>ms]."
+                            ),
+                            Strings.getLines(output.getText().await()));
+                    }
+                });
+
+                runner.test("with --pairing=elimination", (Test test) ->
+                {
+                    try (final QubProcess process = QubProcess.create("--tournament=random,minimax", "--pairing=elimination"))
+                    {
+                        final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                        final InMemoryCharacterToByteStream input = InMemoryCharacterToByteStream.create().endOfStream();
+
+                        process.setOutputWriteStream(output);
+                        process.setInputReadStream(input);
+
+                        test.assertNull(QubTicTacToe.getParameters(process));
+
+                        test.assertEqual(
+                            Iterable.create(
+                                "The --pairing value \"elimination\" must be round-robin or swiss."
+                            ),
+                            Strings.getLines(output.getText().await()));
+                    }
+                });
+
+                runner.test("with --rounds=0", (Test test) ->
+                {
+                    try (final QubProcess process = QubProcess.create("--tournament=random,minimax", "--rounds=0"))
+                    {
+                        final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                        final InMemoryCharacterToByteStream input = InMemoryCharacterToByteStream.create().endOfStream();
+
+                        process.setOutputWriteStream(output);
+                        process.setInputReadStream(input);
+
+                        test.assertNull(QubTicTacToe.getParameters(process));
+
+                        test.assertEqual(
+                            Iterable.create(
+                                "The --rounds value \"0\" must be an integer greater than or equal to 1."
+                            ),
+                            Strings.getLines(output.getText().await()));
+                    }
+                });
+
+                runner.test("with --tournament, --pairing, --rounds, and --games", (Test test) ->
+                {
+                    try (final QubProcess process = QubProcess.create("--tournament=random, minimax:2,mcts:100", "--pairing=Swiss", "--rounds=5", "--games=10"))
+                    {
+                        final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                        final InMemoryCharacterToByteStream input = InMemoryCharacterToByteStream.create().endOfStream();
+
+                        process.setOutputWriteStream(output);
+                        process.setInputReadStream(input);
+
+                        final QubTicTacToeParameters parameters = QubTicTacToe.getParameters(process);
+                        test.assertNotNull(parameters);
+                        test.assertEqual(Iterable.create("random", "minimax:2", "mcts:100"), parameters.getTournamentPlayers());
+                        test.assertEqual(QubTicTacToeTournament.swiss, parameters.getTournamentPairing());
+                        test.assertEqual(5, parameters.getTournamentRoundCount());
+                        test.assertEqual(10, parameters.getTournamentGamesPerPairing());
+                        test.assertEqual("", output.getText().await());
+                    }
+                });
+
+                runner.test("with --metrics and --summary", (Test test) ->
+                {
+                    try (final QubProcess process = QubProcess.create("--metrics=metrics.json", "--summary=10"))
+                    {
+                        final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                        final InMemoryCharacterToByteStream input = InMemoryCharacterToByteStream.create().endOfStream();
+
+                        process.setOutputWriteStream(output);
+                        process.setInputReadStream(input);
+
+                        final QubTicTacToeParameters parameters = QubTicTacToe.getParameters(process);
+                        test.assertNotNull(parameters.getMetrics());
+                        test.assertEqual("metrics.json", parameters.getMetricsFilePath());
+                        test.assertEqual(10, parameters.getSummaryInterval());
+                    }
+                });
+
+                runner.test("with --summary=-1", (Test test) ->
+                {
+                    try (final QubProcess process = QubProcess.create("--summary=-1"))
+                    {
+                        final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                        final InMemoryCharacterToByteStream input = InMemoryCharacterToByteStream.create().endOfStream();
+
+                        process.setOutputWriteStream(output);
+                        process.setInputReadStream(input);
+
+                        test.assertNull(QubTicTacToe.getParameters(process));
+                        test.assertEqual(
+                            Iterable.create("The --summary value \"-1\" must be an integer greater than or equal to 0."),
+                            Strings.getLines(output.getText().await()));
+                    }
+                });
+
+                runner.test("with --retrograde on 5x5 board", (Test test) ->
+                {
+                    try (final QubProcess process = QubProcess.create("--width=5", "--height=5", "--retrograde=tablebase.bin"))
+                    {
+                        final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                        final InMemoryCharacterToByteStream input = InMemoryCharacterToByteStream.create().endOfStream();
+
+                        process.setOutputWriteStream(output);
+                        process.setInputReadStream(input);
+
+                        test.assertNull(QubTicTacToe.getParameters(process));
+                        test.assertEqual(
+                            Iterable.create("--retrograde and --tablebase only support boards with up to 19 cells."),
+                            Strings.getLines(output.getText().await()));
+                    }
+                });
+
+                runner.test("with --retrograde and --tablebase", (Test test) ->
+                {
+                    try (final QubProcess process = QubProcess.create("--width=4", "--height=4", "--retrograde=tablebase.bin", "--tablebase=other.bin"))
+                    {
+                        final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                        final InMemoryCharacterToByteStream input = InMemoryCharacterToByteStream.create().endOfStream();
+
+                        process.setOutputWriteStream(output);
+                        process.setInputReadStream(input);
+
+                        final QubTicTacToeParameters parameters = QubTicTacToe.getParameters(process);
+                        test.assertEqual("tablebase.bin", parameters.getRetrogradeFilePath());
+                        test.assertEqual("other.bin", parameters.getTablebaseFilePath());
+                        test.assertEqual("", output.getText().await());
+                    }
+                });
+
+                runner.test("with --simulate=0", (Test test) ->
+                {
+                    try (final QubProcess process = QubProcess.create("--simulate=0", "--x-player=random", "--o-player=random"))
+                    {
+                        final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                        final InMemoryCharacterToByteStream input = InMemoryCharacterToByteStream.create().endOfStream();
+
+                        process.setOutputWriteStream(output);
+                        process.setInputReadStream(input);
+
+                        test.assertNull(QubTicTacToe.getParameters(process));
+
+                        test.assertEqual(
+                            Iterable.create(
+                                "The --simulate value \"0\" must be an integer greater than or equal to 1."
+                            ),
+                            Strings.getLines(output.getText().await()));
+                    }
+                });
+
+                runner.test("with --width=abc", (Test test) ->
+                {
+                    try (final QubProcess process = QubProcess.create("--width=abc"))
+                    {
+                        final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                        final InMemoryCharacterToByteStream input = InMemoryCharacterToByteStream.create().endOfStream();
+
+                        process.setOutputWriteStream(output);
+                        process.setInputReadStream(input);
+
+                        test.assertNull(QubTicTacToe.getParameters(process));
+
+                        test.assertEqual(
+                            Iterable.create(
+                                "The --width value \"abc\" must be an integer between 1 and 26."
+                            ),
+                            Strings.getLines(output.getText().await()));
+                    }
+                });
+
+                runner.test("with --win-length greater than the board", (Test test) ->
+                {
+                    try (final QubProcess process = QubProcess.create("--width=4", "--win-length=5"))
+                    {
+                        final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                        final InMemoryCharacterToByteStream input = InMemoryCharacterToByteStream.create().endOfStream();
+
+                        process.setOutputWriteStream(output);
+                        process.setInputReadStream(input);
+
+                        test.assertNull(QubTicTacToe.getParameters(process));
+
+                        test.assertEqual(
+                            Iterable.create(
+                                "The --win-length (5) cannot be greater than both the --width (4) and the --height (3)."
+                            ),
+                            Strings.getLines(output.getText().await()));
+                    }
+                });
             });
 
             runner.testGroup("run(QubTicTacToeParameters)", () ->
@@ -190,20 +586,110 @@ public interface QubTicTacToeTests
                             "-------------",
                             "C |   |   |  ",
                             "",
-                            "1) X's move: d1",
-                            "\"d1\" is not a valid space on the board.",
-                            "",
-                            "1) X's move: exit",
+                            "1) X's move: d1",
+                            "\"d1\" is not a valid space on the board.",
+                            "",
+                            "1) X's move: exit",
+                            ""),
+                        Strings.getLines(output.getText().await()));
+                });
+
+                runner.test("with already taken board space", (Test test) ->
+                {
+                    final InMemoryCharacterStream output = InMemoryCharacterStream.create();
+                    final QubTicTacToeParameters parameters = QubTicTacToeTests.createParameters(output, Iterable.create(
+                            "2b",
+                            "2b",
+                            "exit"));
+
+                    QubTicTacToe.run(parameters);
+
+                    test.assertEqual(
+                        Iterable.create(
+                            "Welcome to Qub Tic-Tac-Toe!",
+                            "",
+                            "  | 1 | 2 | 3",
+                            "-------------",
+                            "A |   |   |  ",
+                            "-------------",
+                            "B |   |   |  ",
+                            "-------------",
+                            "C |   |   |  ",
+                            "",
+                            "1) X's move: 2b",
+                            "",
+                            "  | 1 | 2 | 3",
+                            "-------------",
+                            "A |   |   |  ",
+                            "-------------",
+                            "B |   | X |  ",
+                            "-------------",
+                            "C |   |   |  ",
+                            "",
+                            "2) O's move: 2b",
+                            "\"2b\" is already taken by \"X\".",
+                            "",
+                            "2) O's move: exit",
+                            ""),
+                        Strings.getLines(output.getText().await()));
+                });
+
+                runner.test("with batch of moves", (Test test) ->
+                {
+                    final InMemoryCharacterStream output = InMemoryCharacterStream.create();
+                    final QubTicTacToeParameters parameters = QubTicTacToeTests.createParameters(output, Iterable.create(
+                            "a1 b1 2a",
+                            "b2 b1",
+                            "exit"));
+
+                    QubTicTacToe.run(parameters);
+
+                    test.assertEqual(
+                        Iterable.create(
+                            "Welcome to Qub Tic-Tac-Toe!",
+                            "",
+                            "  | 1 | 2 | 3",
+                            "-------------",
+                            "A |   |   |  ",
+                            "-------------",
+                            "B |   |   |  ",
+                            "-------------",
+                            "C |   |   |  ",
+                            "",
+                            "1) X's move: a1 b1 2a",
+                            "",
+                            "  | 1 | 2 | 3",
+                            "-------------",
+                            "A | X | X |  ",
+                            "-------------",
+                            "B | O |   |  ",
+                            "-------------",
+                            "C |   |   |  ",
+                            "",
+                            "4) O's move: b2 b1",
+                            "\"b1\" is already taken by \"O\".",
+                            "",
+                            "  | 1 | 2 | 3",
+                            "-------------",
+                            "A | X | X |  ",
+                            "-------------",
+                            "B | O | O |  ",
+                            "-------------",
+                            "C |   |   |  ",
+                            "",
+                            "5) X's move: exit",
                             ""),
                         Strings.getLines(output.getText().await()));
                 });
 
-                runner.test("with already taken board space", (Test test) ->
+                runner.test("with undo and redo", (Test test) ->
                 {
                     final InMemoryCharacterStream output = InMemoryCharacterStream.create();
                     final QubTicTacToeParameters parameters = QubTicTacToeTests.createParameters(output, Iterable.create(
-                            "2b",
-                            "2b",
+                            "redo",
+                            "b2",
+                            "undo",
+                            "redo",
                             "exit"));
 
                     QubTicTacToe.run(parameters);
@@ -220,7 +706,10 @@ public interface QubTicTacToeTests
                             "-------------",
                             "C |   |   |  ",
                             "",
-                            "1) X's move: 2b",
+                            "1) X's move: redo",
+                            "There are no moves to redo.",
+                            "",
+                            "1) X's move: b2",
                             "",
                             "  | 1 | 2 | 3",
                             "-------------",
@@ -230,8 +719,25 @@ public interface QubTicTacToeTests
                             "-------------",
                             "C |   |   |  ",
                             "",
-                            "2) O's move: 2b",
-                            "\"2b\" is already taken by \"X\".",
+                            "2) O's move: undo",
+                            "",
+                            "  | 1 | 2 | 3",
+                            "-------------",
+                            "A |   |   |  ",
+                            "-------------",
+                            "B |   |   |  ",
+                            "-------------",
+                            "C |   |   |  ",
+                            "",
+                            "1) X's move: redo",
+                            "",
+                            "  | 1 | 2 | 3",
+                            "-------------",
+                            "A |   |   |  ",
+                            "-------------",
+                            "B |   | X |  ",
+                            "-------------",
+                            "C |   |   |  ",
                             "",
                             "2) O's move: exit",
                             ""),
@@ -478,59 +984,349 @@ public interface QubTicTacToeTests
                             "",
                             "  | 1 | 2 | 3",
                             "-------------",
-                            "A | O |   |  ",
+                            "A | O |   |  ",
+                            "-------------",
+                            "B | X |   |  ",
+                            "-------------",
+                            "C |   |   |  ",
+                            "",
+                            "3) X's move: 2b",
+                            "",
+                            "  | 1 | 2 | 3",
+                            "-------------",
+                            "A | O |   |  ",
+                            "-------------",
+                            "B | X | X |  ",
+                            "-------------",
+                            "C |   |   |  ",
+                            "",
+                            "4) O's move: 2a",
+                            "",
+                            "  | 1 | 2 | 3",
+                            "-------------",
+                            "A | O | O |  ",
+                            "-------------",
+                            "B | X | X |  ",
+                            "-------------",
+                            "C |   |   |  ",
+                            "",
+                            "5) X's move: 3b",
+                            "",
+                            "  | 1 | 2 | 3",
+                            "-------------",
+                            "A | O | O |  ",
+                            "-------------",
+                            "B | X | X | X",
+                            "-------------",
+                            "C |   |   |  ",
+                            "",
+                            "X wins!",
+                            ""),
+                        Strings.getLines(output.getText().await()));
+                });
+
+                runner.test("with bottom row winning game", (Test test) ->
+                {
+                    final InMemoryCharacterStream output = InMemoryCharacterStream.create();
+                    final QubTicTacToeParameters parameters = QubTicTacToeTests.createParameters(output, Iterable.create(
+                            "1c",
+                            "1a",
+                            "2c",
+                            "2a",
+                            "3c"));
+
+                    QubTicTacToe.run(parameters);
+
+                    test.assertEqual(
+                        Iterable.create(
+                            "Welcome to Qub Tic-Tac-Toe!",
+                            "",
+                            "  | 1 | 2 | 3",
+                            "-------------",
+                            "A |   |   |  ",
+                            "-------------",
+                            "B |   |   |  ",
+                            "-------------",
+                            "C |   |   |  ",
+                            "",
+                            "1) X's move: 1c",
+                            "",
+                            "  | 1 | 2 | 3",
+                            "-------------",
+                            "A |   |   |  ",
+                            "-------------",
+                            "B |   |   |  ",
+                            "-------------",
+                            "C | X |   |  ",
+                            "",
+                            "2) O's move: 1a",
+                            "",
+                            "  | 1 | 2 | 3",
+                            "-------------",
+                            "A | O |   |  ",
+                            "-------------",
+                            "B |   |   |  ",
+                            "-------------",
+                            "C | X |   |  ",
+                            "",
+                            "3) X's move: 2c",
+                            "",
+                            "  | 1 | 2 | 3",
+                            "-------------",
+                            "A | O |   |  ",
+                            "-------------",
+                            "B |   |   |  ",
+                            "-------------",
+                            "C | X | X |  ",
+                            "",
+                            "4) O's move: 2a",
+                            "",
+                            "  | 1 | 2 | 3",
+                            "-------------",
+                            "A | O | O |  ",
+                            "-------------",
+                            "B |   |   |  ",
+                            "-------------",
+                            "C | X | X |  ",
+                            "",
+                            "5) X's move: 3c",
+                            "",
+                            "  | 1 | 2 | 3",
+                            "-------------",
+                            "A | O | O |  ",
+                            "-------------",
+                            "B |   |   |  ",
+                            "-------------",
+                            "C | X | X | X",
+                            "",
+                            "X wins!",
+                            ""),
+                        Strings.getLines(output.getText().await()));
+                });
+
+                runner.test("with 4x2 board and three in a row to win", (Test test) ->
+                {
+                    final InMemoryCharacterStream output = InMemoryCharacterStream.create();
+                    final QubTicTacToeParameters parameters = QubTicTacToeTests.createParameters(output, Iterable.create(
+                            "a1",
+                            "b1",
+                            "a2",
+                            "b2",
+                            "a3"))
+                        .setBoardWidth(4)
+                        .setBoardHeight(2)
+                        .setWinLength(3);
+
+                    QubTicTacToe.run(parameters);
+
+                    test.assertEqual(
+                        Iterable.create(
+                            "Welcome to Qub Tic-Tac-Toe!",
+                            "",
+                            "  | 1 | 2 | 3 | 4",
+                            "-----------------",
+                            "A |   |   |   |  ",
+                            "-----------------",
+                            "B |   |   |   |  ",
+                            "",
+                            "1) X's move: a1",
+                            "",
+                            "  | 1 | 2 | 3 | 4",
+                            "-----------------",
+                            "A | X |   |   |  ",
+                            "-----------------",
+                            "B |   |   |   |  ",
+                            "",
+                            "2) O's move: b1",
+                            "",
+                            "  | 1 | 2 | 3 | 4",
+                            "-----------------",
+                            "A | X |   |   |  ",
+                            "-----------------",
+                            "B | O |   |   |  ",
+                            "",
+                            "3) X's move: a2",
+                            "",
+                            "  | 1 | 2 | 3 | 4",
+                            "-----------------",
+                            "A | X | X |   |  ",
+                            "-----------------",
+                            "B | O |   |   |  ",
+                            "",
+                            "4) O's move: b2",
+                            "",
+                            "  | 1 | 2 | 3 | 4",
+                            "-----------------",
+                            "A | X | X |   |  ",
+                            "-----------------",
+                            "B | O | O |   |  ",
+                            "",
+                            "5) X's move: a3",
+                            "",
+                            "  | 1 | 2 | 3 | 4",
+                            "-----------------",
+                            "A | X | X | X |  ",
+                            "-----------------",
+                            "B | O | O |   |  ",
+                            "",
+                            "X wins!",
+                            ""),
+                        Strings.getLines(output.getText().await()));
+                });
+
+                runner.test("with minimax O player that blocks", (Test test) ->
+                {
+                    final InMemoryCharacterStream output = InMemoryCharacterStream.create();
+                    final QubTicTacToeParameters parameters = QubTicTacToeTests.createParameters(output, Iterable.create(
+                            "a1",
+                            "a2",
+                            "exit"))
+                        .setOPlayer("minimax");
+
+                    QubTicTacToe.run(parameters);
+
+                    test.assertEqual(
+                        Iterable.create(
+                            "Welcome to Qub Tic-Tac-Toe!",
+                            "",
+                            "  | 1 | 2 | 3",
+                            "-------------",
+                            "A |   |   |  ",
+                            "-------------",
+                            "B |   |   |  ",
+                            "-------------",
+                            "C |   |   |  ",
+                            "",
+                            "1) X's move: a1",
+                            "",
+                            "  | 1 | 2 | 3",
+                            "-------------",
+                            "A | X |   |  ",
+                            "-------------",
+                            "B |   |   |  ",
+                            "-------------",
+                            "C |   |   |  ",
+                            "",
+                            "2) O's move: b2",
+                            "",
+                            "  | 1 | 2 | 3",
+                            "-------------",
+                            "A | X |   |  ",
+                            "-------------",
+                            "B |   | O |  ",
+                            "-------------",
+                            "C |   |   |  ",
+                            "",
+                            "3) X's move: a2",
+                            "",
+                            "  | 1 | 2 | 3",
+                            "-------------",
+                            "A | X | X |  ",
+                            "-------------",
+                            "B |   | O |  ",
+                            "-------------",
+                            "C |   |   |  ",
+                            "",
+                            "4) O's move: a3",
+                            "",
+                            "  | 1 | 2 | 3",
+                            "-------------",
+                            "A | X | X | O",
+                            "-------------",
+                            "B |   | O |  ",
+                            "-------------",
+                            "C |   |   |  ",
+                            "",
+                            "5) X's move: exit",
+                            ""),
+                        Strings.getLines(output.getText().await()));
+                });
+
+                runner.test("with undo and redo against minimax O player", (Test test) ->
+                {
+                    final InMemoryCharacterStream output = InMemoryCharacterStream.create();
+                    final QubTicTacToeParameters parameters = QubTicTacToeTests.createParameters(output, Iterable.create(
+                            "undo",
+                            "a1",
+                            "undo",
+                            "redo",
+                            "exit"))
+                        .setOPlayer("minimax");
+
+                    QubTicTacToe.run(parameters);
+
+                    // Undo and redo skip over the engine's move, so X can take back a1.
+                    test.assertEqual(
+                        Iterable.create(
+                            "Welcome to Qub Tic-Tac-Toe!",
+                            "",
+                            "  | 1 | 2 | 3",
+                            "-------------",
+                            "A |   |   |  ",
+                            "-------------",
+                            "B |   |   |  ",
+                            "-------------",
+                            "C |   |   |  ",
+                            "",
+                            "1) X's move: undo",
+                            "There are no moves to undo.",
+                            "",
+                            "1) X's move: a1",
+                            "",
+                            "  | 1 | 2 | 3",
+                            "-------------",
+                            "A | X |   |  ",
                             "-------------",
-                            "B | X |   |  ",
+                            "B |   |   |  ",
                             "-------------",
                             "C |   |   |  ",
                             "",
-                            "3) X's move: 2b",
+                            "2) O's move: b2",
                             "",
                             "  | 1 | 2 | 3",
                             "-------------",
-                            "A | O |   |  ",
+                            "A | X |   |  ",
                             "-------------",
-                            "B | X | X |  ",
+                            "B |   | O |  ",
                             "-------------",
                             "C |   |   |  ",
                             "",
-                            "4) O's move: 2a",
+                            "3) X's move: undo",
                             "",
                             "  | 1 | 2 | 3",
                             "-------------",
-                            "A | O | O |  ",
+                            "A |   |   |  ",
                             "-------------",
-                            "B | X | X |  ",
+                            "B |   |   |  ",
                             "-------------",
                             "C |   |   |  ",
                             "",
-                            "5) X's move: 3b",
+                            "1) X's move: redo",
                             "",
                             "  | 1 | 2 | 3",
                             "-------------",
-                            "A | O | O |  ",
+                            "A | X |   |  ",
                             "-------------",
-                            "B | X | X | X",
+                            "B |   | O |  ",
                             "-------------",
                             "C |   |   |  ",
                             "",
-                            "X wins!",
+                            "3) X's move: exit",
                             ""),
                         Strings.getLines(output.getText().await()));
                 });
 
-                runner.test("with bottom row winning game", (Test test) ->
+                runner.test("with line of moves against minimax O player", (Test test) ->
                 {
                     final InMemoryCharacterStream output = InMemoryCharacterStream.create();
                     final QubTicTacToeParameters parameters = QubTicTacToeTests.createParameters(output, Iterable.create(
-                            "1c",
-                            "1a",
-                            "2c",
-                            "2a",
-                            "3c"));
+                            "a1 b1",
+                            "exit"))
+                        .setOPlayer("minimax");
 
                     QubTicTacToe.run(parameters);
 
+                    // X can't use a line of moves to move for the engine.
                     test.assertEqual(
                         Iterable.create(
                             "Welcome to Qub Tic-Tac-Toe!",
@@ -543,60 +1339,520 @@ public interface QubTicTacToeTests
                             "-------------",
                             "C |   |   |  ",
                             "",
-                            "1) X's move: 1c",
-                            "",
-                            "  | 1 | 2 | 3",
-                            "-------------",
-                            "A |   |   |  ",
-                            "-------------",
-                            "B |   |   |  ",
-                            "-------------",
-                            "C | X |   |  ",
-                            "",
-                            "2) O's move: 1a",
-                            "",
-                            "  | 1 | 2 | 3",
-                            "-------------",
-                            "A | O |   |  ",
-                            "-------------",
-                            "B |   |   |  ",
-                            "-------------",
-                            "C | X |   |  ",
-                            "",
-                            "3) X's move: 2c",
-                            "",
-                            "  | 1 | 2 | 3",
-                            "-------------",
-                            "A | O |   |  ",
-                            "-------------",
-                            "B |   |   |  ",
-                            "-------------",
-                            "C | X | X |  ",
-                            "",
-                            "4) O's move: 2a",
+                            "1) X's move: a1 b1",
+                            "\"b1\" wasn't made because it is O's turn.",
                             "",
                             "  | 1 | 2 | 3",
                             "-------------",
-                            "A | O | O |  ",
+                            "A | X |   |  ",
                             "-------------",
                             "B |   |   |  ",
                             "-------------",
-                            "C | X | X |  ",
+                            "C |   |   |  ",
                             "",
-                            "5) X's move: 3c",
+                            "2) O's move: b2",
                             "",
                             "  | 1 | 2 | 3",
                             "-------------",
-                            "A | O | O |  ",
+                            "A | X |   |  ",
                             "-------------",
-                            "B |   |   |  ",
+                            "B |   | O |  ",
                             "-------------",
-                            "C | X | X | X",
+                            "C |   |   |  ",
                             "",
-                            "X wins!",
+                            "3) X's move: exit",
                             ""),
                         Strings.getLines(output.getText().await()));
                 });
+
+                runner.test("with --solve", (Test test) ->
+                {
+                    final InMemoryCharacterStream output = InMemoryCharacterStream.create();
+                    final QubTicTacToeParameters parameters = QubTicTacToeTests.createParameters(output, Iterable.create())
+                        .setSolve(true)
+                        .setThreadCount(2);
+
+                    QubTicTacToe.run(parameters);
+
+                    final String[] lines = output.getText().await().split("\n");
+                    test.assertEqual(3, lines.length);
+                    test.assertEqual("Solving 3x3 (3 in a row)...", lines[0]);
+                    test.assertTrue(lines[1].startsWith("Threads: 1, Result: draw, Nodes: "));
+                    test.assertTrue(lines[2].startsWith("Threads: 2, Result: draw, Nodes: "));
+                });
+
+                runner.test("with --protocol", (Test test) ->
+                {
+                    final InMemoryCharacterStream output = InMemoryCharacterStream.create();
+                    final InMemoryCharacterStream input = InMemoryCharacterStream.create("isready\nmove a1\ngo\nquit\nisready\n").endOfStream();
+                    final QubTicTacToeParameters parameters = QubTicTacToeParameters.create(output, input)
+                        .setProtocol(true);
+
+                    QubTicTacToe.run(parameters);
+
+                    test.assertEqual(
+                        Iterable.create(
+                            "readyok",
+                            "ok",
+                            "bestmove b2"),
+                        Strings.getLines(output.getText().await()));
+                });
+
+                runner.test("with --simulate", (Test test) ->
+                {
+                    final InMemoryCharacterStream output = InMemoryCharacterStream.create();
+                    final QubTicTacToeParameters parameters = QubTicTacToeTests.createParameters(output, Iterable.create())
+                        .setXPlayer("random")
+                        .setOPlayer("minimax")
+                        .setSimulateGameCount(20)
+                        .setThreadCount(2);
+
+                    QubTicTacToe.run(parameters);
+
+                    final String[] lines = output.getText().await().split("\n");
+                    test.assertEqual(4, lines.length);
+                    test.assertEqual("Simulating 20 games on 3x3 (3 in a row) between X (random) and O (minimax)...", lines[0]);
+                    test.assertTrue(lines[1].startsWith("X wins: 0 (0.0%), O wins: "));
+                    test.assertTrue(lines[2].startsWith("Average game length: "));
+                    test.assertTrue(lines[3].startsWith("Threads: 2, Time: "));
+                });
+
+                runner.test("with --tournament", (Test test) ->
+                {
+                    final InMemoryCharacterStream output = InMemoryCharacterStream.create();
+                    final QubTicTacToeParameters parameters = QubTicTacToeTests.createParameters(output, Iterable.create())
+                        .setTournamentPlayers(Iterable.create("random", "minimax"))
+                        .setTournamentGamesPerPairing(10)
+                        .setThreadCount(2);
+
+                    QubTicTacToe.run(parameters);
+
+                    final String[] lines = output.getText().await().split("\n");
+                    test.assertEqual(6, lines.length);
+                    test.assertEqual("Playing a round-robin tournament of 1 round with 10 games per pairing on 3x3 (3 in a row) between 2 players...", lines[0]);
+                    test.assertEqual("Rank  Player    Games    Wins   Draws  Losses   Score  Elo (95% CI)", lines[1]);
+                    test.assertTrue(lines[2].startsWith("   1  minimax      10  "));
+                    test.assertTrue(lines[3].startsWith("   2  random       10       0  "));
+                    test.assertTrue(lines[4].startsWith("Average game length: "));
+                    test.assertTrue(lines[5].startsWith("Threads: 2, Time: "));
+                });
+
+                runner.test("with --simulate and --record", (Test test) ->
+                {
+                    final java.nio.file.Path folder = QubTicTacToeGameArchiveTests.createTemporaryFolder();
+                    try
+                    {
+                        final String recordFilePath = folder.resolve("games.bin").toString();
+                        final InMemoryCharacterStream output = InMemoryCharacterStream.create();
+                        final QubTicTacToeParameters parameters = QubTicTacToeTests.createParameters(output, Iterable.create())
+                            .setXPlayer("random")
+                            .setOPlayer("random")
+                            .setSimulateGameCount(20)
+                            .setThreadCount(2)
+                            .setRecordFilePath(recordFilePath);
+
+                        QubTicTacToe.run(parameters);
+
+                        final String[] lines = output.getText().await().split("\n");
+                        test.assertEqual(5, lines.length);
+                        test.assertEqual("Recorded 20 games to " + recordFilePath + ".", lines[4]);
+
+                        try (final QubTicTacToeGameArchive archive = QubTicTacToeGameArchive.open(recordFilePath).await())
+                        {
+                            test.assertEqual(20L, archive.getGameCount());
+                            for (int gameId = 0; gameId < 20; ++gameId)
+                            {
+                                final QubTicTacToeGameRecord record = archive.get(gameId);
+                                test.assertEqual("random", record.getXPlayer());
+                                test.assertTrue(record.getResult() != QubTicTacToeSessionStore.inProgress);
+                            }
+                        }
+                    }
+                    finally
+                    {
+                        QubTicTacToeGameArchiveTests.deleteFolder(folder);
+                    }
+                });
+
+                runner.test("with --analyze and archive that doesn't exist", (Test test) ->
+                {
+                    final java.nio.file.Path folder = QubTicTacToeGameArchiveTests.createTemporaryFolder();
+                    try
+                    {
+                        final String analyzeFilePath = folder.resolve("games.bin").toString();
+                        final InMemoryCharacterStream output = InMemoryCharacterStream.create();
+                        final QubTicTacToeParameters parameters = QubTicTacToeTests.createParameters(output, Iterable.create())
+                            .setAnalyzeFilePath(analyzeFilePath);
+
+                        QubTicTacToe.run(parameters);
+
+                        test.assertEqual(
+                            Iterable.create("Could not open the game archive " + Strings.escapeAndQuote(analyzeFilePath) + "."),
+                            Strings.getLines(output.getText().await()));
+                        test.assertFalse(java.nio.file.Files.exists(folder.resolve("games.bin")));
+                    }
+                    finally
+                    {
+                        QubTicTacToeGameArchiveTests.deleteFolder(folder);
+                    }
+                });
+
+                runner.test("with --analyze", (Test test) ->
+                {
+                    final java.nio.file.Path folder = QubTicTacToeGameArchiveTests.createTemporaryFolder();
+                    try
+                    {
+                        final String recordFilePath = folder.resolve("games.bin").toString();
+                        QubTicTacToe.run(QubTicTacToeTests.createParameters(InMemoryCharacterStream.create(), Iterable.create())
+                            .setXPlayer("minimax")
+                            .setOPlayer("minimax")
+                            .setSimulateGameCount(10)
+                            .setThreadCount(2)
+                            .setRecordFilePath(recordFilePath));
+
+                        final InMemoryCharacterStream output = InMemoryCharacterStream.create();
+                        final QubTicTacToeParameters parameters = QubTicTacToeTests.createParameters(output, Iterable.create())
+                            .setThreadCount(2)
+                            .setAnalyzeFilePath(recordFilePath);
+
+                        QubTicTacToe.run(parameters);
+
+                        final String[] lines = output.getText().await().split("\n");
+                        test.assertEqual("Analyzing 10 games in " + recordFilePath + "...", lines[0]);
+                        test.assertEqual("3x3 (3 in a row): 10 games", lines[1]);
+                        test.assertEqual("  X wins: 0 (0.0%), O wins: 0 (0.0%), Draws: 10 (100.0%), Unfinished: 0 (0.0%)", lines[2]);
+                        test.assertEqual("  Blunders: X: 0 (0.00 per game), O: 0 (0.00 per game), Games with a blunder: 0 (0.0%)", lines[lines.length - 2]);
+                        test.assertTrue(lines[lines.length - 1].startsWith("Threads: 1, Time: "));
+                    }
+                    finally
+                    {
+                        QubTicTacToeGameArchiveTests.deleteFolder(folder);
+                    }
+                });
+
+                runner.test("with --build-book and no --book-games or engine", (Test test) ->
+                {
+                    try (final QubProcess process = QubProcess.create("--build-book=book.bin"))
+                    {
+                        final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                        final InMemoryCharacterToByteStream input = InMemoryCharacterToByteStream.create().endOfStream();
+
+                        process.setOutputWriteStream(output);
+                        process.setInputReadStream(input);
+
+                        test.assertNull(QubTicTacToe.getParameters(process));
+                        test.assertEqual(
+                            Iterable.create("--build-book requires either --book-games or an --x-player engine to search with."),
+                            Strings.getLines(output.getText().await()));
+                    }
+                });
+
+                runner.test("with --build-book and --book-games", (Test test) ->
+                {
+                    final java.nio.file.Path folder = QubTicTacToeGameArchiveTests.createTemporaryFolder();
+                    try
+                    {
+                        final String recordFilePath = folder.resolve("games.bin").toString();
+                        QubTicTacToe.run(QubTicTacToeTests.createParameters(InMemoryCharacterStream.create(), Iterable.create())
+                            .setXPlayer("random")
+                            .setOPlayer("random")
+                            .setSimulateGameCount(10)
+                            .setThreadCount(2)
+                            .setRecordFilePath(recordFilePath));
+
+                        final String bookFilePath = folder.resolve("book.bin").toString();
+                        final InMemoryCharacterStream output = InMemoryCharacterStream.create();
+                        QubTicTacToe.run(QubTicTacToeTests.createParameters(output, Iterable.create())
+                            .setBuildBookFilePath(bookFilePath)
+                            .setBookGamesFilePath(recordFilePath)
+                            .setBookDepth(1));
+
+                        test.assertEqual(
+                            Iterable.create(
+                                "Building a 1-ply opening book for 3x3 (3 in a row) from " + recordFilePath + "...",
+                                "Used 10 of the 10 games.",
+                                "Wrote 1 positions to " + bookFilePath + "."),
+                            Strings.getLines(output.getText().await()));
+
+                        final QubTicTacToeOpeningBook book = QubTicTacToeOpeningBook.open(bookFilePath).await();
+                        test.assertEqual(1, book.getDepth());
+                        test.assertEqual(1L, book.getEntryCount());
+                    }
+                    finally
+                    {
+                        QubTicTacToeGameArchiveTests.deleteFolder(folder);
+                    }
+                });
+
+                runner.test("with --build-book and --book", (Test test) ->
+                {
+                    final java.nio.file.Path folder = QubTicTacToeGameArchiveTests.createTemporaryFolder();
+                    try
+                    {
+                        final String bookFilePath = folder.resolve("book.bin").toString();
+                        final InMemoryCharacterStream buildOutput = InMemoryCharacterStream.create();
+                        QubTicTacToe.run(QubTicTacToeTests.createParameters(buildOutput, Iterable.create())
+                            .setXPlayer("minimax")
+                            .setThreadCount(2)
+                            .setBuildBookFilePath(bookFilePath)
+                            .setBookDepth(2));
+
+                        test.assertEqual(
+                            Iterable.create(
+                                "Building a 2-ply opening book for 3x3 (3 in a row) by searching with minimax...",
+                                "Searched 4 positions.",
+                                "Wrote 4 positions to " + bookFilePath + "."),
+                            Strings.getLines(buildOutput.getText().await()));
+
+                        final InMemoryCharacterStream output = InMemoryCharacterStream.create();
+                        QubTicTacToe.run(QubTicTacToeTests.createParameters(output, Iterable.create())
+                            .setXPlayer("minimax")
+                            .setOPlayer("minimax")
+                            .setSimulateGameCount(4)
+                            .setThreadCount(2)
+                            .setBookFilePath(bookFilePath));
+
+                        final String[] lines = output.getText().await().split("\n");
+                        test.assertEqual("X wins: 0 (0.0%), O wins: 0 (0.0%), Draws: 4 (100.0%)", lines[1]);
+                    }
+                    finally
+                    {
+                        QubTicTacToeGameArchiveTests.deleteFolder(folder);
+                    }
+                });
+
+                runner.test("with --book that doesn't exist", (Test test) ->
+                {
+                    final java.nio.file.Path folder = QubTicTacToeGameArchiveTests.createTemporaryFolder();
+                    try
+                    {
+                        final String bookFilePath = folder.resolve("book.bin").toString();
+                        final InMemoryCharacterStream output = InMemoryCharacterStream.create();
+                        QubTicTacToe.run(QubTicTacToeTests.createParameters(output, Iterable.create())
+                            .setXPlayer("minimax")
+                            .setOPlayer("minimax")
+                            .setBookFilePath(bookFilePath));
+
+                        test.assertEqual(
+                            Iterable.create("Could not open the opening book " + Strings.escapeAndQuote(bookFilePath) + "."),
+                            Strings.getLines(output.getText().await()));
+                    }
+                    finally
+                    {
+                        QubTicTacToeGameArchiveTests.deleteFolder(folder);
+                    }
+                });
+
+                runner.test("with --validate", (Test test) ->
+                {
+                    final java.nio.file.Path folder = QubTicTacToeGameArchiveTests.createTemporaryFolder();
+                    try
+                    {
+                        final java.nio.file.Path validateFilePath = folder.resolve("games.txt");
+                        QubTicTacToeGameArchiveTests.writeFile(validateFilePath, "a1 b1 a2 b2 a3\nb2 a1 b2\n\n");
+
+                        final InMemoryCharacterStream output = InMemoryCharacterStream.create();
+                        QubTicTacToe.run(QubTicTacToeTests.createParameters(output, Iterable.create())
+                            .setThreadCount(2)
+                            .setValidateFilePath(validateFilePath.toString()));
+
+                        final String[] lines = output.getText().await().split("\n");
+                        test.assertEqual(5, lines.length);
+                        test.assertEqual("1: X wins after 5 moves.", lines[0]);
+                        test.assertEqual("2: Move 3 \"b2\" is already taken by \"X\".", lines[1]);
+                        test.assertEqual("3: Unfinished after 0 moves.", lines[2]);
+                        test.assertEqual("X wins: 1, O wins: 0, Ties: 0, Unfinished: 1, Invalid: 1", lines[3]);
+                        test.assertTrue(lines[4].startsWith("Threads: 2, Time: "));
+                    }
+                    finally
+                    {
+                        QubTicTacToeGameArchiveTests.deleteFolder(folder);
+                    }
+                });
+
+                runner.test("with --validate file that doesn't exist", (Test test) ->
+                {
+                    final java.nio.file.Path folder = QubTicTacToeGameArchiveTests.createTemporaryFolder();
+                    try
+                    {
+                        final String validateFilePath = folder.resolve("games.txt").toString();
+                        final InMemoryCharacterStream output = InMemoryCharacterStream.create();
+                        QubTicTacToe.run(QubTicTacToeTests.createParameters(output, Iterable.create())
+                            .setValidateFilePath(validateFilePath));
+
+                        test.assertEqual(
+                            Iterable.create("Could not read the move scripts " + Strings.escapeAndQuote(validateFilePath) + "."),
+                            Strings.getLines(output.getText().await()));
+                    }
+                    finally
+                    {
+                        QubTicTacToeGameArchiveTests.deleteFolder(folder);
+                    }
+                });
+
+                runner.test("with --retrograde and --tablebase", (Test test) ->
+                {
+                    final java.nio.file.Path folder = QubTicTacToeGameArchiveTests.createTemporaryFolder();
+                    try
+                    {
+                        final String tablebaseFilePath = folder.resolve("tablebase.bin").toString();
+                        final InMemoryCharacterStream generateOutput = InMemoryCharacterStream.create();
+                        QubTicTacToe.run(QubTicTacToeTests.createParameters(generateOutput, Iterable.create())
+                            .setThreadCount(2)
+                            .setRetrogradeFilePath(tablebaseFilePath));
+
+                        final String[] generateLines = generateOutput.getText().await().split("\n");
+                        test.assertEqual(3, generateLines.length);
+                        test.assertEqual("Generating the 19683-entry tablebase for 3x3 (3 in a row) with 2 threads...", generateLines[0]);
+                        test.assertTrue(generateLines[1].startsWith("Wrote 19691 bytes to " + tablebaseFilePath + " in "));
+                        test.assertEqual("The empty board is a draw for X after 9 moves.", generateLines[2]);
+
+                        // Random engines that consult the tablebase play perfectly, so every game is a draw.
+                        final InMemoryCharacterStream output = InMemoryCharacterStream.create();
+                        QubTicTacToe.run(QubTicTacToeTests.createParameters(output, Iterable.create())
+                            .setXPlayer("random")
+                            .setOPlayer("random")
+                            .setSimulateGameCount(10)
+                            .setThreadCount(2)
+                            .setTablebaseFilePath(tablebaseFilePath));
+
+                        final String[] lines = output.getText().await().split("\n");
+                        test.assertEqual("X wins: 0 (0.0%), O wins: 0 (0.0%), Draws: 10 (100.0%)", lines[1]);
+                    }
+                    finally
+                    {
+                        QubTicTacToeGameArchiveTests.deleteFolder(folder);
+                    }
+                });
+
+                runner.test("with --tablebase for a different board", (Test test) ->
+                {
+                    final java.nio.file.Path folder = QubTicTacToeGameArchiveTests.createTemporaryFolder();
+                    try
+                    {
+                        final java.nio.file.Path tablebaseFilePath = folder.resolve("tablebase.bin");
+                        QubTicTacToeTablebase.create(QubTicTacToeGeometry.create(), 1).save(tablebaseFilePath).await();
+
+                        final InMemoryCharacterStream output = InMemoryCharacterStream.create();
+                        QubTicTacToe.run(QubTicTacToeTests.createParameters(output, Iterable.create())
+                            .setBoardWidth(4)
+                            .setXPlayer("minimax")
+                            .setOPlayer("minimax")
+                            .setTablebaseFilePath(tablebaseFilePath.toString()));
+
+                        test.assertEqual(
+                            Iterable.create("The tablebase " + Strings.escapeAndQuote(tablebaseFilePath.toString()) + " is for 3x3 (3 in a row), not 4x3 (3 in a row)."),
+                            Strings.getLines(output.getText().await()));
+                    }
+                    finally
+                    {
+                        QubTicTacToeGameArchiveTests.deleteFolder(folder);
+                    }
+                });
+
+                runner.test("with --metrics and moves", (Test test) ->
+                {
+                    final InMemoryCharacterStream output = InMemoryCharacterStream.create();
+                    final QubTicTacToeMetrics metrics = QubTicTacToeMetrics.create();
+                    final QubTicTacToeParameters parameters = QubTicTacToeTests.createParameters(output, Iterable.create(
+                            "2b",
+                            "2b",
+                            "d1",
+                            "a1 c3",
+                            "exit"))
+                        .setMetrics(metrics);
+
+                    QubTicTacToe.run(parameters);
+
+                    test.assertEqual(1L, metrics.getGamesStarted());
+                    test.assertEqual(0L, metrics.getGamesFinished());
+                    test.assertEqual(3L, metrics.getMovesMade());
+                    test.assertEqual(2L, metrics.getInvalidMoves());
+                    test.assertEqual(5L, metrics.getPhase(QubTicTacToeMetrics.inputWait).getCount());
+                    test.assertEqual(3L, metrics.getPhase(QubTicTacToeMetrics.moveParse).getCount());
+                    test.assertEqual(3L, metrics.getPhase(QubTicTacToeMetrics.modelUpdate).getCount());
+                    test.assertEqual(0L, metrics.getPhase(QubTicTacToeMetrics.engineThink).getCount());
+                    test.assertEqual(3L, metrics.getPhase(QubTicTacToeMetrics.render).getCount());
+                });
+
+                runner.test("with --metrics and engine players", (Test test) ->
+                {
+                    final InMemoryCharacterStream output = InMemoryCharacterStream.create();
+                    final QubTicTacToeMetrics metrics = QubTicTacToeMetrics.create();
+                    final QubTicTacToeParameters parameters = QubTicTacToeTests.createParameters(output, Iterable.create())
+                        .setXPlayer("minimax")
+                        .setOPlayer("minimax")
+                        .setMetrics(metrics);
+
+                    QubTicTacToe.run(parameters);
+
+                    test.assertEqual(1L, metrics.getGamesStarted());
+                    test.assertEqual(1L, metrics.getGamesFinished());
+                    test.assertEqual(9L, metrics.getMovesMade());
+                    test.assertEqual(9L, metrics.getPhase(QubTicTacToeMetrics.engineThink).getCount());
+                    test.assertEqual(9L, metrics.getPhase(QubTicTacToeMetrics.modelUpdate).getCount());
+                    // The board is written before each move and once more with the result.
+                    test.assertEqual(10L, metrics.getPhase(QubTicTacToeMetrics.render).getCount());
+                });
+
+                runner.test("with --simulate and --metrics", (Test test) ->
+                {
+                    final java.nio.file.Path folder = QubTicTacToeGameArchiveTests.createTemporaryFolder();
+                    try
+                    {
+                        final java.nio.file.Path metricsFilePath = folder.resolve("metrics.json");
+                        final InMemoryCharacterStream output = InMemoryCharacterStream.create();
+                        final QubTicTacToeParameters parameters = QubTicTacToeTests.createParameters(output, Iterable.create())
+                            .setXPlayer("random")
+                            .setOPlayer("random")
+                            .setSimulateGameCount(20)
+                            .setThreadCount(2)
+                            .setMetrics(QubTicTacToeMetrics.create())
+                            .setMetricsFilePath(metricsFilePath.toString());
+
+                        QubTicTacToe.run(parameters);
+
+                        test.assertEqual(20L, parameters.getMetrics().getGamesStarted());
+                        test.assertEqual(20L, parameters.getMetrics().getGamesFinished());
+                        final String json = new String(java.nio.file.Files.readAllBytes(metricsFilePath), java.nio.charset.StandardCharsets.UTF_8);
+                        test.assertTrue(json.startsWith("{\"elapsedNanoseconds\":"));
+                        test.assertTrue(json.contains(",\"gamesStarted\":20,\"gamesFinished\":20,\"movesMade\":" + parameters.getMetrics().getMovesMade() + ",\"invalidMoves\":0,"));
+                        test.assertTrue(json.contains("\"inputWait\":{\"count\":0,\"totalNanoseconds\":0,\"meanNanoseconds\":0,\"p50Nanoseconds\":0,\"p99Nanoseconds\":0,\"maximumNanoseconds\":0,\"buckets\":[]}"));
+                        test.assertTrue(json.contains("\"engineThink\":{\"count\":" + parameters.getMetrics().getMovesMade() + ","));
+                        test.assertTrue(json.endsWith("}}\n"));
+                    }
+                    catch (java.io.IOException e)
+                    {
+                        throw new RuntimeException(e);
+                    }
+                    finally
+                    {
+                        QubTicTacToeGameArchiveTests.deleteFolder(folder);
+                    }
+                });
+
+                runner.test("with --simulate and --summary", (Test test) ->
+                {
+                    final InMemoryCharacterStream output = InMemoryCharacterStream.create();
+                    final QubTicTacToeParameters parameters = QubTicTacToeTests.createParameters(output, Iterable.create())
+                        .setXPlayer("random")
+                        .setOPlayer("random")
+                        .setSimulateGameCount(10)
+                        .setThreadCount(1)
+                        .setMetrics(QubTicTacToeMetrics.create())
+                        .setSummaryInterval(3600);
+
+                    QubTicTacToe.run(parameters);
+
+                    final String[] lines = output.getText().await().split("\n");
+                    test.assertEqual(7, lines.length);
+                    test.assertTrue(lines[3].startsWith("Threads: 1, Time: "));
+                    test.assertTrue(lines[4].startsWith("Metrics after "));
+                    test.assertTrue(lines[4].contains(": Games started: 10, Games finished: 10, Moves: "));
+                    test.assertTrue(lines[4].endsWith(", Invalid moves: 0"));
+                    test.assertTrue(lines[5].startsWith("  Model update: "));
+                    test.assertTrue(lines[6].startsWith("  Engine think: "));
+                });
             });
         });
     }
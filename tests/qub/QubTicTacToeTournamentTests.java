@@ -0,0 +1,193 @@
+package qub;
+
+public interface QubTicTacToeTournamentTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(QubTicTacToeTournament.class, () ->
+        {
+            runner.testGroup("create(QubTicTacToeGeometry,Iterable<String>,int)", () ->
+            {
+                runner.test("with one player", (Test test) ->
+                {
+                    test.assertThrows(() -> QubTicTacToeTournament.create(QubTicTacToeGeometry.create(), Iterable.create("random"), 1),
+                        new PreConditionFailure("players.getCount() (1) must be greater than or equal to 2."));
+                });
+
+                runner.test("with 0 threads", (Test test) ->
+                {
+                    test.assertThrows(() -> QubTicTacToeTournament.create(QubTicTacToeGeometry.create(), Iterable.create("random", "minimax"), 0),
+                        new PreConditionFailure("threadCount (0) must be greater than or equal to 1."));
+                });
+            });
+
+            runner.testGroup("getGameCount()", () ->
+            {
+                runner.test("with round-robin pairing", (Test test) ->
+                {
+                    final QubTicTacToeTournament tournament = QubTicTacToeTournament.create(QubTicTacToeGeometry.create(), Iterable.create("random", "random", "minimax", "mcts:10"), 1)
+                        .setRoundCount(3)
+                        .setGamesPerPairing(4);
+                    test.assertEqual(6, tournament.getPairingsPerRound());
+                    test.assertEqual(72L, tournament.getGameCount());
+                });
+
+                runner.test("with swiss pairing and an odd number of players", (Test test) ->
+                {
+                    final QubTicTacToeTournament tournament = QubTicTacToeTournament.create(QubTicTacToeGeometry.create(), Iterable.create("random", "random", "minimax"), 1)
+                        .setPairing(QubTicTacToeTournament.swiss)
+                        .setRoundCount(3)
+                        .setGamesPerPairing(4);
+                    test.assertEqual(1, tournament.getPairingsPerRound());
+                    test.assertEqual(12L, tournament.getGameCount());
+                });
+            });
+
+            runner.testGroup("getSwissPairings(long[][],long[][],int[])", () ->
+            {
+                runner.test("pairs players by score", (Test test) ->
+                {
+                    final long[][] winCounts = new long[4][4];
+                    final long[][] drawCounts = new long[4][4];
+                    winCounts[3][0] = 2;
+                    winCounts[2][1] = 1;
+                    drawCounts[2][1] = 1;
+                    drawCounts[1][2] = 1;
+                    final int[][] pairings = QubTicTacToeTournament.getSwissPairings(winCounts, drawCounts, new int[4]);
+                    test.assertEqual(2, pairings.length);
+                    test.assertEqual(3, pairings[0][0]);
+                    test.assertEqual(2, pairings[0][1]);
+                    test.assertEqual(1, pairings[1][0]);
+                    test.assertEqual(0, pairings[1][1]);
+                });
+
+                runner.test("avoids rematches", (Test test) ->
+                {
+                    final long[][] winCounts = new long[4][4];
+                    final long[][] drawCounts = new long[4][4];
+                    winCounts[0][1] = 2;
+                    winCounts[2][3] = 1;
+                    winCounts[3][2] = 1;
+                    final int[][] pairings = QubTicTacToeTournament.getSwissPairings(winCounts, drawCounts, new int[4]);
+                    test.assertEqual(0, pairings[0][0]);
+                    test.assertEqual(2, pairings[0][1]);
+                    test.assertEqual(3, pairings[1][0]);
+                    test.assertEqual(1, pairings[1][1]);
+                });
+
+                runner.test("gives the bye to the lowest player without one", (Test test) ->
+                {
+                    final long[][] winCounts = new long[3][3];
+                    final long[][] drawCounts = new long[3][3];
+                    final int[] byeCounts = new int[3];
+                    winCounts[0][1] = 1;
+                    byeCounts[2] = 1;
+                    final int[][] pairings = QubTicTacToeTournament.getSwissPairings(winCounts, drawCounts, byeCounts);
+                    test.assertEqual(1, pairings.length);
+                    test.assertEqual(0, pairings[0][0]);
+                    test.assertEqual(2, pairings[0][1]);
+                    test.assertEqual(1, byeCounts[1]);
+                });
+            });
+
+            runner.testGroup("run()", () ->
+            {
+                runner.test("with round-robin pairing", (Test test) ->
+                {
+                    final QubTicTacToeTournamentResult result = QubTicTacToeTournament.create(QubTicTacToeGeometry.create(), Iterable.create("random", "minimax", "random"), 3)
+                        .setRoundCount(2)
+                        .setGamesPerPairing(5)
+                        .run();
+                    test.assertEqual(30L, result.getGameCount());
+                    for (int player = 0; player < 3; ++player)
+                    {
+                        test.assertEqual(20L, result.getGameCount(player));
+                        for (int opponent = player + 1; opponent < 3; ++opponent)
+                        {
+                            test.assertEqual(10L, result.getGameCount(player, opponent));
+                        }
+                    }
+                    test.assertEqual(0L, result.getLossCount(1));
+                    test.assertEqual(1, result.getRanking()[0]);
+                    test.assertTrue(result.getElo(1) > 0);
+                    test.assertTrue(result.getMoveCount() >= 30 * 5);
+                    test.assertEqual(3, result.getThreadCount());
+                });
+
+                runner.test("with swiss pairing", (Test test) ->
+                {
+                    final QubTicTacToeTournamentResult result = QubTicTacToeTournament.create(QubTicTacToeGeometry.create(), Iterable.create("random", "random", "minimax"), 2)
+                        .setPairing(QubTicTacToeTournament.swiss)
+                        .setRoundCount(3)
+                        .setGamesPerPairing(2)
+                        .run();
+                    test.assertEqual(6L, result.getGameCount());
+                    for (int player = 0; player < 3; ++player)
+                    {
+                        test.assertEqual(4L, result.getGameCount(player));
+                    }
+                });
+            });
+
+            runner.testGroup("writeResults(CharacterWriteStream)", () ->
+            {
+                runner.test("with swiss pairing", (Test test) ->
+                {
+                    final InMemoryCharacterStream output = InMemoryCharacterStream.create();
+                    QubTicTacToeTournament.create(QubTicTacToeGeometry.create(), Iterable.create("minimax", "minimax:1"), 1)
+                        .setPairing(QubTicTacToeTournament.swiss)
+                        .setRoundCount(2)
+                        .setGamesPerPairing(1)
+                        .writeResults(output);
+
+                    final String[] lines = output.getText().await().split("\n");
+                    test.assertEqual(8, lines.length);
+                    test.assertEqual("Playing a swiss tournament of 2 rounds with 1 game per pairing on 3x3 (3 in a row) between 2 players...", lines[0]);
+                    test.assertTrue(lines[1].startsWith("Round 1 of 2: 1 of 2 games, leader "));
+                    test.assertTrue(lines[2].startsWith("Round 2 of 2: 2 of 2 games, leader "));
+                    test.assertEqual("Rank  Player      Games    Wins   Draws  Losses   Score  Elo (95% CI)", lines[3]);
+                    test.assertTrue(lines[5].startsWith("   2  "));
+                    test.assertTrue(lines[6].startsWith("Average game length: "));
+                    test.assertTrue(lines[7].startsWith("Threads: 1, Time: "));
+                });
+            });
+        });
+
+        runner.testGroup(QubTicTacToeTournamentResult.class, () ->
+        {
+            runner.test("with one player winning three of four games", (Test test) ->
+            {
+                final long[][] winCounts = new long[][] { { 0, 3 }, { 1, 0 } };
+                final long[][] drawCounts = new long[2][2];
+                final QubTicTacToeTournamentResult result = QubTicTacToeTournamentResult.create(new String[] { "a", "b" }, winCounts, drawCounts, 28, 1, 1000000000);
+                test.assertEqual(4L, result.getGameCount());
+                test.assertEqual(3.0, result.getScore(0));
+                test.assertEqual(1L, result.getLossCount(0));
+                test.assertEqual(7.0, result.getAverageGameLength());
+                test.assertEqual(4.0, result.getGamesPerSecond());
+
+                // With the extra draw, a scores 3.5 of 5 games, so a is 400 * log10(0.7 / 0.3) Elo stronger than b.
+                final double expectedDifference = 400 * Math.log10(0.7 / 0.3);
+                test.assertTrue(Math.abs(result.getElo(0) - expectedDifference / 2) < 0.01);
+                test.assertTrue(Math.abs(result.getElo(1) + expectedDifference / 2) < 0.01);
+                test.assertTrue(result.getEloError(0) > 0);
+                test.assertTrue(Math.abs(result.getEloError(0) - result.getEloError(1)) < 0.01);
+            });
+
+            runner.test("with player that hasn't played", (Test test) ->
+            {
+                final long[][] winCounts = new long[3][3];
+                final long[][] drawCounts = new long[3][3];
+                winCounts[0][1] = 2;
+                final QubTicTacToeTournamentResult result = QubTicTacToeTournamentResult.create(new String[] { "a", "b", "c" }, winCounts, drawCounts, 10, 1, 0);
+                test.assertEqual(0L, result.getGameCount(2));
+                test.assertEqual(0.0, result.getElo(2));
+                test.assertEqual(Double.POSITIVE_INFINITY, result.getEloError(2));
+                test.assertEqual(0.0, result.getGamesPerSecond());
+                test.assertEqual(0, result.getRanking()[0]);
+                test.assertEqual(2, result.getRanking()[1]);
+                test.assertEqual(1, result.getRanking()[2]);
+            });
+        });
+    }
+}